@@ -0,0 +1,119 @@
+package me.soilmonitoring.api.alerts;
+
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.entities.Metric;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Snapshot of the stored rules, indexed by scope, from which the rules of a
+ * field are resolved.
+ *
+ * For each metric the most specific scope defining rules wins: field, then
+ * crop, then soil type, then the stored defaults, then {@link #builtIn()};
+ * windowed rules are resolved the same way but separately.
+ */
+public final class AlertRuleBook {
+
+    private final List<AlertRule> defaults = new ArrayList<>();
+    private final Map<String, List<AlertRule>> bySoil = new HashMap<>();
+    private final Map<String, List<AlertRule>> byCrop = new HashMap<>();
+    private final Map<String, List<AlertRule>> byField = new HashMap<>();
+    private final String fingerprint;
+
+    public AlertRuleBook(List<AlertRule> stored) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (AlertRule rule : stored) {
+            String scope = rule.getScope() != null ? rule.getScope() : AlertRule.DEFAULT;
+            switch (scope) {
+                case AlertRule.SOIL -> bySoil.computeIfAbsent(key(rule.getScopeValue()), k -> new ArrayList<>()).add(rule);
+                case AlertRule.CROP -> byCrop.computeIfAbsent(key(rule.getScopeValue()), k -> new ArrayList<>()).add(rule);
+                case AlertRule.FIELD -> byField.computeIfAbsent(rule.getScopeValue(), k -> new ArrayList<>()).add(rule);
+                default -> defaults.add(rule);
+            }
+            fingerprint.append(rule.getId()).append(':').append(rule.getVersion()).append(',');
+        }
+        this.fingerprint = fingerprint.toString();
+    }
+
+    /**
+     * Identifies the stored rules: equal when no rule was added, changed or removed,
+     * given the rules are listed in the same order.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @param field the field, or null for a reading of an unknown field
+     * @return the rules applying to the field
+     */
+    public List<AlertRule> resolve(Field field) {
+        List<List<AlertRule>> scopes = new ArrayList<>(5);
+        if (field != null) {
+            scopes.add(byField.getOrDefault(field.getId(), List.of()));
+            scopes.add(byCrop.getOrDefault(key(field.getCurrentCrop()), List.of()));
+            scopes.add(bySoil.getOrDefault(key(field.getSoilType()), List.of()));
+        }
+        scopes.add(defaults);
+        scopes.add(builtIn());
+
+        List<AlertRule> resolved = new ArrayList<>();
+        // Single-reading and windowed rules of a metric are resolved independently
+        for (boolean windowed : new boolean[]{false, true}) {
+            for (Metric metric : Metric.all()) {
+                for (List<AlertRule> scope : scopes) {
+                    List<AlertRule> metricRules = scope.stream()
+                            .filter(rule -> metric.getJsonName().equalsIgnoreCase(rule.getMetric())
+                                    || metric.name().equalsIgnoreCase(rule.getMetric()))
+                            .filter(rule -> AlertRuleTable.isWindowed(rule) == windowed)
+                            .toList();
+                    if (!metricRules.isEmpty()) {
+                        resolved.addAll(metricRules);
+                        break;
+                    }
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private static String key(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * The limits applied to every field unless stored rules replace them.
+     */
+    public static List<AlertRule> builtIn() {
+        return BUILT_IN;
+    }
+
+    private static final List<AlertRule> BUILT_IN = List.of(
+            rule("temperature", AlertRule.BELOW, 15, "temperature", "high", "Temperature critically low: {value}°C", 1, 0),
+            rule("temperature", AlertRule.ABOVE, 35, "temperature", "high", "Temperature critically high: {value}°C", 1, 1),
+            rule("temperature", AlertRule.BELOW, 18, "temperature", "medium", "Temperature approaching limits: {value}°C", 1, 2),
+            rule("temperature", AlertRule.ABOVE, 32, "temperature", "medium", "Temperature approaching limits: {value}°C", 1, 3),
+            rule("nitrogen", AlertRule.BELOW, 30, "npk_deficiency", "high", "Low nitrogen levels detected: {value} mg/kg", 1, 0),
+            rule("phosphorus", AlertRule.BELOW, 15, "npk_deficiency", "medium", "Low phosphorus levels detected: {value} mg/kg", 1, 0),
+            rule("potassium", AlertRule.BELOW, 100, "npk_deficiency", "medium", "Low potassium levels detected: {value} mg/kg", 1, 0),
+            rule("humidity", AlertRule.BELOW, 40, "humidity", "medium", "Low humidity: {value}%", 1, 0),
+            rule("humidity", AlertRule.ABOVE, 80, "humidity", "medium", "High humidity: {value}%", 1, 1),
+            rule("soilMoisture", AlertRule.BELOW, 20, "moisture", "high", "Low soil moisture: {value}%", 1, 0),
+            rule("soilMoisture", AlertRule.ABOVE, 60, "moisture", "medium", "High soil moisture: {value}%", 1, 1),
+            rule("pH", AlertRule.BELOW, 6.0, "ph", "medium", "pH out of optimal range: {value}", 2, 0),
+            rule("pH", AlertRule.ABOVE, 7.5, "ph", "medium", "pH out of optimal range: {value}", 2, 1));
+
+    private static AlertRule rule(String metric, String operator, double threshold, String alertType,
+                                  String severity, String message, int decimals, int priority) {
+        AlertRule rule = new AlertRule(metric, operator, threshold, alertType, severity, message, decimals);
+        rule.setId("builtin:" + metric + ":" + priority);
+        rule.setPriority(priority);
+        return rule;
+    }
+}
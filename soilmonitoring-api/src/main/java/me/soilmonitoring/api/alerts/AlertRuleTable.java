@@ -0,0 +1,256 @@
+package me.soilmonitoring.api.alerts;
+
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.timeseries.TimeBuckets;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The rules of one field compiled into flat arrays, grouped by metric in
+ * {@link Metric} order and sorted by priority within a metric.
+ *
+ * Matching a value is a scan of a few primitive comparisons and allocates
+ * nothing; the alert message is only formatted for a rule that fired.
+ * Windowed rules follow the single-reading ones, from {@link #firstWindowed()}
+ * to {@link #size()}; they are not matched against readings but against the
+ * value of a {@link WindowAggregate} created by {@link #newWindow}.
+ * Instances are immutable and shared between threads.
+ */
+public final class AlertRuleTable {
+
+    public static final AlertRuleTable EMPTY = compile(List.of());
+
+    private static final Comparator<AlertRule> BY_PRIORITY =
+            Comparator.comparingInt(rule -> rule.getPriority() != null ? rule.getPriority() : 0);
+
+    private final int[] offsets; // rules of metric m are [offsets[m], offsets[m + 1])
+    private final boolean[] above;
+    private final double[] thresholds;
+    private final AlertRule[] rules;
+    private final String[] formats;
+    private final int[] metrics;
+    private final long[] windows; // width in milliseconds, 0 for single-reading rules
+    private final WindowAggregate.Function[] functions;
+
+    private static final Duration MIN_WINDOW = Duration.ofMinutes(1);
+    private static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    private AlertRuleTable(int[] offsets, boolean[] above, double[] thresholds, AlertRule[] rules,
+                           String[] formats, int[] metrics, long[] windows, WindowAggregate.Function[] functions) {
+        this.offsets = offsets;
+        this.above = above;
+        this.thresholds = thresholds;
+        this.rules = rules;
+        this.formats = formats;
+        this.metrics = metrics;
+        this.windows = windows;
+        this.functions = functions;
+    }
+
+    /**
+     * Compiles resolved rules; disabled rules and rules of unknown metrics are left out.
+     *
+     * @throws IllegalArgumentException if an enabled rule has no threshold or an unknown operator
+     */
+    public static AlertRuleTable compile(List<AlertRule> resolved) {
+        List<List<AlertRule>> byMetric = new ArrayList<>();
+        for (int m = 0; m < Metric.count(); m++) {
+            byMetric.add(new ArrayList<>());
+        }
+        List<AlertRule> windowed = new ArrayList<>();
+        for (AlertRule rule : resolved) {
+            if (!Boolean.FALSE.equals(rule.getEnabled())) {
+                validate(rule);
+                if (isWindowed(rule)) {
+                    windowed.add(rule);
+                } else {
+                    byMetric.get(Metric.fromName(rule.getMetric()).ordinal()).add(rule);
+                }
+            }
+        }
+
+        int[] offsets = new int[Metric.count() + 1];
+        List<AlertRule> ordered = new ArrayList<>();
+        for (int m = 0; m < Metric.count(); m++) {
+            List<AlertRule> metricRules = byMetric.get(m);
+            metricRules.sort(BY_PRIORITY);
+            offsets[m] = ordered.size();
+            ordered.addAll(metricRules);
+        }
+        offsets[Metric.count()] = ordered.size();
+        windowed.sort(BY_PRIORITY);
+        ordered.addAll(windowed);
+
+        int n = ordered.size();
+        boolean[] above = new boolean[n];
+        double[] thresholds = new double[n];
+        String[] formats = new String[n];
+        int[] metrics = new int[n];
+        long[] windows = new long[n];
+        WindowAggregate.Function[] functions = new WindowAggregate.Function[n];
+        for (int i = 0; i < n; i++) {
+            AlertRule rule = ordered.get(i);
+            above[i] = AlertRule.ABOVE.equals(rule.getOperator());
+            thresholds[i] = rule.getThreshold();
+            formats[i] = "%." + (rule.getDecimals() != null ? rule.getDecimals() : 1) + "f";
+            metrics[i] = Metric.fromName(rule.getMetric()).ordinal();
+            if (isWindowed(rule)) {
+                windows[i] = TimeBuckets.parseWidth(rule.getWindow()).toMillis();
+                functions[i] = function(rule);
+            }
+        }
+        return new AlertRuleTable(offsets, above, thresholds, ordered.toArray(new AlertRule[0]), formats,
+                metrics, windows, functions);
+    }
+
+    /**
+     * @return whether the rule applies to an aggregate over a window rather than to each reading
+     */
+    public static boolean isWindowed(AlertRule rule) {
+        return rule.getWindow() != null && !rule.getWindow().isBlank();
+    }
+
+    private static WindowAggregate.Function function(AlertRule rule) {
+        return rule.getAggregate() != null
+                ? WindowAggregate.Function.fromName(rule.getAggregate())
+                : WindowAggregate.Function.AVG;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rule cannot be compiled
+     */
+    public static void validate(AlertRule rule) {
+        Metric.fromName(rule.getMetric());
+        if (!AlertRule.ABOVE.equals(rule.getOperator()) && !AlertRule.BELOW.equals(rule.getOperator())) {
+            throw new IllegalArgumentException("operator must be " + AlertRule.ABOVE + " or " + AlertRule.BELOW);
+        }
+        if (rule.getThreshold() == null || rule.getThreshold().isNaN()) {
+            throw new IllegalArgumentException("A threshold is required");
+        }
+        if (rule.getDecimals() != null && (rule.getDecimals() < 0 || rule.getDecimals() > 6)) {
+            throw new IllegalArgumentException("decimals must be between 0 and 6");
+        }
+        if (rule.getHysteresis() != null && !(rule.getHysteresis() >= 0)) {
+            throw new IllegalArgumentException("hysteresis must not be negative");
+        }
+        if (isWindowed(rule)) {
+            Duration window;
+            try {
+                window = TimeBuckets.parseWidth(rule.getWindow());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid window: " + rule.getWindow());
+            }
+            if (window.compareTo(MIN_WINDOW) < 0 || window.compareTo(MAX_WINDOW) > 0) {
+                throw new IllegalArgumentException("window must be between 1 minute and 31 days");
+            }
+            if (rule.getWindowType() != null && !AlertRule.SLIDING.equals(rule.getWindowType())
+                    && !AlertRule.TUMBLING.equals(rule.getWindowType())) {
+                throw new IllegalArgumentException(
+                        "windowType must be " + AlertRule.SLIDING + " or " + AlertRule.TUMBLING);
+            }
+            function(rule);
+        } else if (rule.getWindowType() != null || rule.getAggregate() != null) {
+            throw new IllegalArgumentException("windowType and aggregate require a window");
+        }
+    }
+
+    /**
+     * @return whether any rule applies to the metric
+     */
+    public boolean hasRules(int metric) {
+        return offsets[metric] != offsets[metric + 1];
+    }
+
+    /**
+     * @param metric the {@link Metric} ordinal
+     * @return the index of the first rule of the metric the value crosses, or -1
+     */
+    public int match(int metric, double value) {
+        for (int i = offsets[metric], end = offsets[metric + 1]; i < end; i++) {
+            if (above[i] ? value > thresholds[i] : value < thresholds[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public AlertRule getRule(int index) {
+        return rules[index];
+    }
+
+    /**
+     * @return the index of the first windowed rule; they run to {@link #size()}
+     */
+    public int firstWindowed() {
+        return offsets[Metric.count()];
+    }
+
+    /**
+     * @return the {@link Metric} ordinal of a rule
+     */
+    public int getMetric(int index) {
+        return metrics[index];
+    }
+
+    /**
+     * @return whether a value crosses the threshold of a rule
+     */
+    public boolean matches(int index, double value) {
+        return above[index] ? value > thresholds[index] : value < thresholds[index];
+    }
+
+    /**
+     * @return an empty window of a windowed rule
+     */
+    public WindowAggregate newWindow(int index) {
+        return new WindowAggregate(functions[index], windows[index],
+                AlertRule.TUMBLING.equals(rules[index].getWindowType()));
+    }
+
+    /**
+     * Identifies the window of a rule across recompilations, so the windows
+     * filled so far survive a rule reload that did not change them.
+     */
+    public String windowKey(int index) {
+        AlertRule rule = rules[index];
+        return rule.getId() + "|" + metrics[index] + "|" + windows[index] + "|" + functions[index] + "|"
+                + rule.getWindowType();
+    }
+
+    /**
+     * @return the index of the first rule of a metric raising the given alert type, or -1
+     */
+    public int indexOf(int metric, String alertType) {
+        for (int i = 0; i < rules.length; i++) {
+            if (metrics[i] == metric && rules[i].getAlertType() != null
+                    && rules[i].getAlertType().equals(alertType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Formats the message of a rule that fired for the given value.
+     */
+    public String formatMessage(int index, double value) {
+        String message = rules[index].getMessage();
+        String formatted = String.format(formats[index], value);
+        if (message == null) {
+            String subject = windows[index] > 0
+                    ? rules[index].getMetric() + " " + functions[index].getJsonName() + " over "
+                    + rules[index].getWindow()
+                    : rules[index].getMetric();
+            return subject + (above[index] ? " above " : " below ") + rules[index].getThreshold() + ": " + formatted;
+        }
+        return message.replace("{value}", formatted);
+    }
+}
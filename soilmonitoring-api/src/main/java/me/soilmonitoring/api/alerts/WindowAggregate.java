@@ -0,0 +1,276 @@
+package me.soilmonitoring.api.alerts;
+
+import java.util.Arrays;
+
+/**
+ * An aggregate of one sensor's values of a metric over a time window,
+ * updated in O(1) per reading.
+ *
+ * A sliding window is cut into panes of a {@value #SLIDING_PANES}th of its
+ * width, each holding the count, sum, extremes, first and last value and the
+ * regression sums of its readings; the window's totals are kept
+ * incrementally and recomputed from the panes only when the oldest pane
+ * leaves the window, so memory does not depend on the reading rate and the
+ * window's edge moves by a pane at a time. The window keeps the pane holding
+ * the instant one width ago, so it may hold readings up to a pane older than
+ * its width. A sliding window produces a value on every reading once its
+ * oldest reading is a whole width old, so the value covers the readings that
+ * make "below 20% for 30 minutes" hold. A tumbling window is a single pane aligned on multiples of its width
+ * since the epoch, like {@link me.soilmonitoring.api.timeseries.TimeBuckets},
+ * and produces the value of a bucket when the first reading of the next one
+ * arrives. Readings older than the window are ignored. Not thread-safe.
+ */
+public final class WindowAggregate {
+
+    /**
+     * What a window computes.
+     */
+    public enum Function {
+        /** the mean */
+        AVG,
+        /** the lowest value; above a threshold means every reading was */
+        MIN,
+        /** the highest value; below a threshold means every reading was */
+        MAX,
+        /** the least-squares slope, in units per hour */
+        RATE,
+        /** the last value minus the first one */
+        DRIFT;
+
+        public String getJsonName() {
+            return name().toLowerCase();
+        }
+
+        public static Function fromName(String name) {
+            for (Function function : values()) {
+                if (function.name().equalsIgnoreCase(name)) {
+                    return function;
+                }
+            }
+            throw new IllegalArgumentException("Unknown window aggregate: " + name);
+        }
+    }
+
+    static final int SLIDING_PANES = 32;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final double HOUR_MILLIS = 3_600_000.0;
+
+    private final Function function;
+    private final boolean tumbling;
+    private final long widthMillis;
+    private final long paneMillis;
+
+    // Per pane, by pane number modulo the number of panes; times are hours since origin
+    private final long[] paneNumbers;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxs;
+    private final double[] timeSums;
+    private final double[] timeSquareSums;
+    private final double[] productSums;
+    private final long[] firstTimes;
+    private final double[] firsts;
+    private final long[] lastTimes;
+    private final double[] lasts;
+
+    private long current = EMPTY; // the newest pane
+    private long origin;
+
+    // Totals of the panes in the window
+    private long count;
+    private double sum;
+    private double timeSum;
+    private double timeSquareSum;
+    private double productSum;
+
+    private double value;
+
+    public WindowAggregate(Function function, long widthMillis, boolean tumbling) {
+        if (widthMillis < 1) {
+            throw new IllegalArgumentException("The window must be positive");
+        }
+        this.function = function;
+        this.tumbling = tumbling;
+        this.widthMillis = widthMillis;
+        this.paneMillis = tumbling ? widthMillis : Math.max(1, widthMillis / SLIDING_PANES);
+        // one more pane than the width needs, for the one holding its start
+        int panes = tumbling ? 1 : (int) ((widthMillis + paneMillis - 1) / paneMillis) + 1;
+        this.paneNumbers = new long[panes];
+        Arrays.fill(paneNumbers, EMPTY);
+        this.counts = new long[panes];
+        this.sums = new double[panes];
+        this.mins = new double[panes];
+        this.maxs = new double[panes];
+        this.timeSums = new double[panes];
+        this.timeSquareSums = new double[panes];
+        this.productSums = new double[panes];
+        this.firstTimes = new long[panes];
+        this.firsts = new double[panes];
+        this.lastTimes = new long[panes];
+        this.lasts = new double[panes];
+    }
+
+    /**
+     * Adds a reading.
+     *
+     * @param timeMillis the reading's time
+     * @param value      the reading's value of the metric
+     * @return whether the window produced a value, then available from {@link #getValue()}
+     */
+    public boolean add(long timeMillis, double value) {
+        long pane = Math.floorDiv(timeMillis, paneMillis);
+        if (current != EMPTY && pane <= current - paneNumbers.length) {
+            return false;
+        }
+        boolean produced = false;
+        if (current == EMPTY || pane > current) {
+            if (tumbling && count > 0) {
+                produced = compute(); // the bucket that just closed
+            }
+            advance(pane);
+        }
+
+        int slot = (int) Math.floorMod(pane, (long) paneNumbers.length);
+        if (paneNumbers[slot] != pane) {
+            paneNumbers[slot] = pane;
+            counts[slot] = 0;
+            sums[slot] = timeSums[slot] = timeSquareSums[slot] = productSums[slot] = 0;
+            mins[slot] = Double.POSITIVE_INFINITY;
+            maxs[slot] = Double.NEGATIVE_INFINITY;
+            firstTimes[slot] = Long.MAX_VALUE;
+            lastTimes[slot] = Long.MIN_VALUE;
+        }
+        double hours = (timeMillis - origin) / HOUR_MILLIS;
+        counts[slot]++;
+        sums[slot] += value;
+        mins[slot] = Math.min(mins[slot], value);
+        maxs[slot] = Math.max(maxs[slot], value);
+        timeSums[slot] += hours;
+        timeSquareSums[slot] += hours * hours;
+        productSums[slot] += hours * value;
+        if (timeMillis < firstTimes[slot]) {
+            firstTimes[slot] = timeMillis;
+            firsts[slot] = value;
+        }
+        if (timeMillis >= lastTimes[slot]) {
+            lastTimes[slot] = timeMillis;
+            lasts[slot] = value;
+        }
+        count++;
+        sum += value;
+        timeSum += hours;
+        timeSquareSum += hours * hours;
+        productSum += hours * value;
+
+        if (!tumbling && timeMillis - oldestTime() >= widthMillis) {
+            produced = compute();
+        }
+        return produced;
+    }
+
+    /**
+     * @return the value computed by the last {@link #add} that returned true
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Moves the window to end at a new pane: drops the panes that left it and
+     * recomputes the totals, relative to the start of the window so the
+     * regression sums stay small.
+     */
+    private void advance(long pane) {
+        current = pane;
+        long oldest = pane - paneNumbers.length + 1;
+        long newOrigin = oldest * paneMillis;
+        double shift = (newOrigin - origin) / HOUR_MILLIS;
+        count = 0;
+        sum = timeSum = timeSquareSum = productSum = 0;
+        for (int i = 0; i < paneNumbers.length; i++) {
+            if (paneNumbers[i] == EMPTY) {
+                continue;
+            }
+            if (paneNumbers[i] < oldest) {
+                paneNumbers[i] = EMPTY;
+                continue;
+            }
+            long n = counts[i];
+            timeSquareSums[i] += -2 * shift * timeSums[i] + n * shift * shift;
+            timeSums[i] -= n * shift;
+            productSums[i] -= shift * sums[i];
+            count += n;
+            sum += sums[i];
+            timeSum += timeSums[i];
+            timeSquareSum += timeSquareSums[i];
+            productSum += productSums[i];
+        }
+        origin = newOrigin;
+    }
+
+    /**
+     * @return the time of the oldest reading in the window
+     */
+    private long oldestTime() {
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < paneNumbers.length; i++) {
+            if (paneNumbers[i] != EMPTY) {
+                oldest = Math.min(oldest, firstTimes[i]);
+            }
+        }
+        return oldest;
+    }
+
+    private boolean compute() {
+        switch (function) {
+            case AVG -> value = sum / count;
+            case MIN -> {
+                double min = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < paneNumbers.length; i++) {
+                    if (paneNumbers[i] != EMPTY) {
+                        min = Math.min(min, mins[i]);
+                    }
+                }
+                value = min;
+            }
+            case MAX -> {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < paneNumbers.length; i++) {
+                    if (paneNumbers[i] != EMPTY) {
+                        max = Math.max(max, maxs[i]);
+                    }
+                }
+                value = max;
+            }
+            case RATE -> {
+                double denominator = count * timeSquareSum - timeSum * timeSum;
+                if (count < 2 || denominator <= 1e-12) {
+                    return false;
+                }
+                value = (count * productSum - timeSum * sum) / denominator;
+            }
+            case DRIFT -> {
+                int oldest = -1;
+                int newest = -1;
+                for (int i = 0; i < paneNumbers.length; i++) {
+                    if (paneNumbers[i] == EMPTY) {
+                        continue;
+                    }
+                    if (oldest < 0 || paneNumbers[i] < paneNumbers[oldest]) {
+                        oldest = i;
+                    }
+                    if (newest < 0 || paneNumbers[i] > paneNumbers[newest]) {
+                        newest = i;
+                    }
+                }
+                if (count < 2) {
+                    return false;
+                }
+                value = lasts[newest] - firsts[oldest];
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,228 @@
+package me.soilmonitoring.api.analytics;
+
+import me.soilmonitoring.api.controllers.repositories.MongoDates;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
+import me.soilmonitoring.api.entities.ReadingRollup;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+import org.bson.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A validated analytics query compiled to a MongoDB aggregation pipeline,
+ * over either the raw readings or the hourly/daily rollups.
+ *
+ * Both pipelines compute the min, max, sum and count of every requested
+ * metric per group, so any {@link AnalyticsQuery.Aggregate} can be derived
+ * and rollups answer exactly what raw readings would for aligned ranges.
+ * Time buckets are aligned on multiples of their width since the epoch, like
+ * {@link me.soilmonitoring.api.timeseries.TimeBuckets}. Times are stored by
+ * JNoSQL as ISO-8601 strings, so the range is matched on
+ * {@link MongoDates#encode} bounds and buckets convert the string with
+ * {@code $toDate} (UTC).
+ */
+public final class AnalyticsPlan {
+
+    /**
+     * Where a plan reads from.
+     */
+    public enum Source {
+        RAW("SensorReading", "timestamp", null),
+        HOURLY("ReadingRollup", "bucketStart", ReadingRollup.HOURLY),
+        DAILY("ReadingRollup", "bucketStart", ReadingRollup.DAILY);
+
+        private final String collection;
+        private final String timeField;
+        private final String granularity;
+
+        Source(String collection, String timeField, String granularity) {
+            this.collection = collection;
+            this.timeField = timeField;
+            this.granularity = granularity;
+        }
+
+        public String getJsonName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Source source;
+    private final List<Metric> metrics;
+    private final Set<AnalyticsQuery.GroupBy> groupBy;
+    private final long widthMillis;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<String> fieldIds;
+    private final List<String> sensorIds;
+    private final int limit;
+
+    /**
+     * @param widthMillis the time bucket width, ignored unless grouped by time
+     * @param from        the start of the range, inclusive
+     * @param to          the end of the range, exclusive
+     * @param fieldIds    the fields to include, never empty
+     * @param sensorIds   the sensors to include, empty for all of the fields' sensors
+     * @param limit       the maximum number of groups returned; one more is fetched to detect truncation
+     */
+    public AnalyticsPlan(Source source, List<Metric> metrics, Set<AnalyticsQuery.GroupBy> groupBy, long widthMillis,
+                         LocalDateTime from, LocalDateTime to, List<String> fieldIds, List<String> sensorIds,
+                         int limit) {
+        this.source = source;
+        this.metrics = metrics;
+        this.groupBy = groupBy;
+        this.widthMillis = widthMillis;
+        this.from = from;
+        this.to = to;
+        this.fieldIds = fieldIds;
+        this.sensorIds = sensorIds;
+        this.limit = limit;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getCollection() {
+        return source.collection;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the {@code $match} filter of the plan, also used to estimate its cost
+     */
+    public Document getFilter() {
+        Document filter = new Document(source.timeField, new Document("$gte", MongoDates.encode(from))
+                .append("$lt", MongoDates.encode(to)))
+                .append("fieldId", new Document("$in", fieldIds));
+        if (!sensorIds.isEmpty()) {
+            filter.append("sensorId", new Document("$in", sensorIds));
+        }
+        if (source.granularity != null) {
+            filter.append("granularity", source.granularity);
+        }
+        return filter;
+    }
+
+    public List<Document> getPipeline() {
+        return source == Source.RAW ? rawPipeline() : rollupPipeline();
+    }
+
+    private List<Document> rawPipeline() {
+        Document group = new Document("_id", groupKey("$timestamp"));
+        for (Metric metric : metrics) {
+            String name = metric.getJsonName();
+            String path = "$data." + name;
+            group.append(name + "_min", new Document("$min", path))
+                    .append(name + "_max", new Document("$max", path))
+                    .append(name + "_sum", new Document("$sum", path))
+                    .append(name + "_count", new Document("$sum", new Document("$cond",
+                            List.of(new Document("$isNumber", path), 1, 0))));
+        }
+        return List.of(
+                new Document("$match", getFilter()),
+                new Document("$group", group),
+                new Document("$sort", new Document("_id", 1)),
+                new Document("$limit", limit + 1));
+    }
+
+    private List<Document> rollupPipeline() {
+        List<String> names = new ArrayList<>();
+        for (Metric metric : metrics) {
+            names.add(metric.getJsonName());
+        }
+        // One document per group and metric, then one per group carrying its metrics
+        Document key = groupKey("$bucketStart").append("metric", "$metrics.metric");
+        Document regroup = new Document();
+        for (String dimension : key.keySet()) {
+            if (!dimension.equals("metric")) {
+                regroup.append(dimension, "$_id." + dimension);
+            }
+        }
+        return List.of(
+                new Document("$match", getFilter()),
+                new Document("$unwind", "$metrics"),
+                new Document("$match", new Document("metrics.metric", new Document("$in", names))),
+                new Document("$group", new Document("_id", key)
+                        .append("min", new Document("$min", "$metrics.min"))
+                        .append("max", new Document("$max", "$metrics.max"))
+                        .append("sum", new Document("$sum", "$metrics.sum"))
+                        .append("count", new Document("$sum", "$metrics.count"))),
+                new Document("$group", new Document("_id", regroup)
+                        .append("metrics", new Document("$push", new Document("metric", "$_id.metric")
+                                .append("min", "$min")
+                                .append("max", "$max")
+                                .append("sum", "$sum")
+                                .append("count", "$count")))),
+                new Document("$sort", new Document("_id", 1)),
+                new Document("$limit", limit + 1));
+    }
+
+    /**
+     * @param time the expression of a document's stored time
+     */
+    private Document groupKey(String time) {
+        Document key = new Document();
+        if (groupBy.contains(AnalyticsQuery.GroupBy.TIME)) {
+            Document millis = new Document("$toLong", new Document("$toDate", time));
+            key.append("bucket", new Document("$subtract",
+                    List.of(millis, new Document("$mod", List.of(millis, widthMillis)))));
+        }
+        if (groupBy.contains(AnalyticsQuery.GroupBy.FIELD)) {
+            key.append("fieldId", "$fieldId");
+        }
+        if (groupBy.contains(AnalyticsQuery.GroupBy.SENSOR)) {
+            key.append("sensorId", "$sensorId");
+        }
+        return key;
+    }
+
+    /**
+     * Converts the pipeline's results into rows, at most {@link #getLimit()} of them.
+     */
+    public List<AnalyticsRow> toRows(List<Document> results) {
+        List<AnalyticsRow> rows = new ArrayList<>(Math.min(results.size(), limit));
+        for (Document result : results.subList(0, Math.min(results.size(), limit))) {
+            Document key = result.get("_id", Document.class);
+            Number bucket = key != null ? (Number) key.get("bucket") : null;
+            AnalyticsRow row = new AnalyticsRow(
+                    bucket != null ? ReadingColumns.fromMillis(bucket.longValue()) : null,
+                    key != null ? key.getString("fieldId") : null,
+                    key != null ? key.getString("sensorId") : null);
+            if (source == Source.RAW) {
+                for (Metric metric : metrics) {
+                    String name = metric.getJsonName();
+                    putSummary(row, metric, result.get(name + "_min"), result.get(name + "_max"),
+                            result.get(name + "_sum"), result.get(name + "_count"));
+                }
+            } else {
+                for (Object item : result.get("metrics", List.class)) {
+                    Document summary = (Document) item;
+                    putSummary(row, Metric.fromName(summary.getString("metric")), summary.get("min"),
+                            summary.get("max"), summary.get("sum"), summary.get("count"));
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void putSummary(AnalyticsRow row, Metric metric, Object min, Object max, Object sum,
+                                   Object count) {
+        if (!(count instanceof Number number) || number.longValue() == 0) {
+            return;
+        }
+        MetricSummary summary = new MetricSummary(metric.getJsonName());
+        summary.setMin(((Number) min).doubleValue());
+        summary.setMax(((Number) max).doubleValue());
+        summary.setSum(((Number) sum).doubleValue());
+        summary.setCount(number.longValue());
+        row.putSummary(metric, summary);
+    }
+}
@@ -0,0 +1,143 @@
+package me.soilmonitoring.api.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of an ad-hoc analytics query ({@code POST /analytics/query}).
+ *
+ * <pre>
+ * {
+ *   "metrics": ["temperature", "soilMoisture"],
+ *   "aggregates": ["avg", "max"],
+ *   "fieldIds": ["f1"], "sensorIds": [],
+ *   "from": "2025-06-01T00:00", "to": "2025-07-01T00:00",
+ *   "groupBy": ["time", "field"], "bucket": "1d",
+ *   "limit": 500
+ * }
+ * </pre>
+ *
+ * Only {@code metrics} is required. Without {@code fieldIds} the query
+ * covers every field of the user; the range defaults to the last 24 hours.
+ */
+public class AnalyticsQuery {
+
+    /**
+     * Dimensions a query can be grouped by.
+     */
+    public enum GroupBy {
+        TIME, FIELD, SENSOR;
+
+        public static GroupBy fromName(String name) {
+            for (GroupBy groupBy : values()) {
+                if (groupBy.name().equalsIgnoreCase(name)) {
+                    return groupBy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown group-by: " + name);
+        }
+    }
+
+    /**
+     * Aggregate functions, all derivable from a {@link me.soilmonitoring.api.entities.MetricSummary}
+     * so rollups can answer them as well as raw readings.
+     */
+    public enum Aggregate {
+        AVG, MIN, MAX, SUM, COUNT;
+
+        public String getJsonName() {
+            return name().toLowerCase();
+        }
+
+        public static Aggregate fromName(String name) {
+            for (Aggregate aggregate : values()) {
+                if (aggregate.name().equalsIgnoreCase(name)) {
+                    return aggregate;
+                }
+            }
+            throw new IllegalArgumentException("Unknown aggregate: " + name);
+        }
+    }
+
+    private List<String> metrics = new ArrayList<>();
+    private List<String> aggregates = new ArrayList<>();
+    private List<String> fieldIds = new ArrayList<>();
+    private List<String> sensorIds = new ArrayList<>();
+    private String from;
+    private String to;
+    private List<String> groupBy = new ArrayList<>();
+    private String bucket;
+    private Integer limit;
+
+    public List<String> getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(List<String> metrics) {
+        this.metrics = metrics;
+    }
+
+    public List<String> getAggregates() {
+        return aggregates;
+    }
+
+    public void setAggregates(List<String> aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    public List<String> getFieldIds() {
+        return fieldIds;
+    }
+
+    public void setFieldIds(List<String> fieldIds) {
+        this.fieldIds = fieldIds;
+    }
+
+    public List<String> getSensorIds() {
+        return sensorIds;
+    }
+
+    public void setSensorIds(List<String> sensorIds) {
+        this.sensorIds = sensorIds;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public List<String> getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(List<String> groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,66 @@
+package me.soilmonitoring.api.analytics;
+
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One group of an analytics result: its key (the group-by dimensions, null
+ * when not grouped by) and the summary of every requested metric.
+ */
+public class AnalyticsRow {
+
+    private final LocalDateTime timestamp;
+    private final String fieldId;
+    private final String sensorId;
+    private final Map<Metric, MetricSummary> summaries = new EnumMap<>(Metric.class);
+
+    public AnalyticsRow(LocalDateTime timestamp, String fieldId, String sensorId) {
+        this.timestamp = timestamp;
+        this.fieldId = fieldId;
+        this.sensorId = sensorId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public String getFieldId() {
+        return fieldId;
+    }
+
+    public String getSensorId() {
+        return sensorId;
+    }
+
+    /**
+     * @return the summary of the metric, or null if no reading of the group carried it
+     */
+    public MetricSummary getSummary(Metric metric) {
+        return summaries.get(metric);
+    }
+
+    void putSummary(Metric metric, MetricSummary summary) {
+        summaries.put(metric, summary);
+    }
+
+    /**
+     * @return the aggregate of the metric, or null if no reading of the group carried it
+     */
+    public Double get(Metric metric, AnalyticsQuery.Aggregate aggregate) {
+        MetricSummary summary = summaries.get(metric);
+        if (summary == null || summary.getCount() == 0) {
+            return null;
+        }
+        return switch (aggregate) {
+            case AVG -> summary.getAvg();
+            case MIN -> summary.getMin();
+            case MAX -> summary.getMax();
+            case SUM -> summary.getSum();
+            case COUNT -> (double) summary.getCount();
+        };
+    }
+}
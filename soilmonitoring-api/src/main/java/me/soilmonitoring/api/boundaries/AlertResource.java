@@ -2,17 +2,25 @@ package me.soilmonitoring.api.boundaries;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.json.Json;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.controllers.managers.AlertInboxManager;
+import me.soilmonitoring.api.controllers.managers.AlertStateManager;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
 import me.soilmonitoring.api.controllers.repositories.AlertRepository;
 import me.soilmonitoring.api.entities.Alert;
 import me.soilmonitoring.api.security.Secured;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
 @Path("/alerts")
@@ -26,94 +34,200 @@ public class AlertResource {
     private Logger logger;
 
     @Inject
-    private SoilMonitoringManager manager;
+    private BlockingCallExecutor executor;
 
     @Inject
     private AlertRepository alertRepository;
 
+    @Inject
+    private FieldStateManager fieldStateManager;
+
+    @Inject
+    private AlertStateManager alertStateManager;
+
+    @Inject
+    private AlertInboxManager alertInboxManager;
+
+    @Inject
+    @ConfigProperty(name = "alerts.page.max.limit", defaultValue = "500")
+    int maxLimit = 500;
+
+    /**
+     * A page of a user's alerts, newest first; the next page is requested
+     * with the {@code X-Next-Cursor} header, absent on the last page
+     */
     @GET
     @Path("/user/{userId}")
-    public Response getUserAlerts(@PathParam("userId") String userId,
-                                  @QueryParam("unread") Boolean unreadOnly) {
-        try {
-            List<Alert> alerts;
-            if (unreadOnly != null && unreadOnly) {
-                alerts = manager.getUnreadAlerts(userId);
-            } else {
-                alerts = alertRepository.findByUserId(userId);
+    public CompletionStage<Response> getUserAlerts(@PathParam("userId") String userId,
+                                                   @QueryParam("unread") Boolean unreadOnly,
+                                                   @QueryParam("fieldId") String fieldId,
+                                                   @QueryParam("severity") String severity,
+                                                   @QueryParam("type") String alertType,
+                                                   @QueryParam("cursor") String cursor,
+                                                   @QueryParam("limit") @DefaultValue("50") int limit) {
+        return executor.supply(() -> {
+            try {
+                if (limit < 1 || limit > maxLimit) {
+                    throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+                }
+                AlertInboxManager.HistoryFilter filter = new AlertInboxManager.HistoryFilter(
+                        fieldId, severity, alertType, Boolean.TRUE.equals(unreadOnly));
+                AlertInboxManager.Page page = alertInboxManager.findPage(userId, filter, cursor, limit);
+                Response.ResponseBuilder response = Response.ok(new GenericEntity<List<Alert>>(page.alerts()) {});
+                if (page.nextCursor() != null) {
+                    response.header("X-Next-Cursor", page.nextCursor());
+                }
+                return response.build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+            } catch (Exception e) {
+                logger.severe("Error getting user alerts: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving alerts").build();
             }
-            return Response.ok(alerts).build();
-        } catch (Exception e) {
-            logger.severe("Error getting user alerts: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error retrieving alerts").build();
-        }
+        });
+    }
+
+    @GET
+    @Path("/user/{userId}/unread-count")
+    public CompletionStage<Response> getUnreadCount(@PathParam("userId") String userId) {
+        return executor.supply(() -> {
+            try {
+                return Response.ok(Json.createObjectBuilder()
+                        .add("userId", userId)
+                        .add("unreadCount", alertInboxManager.countUnread(userId))
+                        .build()).build();
+            } catch (Exception e) {
+                logger.severe("Error counting unread alerts: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error counting alerts").build();
+            }
+        });
+    }
+
+    @PUT
+    @Path("/user/{userId}/read")
+    public CompletionStage<Response> markAllAsRead(@PathParam("userId") String userId,
+                                                   @QueryParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                long updated = alertInboxManager.markAllRead(userId, fieldId);
+                return Response.ok(Json.createObjectBuilder().add("updated", updated).build()).build();
+            } catch (Exception e) {
+                logger.severe("Error marking alerts as read: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error updating alerts").build();
+            }
+        });
+    }
+
+    @DELETE
+    @Path("/user/{userId}")
+    public CompletionStage<Response> deleteOlderThan(@PathParam("userId") String userId,
+                                                     @QueryParam("before") String before) {
+        return executor.supply(() -> {
+            try {
+                if (before == null) {
+                    throw new IllegalArgumentException("before is required");
+                }
+                long deleted = alertInboxManager.deleteOlderThan(userId, LocalDateTime.parse(before));
+                return Response.ok(Json.createObjectBuilder().add("deleted", deleted).build()).build();
+            } catch (IllegalArgumentException | DateTimeException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+            } catch (Exception e) {
+                logger.severe("Error deleting alerts: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error deleting alerts").build();
+            }
+        });
     }
 
     @GET
     @Path("/{alertId}")
-    public Response getAlertById(@PathParam("alertId") String alertId) {
-        try {
-            Alert alert = alertRepository.findById(alertId)
-                    .orElseThrow(IllegalArgumentException::new);
-            return Response.ok(alert).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity("Alert not found").build();
-        } catch (Exception e) {
-            logger.severe("Error getting alert: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error retrieving alert").build();
-        }
+    public CompletionStage<Response> getAlertById(@PathParam("alertId") String alertId) {
+        return executor.supply(() -> {
+            try {
+                Alert alert = alertRepository.findById(alertId)
+                        .orElseThrow(IllegalArgumentException::new);
+                return Response.ok(alert).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("Alert not found").build();
+            } catch (Exception e) {
+                logger.severe("Error getting alert: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving alert").build();
+            }
+        });
     }
 
     @POST
-    public Response createAlert(Alert alert) {
-        try {
-            alert.setId(UUID.randomUUID().toString());
-            alert.setCreatedAt(LocalDateTime.now());
-            alert.setIsRead(false);
-            Alert savedAlert = alertRepository.save(alert);
-            logger.info("Alert created: " + savedAlert.getId());
-            return Response.status(Response.Status.CREATED).entity(savedAlert).build();
-        } catch (Exception e) {
-            logger.severe("Error creating alert: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error creating alert").build();
-        }
+    public CompletionStage<Response> createAlert(Alert alert) {
+        return executor.supply(() -> {
+            try {
+                alert.setId(UUID.randomUUID().toString());
+                alert.setCreatedAt(LocalDateTime.now());
+                alert.setIsRead(false);
+                Alert savedAlert = alertRepository.save(alert);
+                fieldStateManager.onAlertCreated(alert);
+                alertInboxManager.onAlertCreated(alert);
+                logger.info("Alert created: " + savedAlert.getId());
+                return Response.status(Response.Status.CREATED).entity(savedAlert).build();
+            } catch (Exception e) {
+                logger.severe("Error creating alert: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error creating alert").build();
+            }
+        });
     }
 
     @PUT
     @Path("/{alertId}/read")
-    public Response markAlertAsRead(@PathParam("alertId") String alertId) {
-        try {
-            Alert alert = alertRepository.findById(alertId)
-                    .orElseThrow(IllegalArgumentException::new);
-            alert.setIsRead(true);
-            alertRepository.save(alert);
-            logger.info("Alert marked as read: " + alertId);
-            return Response.ok(alert).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity("Alert not found").build();
-        } catch (Exception e) {
-            logger.severe("Error marking alert as read: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error updating alert").build();
-        }
+    public CompletionStage<Response> markAlertAsRead(@PathParam("alertId") String alertId) {
+        return executor.supply(() -> {
+            try {
+                Alert alert = alertRepository.findById(alertId)
+                        .orElseThrow(IllegalArgumentException::new);
+                boolean wasUnread = !Boolean.TRUE.equals(alert.getIsRead());
+                alert.setIsRead(true);
+                alertRepository.save(alert);
+                if (wasUnread) {
+                    fieldStateManager.onAlertRead(alert);
+                    alertInboxManager.onAlertRead(alert);
+                }
+                logger.info("Alert marked as read: " + alertId);
+                return Response.ok(alert).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("Alert not found").build();
+            } catch (Exception e) {
+                logger.severe("Error marking alert as read: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error updating alert").build();
+            }
+        });
     }
 
     @DELETE
     @Path("/{alertId}")
-    public Response deleteAlert(@PathParam("alertId") String alertId) {
-        try {
-            alertRepository.deleteById(alertId);
-            logger.info("Alert deleted: " + alertId);
-            return Response.noContent().build();
-        } catch (Exception e) {
-            logger.severe("Error deleting alert: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error deleting alert").build();
-        }
+    public CompletionStage<Response> deleteAlert(@PathParam("alertId") String alertId) {
+        return executor.supply(() -> {
+            try {
+                alertRepository.findById(alertId).ifPresent(alert -> {
+                    fieldStateManager.onAlertDeleted(alert);
+                    alertInboxManager.onAlertDeleted(alert);
+                    alertStateManager.onAlertDeleted(alert);
+                });
+                alertRepository.deleteById(alertId);
+                logger.info("Alert deleted: " + alertId);
+                return Response.noContent().build();
+            } catch (Exception e) {
+                logger.severe("Error deleting alert: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error deleting alert").build();
+            }
+        });
     }
 }
@@ -0,0 +1,138 @@
+package me.soilmonitoring.api.boundaries;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.GenericEntity;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.AlertRuleManager;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.security.Secured;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.logging.Logger;
+
+/**
+ * Alert thresholds per field, crop, soil type or for every field.
+ * Changes apply to the next readings.
+ */
+@Path("/alert-rules")
+@Secured
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class AlertRuleResource {
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private BlockingCallExecutor executor;
+
+    @Inject
+    private AlertRuleManager alertRuleManager;
+
+    @Inject
+    private SoilMonitoringManager manager;
+
+    @GET
+    public CompletionStage<Response> getRules() {
+        return executor.supply(() -> {
+            try {
+                List<AlertRule> rules = alertRuleManager.getRules();
+                return Response.ok(new GenericEntity<List<AlertRule>>(rules) {}).build();
+            } catch (Exception e) {
+                logger.severe("Error getting alert rules: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving alert rules").build();
+            }
+        });
+    }
+
+    /**
+     * The rules in effect for a field, stored and built-in
+     */
+    @GET
+    @Path("/field/{fieldId}")
+    public CompletionStage<Response> getFieldRules(@PathParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                Field field = manager.findFieldById(fieldId);
+                List<AlertRule> rules = alertRuleManager.getFieldRules(field);
+                return Response.ok(new GenericEntity<List<AlertRule>>(rules) {}).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("Field not found").build();
+            } catch (Exception e) {
+                logger.severe("Error getting field alert rules: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving alert rules").build();
+            }
+        });
+    }
+
+    @POST
+    public CompletionStage<Response> createRule(AlertRule rule) {
+        return executor.supply(() -> {
+            try {
+                rule.setId(null);
+                AlertRule savedRule = alertRuleManager.save(rule);
+                logger.info("Alert rule created: " + savedRule.getId());
+                return Response.status(Response.Status.CREATED).entity(savedRule).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+            } catch (Exception e) {
+                logger.severe("Error creating alert rule: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error creating alert rule").build();
+            }
+        });
+    }
+
+    @PUT
+    @Path("/{ruleId}")
+    public CompletionStage<Response> updateRule(@PathParam("ruleId") String ruleId, AlertRule rule) {
+        return executor.supply(() -> {
+            try {
+                if (alertRuleManager.findRule(ruleId).isEmpty()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity("Alert rule not found").build();
+                }
+                rule.setId(ruleId);
+                AlertRule savedRule = alertRuleManager.save(rule);
+                logger.info("Alert rule updated: " + ruleId);
+                return Response.ok(savedRule).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+            } catch (Exception e) {
+                logger.severe("Error updating alert rule: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error updating alert rule").build();
+            }
+        });
+    }
+
+    @DELETE
+    @Path("/{ruleId}")
+    public CompletionStage<Response> deleteRule(@PathParam("ruleId") String ruleId) {
+        return executor.supply(() -> {
+            try {
+                alertRuleManager.delete(ruleId);
+                logger.info("Alert rule deleted: " + ruleId);
+                return Response.noContent().build();
+            } catch (Exception e) {
+                logger.severe("Error deleting alert rule: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error deleting alert rule").build();
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package me.soilmonitoring.api.boundaries;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import me.soilmonitoring.api.analytics.AnalyticsQuery;
+import me.soilmonitoring.api.analytics.AnalyticsRow;
+import me.soilmonitoring.api.controllers.managers.AnalyticsManager;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.security.Secured;
+
+import java.security.Principal;
+import java.time.DateTimeException;
+import java.util.concurrent.CompletionStage;
+import java.util.logging.Logger;
+
+/**
+ * Ad-hoc aggregations over the user's readings, so new charts need a query
+ * rather than a new endpoint.
+ */
+@Path("/analytics")
+@Secured
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class AnalyticsResource {
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private BlockingCallExecutor executor;
+
+    @Inject
+    private AnalyticsManager analyticsManager;
+
+    /**
+     * Runs an {@link AnalyticsQuery}: one row per group with the requested
+     * aggregates of every metric
+     */
+    @POST
+    @Path("/query")
+    public CompletionStage<Response> query(AnalyticsQuery query, @Context SecurityContext securityContext) {
+        // The security context is only readable on the request thread
+        Principal principal = securityContext.getUserPrincipal();
+        return executor.supply(() -> {
+            try {
+                if (query == null) {
+                    throw new IllegalArgumentException("A query is required");
+                }
+                AnalyticsManager.Result result = analyticsManager.query(query, principal.getName());
+
+                JsonArrayBuilder rows = Json.createArrayBuilder();
+                for (AnalyticsRow row : result.rows()) {
+                    JsonObjectBuilder rowJson = Json.createObjectBuilder();
+                    if (row.getTimestamp() != null) {
+                        rowJson.add("timestamp", row.getTimestamp().toString());
+                    }
+                    if (row.getFieldId() != null) {
+                        rowJson.add("fieldId", row.getFieldId());
+                    }
+                    if (row.getSensorId() != null) {
+                        rowJson.add("sensorId", row.getSensorId());
+                    }
+                    for (Metric metric : result.metrics()) {
+                        JsonObjectBuilder metricJson = Json.createObjectBuilder();
+                        boolean present = false;
+                        for (AnalyticsQuery.Aggregate aggregate : result.aggregates()) {
+                            Double value = row.get(metric, aggregate);
+                            if (value != null) {
+                                metricJson.add(aggregate.getJsonName(), value);
+                                present = true;
+                            }
+                        }
+                        if (present) {
+                            rowJson.add(metric.getJsonName(), metricJson);
+                        }
+                    }
+                    rows.add(rowJson);
+                }
+
+                return Response.ok(Json.createObjectBuilder()
+                                .add("source", result.source().getJsonName())
+                                .add("from", result.from().toString())
+                                .add("to", result.to().toString())
+                                .add("truncated", result.truncated())
+                                .add("rows", rows)
+                                .build())
+                        .build();
+            } catch (SecurityException e) {
+                return Response.status(Response.Status.FORBIDDEN)
+                        .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+            } catch (IllegalArgumentException | DateTimeException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+            } catch (Exception e) {
+                logger.severe("Error running analytics query: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error running query").build();
+            }
+        });
+    }
+}
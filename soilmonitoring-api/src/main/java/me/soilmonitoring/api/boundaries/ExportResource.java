@@ -0,0 +1,128 @@
+package me.soilmonitoring.api.boundaries;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import me.soilmonitoring.api.security.Secured;
+import me.soilmonitoring.api.services.ExportBatch;
+import me.soilmonitoring.api.services.ExportDataset;
+import me.soilmonitoring.api.services.TrainingExportService;
+
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Training data feed for the MLOps pipeline.
+ *
+ * A run downloads {@code GET /export/{dataset}}, stores the file, then calls
+ * {@code POST /export/{dataset}/commit} so the next run starts after it.
+ */
+@Path("/export")
+@Secured
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class ExportResource {
+
+    private static final String GZIP = "application/gzip";
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private TrainingExportService exportService;
+
+    /**
+     * Streams the new documents of a dataset ("readings" or "predictions") as gzip-compressed CSV
+     */
+    @GET
+    @Path("/{dataset}")
+    @Produces({GZIP, MediaType.APPLICATION_JSON})
+    public Response export(@PathParam("dataset") String dataset,
+                           @QueryParam("consumer") @DefaultValue("mlops") String consumer,
+                           @QueryParam("since") String since,
+                           @QueryParam("full") boolean full,
+                           @QueryParam("predictionType") String predictionType) {
+        try {
+            ExportBatch batch = exportService.open(ExportDataset.fromName(dataset), consumer, since, full,
+                    predictionType);
+            StreamingOutput body = output -> {
+                try (batch) {
+                    batch.writeTo(output);
+                }
+            };
+            return Response.ok(body, GZIP)
+                    .header("Content-Disposition", "attachment; filename=\"" + batch.getFileName() + "\"")
+                    .header("X-Export-Mode", batch.isFull() ? "full" : "delta")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.GONE)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+        } catch (Exception e) {
+            logger.severe("Error exporting " + dataset + ": " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error exporting data").build();
+        }
+    }
+
+    /**
+     * Commits the position reached by the consumer's last export
+     */
+    @POST
+    @Path("/{dataset}/commit")
+    public Response commit(@PathParam("dataset") String dataset,
+                           @QueryParam("consumer") @DefaultValue("mlops") String consumer) {
+        try {
+            Optional<String> token = exportService.commit(ExportDataset.fromName(dataset), consumer);
+            if (token.isEmpty()) {
+                return Response.status(Response.Status.CONFLICT)
+                        .entity(Json.createObjectBuilder().add("message", "No pending export").build()).build();
+            }
+            return Response.ok(checkpointJson(dataset, consumer, token.get())).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+        } catch (Exception e) {
+            logger.severe("Error committing export checkpoint: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error committing checkpoint").build();
+        }
+    }
+
+    @GET
+    @Path("/{dataset}/checkpoint")
+    public Response getCheckpoint(@PathParam("dataset") String dataset,
+                                  @QueryParam("consumer") @DefaultValue("mlops") String consumer) {
+        try {
+            Optional<String> token = exportService.committedToken(ExportDataset.fromName(dataset), consumer);
+            if (token.isEmpty()) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(Json.createObjectBuilder().add("message", "No checkpoint").build()).build();
+            }
+            return Response.ok(checkpointJson(dataset, consumer, token.get())).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+        } catch (Exception e) {
+            logger.severe("Error getting export checkpoint: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error retrieving checkpoint").build();
+        }
+    }
+
+    private static String checkpointJson(String dataset, String consumer, String token) {
+        return Json.createObjectBuilder()
+                .add("dataset", dataset)
+                .add("consumer", consumer)
+                .add("resumeToken", token)
+                .build().toString();
+    }
+}
@@ -0,0 +1,69 @@
+package me.soilmonitoring.api.boundaries;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.NearCache;
+import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.filters.CompressionStats;
+import me.soilmonitoring.api.security.Secured;
+
+import java.util.Map;
+
+/**
+ * Runtime counters of the API's own optimizations, for dashboards and tuning.
+ */
+@Path("/metrics")
+@Secured
+@RequestScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class MetricsResource {
+
+    @Inject
+    private CompressionStats compressionStats;
+
+    @Inject
+    private SoilMonitoringManager manager;
+
+    @GET
+    @Path("/compression")
+    public Response getCompressionMetrics() {
+        return Response.ok(Json.createObjectBuilder()
+                .add("compressedResponses", compressionStats.getCompressedResponses())
+                .add("skippedResponses", compressionStats.getSkippedResponses())
+                .add("rawBytes", compressionStats.getRawBytes())
+                .add("compressedBytes", compressionStats.getCompressedBytes())
+                .add("skippedBytes", compressionStats.getSkippedBytes())
+                .add("ratio", compressionStats.getRatio())
+                .add("compressionMillis", compressionStats.getCompressionNanos() / 1_000_000.0)
+                .add("deflatersCreated", compressionStats.getDeflatersCreated())
+                .build()).build();
+    }
+
+    /**
+     * Hit ratio and size of the field and sensor caches
+     */
+    @GET
+    @Path("/cache")
+    public Response getCacheMetrics() {
+        JsonObjectBuilder caches = Json.createObjectBuilder();
+        for (Map.Entry<String, NearCache.Stats> cache : manager.getCacheStats().entrySet()) {
+            NearCache.Stats stats = cache.getValue();
+            caches.add(cache.getKey(), Json.createObjectBuilder()
+                    .add("size", stats.size())
+                    .add("maxEntries", stats.maxEntries())
+                    .add("hits", stats.hits())
+                    .add("negativeHits", stats.negativeHits())
+                    .add("misses", stats.misses())
+                    .add("evictions", stats.evictions())
+                    .add("hitRatio", stats.getHitRatio()));
+        }
+        return Response.ok(caches.build()).build();
+    }
+}
@@ -3,6 +3,7 @@ package me.soilmonitoring.api.boundaries;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
@@ -47,7 +48,7 @@ public class PredictionResource {
             } else {
                 predictions = predictionRepository.findByFieldId(fieldId);
             }
-            return Response.ok(predictions).build();
+            return Response.ok(new GenericEntity<List<Prediction>>(predictions) {}).build();
         } catch (Exception e) {
             logger.severe("Error getting field predictions: " + e.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -5,33 +5,45 @@ import jakarta.inject.Inject;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
 import me.soilmonitoring.api.controllers.repositories.AlertRepository;
 import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
 import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
-import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.FieldState;
 import me.soilmonitoring.api.entities.SensorData;
 import me.soilmonitoring.api.entities.SensorReading;
 import me.soilmonitoring.api.security.Secured;
+import me.soilmonitoring.api.serialization.CborMessageBodyWriter;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
 @Path("/readings")
 @Secured
 @RequestScoped
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
 @Consumes(MediaType.APPLICATION_JSON)
 public class ReadingResource {
 
     @Inject
     private Logger logger;
 
+    @Inject
+    private BlockingCallExecutor executor;
+
     @Inject
     private SoilMonitoringManager manager;
 
@@ -41,123 +53,174 @@ public class ReadingResource {
     @Inject
     private AlertRepository alertRepository;
 
+    @Inject
+    private HotReadingStore hotReadingStore;
+
+    @Inject
+    private FieldStateManager fieldStateManager;
+
+    @Inject
+    private RollupManager rollupManager;
+
     @GET
     @Path("/field/{fieldId}")
-    public Response getFieldReadings(@PathParam("fieldId") String fieldId) {
-        try {
-            List<SensorReading> readings = manager.getFieldReadings(fieldId);
-            return Response.ok(readings).build();
-        } catch (Exception e) {
-            logger.severe("Error getting field readings: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error retrieving readings").build();
-        }
+    public CompletionStage<Response> getFieldReadings(@PathParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                List<SensorReading> readings = manager.getFieldReadings(fieldId);
+                return Response.ok(new GenericEntity<List<SensorReading>>(readings) {}).build();
+            } catch (Exception e) {
+                logger.severe("Error getting field readings: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving readings").build();
+            }
+        });
     }
 
     @GET
     @Path("/field/{fieldId}/range")
-    public Response getFieldReadingsByTimeRange(
+    public CompletionStage<Response> getFieldReadingsByTimeRange(
             @PathParam("fieldId") String fieldId,
             @QueryParam("from") String from,
             @QueryParam("to") String to) {
-        try {
-            LocalDateTime fromDate = LocalDateTime.parse(from);
-            LocalDateTime toDate = LocalDateTime.parse(to);
-            List<SensorReading> readings = manager.getFieldReadingsByTimeRange(fieldId, fromDate, toDate);
-            return Response.ok(readings).build();
-        } catch (Exception e) {
-            logger.severe("Error getting field readings by time range: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error retrieving readings").build();
-        }
+        return executor.supply(() -> {
+            try {
+                LocalDateTime fromDate = LocalDateTime.parse(from);
+                LocalDateTime toDate = LocalDateTime.parse(to);
+                // Expired raw readings are served as hourly averages
+                List<SensorReading> readings = new ArrayList<>();
+                Optional<LocalDateTime> horizon = rollupManager.rawHorizon()
+                        .filter(fromDate::isBefore);
+                if (horizon.isPresent()) {
+                    LocalDateTime until = toDate.isBefore(horizon.get()) ? toDate : horizon.get();
+                    readings.addAll(rollupManager.getFieldHourlyReadings(fieldId, fromDate, until));
+                    fromDate = horizon.get();
+                }
+                if (!fromDate.isAfter(toDate)) {
+                    readings.addAll(manager.getFieldReadingsByTimeRange(fieldId, fromDate, toDate));
+                }
+                Response.ResponseBuilder response = Response.ok(new GenericEntity<List<SensorReading>>(readings) {});
+                horizon.ifPresent(h -> response.header("X-Rollup-Until", h.toString()));
+                return response.build();
+            } catch (Exception e) {
+                logger.severe("Error getting field readings by time range: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving readings").build();
+            }
+        });
     }
 
     @GET
     @Path("/{readingId}")
-    public Response getReadingById(@PathParam("readingId") String readingId) {
-        try {
-            SensorReading reading = readingRepository.findById(readingId)
-                    .orElseThrow(IllegalArgumentException::new);
-            return Response.ok(reading).build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity("Reading not found").build();
-        } catch (Exception e) {
-            logger.severe("Error getting reading: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error retrieving reading").build();
-        }
+    public CompletionStage<Response> getReadingById(@PathParam("readingId") String readingId) {
+        return executor.supply(() -> {
+            try {
+                SensorReading reading = readingRepository.findById(readingId)
+                        .orElseThrow(IllegalArgumentException::new);
+                return Response.ok(reading).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("Reading not found").build();
+            } catch (Exception e) {
+                logger.severe("Error getting reading: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving reading").build();
+            }
+        });
     }
 
     @POST
-    public Response createReading(SensorReading reading) {
-        try {
-            reading.setId(UUID.randomUUID().toString());
-            reading.setTimestamp(LocalDateTime.now());
-            SensorReading savedReading = readingRepository.save(reading);
-            logger.info("Sensor reading created: " + savedReading.getId());
-            return Response.status(Response.Status.CREATED).entity(savedReading).build();
-        } catch (Exception e) {
-            logger.severe("Error creating reading: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error creating reading").build();
-        }
+    public CompletionStage<Response> createReading(SensorReading reading) {
+        return executor.supply(() -> {
+            try {
+                reading.setId(UUID.randomUUID().toString());
+                reading.setTimestamp(LocalDateTime.now());
+                SensorReading savedReading = readingRepository.save(reading);
+                hotReadingStore.append(savedReading);
+                fieldStateManager.onReading(savedReading);
+                logger.info("Sensor reading created: " + savedReading.getId());
+                return Response.status(Response.Status.CREATED).entity(savedReading).build();
+            } catch (Exception e) {
+                logger.severe("Error creating reading: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error creating reading").build();
+            }
+        });
     }
 
     @GET
     @Path("/field/{fieldId}/latest")
-    public Response getLatestReading(@PathParam("fieldId") String fieldId) {
-        try {
-            List<SensorReading> readings = manager.getFieldReadings(fieldId);
-            if (readings.isEmpty()) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity("No readings found").build();
+    public CompletionStage<Response> getLatestReading(@PathParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                // Served from the hot window when a reading arrived since startup
+                SensorReading recent = hotReadingStore.latest(fieldId).orElse(null);
+                if (recent != null) {
+                    return Response.ok(recent).build();
+                }
+
+                List<SensorReading> readings = manager.getFieldReadings(fieldId);
+                if (readings.isEmpty()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity("No readings found").build();
+                }
+                SensorReading latest = readings.get(readings.size() - 1);
+                return Response.ok(latest).build();
+            } catch (Exception e) {
+                logger.severe("Error getting latest reading: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error retrieving latest reading").build();
             }
-            SensorReading latest = readings.get(readings.size() - 1);
-            return Response.ok(latest).build();
-        } catch (Exception e) {
-            logger.severe("Error getting latest reading: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error retrieving latest reading").build();
-        }
+        });
     }
 
 
     @GET
     @Path("/field/{fieldId}/summary")
-    public Response getFieldSummary(@PathParam("fieldId") String fieldId) {
-        try {
-            // Get latest reading
-            List<SensorReading> readings = manager.getFieldReadings(fieldId);
-            if (readings.isEmpty()) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity("{\"message\":\"No readings found\"}").build();
+    public CompletionStage<Response> getFieldSummary(@PathParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                // Served from the materialized field state when it exists
+                FieldState state = fieldStateManager.findState(fieldId).orElse(null);
+                if (state != null && state.getLatest() != null) {
+                    JsonObject summary = Json.createObjectBuilder()
+                            .add("latestReading", buildReadingJson(state.getLatest()))
+                            .add("unreadAlertCount", state.getUnreadAlertCount())
+                            .add("lastUpdate", state.getLastUpdate().toString())
+                            .build();
+                    return Response.ok(summary).build();
+                }
+
+                // Get latest reading
+                List<SensorReading> readings = manager.getFieldReadings(fieldId);
+                if (readings.isEmpty()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity("{\"message\":\"No readings found\"}").build();
+                }
+
+                SensorReading latest = readings.stream()
+                        .max(Comparator.comparing(SensorReading::getTimestamp))
+                        .orElseThrow();
+
+                // Get alert count
+                long unreadAlertCount = alertRepository.countByFieldIdAndIsRead(fieldId, false);
+
+                // Build summary response
+                JsonObject summary = Json.createObjectBuilder()
+                        .add("latestReading", buildReadingJson(latest.getData()))
+                        .add("unreadAlertCount", unreadAlertCount)
+                        .add("lastUpdate", latest.getTimestamp().toString())
+                        .build();
+
+                return Response.ok(summary).build();
+            } catch (Exception e) {
+                logger.severe("Error getting field summary: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
             }
-
-            SensorReading latest = readings.stream()
-                    .max(Comparator.comparing(SensorReading::getTimestamp))
-                    .orElseThrow();
-
-            // Get alert count
-
-            List<Alert> unreadAlerts = alertRepository.findByFieldIdAndIsRead(fieldId, false);
-
-            // Build summary response
-            JsonObject summary = Json.createObjectBuilder()
-                    .add("latestReading", buildReadingJson(latest))
-                    .add("unreadAlertCount", unreadAlerts.size())
-                    .add("lastUpdate", latest.getTimestamp().toString())
-                    .build();
-
-            return Response.ok(summary.toString()).build();
-        } catch (Exception e) {
-            logger.severe("Error getting field summary: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        }
+        });
     }
 
-    private JsonObject buildReadingJson(SensorReading reading) {
-        SensorData data = reading.getData();
+    private JsonObject buildReadingJson(SensorData data) {
         return Json.createObjectBuilder()
                 .add("temperature", data.getTemperature() != null ? data.getTemperature() : 0)
                 .add("humidity", data.getHumidity() != null ? data.getHumidity() : 0)
@@ -1,17 +1,42 @@
 package me.soilmonitoring.api.boundaries;
 
+import jakarta.data.Limit;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.AlertWindowManager;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
 import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
+import me.soilmonitoring.api.entities.ReadingRollup;
 import me.soilmonitoring.api.entities.Sensor;
+import me.soilmonitoring.api.entities.SensorReading;
 import me.soilmonitoring.api.security.Secured;
+import me.soilmonitoring.api.timeseries.ColumnAggregates;
+import me.soilmonitoring.api.timeseries.ColumnStats;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+import me.soilmonitoring.api.timeseries.TimeBuckets;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -22,6 +47,9 @@ import java.util.logging.Logger;
 @Consumes(MediaType.APPLICATION_JSON)
 public class SensorResource {
 
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
     @Inject
     private Logger logger;
 
@@ -31,6 +59,37 @@ public class SensorResource {
     @Inject
     private SensorRepository sensorRepository;
 
+    @Inject
+    private FieldStateManager fieldStateManager;
+
+    @Inject
+    private SensorReadingRepository readingRepository;
+
+    @Inject
+    private HotReadingStore hotReadingStore;
+
+    @Inject
+    private RollupManager rollupManager;
+
+    @Inject
+    private AlertWindowManager alertWindowManager;
+
+    @Inject
+    @ConfigProperty(name = "sensor.readings.max.limit", defaultValue = "10000")
+    int maxLimit = 10000;
+
+    @Inject
+    @ConfigProperty(name = "sensor.readings.max.window.days", defaultValue = "31")
+    int maxWindowDays = 31;
+
+    @Inject
+    @ConfigProperty(name = "sensor.readings.max.buckets", defaultValue = "2000")
+    int maxBuckets = 2000;
+
+    @Inject
+    @ConfigProperty(name = "sensor.aggregate.max.rows", defaultValue = "300000")
+    int maxAggregateRows = 300000;
+
     @GET
     @Path("/field/{fieldId}")
     public Response getFieldSensors(@PathParam("fieldId") String fieldId) {
@@ -48,7 +107,7 @@ public class SensorResource {
     @Path("/{sensorId}")
     public Response getSensorById(@PathParam("sensorId") String sensorId) {
         try {
-            Sensor sensor = sensorRepository.findById(sensorId)
+            Sensor sensor = manager.findSensor(sensorId)
                     .orElseThrow(IllegalArgumentException::new);
             return Response.ok(sensor).build();
         } catch (IllegalArgumentException e) {
@@ -84,6 +143,7 @@ public class SensorResource {
             sensor.setInstalledAt(LocalDateTime.now());
             sensor.setStatus("active");
             Sensor savedSensor = sensorRepository.save(sensor);
+            manager.onSensorSaved(savedSensor);
             logger.info("Sensor created: " + savedSensor.getId());
             return Response.status(Response.Status.CREATED).entity(savedSensor).build();
         } catch (Exception e) {
@@ -103,6 +163,8 @@ public class SensorResource {
             sensor.setStatus(status);
             sensor.setLastConnection(LocalDateTime.now());
             sensorRepository.save(sensor);
+            manager.onSensorSaved(sensor);
+            fieldStateManager.onSensorStatusChanged(sensor);
             logger.info("Sensor status updated: " + sensorId);
             return Response.ok(sensor).build();
         } catch (IllegalArgumentException e) {
@@ -120,6 +182,8 @@ public class SensorResource {
     public Response deleteSensor(@PathParam("sensorId") String sensorId) {
         try {
             sensorRepository.deleteById(sensorId);
+            manager.onSensorDeleted(sensorId);
+            alertWindowManager.onSensorDeleted(sensorId);
             logger.info("Sensor deleted: " + sensorId);
             return Response.noContent().build();
         } catch (Exception e) {
@@ -128,4 +192,202 @@ public class SensorResource {
                     .entity("Error deleting sensor").build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Readings of one sensor between {@code from} and {@code to} (default: the
+     * last 24 hours), oldest first, at most {@code limit} of them
+     */
+    @GET
+    @Path("/{sensorId}/readings")
+    public Response getSensorReadings(@PathParam("sensorId") String sensorId,
+                                      @QueryParam("from") String from,
+                                      @QueryParam("to") String to,
+                                      @QueryParam("limit") @DefaultValue("1000") int limit) {
+        try {
+            LocalDateTime toDate = to != null ? LocalDateTime.parse(to) : LocalDateTime.now();
+            LocalDateTime fromDate = from != null ? LocalDateTime.parse(from) : toDate.minusHours(24);
+            checkWindow(fromDate, toDate);
+            if (limit < 1 || limit > maxLimit) {
+                throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+            }
+            // Expired raw readings are served as hourly averages; one reading
+            // past the limit is fetched to tell whether the range was cut
+            int fetch = limit + 1;
+            List<SensorReading> readings = new ArrayList<>();
+            Optional<LocalDateTime> horizon = rollupManager.rawHorizon()
+                    .filter(fromDate::isBefore);
+            if (horizon.isPresent()) {
+                LocalDateTime until = toDate.isBefore(horizon.get()) ? toDate : horizon.get();
+                List<SensorReading> hours = rollupManager.getSensorHourlyReadings(sensorId, fromDate, until);
+                readings.addAll(hours.subList(0, Math.min(hours.size(), fetch)));
+                fromDate = horizon.get();
+            }
+            if (readings.size() < fetch && !fromDate.isAfter(toDate)) {
+                readings.addAll(manager.getSensorReadingsByTimeRange(
+                        sensorId, fromDate, toDate, fetch - readings.size()));
+            }
+            boolean limitReached = readings.size() > limit;
+            if (limitReached) {
+                readings.subList(limit, readings.size()).clear();
+            }
+            Response.ResponseBuilder response = Response.ok(new GenericEntity<List<SensorReading>>(readings) {})
+                    .header("X-Limit-Reached", limitReached);
+            horizon.ifPresent(h -> response.header("X-Rollup-Until", h.toString()));
+            return response.build();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+        } catch (Exception e) {
+            logger.severe("Error getting sensor readings: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error retrieving readings").build();
+        }
+    }
+
+    @GET
+    @Path("/{sensorId}/readings/latest")
+    public Response getLatestSensorReading(@PathParam("sensorId") String sensorId) {
+        try {
+            List<SensorReading> readings = readingRepository.findLatestBySensorId(sensorId, Limit.of(1));
+            if (readings.isEmpty()) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("No readings found").build();
+            }
+            return Response.ok(readings.get(0)).build();
+        } catch (Exception e) {
+            logger.severe("Error getting latest sensor reading: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error retrieving latest reading").build();
+        }
+    }
+
+    /**
+     * Min, max and average of the sensor's metrics per time bucket (e.g.
+     * {@code bucket=15m}), for the given metrics or all of them
+     */
+    @GET
+    @Path("/{sensorId}/readings/aggregate")
+    public Response getSensorAggregates(@PathParam("sensorId") String sensorId,
+                                        @QueryParam("from") String from,
+                                        @QueryParam("to") String to,
+                                        @QueryParam("bucket") @DefaultValue("1h") String bucket,
+                                        @QueryParam("metric") List<String> metricNames) {
+        try {
+            LocalDateTime toDate = to != null ? LocalDateTime.parse(to) : LocalDateTime.now();
+            LocalDateTime fromDate = from != null ? LocalDateTime.parse(from) : toDate.minusHours(24);
+            checkWindow(fromDate, toDate);
+            long width = TimeBuckets.parseWidth(bucket).toMillis();
+            if (TimeBuckets.count(ReadingColumns.toMillis(fromDate), ReadingColumns.toMillis(toDate), width)
+                    > maxBuckets) {
+                throw new IllegalArgumentException("More than " + maxBuckets + " buckets, use a wider bucket");
+            }
+            List<Metric> metrics = new ArrayList<>();
+            if (metricNames == null || metricNames.isEmpty()) {
+                metrics.addAll(List.of(Metric.all()));
+            } else {
+                for (String name : metricNames) {
+                    metrics.add(Metric.fromName(name));
+                }
+            }
+
+            JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
+
+            // Expired raw readings are aggregated from the rollups, at an hourly resolution at best
+            Optional<LocalDateTime> horizon = rollupManager.rawHorizon();
+            if (horizon.isPresent() && fromDate.isBefore(horizon.get())) {
+                long rollupWidth = width % HOUR_MILLIS == 0 ? width : HOUR_MILLIS;
+                long split = Math.min(ReadingColumns.toMillis(toDate),
+                        -Math.floorDiv(-ReadingColumns.toMillis(horizon.get()), rollupWidth) * rollupWidth);
+                LocalDateTime splitDate = ReadingColumns.fromMillis(split);
+                String granularity = width % DAY_MILLIS == 0 ? ReadingRollup.DAILY : ReadingRollup.HOURLY;
+                for (ReadingRollup rollup : mergeRollups(
+                        rollupManager.getSensorRollups(sensorId, granularity, fromDate, splitDate), rollupWidth)) {
+                    JsonObjectBuilder bucketJson = Json.createObjectBuilder()
+                            .add("timestamp", rollup.getBucketStart().toString())
+                            .add("count", rollup.getCount());
+                    for (Metric metric : metrics) {
+                        MetricSummary summary = rollup.getMetric(metric);
+                        if (summary != null && summary.getCount() > 0) {
+                            bucketJson.add(metric.getJsonName(), Json.createObjectBuilder()
+                                    .add("min", summary.getMin())
+                                    .add("max", summary.getMax())
+                                    .add("avg", summary.getAvg()));
+                        }
+                    }
+                    arrayBuilder.add(bucketJson);
+                }
+                fromDate = splitDate;
+            }
+
+            ReadingColumns readings = fromDate.isAfter(toDate)
+                    ? ReadingColumns.fromReadings(List.of())
+                    : loadReadings(sensorId, fromDate, toDate);
+
+            TimeBuckets.forEach(readings, width, (start, first, end) -> {
+                JsonObjectBuilder bucketJson = Json.createObjectBuilder()
+                        .add("timestamp", ReadingColumns.fromMillis(start).toString())
+                        .add("count", end - first);
+                for (Metric metric : metrics) {
+                    ColumnStats stats = ColumnAggregates.aggregate(readings, metric, first, end);
+                    if (!stats.isEmpty()) {
+                        bucketJson.add(metric.getJsonName(), Json.createObjectBuilder()
+                                .add("min", stats.getMin())
+                                .add("max", stats.getMax())
+                                .add("avg", stats.getMean()));
+                    }
+                }
+                arrayBuilder.add(bucketJson);
+            });
+            return Response.ok(arrayBuilder.build()).build();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Json.createObjectBuilder().add("message", e.getMessage()).build()).build();
+        } catch (Exception e) {
+            logger.severe("Error aggregating sensor readings: " + e.getMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error aggregating readings").build();
+        }
+    }
+
+    /**
+     * Merges consecutive rollups into buckets of the given width, aligned like {@link TimeBuckets}.
+     */
+    static List<ReadingRollup> mergeRollups(List<ReadingRollup> rollups, long widthMillis) {
+        Map<Long, ReadingRollup> buckets = new LinkedHashMap<>();
+        for (ReadingRollup rollup : rollups) {
+            long start = Math.floorDiv(ReadingColumns.toMillis(rollup.getBucketStart()), widthMillis) * widthMillis;
+            buckets.computeIfAbsent(start, s -> new ReadingRollup(rollup.getSensorId(), rollup.getFieldId(),
+                    rollup.getGranularity(), ReadingColumns.fromMillis(s))).add(rollup);
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the range is reversed or longer than allowed
+     */
+    private void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxWindowDays)) > 0) {
+            throw new IllegalArgumentException("Time range is limited to " + maxWindowDays + " days");
+        }
+    }
+
+    /**
+     * Loads the sensor's readings for the range from the hot window when it
+     * covers the range, otherwise from MongoDB and the cold store.
+     *
+     * @throws IllegalArgumentException if the range holds more readings than can be aggregated at once
+     */
+    private ReadingColumns loadReadings(String sensorId, LocalDateTime from, LocalDateTime to) {
+        return hotReadingStore.scanSensor(sensorId, from, to).orElseGet(() -> {
+            List<SensorReading> readings = manager.getSensorReadingsByTimeRange(
+                    sensorId, from, to, maxAggregateRows + 1);
+            if (readings.size() > maxAggregateRows) {
+                throw new IllegalArgumentException("Too many readings in range, use a shorter range");
+            }
+            return ReadingColumns.fromReadings(readings);
+        });
+    }
+}
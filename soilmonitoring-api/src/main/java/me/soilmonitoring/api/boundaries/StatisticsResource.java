@@ -5,91 +5,94 @@ import jakarta.inject.Inject;
 import jakarta.json.Json;
 import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
-import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.entities.FieldState;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
 import me.soilmonitoring.api.security.Secured;
+import me.soilmonitoring.api.serialization.CborMessageBodyWriter;
+import me.soilmonitoring.api.timeseries.ColumnAggregates;
+import me.soilmonitoring.api.timeseries.ColumnStats;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
 @Path("/statistics")
 @Secured
 @RequestScoped
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
 public class StatisticsResource {
 
     @Inject
     private Logger logger;
 
+    @Inject
+    private BlockingCallExecutor executor;
+
     @Inject
     private SoilMonitoringManager manager;
 
+    @Inject
+    private HotReadingStore hotReadingStore;
+
+    @Inject
+    private FieldStateManager fieldStateManager;
+
     /**
      * Get hourly averages for the last 24 hours
      */
     @GET
     @Path("/field/{fieldId}/hourly")
-    public Response getHourlyStatistics(@PathParam("fieldId") String fieldId) {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime yesterday = now.minusHours(24);
-
-            List<SensorReading> readings = manager.getFieldReadingsByTimeRange(
-                    fieldId, yesterday, now
-            );
-
-            if (readings.isEmpty()) {
-                return Response.ok("[]").build();
-            }
+    public CompletionStage<Response> getHourlyStatistics(@PathParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                // Truncated so dashboards refreshing together issue identical,
+                // coalescable range queries
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+                LocalDateTime yesterday = now.minusHours(24);
+
+                ReadingColumns readings = loadReadings(fieldId, yesterday, now);
+
+                if (readings.isEmpty()) {
+                    return Response.ok(JsonValue.EMPTY_JSON_ARRAY).build();
+                }
 
-            // Group by hour and calculate averages
-            JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
-
-            for (int i = 0; i < 24; i++) {
-                LocalDateTime hourStart = yesterday.plusHours(i);
-                LocalDateTime hourEnd = hourStart.plusHours(1);
-
-                List<SensorReading> hourReadings = readings.stream()
-                        .filter(r -> r.getTimestamp().isAfter(hourStart) &&
-                                r.getTimestamp().isBefore(hourEnd))
-                        .toList();
-
-                if (!hourReadings.isEmpty()) {
-                    double avgTemp = hourReadings.stream()
-                            .mapToDouble(r -> r.getData().getTemperature() != null ?
-                                    r.getData().getTemperature() : 0)
-                            .average().orElse(0);
-
-                    double avgHumidity = hourReadings.stream()
-                            .mapToDouble(r -> r.getData().getHumidity() != null ?
-                                    r.getData().getHumidity() : 0)
-                            .average().orElse(0);
-
-                    double avgMoisture = hourReadings.stream()
-                            .mapToDouble(r -> r.getData().getSoilMoisture() != null ?
-                                    r.getData().getSoilMoisture() : 0)
-                            .average().orElse(0);
-
-                    arrayBuilder.add(Json.createObjectBuilder()
-                            .add("timestamp", hourStart.toString())
-                            .add("temperature", avgTemp)
-                            .add("humidity", avgHumidity)
-                            .add("soilMoisture", avgMoisture)
-                            .add("count", hourReadings.size())
-                    );
+                // Readings are sorted, so every hour is a contiguous row range
+                JsonArrayBuilder arrayBuilder = Json.createArrayBuilder();
+
+                for (int i = 0; i < 24; i++) {
+                    LocalDateTime hourStart = yesterday.plusHours(i);
+                    int first = readings.lowerBound(ReadingColumns.toMillis(hourStart));
+                    int end = readings.lowerBound(ReadingColumns.toMillis(hourStart.plusHours(1)));
+
+                    if (end > first) {
+                        arrayBuilder.add(Json.createObjectBuilder()
+                                .add("timestamp", hourStart.toString())
+                                .add("temperature", average(readings, Metric.TEMPERATURE, first, end))
+                                .add("humidity", average(readings, Metric.HUMIDITY, first, end))
+                                .add("soilMoisture", average(readings, Metric.SOIL_MOISTURE, first, end))
+                                .add("count", end - first)
+                        );
+                    }
                 }
-            }
 
-            return Response.ok(arrayBuilder.build().toString()).build();
+                return Response.ok(arrayBuilder.build()).build();
 
-        } catch (Exception e) {
-            logger.severe("Error getting hourly statistics: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        }
+            } catch (Exception e) {
+                logger.severe("Error getting hourly statistics: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+            }
+        });
     }
 
     /**
@@ -97,51 +100,78 @@ public class StatisticsResource {
      */
     @GET
     @Path("/field/{fieldId}/today")
-    public Response getTodaySummary(@PathParam("fieldId") String fieldId) {
-        try {
-            LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime now = LocalDateTime.now();
-
-            List<SensorReading> readings = manager.getFieldReadingsByTimeRange(
-                    fieldId, startOfDay, now
-            );
-
-            if (readings.isEmpty()) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity("{\"message\":\"No readings for today\"}").build();
+    public CompletionStage<Response> getTodaySummary(@PathParam("fieldId") String fieldId) {
+        return executor.supply(() -> {
+            try {
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+                LocalDateTime startOfDay = now.truncatedTo(ChronoUnit.DAYS);
+
+                // Today's running statistics are kept in the materialized field state
+                FieldState state = fieldStateManager.findState(fieldId).orElse(null);
+                if (state != null && startOfDay.toLocalDate().equals(state.getDay())
+                        && state.getTodayReadingCount() > 0) {
+                    MetricSummary temperature = state.getToday(Metric.TEMPERATURE);
+                    return Response.ok(Json.createObjectBuilder()
+                            .add("date", state.getDay().toString())
+                            .add("readingCount", state.getTodayReadingCount())
+                            .add("temperature", Json.createObjectBuilder()
+                                    .add("min", temperature != null ? temperature.getMin() : 0)
+                                    .add("max", temperature != null ? temperature.getMax() : 0)
+                                    .add("avg", temperature != null ? temperature.getAvg() : 0)
+                            )
+                            .build()).build();
+                }
+
+                ReadingColumns readings = loadReadings(fieldId, startOfDay, now);
+
+                if (readings.isEmpty()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity("{\"message\":\"No readings for today\"}").build();
+                }
+
+                // Calculate min, max, avg over the readings that carry a temperature
+                ColumnStats temperature = ColumnAggregates.aggregate(readings, Metric.TEMPERATURE);
+                double minTemp = orZero(temperature.getMin());
+                double maxTemp = orZero(temperature.getMax());
+                double avgTemp = orZero(temperature.getMean());
+
+                JsonObject summary = Json.createObjectBuilder()
+                        .add("date", startOfDay.toLocalDate().toString())
+                        .add("readingCount", readings.size())
+                        .add("temperature", Json.createObjectBuilder()
+                                .add("min", minTemp)
+                                .add("max", maxTemp)
+                                .add("avg", avgTemp)
+                        )
+                        .build();
+
+                return Response.ok(summary).build();
+
+            } catch (Exception e) {
+                logger.severe("Error getting today's summary: " + e.getMessage());
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
             }
+        });
+    }
+
+    /**
+     * Loads the field's readings for the range from the hot window when it
+     * covers the range, otherwise from MongoDB.
+     */
+    private ReadingColumns loadReadings(String fieldId, LocalDateTime from, LocalDateTime to) {
+        return hotReadingStore.scanField(fieldId, from, to)
+                .orElseGet(() -> ReadingColumns.fromReadings(
+                        manager.getFieldReadingsByTimeRange(fieldId, from, to)));
+    }
+
+    /**
+     * Average of a metric over rows {@code [first, end)}, ignoring rows where it is absent.
+     */
+    private static double average(ReadingColumns readings, Metric metric, int first, int end) {
+        return orZero(ColumnAggregates.aggregate(readings, metric, first, end).getMean());
+    }
 
-            // Calculate min, max, avg
-            double minTemp = readings.stream()
-                    .mapToDouble(r -> r.getData().getTemperature() != null ?
-                            r.getData().getTemperature() : Double.MAX_VALUE)
-                    .min().orElse(0);
-
-            double maxTemp = readings.stream()
-                    .mapToDouble(r -> r.getData().getTemperature() != null ?
-                            r.getData().getTemperature() : Double.MIN_VALUE)
-                    .max().orElse(0);
-
-            double avgTemp = readings.stream()
-                    .mapToDouble(r -> r.getData().getTemperature() != null ?
-                            r.getData().getTemperature() : 0)
-                    .average().orElse(0);
-
-            JsonObject summary = Json.createObjectBuilder()
-                    .add("date", startOfDay.toLocalDate().toString())
-                    .add("readingCount", readings.size())
-                    .add("temperature", Json.createObjectBuilder()
-                            .add("min", minTemp)
-                            .add("max", maxTemp)
-                            .add("avg", avgTemp)
-                    )
-                    .build();
-
-            return Response.ok(summary.toString()).build();
-
-        } catch (Exception e) {
-            logger.severe("Error getting today's summary: " + e.getMessage());
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
-        }
+    private static double orZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
     }
-}
\ No newline at end of file
+}
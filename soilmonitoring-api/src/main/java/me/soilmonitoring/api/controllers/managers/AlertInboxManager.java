@@ -0,0 +1,300 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.controllers.repositories.AlertDocuments;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.MongoDates;
+import me.soilmonitoring.api.entities.Alert;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Serves a user's alerts: their history one page at a time, the unread
+ * count, and bulk changes.
+ *
+ * The history is read newest first with keyset pagination on
+ * {@code (createdAt, _id)}: a page resumes strictly after the last alert of
+ * the previous one, so with the compound indexes created by
+ * {@link me.soilmonitoring.api.controllers.repositories.MongoIndexes} every
+ * page reads only its own alerts however long the history is, and alerts
+ * raised meanwhile do not shift the pages. {@code createdAt} is compared in
+ * the string form JNoSQL stores it in (see
+ * {@link me.soilmonitoring.api.controllers.repositories.MongoDates}), and
+ * the cursor carries that exact string.
+ *
+ * A user's count is seeded once with a count query and then moved by the
+ * creation, reading and deletion of single alerts, so reading it never loads
+ * the alerts; a field's count is the one of its
+ * {@link me.soilmonitoring.api.entities.FieldState}, kept by
+ * {@link FieldStateManager}. Marking all alerts read and deleting old alerts
+ * are a single {@code updateMany} / {@code deleteMany}, after which the
+ * counts they touched are recounted rather than adjusted, since alerts may
+ * have been created meanwhile.
+ */
+@Singleton
+public class AlertInboxManager {
+
+    private static final Logger logger = Logger.getLogger(AlertInboxManager.class.getName());
+
+    static final String ALERTS = AlertDocuments.COLLECTION;
+
+    @Inject
+    private AlertRepository alertRepository;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @Inject
+    private FieldStateManager fieldStateManager;
+
+    @Inject
+    private AlertStateManager alertStateManager;
+
+    /**
+     * Optional criteria of a history query; null matches any value.
+     */
+    public record HistoryFilter(String fieldId, String severity, String alertType, boolean unreadOnly) {
+    }
+
+    /**
+     * A page of alerts, newest first.
+     *
+     * @param alerts     the alerts
+     * @param nextCursor the cursor of the next page, or null on the last page
+     */
+    public record Page(List<Alert> alerts, String nextCursor) {
+    }
+
+    private final ConcurrentHashMap<String, AtomicLong> unread = new ConcurrentHashMap<>();
+
+    /**
+     * Reads a page of a user's alerts, newest first.
+     *
+     * @param userId the ID of the user
+     * @param filter the criteria
+     * @param cursor the {@link Page#nextCursor()} of the previous page, or null for the first page
+     * @param limit  the maximum number of alerts
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page findPage(String userId, HistoryFilter filter, String cursor, int limit) {
+        List<Bson> criteria = new ArrayList<>();
+        criteria.add(Filters.eq("userId", userId));
+        if (filter.unreadOnly()) {
+            criteria.add(Filters.eq("isRead", false));
+        }
+        if (filter.fieldId() != null) {
+            criteria.add(Filters.eq("fieldId", filter.fieldId()));
+        }
+        if (filter.severity() != null) {
+            criteria.add(Filters.eq("severity", filter.severity()));
+        }
+        if (filter.alertType() != null) {
+            criteria.add(Filters.eq("alertType", filter.alertType()));
+        }
+        if (cursor != null) {
+            Keyset after = Keyset.decode(cursor);
+            String createdAt = MongoDates.encode(after.createdAt());
+            criteria.add(Filters.or(
+                    Filters.lt("createdAt", createdAt),
+                    Filters.and(Filters.eq("createdAt", createdAt), Filters.lt("_id", after.id()))));
+        }
+
+        List<Alert> alerts = new ArrayList<>(limit + 1);
+        for (Document document : mongo.collection(ALERTS)
+                .find(Filters.and(criteria))
+                .sort(Sorts.descending("createdAt", "_id"))
+                .limit(limit + 1)) {
+            alerts.add(AlertDocuments.toAlert(document));
+        }
+        if (alerts.size() <= limit) {
+            return new Page(alerts, null);
+        }
+        alerts.remove(limit);
+        Alert last = alerts.get(limit - 1);
+        return new Page(alerts, new Keyset(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * @param userId the ID of the user
+     * @return the number of unread alerts of the user
+     */
+    public long countUnread(String userId) {
+        AtomicLong count = unread.computeIfAbsent(userId,
+                id -> new AtomicLong(alertRepository.countByUserIdAndIsRead(id, false)));
+        return Math.max(0, count.get());
+    }
+
+    /**
+     * Counts a new unread alert.
+     *
+     * @param alert the saved alert
+     */
+    public void onAlertCreated(Alert alert) {
+        if (!Boolean.TRUE.equals(alert.getIsRead())) {
+            adjust(alert.getUserId(), 1);
+        }
+    }
+
+    /**
+     * Uncounts an alert that was unread and has been marked read.
+     *
+     * @param alert the alert
+     */
+    public void onAlertRead(Alert alert) {
+        adjust(alert.getUserId(), -1);
+    }
+
+    /**
+     * Uncounts a deleted alert if it was still unread.
+     *
+     * @param alert the alert as it was before deletion
+     */
+    public void onAlertDeleted(Alert alert) {
+        if (!Boolean.TRUE.equals(alert.getIsRead())) {
+            adjust(alert.getUserId(), -1);
+        }
+    }
+
+    /**
+     * Forgets a user's count, so the next read counts again.
+     *
+     * @param userId the ID of the user
+     */
+    public void recountUnread(String userId) {
+        if (userId != null) {
+            unread.remove(userId);
+        }
+    }
+
+    /**
+     * Marks every unread alert of a user read in one update.
+     *
+     * @param userId  the ID of the user
+     * @param fieldId only the alerts of this field, or null for all of them
+     * @return the number of alerts marked read
+     */
+    public long markAllRead(String userId, String fieldId) {
+        LocalDateTime now = LocalDateTime.now();
+        Bson filter = Filters.and(Filters.eq("userId", userId), Filters.eq("isRead", false));
+        if (fieldId != null) {
+            filter = Filters.and(filter, Filters.eq("fieldId", fieldId));
+        }
+        List<String> fieldIds = fieldId != null ? List.of(fieldId) : fieldIds(filter);
+        long updated = mongo.collection(ALERTS)
+                .updateMany(filter, Updates.set("isRead", true))
+                .getModifiedCount();
+
+        for (String id : fieldIds) {
+            alertStateManager.onAlertsRead(id, now);
+        }
+        recount(userId, fieldIds);
+        logger.info("Marked " + updated + " alerts of user " + userId + " read");
+        return updated;
+    }
+
+    /**
+     * Deletes the alerts of a user created before a time in one delete.
+     *
+     * @param userId the ID of the user
+     * @param before the alerts created before this time are deleted
+     * @return the number of alerts deleted
+     */
+    public long deleteOlderThan(String userId, LocalDateTime before) {
+        Bson filter = Filters.and(Filters.eq("userId", userId), Filters.lt("createdAt", MongoDates.encode(before)));
+        List<String> fieldIds = fieldIds(filter);
+        long deleted = mongo.collection(ALERTS).deleteMany(filter).getDeletedCount();
+
+        for (String fieldId : fieldIds) {
+            alertStateManager.onAlertsDeleted(fieldId, before);
+        }
+        recount(userId, fieldIds);
+        logger.info("Deleted " + deleted + " alerts of user " + userId + " created before " + before);
+        return deleted;
+    }
+
+    /**
+     * Deletes the alerts of every user created before a time in one delete,
+     * for {@code retention.alerts.days}.
+     *
+     * @param before the alerts created before this time are deleted
+     * @return the number of alerts deleted
+     */
+    public long deleteOlderThan(LocalDateTime before) {
+        Bson filter = Filters.lt("createdAt", MongoDates.encode(before));
+        List<String> fieldIds = fieldIds(filter);
+        long deleted = mongo.collection(ALERTS).deleteMany(filter).getDeletedCount();
+
+        for (String fieldId : fieldIds) {
+            alertStateManager.onAlertsDeleted(fieldId, before);
+            fieldStateManager.recountUnread(fieldId);
+        }
+        unread.clear(); // seeded again by the next reads
+        logger.info("Deleted " + deleted + " alerts created before " + before);
+        return deleted;
+    }
+
+    /**
+     * The position of the last alert of a page, sent to clients as an opaque string.
+     */
+    record Keyset(LocalDateTime createdAt, String id) {
+
+        private static final char SEPARATOR = '/';
+
+        String encode() {
+            String key = MongoDates.encode(createdAt) + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Keyset decode(String cursor) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = key.indexOf(SEPARATOR);
+                return new Keyset(LocalDateTime.parse(key.substring(0, separator)), key.substring(separator + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    private List<String> fieldIds(Bson filter) {
+        List<String> fieldIds = new ArrayList<>();
+        mongo.collection(ALERTS).distinct("fieldId", filter, String.class).into(fieldIds);
+        fieldIds.removeIf(Objects::isNull);
+        return fieldIds;
+    }
+
+    private void recount(String userId, List<String> fieldIds) {
+        unread.remove(userId); // seeded again by the next read
+        for (String fieldId : fieldIds) {
+            fieldStateManager.recountUnread(fieldId);
+        }
+    }
+
+    private void adjust(String userId, long delta) {
+        if (userId == null) {
+            return;
+        }
+        // A user not counted yet is seeded by a count that already sees this change
+        AtomicLong count = unread.get(userId);
+        if (count != null) {
+            count.addAndGet(delta);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.controllers.repositories.AlertDocuments;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.events.AlertDigestEvent;
+import me.soilmonitoring.api.events.AlertTriggeredEvent;
+import org.bson.BsonType;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Writes alert state changes and announces new and escalated alerts,
+ * durably and in batches.
+ *
+ * An alert to announce is written with a pending {@code notification}
+ * marker in its own document, and the marker is removed once the alert was
+ * announced; the alerts still marked after a restart are announced again, so
+ * every alert is announced at least once, and flagged as a redelivery so
+ * their counts are recounted rather than incremented twice. Queued alerts
+ * are written in the same representation as {@code alertRepository.save}
+ * (see {@link AlertDocuments}). High severity alerts take the
+ * express lane: they are written and announced at once. Low and medium ones
+ * are queued, written by {@link #flush()} in one unordered bulk upsert, and
+ * announced by {@link #deliver()} in one {@link AlertDigestEvent} per user.
+ * Later changes of a queued alert are folded into its queued write, and the
+ * markers of announced alerts are removed in bulk by the next flush.
+ */
+@Singleton
+public class AlertOutbox {
+
+    private static final Logger logger = Logger.getLogger(AlertOutbox.class.getName());
+
+    static final String ALERTS = AlertDocuments.COLLECTION;
+    static final String EXPRESS_SEVERITY = "high";
+
+    @Inject
+    private AlertRepository alertRepository;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @Inject
+    private Event<AlertTriggeredEvent> alertEvent;
+
+    @Inject
+    private Event<AlertDigestEvent> digestEvent;
+
+    /**
+     * A queued write; {@code announce} once written if the alert is new or escalated.
+     */
+    private record Queued(Alert alert, boolean announce) {
+    }
+
+    /**
+     * An announced alert whose marker is still to be removed.
+     */
+    private record Announced(String id, String notification) {
+    }
+
+    private final Object lock = new Object();
+    private final Map<String, Queued> queued = new LinkedHashMap<>(); // guarded by lock
+    private final Set<String> writing = new HashSet<>(); // guarded by lock
+    private final ConcurrentLinkedQueue<Alert> undelivered = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Announced> announced = new ConcurrentLinkedQueue<>();
+    private final Set<String> redelivered = ConcurrentHashMap.newKeySet();
+    private volatile boolean recovered;
+
+    /**
+     * Writes a state change of an alert, and announces it if it is new or
+     * escalated; only high severity alerts are written and announced at once.
+     *
+     * @param change the change
+     */
+    public void submit(AlertStateManager.Change change) {
+        Alert alert = change.alert();
+        AlertStateManager.Transition transition = change.transition();
+        if (transition == AlertStateManager.Transition.NONE) {
+            return;
+        }
+        boolean raised = transition == AlertStateManager.Transition.RAISED;
+        boolean announce = raised || transition == AlertStateManager.Transition.ESCALATED;
+        if (raised) {
+            alert.setNotification(Alert.NOTIFY_NEW);
+        } else if (announce && alert.getNotification() == null) {
+            // an alert not announced yet is still announced as new
+            alert.setNotification(Alert.NOTIFY_ESCALATED);
+        }
+
+        boolean express = announce && isExpress(alert);
+        if (queue(alert, raised && !express, announce)) {
+            return;
+        }
+        alertRepository.save(alert);
+        if (express) {
+            announce(alert);
+        } else if (announce) {
+            undelivered.add(alert);
+        }
+    }
+
+    /**
+     * @return the number of alerts waiting to be written
+     */
+    public int queuedCount() {
+        synchronized (lock) {
+            return queued.size();
+        }
+    }
+
+    /**
+     * Writes the queued alerts in one bulk upsert and removes the markers of
+     * the alerts announced since the last flush; on failure the alerts stay
+     * queued for the next flush.
+     *
+     * @return the number of alerts written
+     */
+    public int flush() {
+        if (!recovered) {
+            recover();
+        }
+        List<Queued> batch;
+        synchronized (lock) {
+            batch = new ArrayList<>(queued.values());
+            queued.clear();
+            batch.forEach(entry -> writing.add(entry.alert().getId()));
+        }
+        if (!batch.isEmpty()) {
+            List<WriteModel<Document>> writes = new ArrayList<>(batch.size());
+            for (Queued entry : batch) {
+                writes.add(new ReplaceOneModel<>(Filters.eq("_id", entry.alert().getId()),
+                        AlertDocuments.toDocument(entry.alert()), new ReplaceOptions().upsert(true)));
+            }
+            try {
+                mongo.collection(ALERTS).bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    for (Queued entry : batch) {
+                        writing.remove(entry.alert().getId());
+                        queued.merge(entry.alert().getId(), entry, (newer, older) ->
+                                new Queued(newer.alert(), newer.announce() || older.announce()));
+                    }
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                batch.forEach(entry -> writing.remove(entry.alert().getId()));
+            }
+            for (Queued entry : batch) {
+                if (!entry.announce()) {
+                    continue;
+                }
+                if (isExpress(entry.alert())) {
+                    announce(entry.alert());
+                } else {
+                    undelivered.add(entry.alert());
+                }
+            }
+        }
+        removeMarkers();
+        return batch.size();
+    }
+
+    /**
+     * Announces the written alerts waiting for a digest: one event per user,
+     * a plain {@link AlertTriggeredEvent} when the user has a single alert.
+     *
+     * @return the number of alerts announced
+     */
+    public int deliver() {
+        Map<String, Alert> pending = new LinkedHashMap<>();
+        for (Alert alert = undelivered.poll(); alert != null; alert = undelivered.poll()) {
+            pending.put(alert.getId(), alert);
+        }
+        Map<String, List<Alert>> byUser = new LinkedHashMap<>();
+        for (Alert alert : pending.values()) {
+            if (alert.getNotification() != null) {
+                byUser.computeIfAbsent(alert.getUserId(), userId -> new ArrayList<>()).add(alert);
+            }
+        }
+
+        int count = 0;
+        for (Map.Entry<String, List<Alert>> user : byUser.entrySet()) {
+            List<AlertTriggeredEvent> events = new ArrayList<>(user.getValue().size());
+            for (Alert alert : user.getValue()) {
+                events.add(event(alert));
+            }
+            if (events.size() == 1) {
+                alertEvent.fireAsync(events.get(0));
+            } else {
+                digestEvent.fireAsync(new AlertDigestEvent(user.getKey(), events));
+            }
+            user.getValue().forEach(this::acknowledge);
+            count += events.size();
+        }
+        if (count > 0) {
+            logger.info("Announced " + count + " alerts to " + byUser.size() + " users");
+        }
+        return count;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+            deliver();
+        } catch (Exception e) {
+            logger.warning("Failed to flush the alert outbox on shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queues a write if the alert is new, or already queued or being written,
+     * so the writes of an alert stay in order.
+     */
+    private boolean queue(Alert alert, boolean isNew, boolean announce) {
+        synchronized (lock) {
+            Queued existing = queued.get(alert.getId());
+            if (!isNew && existing == null && !writing.contains(alert.getId())) {
+                return false;
+            }
+            queued.put(alert.getId(), new Queued(alert, announce || (existing != null && existing.announce())));
+            return true;
+        }
+    }
+
+    private void announce(Alert alert) {
+        alertEvent.fireAsync(event(alert));
+        acknowledge(alert);
+    }
+
+    private AlertTriggeredEvent event(Alert alert) {
+        return new AlertTriggeredEvent(alert, Alert.NOTIFY_ESCALATED.equals(alert.getNotification()),
+                redelivered.remove(alert.getId()));
+    }
+
+    private void acknowledge(Alert alert) {
+        String notification = alert.getNotification();
+        alert.setNotification(null);
+        announced.add(new Announced(alert.getId(), notification));
+    }
+
+    /**
+     * Removes the markers of the announced alerts, one update per kind; a
+     * marker set again since (an escalation) is left alone.
+     */
+    private void removeMarkers() {
+        Map<String, List<String>> byNotification = new HashMap<>();
+        List<Announced> drained = new ArrayList<>();
+        for (Announced entry = announced.poll(); entry != null; entry = announced.poll()) {
+            drained.add(entry);
+            byNotification.computeIfAbsent(entry.notification(), notification -> new ArrayList<>()).add(entry.id());
+        }
+        try {
+            for (Map.Entry<String, List<String>> kind : byNotification.entrySet()) {
+                mongo.collection(ALERTS).updateMany(
+                        Filters.and(Filters.in("_id", kind.getValue()), Filters.eq("notification", kind.getKey())),
+                        Updates.unset("notification"));
+            }
+        } catch (RuntimeException e) {
+            announced.addAll(drained);
+            logger.warning("Failed to acknowledge announced alerts, retrying next flush: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queues the alerts written but not announced before a restart; the
+     * alerts this instance announced or queued since are left out.
+     */
+    private synchronized void recover() {
+        if (recovered) {
+            return;
+        }
+        Set<String> known = new HashSet<>();
+        announced.forEach(entry -> known.add(entry.id()));
+        undelivered.forEach(alert -> known.add(alert.getId()));
+        synchronized (lock) {
+            known.addAll(queued.keySet());
+            known.addAll(writing);
+        }
+        int count = 0;
+        for (Document document : mongo.collection(ALERTS).find(Filters.type("notification", BsonType.STRING))) {
+            if (known.contains(document.getString("_id"))) {
+                continue;
+            }
+            Alert alert;
+            try {
+                alert = AlertDocuments.toAlert(document);
+            } catch (RuntimeException e) {
+                logger.warning("Skipping unreadable alert " + document.get("_id") + ": " + e.getMessage());
+                continue;
+            }
+            redelivered.add(alert.getId());
+            undelivered.add(alert);
+            count++;
+        }
+        recovered = true;
+        if (count > 0) {
+            logger.info("Recovered " + count + " alerts not announced before the restart");
+        }
+    }
+
+    private static boolean isExpress(Alert alert) {
+        return EXPRESS_SEVERITY.equals(alert.getSeverity());
+    }
+}
@@ -0,0 +1,164 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.alerts.AlertRuleBook;
+import me.soilmonitoring.api.alerts.AlertRuleTable;
+import me.soilmonitoring.api.controllers.repositories.AlertRuleRepository;
+import me.soilmonitoring.api.controllers.repositories.FieldRepository;
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Holds the alert rules and the compiled {@link AlertRuleTable} of every field.
+ *
+ * Tables are compiled on first use and cached per field; they are dropped
+ * when the rules change, through this manager or in the database (see
+ * {@link #reloadIfChanged()}), and when a field's crop or soil type changes.
+ */
+@Singleton
+public class AlertRuleManager {
+
+    private static final Logger logger = Logger.getLogger(AlertRuleManager.class.getName());
+
+    private static final String NO_FIELD = "";
+
+    @Inject
+    private AlertRuleRepository alertRuleRepository;
+
+    @Inject
+    private FieldRepository fieldRepository;
+
+    /**
+     * The rules and the tables compiled from them, swapped as a whole on reload
+     * so a table compiled from replaced rules is never cached.
+     */
+    private record Snapshot(AlertRuleBook book, ConcurrentHashMap<String, AlertRuleTable> tables) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param fieldId the field of a reading, may be null
+     * @return the compiled rules of the field
+     */
+    public AlertRuleTable rulesFor(String fieldId) {
+        Snapshot current = snapshot();
+        String key = fieldId != null ? fieldId : NO_FIELD;
+        AlertRuleTable table = current.tables().get(key);
+        if (table != null) {
+            return table;
+        }
+        return current.tables().computeIfAbsent(key, id -> compile(current.book(), fieldId));
+    }
+
+    private AlertRuleTable compile(AlertRuleBook book, String fieldId) {
+        Field field = fieldId != null ? fieldRepository.findById(fieldId).orElse(null) : null;
+        try {
+            return AlertRuleTable.compile(book.resolve(field));
+        } catch (IllegalArgumentException e) {
+            // Rules are validated on write; a bad document edited in place must not stop alerting
+            logger.severe("Invalid alert rules for field " + fieldId + ", using built-in rules: " + e.getMessage());
+            return AlertRuleTable.compile(AlertRuleBook.builtIn());
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = new Snapshot(load(), new ConcurrentHashMap<>());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private AlertRuleBook load() {
+        return new AlertRuleBook(alertRuleRepository.findAll().toList());
+    }
+
+    /**
+     * Reloads the rules and drops the compiled tables if they changed in the database.
+     *
+     * @return whether they changed
+     */
+    public synchronized boolean reloadIfChanged() {
+        AlertRuleBook loaded = load();
+        Snapshot current = snapshot;
+        if (current != null && current.book().getFingerprint().equals(loaded.getFingerprint())) {
+            return false;
+        }
+        snapshot = new Snapshot(loaded, new ConcurrentHashMap<>());
+        if (current != null) {
+            logger.info("Alert rules reloaded");
+        }
+        return true;
+    }
+
+    /**
+     * Drops the compiled table of a field whose crop or soil type may have changed.
+     */
+    public void invalidateField(String fieldId) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.tables().remove(fieldId);
+        }
+    }
+
+    public Optional<AlertRule> findRule(String ruleId) {
+        return alertRuleRepository.findById(ruleId);
+    }
+
+    public List<AlertRule> getRules() {
+        return alertRuleRepository.findAll().toList();
+    }
+
+    /**
+     * @return the rules applying to a field, stored and built-in
+     */
+    public List<AlertRule> getFieldRules(Field field) {
+        return snapshot().book().resolve(field);
+    }
+
+    /**
+     * Creates or replaces a rule and applies it to the next readings.
+     *
+     * @throws IllegalArgumentException if the rule is invalid
+     */
+    public AlertRule save(AlertRule rule) {
+        String scope = rule.getScope() != null ? rule.getScope() : AlertRule.DEFAULT;
+        if (!List.of(AlertRule.DEFAULT, AlertRule.SOIL, AlertRule.CROP, AlertRule.FIELD).contains(scope)) {
+            throw new IllegalArgumentException("Unknown scope: " + scope);
+        }
+        if (!scope.equals(AlertRule.DEFAULT) && (rule.getScopeValue() == null || rule.getScopeValue().isBlank())) {
+            throw new IllegalArgumentException("A scopeValue is required for scope " + scope);
+        }
+        AlertRuleTable.validate(rule);
+        rule.setScope(scope);
+        if (rule.getId() == null) {
+            rule.setId(UUID.randomUUID().toString());
+        }
+        if (rule.getEnabled() == null) {
+            rule.setEnabled(true);
+        }
+        rule.setUpdatedAt(LocalDateTime.now());
+        AlertRule saved = alertRuleRepository.save(rule);
+        reloadIfChanged();
+        return saved;
+    }
+
+    public void delete(String ruleId) {
+        alertRuleRepository.deleteById(ruleId);
+        reloadIfChanged();
+    }
+}
@@ -0,0 +1,322 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.alerts.AlertRuleTable;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Metric;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns rule matches into alert state changes, so alerts are written when a
+ * condition starts, gets worse or ends rather than on every reading.
+ *
+ * Each field has at most one alert per metric and alert type. While it is
+ * open, further matches only count occurrences, written at most every
+ * {@code alerts.occurrences.flush.seconds}; a more severe match escalates it.
+ * It clears once the value is back past the threshold by the rule's
+ * hysteresis band, and a match within {@code alerts.cooldown.minutes} of
+ * clearing reopens it instead of raising a new alert. Alerts of windowed
+ * rules are raised and cleared by their window's value only, never by a
+ * single reading.
+ */
+@Singleton
+public class AlertStateManager {
+
+    /**
+     * What a reading changed; the alert must be saved unless {@link #NONE}.
+     */
+    public enum Transition {
+        NONE, RAISED, ESCALATED, REOPENED, COUNTED, CLEARED
+    }
+
+    /**
+     * A transition and the alert it applies to.
+     */
+    public record Change(Transition transition, Alert alert) {
+        static final Change NONE = new Change(Transition.NONE, null);
+    }
+
+    @Inject
+    private AlertRepository alertRepository;
+
+    @Inject
+    @ConfigProperty(name = "alerts.cooldown.minutes", defaultValue = "30")
+    long cooldownMinutes = 30;
+
+    @Inject
+    @ConfigProperty(name = "alerts.hysteresis.percent", defaultValue = "5")
+    double hysteresisPercent = 5;
+
+    @Inject
+    @ConfigProperty(name = "alerts.occurrences.flush.seconds", defaultValue = "300")
+    long flushSeconds = 300;
+
+    /**
+     * The open alert of a metric and type, or the last cleared one while cooling down.
+     */
+    private static final class AlertState {
+        final Metric metric;
+        final Alert alert;
+        AlertRule rule; // the rule that last matched; null if restored after a restart
+        LocalDateTime flushedAt;
+
+        AlertState(Metric metric, Alert alert, AlertRule rule, LocalDateTime flushedAt) {
+            this.metric = metric;
+            this.alert = alert;
+            this.rule = rule;
+            this.flushedAt = flushedAt;
+        }
+
+        boolean isOpen() {
+            return Alert.OPEN.equals(alert.getStatus());
+        }
+    }
+
+    private final ConcurrentHashMap<String, Map<String, AlertState>> fields = new ConcurrentHashMap<>();
+
+    /**
+     * Applies the outcome of a field's rules on one metric of a reading.
+     *
+     * @param fieldId the field of the reading
+     * @param metric  the metric
+     * @param rules   the field's rules
+     * @param fired   the rule that matched, or -1
+     * @param value   the reading's value of the metric
+     * @return the resulting change
+     */
+    public Change onEvaluation(String fieldId, Metric metric, AlertRuleTable rules, int fired, double value) {
+        Map<String, AlertState> states = states(fieldId);
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (states) {
+            if (fired < 0) {
+                return clear(states, metric, rules, value, now);
+            }
+            return fire(states, fieldId, metric, rules, fired, value, now);
+        }
+    }
+
+    /**
+     * Applies the value of a windowed rule's window.
+     *
+     * @param fieldId the field of the reading
+     * @param rules   the field's rules
+     * @param index   the windowed rule
+     * @param value   the window's value
+     * @return the resulting change
+     */
+    public Change onWindowEvaluation(String fieldId, AlertRuleTable rules, int index, double value) {
+        Map<String, AlertState> states = states(fieldId);
+        LocalDateTime now = LocalDateTime.now();
+        AlertRule rule = rules.getRule(index);
+        Metric metric = Metric.all()[rules.getMetric(index)];
+        synchronized (states) {
+            if (rules.matches(index, value)) {
+                return fire(states, fieldId, metric, rules, index, value, now);
+            }
+            AlertState state = states.get(metric.getJsonName() + ":" + rule.getAlertType());
+            if (state == null || !state.isOpen() || !isBackToNormal(rule, value)) {
+                return Change.NONE;
+            }
+            state.rule = rule;
+            return clear(state, now);
+        }
+    }
+
+    private Change fire(Map<String, AlertState> states, String fieldId, Metric metric, AlertRuleTable rules,
+                        int fired, double value, LocalDateTime now) {
+        AlertRule rule = rules.getRule(fired);
+        String key = metric.getJsonName() + ":" + rule.getAlertType();
+        AlertState state = states.get(key);
+
+        if (state != null && state.isOpen()) {
+            Alert alert = state.alert;
+            state.rule = rule;
+            alert.setOccurrences(alert.getOccurrences() + 1);
+            alert.setLastSeenAt(now);
+            if (rank(rule.getSeverity()) > rank(alert.getSeverity())) {
+                alert.setSeverity(rule.getSeverity());
+                alert.setMessage(rules.formatMessage(fired, value));
+                state.flushedAt = now;
+                return new Change(Transition.ESCALATED, alert);
+            }
+            if (!state.flushedAt.plusSeconds(flushSeconds).isAfter(now)) {
+                state.flushedAt = now;
+                return new Change(Transition.COUNTED, alert);
+            }
+            return Change.NONE;
+        }
+
+        if (state != null && state.alert.getClearedAt() != null
+                && state.alert.getClearedAt().plusMinutes(cooldownMinutes).isAfter(now)) {
+            Alert alert = state.alert;
+            state.rule = rule;
+            alert.setStatus(Alert.OPEN);
+            alert.setClearedAt(null);
+            alert.setOccurrences(alert.getOccurrences() + 1);
+            alert.setLastSeenAt(now);
+            if (rank(rule.getSeverity()) > rank(alert.getSeverity())) {
+                alert.setSeverity(rule.getSeverity());
+                alert.setMessage(rules.formatMessage(fired, value));
+            }
+            state.flushedAt = now;
+            return new Change(Transition.REOPENED, alert);
+        }
+
+        Alert alert = new Alert();
+        alert.setId(UUID.randomUUID().toString());
+        alert.setFieldId(fieldId);
+        alert.setAlertType(rule.getAlertType());
+        alert.setMetric(metric.getJsonName());
+        alert.setSeverity(rule.getSeverity());
+        alert.setMessage(rules.formatMessage(fired, value));
+        alert.setIsRead(false);
+        alert.setStatus(Alert.OPEN);
+        alert.setOccurrences(1);
+        alert.setCreatedAt(now);
+        alert.setLastSeenAt(now);
+        states.put(key, new AlertState(metric, alert, rule, now));
+        return new Change(Transition.RAISED, alert);
+    }
+
+    /**
+     * Forgets a deleted alert, so it is not written back by a later occurrence.
+     */
+    public void onAlertDeleted(Alert alert) {
+        Map<String, AlertState> states = fields.get(alert.getFieldId());
+        if (states != null) {
+            synchronized (states) {
+                states.values().removeIf(state -> state.alert.getId().equals(alert.getId()));
+            }
+        }
+    }
+
+    /**
+     * Marks read the alerts of a field read by a bulk update, so a later
+     * occurrence does not write them back unread.
+     *
+     * @param fieldId the field
+     * @param at      the time of the update; alerts created after it are left alone
+     */
+    public void onAlertsRead(String fieldId, LocalDateTime at) {
+        Map<String, AlertState> states = fields.get(fieldId);
+        if (states != null) {
+            synchronized (states) {
+                for (AlertState state : states.values()) {
+                    if (state.alert.getCreatedAt() == null || !state.alert.getCreatedAt().isAfter(at)) {
+                        state.alert.setIsRead(true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets the alerts of a field deleted by a bulk delete.
+     *
+     * @param fieldId the field
+     * @param before  the alerts created before this time were deleted
+     */
+    public void onAlertsDeleted(String fieldId, LocalDateTime before) {
+        Map<String, AlertState> states = fields.get(fieldId);
+        if (states != null) {
+            synchronized (states) {
+                states.values().removeIf(state ->
+                        state.alert.getCreatedAt() != null && state.alert.getCreatedAt().isBefore(before));
+            }
+        }
+    }
+
+    private Change clear(Map<String, AlertState> states, Metric metric, AlertRuleTable rules, double value,
+                         LocalDateTime now) {
+        for (AlertState state : states.values()) {
+            if (state.metric != metric || !state.isOpen() || isWindowed(state, rules)
+                    || !isBackToNormal(state.rule, value)) {
+                continue;
+            }
+            // One alert per metric clears per reading; a metric rarely has open alerts of two types
+            return clear(state, now);
+        }
+        return Change.NONE;
+    }
+
+    private static Change clear(AlertState state, LocalDateTime now) {
+        state.alert.setStatus(Alert.CLEARED);
+        state.alert.setClearedAt(now);
+        state.flushedAt = now;
+        return new Change(Transition.CLEARED, state.alert);
+    }
+
+    /**
+     * Whether an alert was raised by a windowed rule; a restored alert is
+     * looked up by its type among the field's rules.
+     */
+    private static boolean isWindowed(AlertState state, AlertRuleTable rules) {
+        if (state.rule != null) {
+            return AlertRuleTable.isWindowed(state.rule);
+        }
+        int index = rules.indexOf(state.metric.ordinal(), state.alert.getAlertType());
+        return index >= 0 && AlertRuleTable.isWindowed(rules.getRule(index));
+    }
+
+    /**
+     * Whether a value that matches no rule is past the hysteresis band of the rule
+     * that last matched; without that rule (restored alert) any such value is.
+     */
+    boolean isBackToNormal(AlertRule rule, double value) {
+        if (rule == null) {
+            return true;
+        }
+        double threshold = rule.getThreshold();
+        double band = rule.getHysteresis() != null ? rule.getHysteresis()
+                : Math.abs(threshold) * hysteresisPercent / 100;
+        return AlertRule.ABOVE.equals(rule.getOperator()) ? value <= threshold - band : value >= threshold + band;
+    }
+
+    private Map<String, AlertState> states(String fieldId) {
+        String key = fieldId != null ? fieldId : "";
+        Map<String, AlertState> states = fields.get(key);
+        if (states != null) {
+            return states;
+        }
+        return fields.computeIfAbsent(key, id -> restore(fieldId));
+    }
+
+    /**
+     * Restores the open alerts of a field, so a restart does not raise them again.
+     */
+    private Map<String, AlertState> restore(String fieldId) {
+        Map<String, AlertState> states = new HashMap<>();
+        if (fieldId == null) {
+            return states;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Alert alert : alertRepository.findByFieldIdAndStatus(fieldId, Alert.OPEN)) {
+            if (alert.getMetric() != null) {
+                Metric metric = Metric.fromName(alert.getMetric());
+                states.put(metric.getJsonName() + ":" + alert.getAlertType(), new AlertState(metric, alert, null, now));
+            }
+        }
+        return states;
+    }
+
+    private static int rank(String severity) {
+        if (severity == null) {
+            return 0;
+        }
+        return switch (severity) {
+            case "high" -> 3;
+            case "medium" -> 2;
+            case "low" -> 1;
+            default -> 0;
+        };
+    }
+}
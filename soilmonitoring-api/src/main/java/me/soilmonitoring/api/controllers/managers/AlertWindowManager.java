@@ -0,0 +1,104 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.alerts.AlertRuleTable;
+import me.soilmonitoring.api.alerts.WindowAggregate;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the windows of every sensor for the windowed alert rules of its
+ * field, fed from the readings as they arrive so windowed conditions never
+ * query past readings.
+ *
+ * A sensor's windows follow its field's {@link AlertRuleTable}; when the
+ * table is recompiled the windows of unchanged rules are kept, so reloading
+ * rules does not restart them.
+ */
+@Singleton
+public class AlertWindowManager {
+
+    /**
+     * A windowed rule whose window produced a value.
+     *
+     * @param rule  the rule's index in the table
+     * @param value the window's value
+     */
+    public record Result(int rule, double value) {
+    }
+
+    private static final class SensorWindows {
+        AlertRuleTable rules;
+        WindowAggregate[] windows; // by windowed rule, from rules.firstWindowed()
+    }
+
+    private final ConcurrentHashMap<String, SensorWindows> sensors = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a reading to its sensor's windows.
+     *
+     * @param reading the reading
+     * @param rules   the rules of the reading's field
+     * @return the windowed rules to evaluate, with their window's value
+     */
+    public List<Result> evaluate(SensorReading reading, AlertRuleTable rules) {
+        int first = rules.firstWindowed();
+        SensorData data = reading.getData();
+        if (first == rules.size() || data == null || reading.getSensorId() == null
+                || reading.getTimestamp() == null) {
+            return List.of();
+        }
+        SensorWindows sensor = sensors.computeIfAbsent(reading.getSensorId(), id -> new SensorWindows());
+        long time = ReadingColumns.toMillis(reading.getTimestamp());
+        Metric[] metrics = Metric.all();
+        List<Result> results = new ArrayList<>(0);
+        synchronized (sensor) {
+            if (sensor.rules != rules) {
+                rebind(sensor, rules);
+            }
+            for (int i = first; i < rules.size(); i++) {
+                Double value = metrics[rules.getMetric(i)].read(data);
+                if (value == null) {
+                    continue;
+                }
+                WindowAggregate window = sensor.windows[i - first];
+                if (window.add(time, value)) {
+                    results.add(new Result(i, window.getValue()));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Drops the windows of a deleted sensor.
+     */
+    public void onSensorDeleted(String sensorId) {
+        sensors.remove(sensorId);
+    }
+
+    private static void rebind(SensorWindows sensor, AlertRuleTable rules) {
+        Map<String, WindowAggregate> previous = new HashMap<>();
+        if (sensor.rules != null) {
+            for (int i = sensor.rules.firstWindowed(); i < sensor.rules.size(); i++) {
+                previous.put(sensor.rules.windowKey(i), sensor.windows[i - sensor.rules.firstWindowed()]);
+            }
+        }
+        int first = rules.firstWindowed();
+        WindowAggregate[] windows = new WindowAggregate[rules.size() - first];
+        for (int i = first; i < rules.size(); i++) {
+            WindowAggregate kept = previous.get(rules.windowKey(i));
+            windows[i - first] = kept != null ? kept : rules.newWindow(i);
+        }
+        sensor.rules = rules;
+        sensor.windows = windows;
+    }
+}
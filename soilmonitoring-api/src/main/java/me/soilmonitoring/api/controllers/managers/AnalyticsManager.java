@@ -0,0 +1,239 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.model.CountOptions;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.analytics.AnalyticsPlan;
+import me.soilmonitoring.api.analytics.AnalyticsQuery;
+import me.soilmonitoring.api.analytics.AnalyticsRow;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+import me.soilmonitoring.api.timeseries.TimeBuckets;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Runs ad-hoc analytics queries as MongoDB aggregations.
+ *
+ * A query is answered from the rollups when they hold exactly what it asks
+ * for (hour-aligned range and buckets, already rolled up), which is much
+ * cheaper and also reaches data whose raw readings have expired or been
+ * archived; otherwise from the raw readings. Every query is bounded: range,
+ * number of time buckets, raw readings scanned, server time and rows returned.
+ */
+@Singleton
+public class AnalyticsManager {
+
+    private static final Logger logger = Logger.getLogger(AnalyticsManager.class.getName());
+
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    @Inject
+    private SoilMonitoringManager manager;
+
+    @Inject
+    private RollupManager rollupManager;
+
+    @Inject
+    private ColdSegmentStore coldSegmentStore;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @Inject
+    @ConfigProperty(name = "analytics.max.window.days", defaultValue = "366")
+    int maxWindowDays = 366;
+
+    @Inject
+    @ConfigProperty(name = "analytics.max.raw.window.days", defaultValue = "31")
+    int maxRawWindowDays = 31;
+
+    @Inject
+    @ConfigProperty(name = "analytics.max.buckets", defaultValue = "5000")
+    int maxBuckets = 5000;
+
+    @Inject
+    @ConfigProperty(name = "analytics.max.rows", defaultValue = "10000")
+    int maxRows = 10000;
+
+    @Inject
+    @ConfigProperty(name = "analytics.max.scanned.readings", defaultValue = "2000000")
+    long maxScannedReadings = 2_000_000;
+
+    @Inject
+    @ConfigProperty(name = "analytics.max.time.ms", defaultValue = "5000")
+    long maxTimeMs = 5000;
+
+    /**
+     * Result of a query: the rows and how they were computed.
+     */
+    public record Result(AnalyticsPlan.Source source, LocalDateTime from, LocalDateTime to,
+                         List<Metric> metrics, List<AnalyticsQuery.Aggregate> aggregates,
+                         List<AnalyticsRow> rows, boolean truncated) {
+    }
+
+    /**
+     * Validates, plans and runs a query over the user's fields.
+     *
+     * @param username the authenticated user; only their fields can be queried
+     * @throws IllegalArgumentException if the query is malformed or exceeds a limit
+     * @throws SecurityException        if it names a field the user does not own
+     */
+    public Result query(AnalyticsQuery query, String username) {
+        List<Metric> metrics = new ArrayList<>();
+        for (String name : orEmpty(query.getMetrics())) {
+            metrics.add(Metric.fromName(name));
+        }
+        if (metrics.isEmpty()) {
+            throw new IllegalArgumentException("At least one metric is required");
+        }
+        List<AnalyticsQuery.Aggregate> aggregates = new ArrayList<>();
+        for (String name : orEmpty(query.getAggregates())) {
+            aggregates.add(AnalyticsQuery.Aggregate.fromName(name));
+        }
+        if (aggregates.isEmpty()) {
+            aggregates.add(AnalyticsQuery.Aggregate.AVG);
+        }
+        Set<AnalyticsQuery.GroupBy> groupBy = EnumSet.noneOf(AnalyticsQuery.GroupBy.class);
+        for (String name : orEmpty(query.getGroupBy())) {
+            groupBy.add(AnalyticsQuery.GroupBy.fromName(name));
+        }
+
+        LocalDateTime to = query.getTo() != null ? LocalDateTime.parse(query.getTo())
+                : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime from = query.getFrom() != null ? LocalDateTime.parse(query.getFrom()) : to.minusHours(24);
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxWindowDays)) > 0) {
+            throw new IllegalArgumentException("Time range is limited to " + maxWindowDays + " days");
+        }
+
+        long width = 0;
+        if (groupBy.contains(AnalyticsQuery.GroupBy.TIME)) {
+            width = TimeBuckets.parseWidth(query.getBucket() != null ? query.getBucket() : "1h").toMillis();
+            long buckets = TimeBuckets.count(ReadingColumns.toMillis(from), ReadingColumns.toMillis(to) - 1, width);
+            if (buckets > maxBuckets) {
+                throw new IllegalArgumentException("More than " + maxBuckets + " buckets, use a wider bucket");
+            }
+        }
+        int limit = query.getLimit() != null ? query.getLimit() : maxRows;
+        if (limit < 1 || limit > maxRows) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxRows);
+        }
+
+        List<String> fieldIds = authorizedFields(orEmpty(query.getFieldIds()), username);
+        if (fieldIds.isEmpty()) {
+            return new Result(AnalyticsPlan.Source.RAW, from, to, metrics, aggregates, List.of(), false);
+        }
+
+        AnalyticsPlan plan = new AnalyticsPlan(chooseSource(from, to, groupBy, width), metrics, groupBy, width,
+                from, to, fieldIds, orEmpty(query.getSensorIds()), limit);
+        List<Document> results = run(plan);
+        return new Result(plan.getSource(), from, to, metrics, aggregates, plan.toRows(results),
+                results.size() > limit);
+    }
+
+    /**
+     * Rollups when they hold exactly the requested groups, raw readings otherwise.
+     *
+     * @throws IllegalArgumentException if raw readings are needed but no longer in MongoDB
+     */
+    AnalyticsPlan.Source chooseSource(LocalDateTime from, LocalDateTime to, Set<AnalyticsQuery.GroupBy> groupBy,
+                                      long width) {
+        boolean byTime = groupBy.contains(AnalyticsQuery.GroupBy.TIME);
+        Optional<LocalDateTime> rolledUpThrough = rollupManager.getRolledUpThrough();
+        if (rolledUpThrough.isPresent() && !to.isAfter(rolledUpThrough.get())
+                && isAligned(from, HOUR_MILLIS) && isAligned(to, HOUR_MILLIS)
+                && (!byTime || width % HOUR_MILLIS == 0)) {
+            boolean daily = isAligned(from, DAY_MILLIS) && isAligned(to, DAY_MILLIS)
+                    && (!byTime || width % DAY_MILLIS == 0);
+            return daily ? AnalyticsPlan.Source.DAILY : AnalyticsPlan.Source.HOURLY;
+        }
+
+        LocalDateTime rawFrom = later(rollupManager.expiryHorizon(), coldSegmentStore.coveredUntil());
+        if (rawFrom != null && from.isBefore(rawFrom)) {
+            throw new IllegalArgumentException("Raw readings before " + rawFrom
+                    + " are only available as rollups: use whole hours for from, to and bucket");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxRawWindowDays)) > 0) {
+            throw new IllegalArgumentException("Queries over raw readings are limited to " + maxRawWindowDays
+                    + " days: use whole hours for from, to and bucket to query the rollups");
+        }
+        return AnalyticsPlan.Source.RAW;
+    }
+
+    private List<Document> run(AnalyticsPlan plan) {
+        try {
+            if (plan.getSource() == AnalyticsPlan.Source.RAW && maxScannedReadings > 0) {
+                long scanned = mongo.collection(plan.getCollection()).countDocuments(plan.getFilter(),
+                        new CountOptions().limit((int) Math.min(maxScannedReadings + 1, Integer.MAX_VALUE))
+                                .maxTime(maxTimeMs, TimeUnit.MILLISECONDS));
+                if (scanned > maxScannedReadings) {
+                    throw new IllegalArgumentException("Query would scan more than " + maxScannedReadings
+                            + " readings: narrow the range, the fields or the sensors");
+                }
+            }
+            List<Document> results = new ArrayList<>();
+            mongo.collection(plan.getCollection()).aggregate(plan.getPipeline())
+                    .maxTime(maxTimeMs, TimeUnit.MILLISECONDS)
+                    .allowDiskUse(false)
+                    .into(results);
+            return results;
+        } catch (MongoExecutionTimeoutException e) {
+            logger.warning("Analytics query on " + plan.getCollection() + " timed out");
+            throw new IllegalArgumentException("Query exceeded " + maxTimeMs + " ms: narrow the range or group less");
+        }
+    }
+
+    /**
+     * @throws SecurityException if a requested field is not the user's
+     */
+    private List<String> authorizedFields(List<String> requested, String username) {
+        Set<String> owned = new HashSet<>();
+        for (Field field : manager.getUserFields(username)) {
+            owned.add(field.getId());
+        }
+        if (requested.isEmpty()) {
+            return new ArrayList<>(owned);
+        }
+        for (String fieldId : requested) {
+            if (!owned.contains(fieldId)) {
+                throw new SecurityException("Field " + fieldId + " is not accessible");
+            }
+        }
+        return requested;
+    }
+
+    private static boolean isAligned(LocalDateTime instant, long widthMillis) {
+        return ReadingColumns.toMillis(instant) % widthMillis == 0;
+    }
+
+    private static LocalDateTime later(Optional<LocalDateTime> a, Optional<LocalDateTime> b) {
+        if (a.isEmpty()) {
+            return b.orElse(null);
+        }
+        return b.isPresent() && b.get().isAfter(a.get()) ? b.get() : a.get();
+    }
+
+    private static List<String> orEmpty(List<String> values) {
+        return values != null ? values : List.of();
+    }
+}
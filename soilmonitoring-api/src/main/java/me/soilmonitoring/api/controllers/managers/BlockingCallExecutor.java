@@ -0,0 +1,62 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking repository calls of the JAX-RS resources on virtual
+ * threads, so a request waiting on MongoDB does not hold a WildFly worker
+ * thread.
+ *
+ * Resources return the {@link CompletionStage} and the response is resumed
+ * when it completes. The request context is not active on the virtual
+ * thread: anything request-scoped (e.g. the security context) must be read
+ * before the call is submitted.
+ */
+@ApplicationScoped
+public class BlockingCallExecutor {
+
+    @Inject
+    @ConfigProperty(name = "async.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    private final ExecutorService executor;
+
+    public BlockingCallExecutor() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public BlockingCallExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the call on a virtual thread, or on the calling thread when async
+     * execution is disabled.
+     *
+     * @return a stage completed with the call's result, or exceptionally with what it threw
+     */
+    public <T> CompletionStage<T> supply(Supplier<T> call) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(call.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    @PreDestroy
+    void close() {
+        executor.shutdown();
+    }
+}
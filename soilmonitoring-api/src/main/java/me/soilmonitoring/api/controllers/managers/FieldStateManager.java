@@ -0,0 +1,232 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.FieldStateRepository;
+import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
+import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.entities.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Maintains the materialized {@link FieldState} of every field.
+ *
+ * Each change is applied to an in-memory copy of the state under a per-field
+ * lock and written through, so updates never read the document back. A
+ * field without a state document is seeded once from its unread alerts,
+ * active sensors and today's readings.
+ */
+@Singleton
+public class FieldStateManager {
+
+    private static final Logger logger = Logger.getLogger(FieldStateManager.class.getName());
+
+    private static final String ACTIVE = "active";
+
+    @Inject
+    private FieldStateRepository fieldStateRepository;
+
+    @Inject
+    private SensorReadingRepository sensorReadingRepository;
+
+    @Inject
+    private SensorRepository sensorRepository;
+
+    @Inject
+    private AlertRepository alertRepository;
+
+    private final ConcurrentHashMap<String, FieldState> states = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the state of a field.
+     *
+     * @param fieldId the ID of the field
+     * @return the state, or empty if the field has not reported since the state was introduced
+     */
+    public Optional<FieldState> findState(String fieldId) {
+        return fieldStateRepository.findById(fieldId);
+    }
+
+    /**
+     * Folds a saved reading into its field's latest values and today's statistics.
+     *
+     * @param reading the reading
+     */
+    public void onReading(SensorReading reading) {
+        if (reading.getFieldId() == null || reading.getTimestamp() == null) {
+            return;
+        }
+        update(reading.getFieldId(), reading.getId(), false, state -> apply(state, reading));
+    }
+
+    /**
+     * Counts a new unread alert.
+     *
+     * @param alert the saved alert
+     */
+    public void onAlertCreated(Alert alert) {
+        if (alert.getFieldId() == null || Boolean.TRUE.equals(alert.getIsRead())) {
+            return;
+        }
+        update(alert.getFieldId(), null, true,
+                state -> state.setUnreadAlertCount(state.getUnreadAlertCount() + 1));
+    }
+
+    /**
+     * Uncounts an alert that was unread and has been marked read.
+     *
+     * @param alert the alert, saved as read
+     */
+    public void onAlertRead(Alert alert) {
+        decrementUnread(alert, true);
+    }
+
+    /**
+     * Uncounts a deleted alert if it was still unread.
+     *
+     * @param alert the alert as it was before deletion, not deleted yet
+     */
+    public void onAlertDeleted(Alert alert) {
+        if (!Boolean.TRUE.equals(alert.getIsRead())) {
+            decrementUnread(alert, false);
+        }
+    }
+
+    /**
+     * Recounts the unread alerts of a field after a bulk change to its alerts.
+     *
+     * @param fieldId the ID of the field
+     */
+    public void recountUnread(String fieldId) {
+        update(fieldId, null, false,
+                state -> state.setUnreadAlertCount(alertRepository.countByFieldIdAndIsRead(fieldId, false)));
+    }
+
+    /**
+     * Tracks a sensor joining or leaving the field's active sensors.
+     *
+     * @param sensor the sensor with its new status
+     */
+    public void onSensorStatusChanged(Sensor sensor) {
+        if (sensor.getFieldId() == null) {
+            return;
+        }
+        boolean active = ACTIVE.equalsIgnoreCase(sensor.getStatus());
+        update(sensor.getFieldId(), null, false, state -> {
+            List<String> ids = state.getActiveSensorIds();
+            if (active && !ids.contains(sensor.getId())) {
+                ids.add(sensor.getId());
+            } else if (!active) {
+                ids.remove(sensor.getId());
+            }
+        });
+    }
+
+    private void decrementUnread(Alert alert, boolean saved) {
+        if (alert.getFieldId() == null) {
+            return;
+        }
+        update(alert.getFieldId(), null, saved,
+                state -> state.setUnreadAlertCount(Math.max(0, state.getUnreadAlertCount() - 1)));
+    }
+
+    /**
+     * @param triggeringReadingId the saved reading the change applies, left out of a seed
+     * @param seedIncludesChange  whether a seed already counts the change, as
+     *                            it counts the saved alerts; the change is then skipped
+     */
+    private void update(String fieldId, String triggeringReadingId, boolean seedIncludesChange,
+                        Consumer<FieldState> change) {
+        synchronized (locks.computeIfAbsent(fieldId, id -> new Object())) {
+            FieldState state = states.get(fieldId);
+            boolean seeded = false;
+            if (state == null) {
+                Optional<FieldState> saved = fieldStateRepository.findById(fieldId);
+                seeded = saved.isEmpty();
+                state = saved.orElseGet(() -> seed(fieldId, triggeringReadingId));
+                states.put(fieldId, state);
+            }
+            if (!seeded || !seedIncludesChange) {
+                change.accept(state);
+            }
+            fieldStateRepository.save(state);
+        }
+    }
+
+    private static void apply(FieldState state, SensorReading reading) {
+        LocalDateTime timestamp = reading.getTimestamp();
+        SensorData data = reading.getData();
+
+        if (state.getLastUpdate() == null || !timestamp.isBefore(state.getLastUpdate())) {
+            if (state.getLatest() == null) {
+                state.setLatest(new SensorData());
+            }
+            for (Metric metric : Metric.all()) {
+                Double value = metric.read(data);
+                if (value != null) {
+                    metric.write(state.getLatest(), value);
+                }
+            }
+            state.setLastUpdate(timestamp);
+        }
+
+        if (reading.getSensorId() != null && !state.getActiveSensorIds().contains(reading.getSensorId())) {
+            state.getActiveSensorIds().add(reading.getSensorId());
+        }
+
+        LocalDate day = timestamp.toLocalDate();
+        if (state.getDay() == null || day.isAfter(state.getDay())) {
+            state.setDay(day);
+            state.setTodayReadingCount(0);
+            state.setToday(new ArrayList<>());
+        } else if (day.isBefore(state.getDay())) {
+            return; // late reading from a previous day
+        }
+        state.setTodayReadingCount(state.getTodayReadingCount() + 1);
+        for (Metric metric : Metric.all()) {
+            Double value = metric.read(data);
+            if (value != null) {
+                MetricSummary summary = state.getToday(metric);
+                if (summary == null) {
+                    summary = new MetricSummary(metric.getJsonName());
+                    state.getToday().add(summary);
+                }
+                summary.add(value);
+            }
+        }
+    }
+
+    private FieldState seed(String fieldId, String triggeringReadingId) {
+        logger.info("Seeding field state for field " + fieldId);
+        FieldState state = new FieldState();
+        state.setId(fieldId);
+        state.setUnreadAlertCount(alertRepository.countByFieldIdAndIsRead(fieldId, false));
+        for (Sensor sensor : sensorRepository.findByFieldId(fieldId)) {
+            if (ACTIVE.equalsIgnoreCase(sensor.getStatus())) {
+                state.getActiveSensorIds().add(sensor.getId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SensorReading> today = sensorReadingRepository.findByFieldIdAndTimestampBetween(
+                fieldId, now.toLocalDate().atStartOfDay(), now);
+        for (SensorReading reading : today) {
+            // the reading being processed is already saved; it is applied by the caller
+            if (reading.getTimestamp() != null && !Objects.equals(reading.getId(), triggeringReadingId)) {
+                apply(state, reading);
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,143 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Deadlines of many keys, expired in time proportional to the expired keys
+ * rather than to all of them.
+ *
+ * Time is cut into ticks and a deadline goes into the slot of its tick modulo
+ * the number of slots; each slot is a doubly linked list, and an index by key
+ * makes scheduling, rescheduling and cancelling O(1). {@link #advance} walks
+ * only the slots of the ticks that passed, expiring the entries whose deadline
+ * is due and leaving those due in a later round of the wheel. Deadlines are
+ * rounded up to the next tick, so a key never expires early. Methods are
+ * synchronized: each is short, so the lock is barely contended.
+ */
+public final class HashedTimingWheel<K> {
+
+    private static final class Node<K> {
+        final K key;
+        long deadlineTick;
+        int slot;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    private final Node<K>[] slots;
+    private final int mask;
+    private final long tickMillis;
+    private final HashMap<K, Node<K>> nodes = new HashMap<>();
+    private long currentTick; // the first tick not expired yet
+
+    /**
+     * @param slots      the number of slots, rounded up to a power of two
+     * @param tickMillis the resolution of deadlines
+     * @param nowMillis  the current time
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(int slots, long tickMillis, long nowMillis) {
+        if (slots < 1 || tickMillis < 1) {
+            throw new IllegalArgumentException("slots and tickMillis must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.slots = (Node<K>[]) new Node[size];
+        this.mask = size - 1;
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis) + 1;
+    }
+
+    /**
+     * Sets the deadline of a key, replacing any previous one.
+     *
+     * @param deadlineMillis when the key expires; a past deadline expires at the next {@link #advance}
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(-Math.floorDiv(-deadlineMillis, tickMillis), currentTick);
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        } else {
+            unlink(node);
+        }
+        node.deadlineTick = tick;
+        link(node, (int) (tick & mask));
+    }
+
+    /**
+     * @return true if the key had a deadline
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    public synchronized boolean contains(K key) {
+        return nodes.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Removes and returns the keys whose deadline is at or before {@code nowMillis}.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        List<K> expired = new ArrayList<>();
+        if (target < currentTick) {
+            return expired;
+        }
+        // After a long pause every slot is visited once rather than once per tick
+        long ticks = Math.min(target - currentTick + 1, slots.length);
+        for (long tick = currentTick; tick < currentTick + ticks; tick++) {
+            Node<K> node = slots[(int) (tick & mask)];
+            while (node != null) {
+                Node<K> next = node.next;
+                if (node.deadlineTick <= target) {
+                    unlink(node);
+                    nodes.remove(node.key);
+                    expired.add(node.key);
+                }
+                node = next;
+            }
+        }
+        currentTick = target + 1;
+        return expired;
+    }
+
+    private void link(Node<K> node, int slot) {
+        node.slot = slot;
+        node.prev = null;
+        node.next = slots[slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        slots[slot] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+}
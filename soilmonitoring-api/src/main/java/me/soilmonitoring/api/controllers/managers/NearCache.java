@@ -0,0 +1,168 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, in-process cache of entities looked up by key, in front of the
+ * repositories.
+ *
+ * Entries expire after a TTL, which bounds staleness from writes that bypass
+ * this instance, and the least recently used entry is evicted beyond the
+ * maximum size. Absent keys are cached too (negative entries) with their own,
+ * shorter TTL, so unknown keys do not hit the database on every lookup.
+ * Writers keep it coherent through {@link #put} and {@link #invalidate}; a
+ * load racing with such a write is not cached, so a stale document read
+ * before the write cannot overwrite it.
+ */
+public final class NearCache<K, V> {
+
+    /**
+     * Counters of a cache, for {@code /metrics/cache}.
+     */
+    public record Stats(int size, int maxEntries, long hits, long negativeHits, long misses, long evictions) {
+
+        /**
+         * @return the share of lookups answered without the database, or 0 before the first one
+         */
+        public double getHitRatio() {
+            long lookups = hits + negativeHits + misses;
+            return lookups > 0 ? (double) (hits + negativeHits) / lookups : 0.0;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private int maxEntries;
+    private long ttlNanos;
+    private long negativeTtlNanos;
+    private long generation; // bumped by every write, guarded by entries
+
+    public NearCache(int maxEntries, long ttlSeconds, long negativeTtlSeconds) {
+        this(maxEntries, ttlSeconds, negativeTtlSeconds, System::nanoTime);
+    }
+
+    NearCache(int maxEntries, long ttlSeconds, long negativeTtlSeconds, LongSupplier clock) {
+        this.clock = clock;
+        configure(maxEntries, ttlSeconds, negativeTtlSeconds);
+    }
+
+    /**
+     * Changes the limits; a smaller size applies from the next insertion.
+     */
+    public void configure(int maxEntries, long ttlSeconds, long negativeTtlSeconds) {
+        synchronized (entries) {
+            this.maxEntries = maxEntries;
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+            this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        }
+    }
+
+    /**
+     * Returns the cached value of the key, loading and caching it on a miss.
+     *
+     * @param loader reads the value from the database; an empty result is cached as a negative entry
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long loadedGeneration;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - clock.getAsLong() > 0) {
+                if (entry.value != null) {
+                    hits.increment();
+                } else {
+                    negativeHits.increment();
+                }
+                return Optional.ofNullable(entry.value);
+            }
+            loadedGeneration = generation;
+        }
+        misses.increment();
+
+        Optional<V> loaded = loader.apply(key);
+        synchronized (entries) {
+            if (generation == loadedGeneration) {
+                store(key, loaded.orElse(null));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Caches a value just written to the database.
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            generation++;
+            store(key, value);
+        }
+    }
+
+    /**
+     * Drops a key whose document changed or was deleted.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drops the cached values matching the predicate, for writes that do not know
+     * every key a value is cached under; negative entries are kept.
+     */
+    public void invalidateIf(Predicate<V> predicate) {
+        synchronized (entries) {
+            generation++;
+            entries.values().removeIf(entry -> entry.value != null && predicate.test(entry.value));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(entries.size(), maxEntries, hits.sum(), negativeHits.sum(), misses.sum(),
+                    evictions.sum());
+        }
+    }
+
+    private void store(K key, V value) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        long ttl = value != null ? ttlNanos : negativeTtlNanos;
+        if (ttl <= 0) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttl));
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent queries.
+ *
+ * The first caller for a given key runs the loader; every caller that arrives
+ * with an equal key while that query is still in flight waits for it and
+ * receives the same result (or the same exception). Nothing is kept once the
+ * query completes, so this is not a cache: the next call after completion
+ * goes to the database again.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader, or joins an identical call that is already running.
+     *
+     * @param key    identifies the query; must implement equals/hashCode
+     * @param loader the query to run when no identical call is in flight
+     * @return the shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return (T) join(existing);
+        }
+
+        try {
+            T result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * @return the number of distinct queries currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object join(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.MongoDates;
+import me.soilmonitoring.api.controllers.repositories.ReadingRollupRepository;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
+import me.soilmonitoring.api.entities.ReadingRollup;
+import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Hourly and daily rollups of the raw readings, and the retention horizon
+ * they stand in for.
+ *
+ * Raw readings are deleted after {@code retention.readings.days}, once
+ * rolled up (see {@link me.soilmonitoring.api.services.RetentionJob});
+ * rollups are kept indefinitely. Hourly rollups are computed from the raw
+ * readings by a MongoDB aggregation, daily ones from the hourly rollups.
+ * Both are idempotent, so any range can be rolled up again.
+ *
+ * Reading timestamps are stored by JNoSQL as ISO-8601 strings, so the raw
+ * queries compare them with {@link MongoDates#encode} and an hour is the
+ * first {@value #HOUR_KEY_LENGTH} characters of a timestamp.
+ */
+@Singleton
+public class RollupManager {
+
+    private static final Logger logger = Logger.getLogger(RollupManager.class.getName());
+
+    static final String CHECKPOINTS = "RollupCheckpoint";
+    private static final String CHECKPOINT_ID = "readings";
+    private static final String READINGS = "SensorReading";
+    /** The length of {@code yyyy-MM-ddTHH}, the hour of a stored timestamp. */
+    static final int HOUR_KEY_LENGTH = 13;
+
+    @Inject
+    private ReadingRollupRepository rollupRepository;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @Inject
+    private ColdSegmentStore coldSegmentStore;
+
+    @Inject
+    @ConfigProperty(name = "retention.readings.days", defaultValue = "0")
+    int retentionDays = 0;
+
+    /**
+     * @return the instant before which raw readings are no longer available,
+     * in MongoDB or archived in the cold store, and rollups are used instead;
+     * empty when raw readings are kept forever
+     */
+    public Optional<LocalDateTime> rawHorizon() {
+        Optional<LocalDateTime> expiry = expiryHorizon();
+        Optional<LocalDateTime> archived = coldSegmentStore.coveredFrom();
+        if (expiry.isPresent() && archived.isPresent() && archived.get().isBefore(expiry.get())) {
+            return archived;
+        }
+        return expiry;
+    }
+
+    /**
+     * @return the instant before which raw readings may have expired from
+     * MongoDB; empty when they are kept forever
+     */
+    public Optional<LocalDateTime> expiryHorizon() {
+        if (retentionDays <= 0) {
+            return Optional.empty();
+        }
+        // The hour the retention job deletes next is served from its rollup
+        return Optional.of(LocalDateTime.now().minusDays(retentionDays)
+                .truncatedTo(ChronoUnit.HOURS).plusHours(1));
+    }
+
+    /**
+     * Computes the hourly rollups of every sensor for the hours in {@code [from, to)}.
+     *
+     * @param from the first hour, truncated to the hour
+     * @param to   the end of the range, exclusive
+     * @return the number of rollups written
+     */
+    public int rollUpHours(LocalDateTime from, LocalDateTime to) {
+        Document group = new Document("_id", new Document("sensorId", "$sensorId")
+                .append("fieldId", "$fieldId")
+                .append("bucket", new Document("$substrCP", List.of("$timestamp", 0, HOUR_KEY_LENGTH))))
+                .append("count", new Document("$sum", 1));
+        for (Metric metric : Metric.all()) {
+            String name = metric.getJsonName();
+            String path = "$data." + name;
+            group.append(name + "_min", new Document("$min", path))
+                    .append(name + "_max", new Document("$max", path))
+                    .append(name + "_sum", new Document("$sum", path))
+                    .append(name + "_count", new Document("$sum", new Document("$cond",
+                            List.of(new Document("$isNumber", path), 1, 0))));
+        }
+
+        List<ReadingRollup> rollups = new ArrayList<>();
+        mongo.collection(READINGS).aggregate(List.of(
+                        Aggregates.match(range(from.truncatedTo(ChronoUnit.HOURS), to)),
+                        new Document("$group", group)))
+                .allowDiskUse(true)
+                .forEach(result -> rollups.add(toHourlyRollup(result)));
+
+        rollupRepository.saveAll(rollups);
+        logger.info("Rolled up " + rollups.size() + " sensor hours from " + from + " to " + to);
+        return rollups.size();
+    }
+
+    /**
+     * Computes the daily rollups of every sensor for the given days from
+     * their hourly rollups.
+     *
+     * @param from the first day
+     * @param to   the last day, inclusive
+     * @return the number of rollups written
+     */
+    public int rollUpDays(LocalDate from, LocalDate to) {
+        int written = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDateTime start = day.atStartOfDay();
+            List<ReadingRollup> hours = rollupRepository.findByGranularityAndBucketStartBetween(
+                    ReadingRollup.HOURLY, start, start.plusHours(23));
+            List<ReadingRollup> days = toDailyRollups(hours, start);
+            rollupRepository.saveAll(days);
+            written += days.size();
+        }
+        return written;
+    }
+
+    /**
+     * @return the end of the range already rolled up by the compaction job, if it ran before
+     */
+    public Optional<LocalDateTime> getRolledUpThrough() {
+        Document checkpoint = mongo.collection(CHECKPOINTS).find(Filters.eq("_id", CHECKPOINT_ID)).first();
+        if (checkpoint == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(MongoDates.decode(checkpoint.get("through")));
+    }
+
+    public void setRolledUpThrough(LocalDateTime through) {
+        mongo.collection(CHECKPOINTS).updateOne(Filters.eq("_id", CHECKPOINT_ID),
+                Updates.combine(Updates.set("through", MongoDates.encode(through)),
+                        Updates.set("updatedAt", new Date())),
+                new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * @return the timestamp of the oldest raw reading, if any
+     */
+    public Optional<LocalDateTime> earliestReading() {
+        Document oldest = mongo.collection(READINGS).find()
+                .sort(Sorts.ascending("timestamp"))
+                .projection(new Document("timestamp", 1))
+                .first();
+        if (oldest == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(MongoDates.decode(oldest.get("timestamp")));
+    }
+
+    /**
+     * @return the number of raw readings with {@code from <= timestamp < to}
+     */
+    public long countReadings(LocalDateTime from, LocalDateTime to) {
+        return mongo.collection(READINGS).countDocuments(range(from, to));
+    }
+
+    /**
+     * Deletes the raw readings of the complete hours older than
+     * {@code retention.readings.days}, but none the compaction job has not
+     * rolled up yet.
+     *
+     * @return the number of readings deleted
+     */
+    public long deleteExpiredReadings() {
+        Optional<LocalDateTime> through = getRolledUpThrough();
+        if (retentionDays <= 0 || through.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays).truncatedTo(ChronoUnit.HOURS);
+        if (through.get().isBefore(before)) {
+            logger.warning("Readings before " + before + " are past retention but only rolled up through "
+                    + through.get() + "; keeping the rest");
+            before = through.get();
+        }
+        return mongo.collection(READINGS)
+                .deleteMany(Filters.lt("timestamp", MongoDates.encode(before)))
+                .getDeletedCount();
+    }
+
+    /**
+     * @return the filter of the raw readings with {@code from <= timestamp < to}
+     */
+    static Bson range(LocalDateTime from, LocalDateTime to) {
+        return Filters.and(Filters.gte("timestamp", MongoDates.encode(from)),
+                Filters.lt("timestamp", MongoDates.encode(to)));
+    }
+
+    /**
+     * @return the number of readings the hourly rollups of the hours in {@code [from, to)} account for
+     */
+    public long countRolledUp(LocalDateTime from, LocalDateTime to) {
+        long count = 0;
+        for (ReadingRollup rollup : rollupRepository.findByGranularityAndBucketStartBetween(
+                ReadingRollup.HOURLY, from, to.minusNanos(1))) {
+            count += rollup.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the hourly rollups of a field's sensors in {@code [from, to)} as
+     * readings carrying the hour's averages, oldest first
+     */
+    public List<SensorReading> getFieldHourlyReadings(String fieldId, LocalDateTime from, LocalDateTime to) {
+        List<SensorReading> readings = new ArrayList<>();
+        for (ReadingRollup rollup : rollupRepository.findByFieldIdAndGranularityAndBucketStartBetween(
+                fieldId, ReadingRollup.HOURLY, from.truncatedTo(ChronoUnit.HOURS), to.minusNanos(1))) {
+            readings.add(rollup.toReading());
+        }
+        return readings;
+    }
+
+    /**
+     * @return the hourly rollups of a sensor in {@code [from, to)} as readings
+     * carrying the hour's averages, oldest first
+     */
+    public List<SensorReading> getSensorHourlyReadings(String sensorId, LocalDateTime from, LocalDateTime to) {
+        List<SensorReading> readings = new ArrayList<>();
+        for (ReadingRollup rollup : getSensorRollups(sensorId, ReadingRollup.HOURLY, from, to)) {
+            readings.add(rollup.toReading());
+        }
+        return readings;
+    }
+
+    /**
+     * @return the rollups of a sensor whose bucket starts in {@code [from, to)}, oldest first
+     */
+    public List<ReadingRollup> getSensorRollups(String sensorId, String granularity,
+                                                LocalDateTime from, LocalDateTime to) {
+        LocalDateTime first = ReadingRollup.DAILY.equals(granularity)
+                ? from.truncatedTo(ChronoUnit.DAYS)
+                : from.truncatedTo(ChronoUnit.HOURS);
+        return rollupRepository.findBySensorIdAndGranularityAndBucketStartBetween(
+                sensorId, granularity, first, to.minusNanos(1));
+    }
+
+    /**
+     * Converts one {@code $group} result of {@link #rollUpHours} into a rollup.
+     */
+    static ReadingRollup toHourlyRollup(Document result) {
+        Document key = result.get("_id", Document.class);
+        ReadingRollup rollup = new ReadingRollup(key.getString("sensorId"), key.getString("fieldId"),
+                ReadingRollup.HOURLY, LocalDateTime.parse(key.getString("bucket") + ":00"));
+        rollup.setCount(((Number) result.get("count")).longValue());
+        for (Metric metric : Metric.all()) {
+            String name = metric.getJsonName();
+            Number count = (Number) result.get(name + "_count");
+            if (count == null || count.longValue() == 0) {
+                continue;
+            }
+            MetricSummary summary = new MetricSummary(name);
+            summary.setMin(((Number) result.get(name + "_min")).doubleValue());
+            summary.setMax(((Number) result.get(name + "_max")).doubleValue());
+            summary.setSum(((Number) result.get(name + "_sum")).doubleValue());
+            summary.setCount(count.longValue());
+            rollup.getMetrics().add(summary);
+        }
+        return rollup;
+    }
+
+    /**
+     * Folds the hourly rollups of one day into a daily rollup per sensor.
+     */
+    static List<ReadingRollup> toDailyRollups(List<ReadingRollup> hours, LocalDateTime day) {
+        Map<String, ReadingRollup> bySensor = new LinkedHashMap<>();
+        for (ReadingRollup hour : hours) {
+            bySensor.computeIfAbsent(hour.getSensorId(), sensorId ->
+                    new ReadingRollup(sensorId, hour.getFieldId(), ReadingRollup.DAILY, day)).add(hour);
+        }
+        return new ArrayList<>(bySensor.values());
+    }
+}
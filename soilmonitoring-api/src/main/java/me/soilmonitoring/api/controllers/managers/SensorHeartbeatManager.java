@@ -0,0 +1,129 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.MongoDates;
+import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.entities.Sensor;
+import org.bson.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Records that sensors reported, without a sensor write per reading.
+ *
+ * A reading from an active sensor only moves its {@code lastConnection}
+ * forward in memory (on the cached sensor, so reads through the near cache
+ * see it); {@link #flush()} then writes every pending heartbeat in one
+ * unordered bulk update. A reading from a sensor that is not active is a
+ * status transition and is written at once. Heartbeats use {@code $max}, so
+ * a late flush never moves {@code lastConnection} back past a newer write;
+ * they write the string JNoSQL stores ({@link MongoDates}), since a BSON date
+ * would always compare above it.
+ */
+@Singleton
+public class SensorHeartbeatManager {
+
+    private static final Logger logger = Logger.getLogger(SensorHeartbeatManager.class.getName());
+
+    static final String SENSORS = "Sensor";
+    private static final String ACTIVE = "active";
+
+    @Inject
+    private SensorRepository sensorRepository;
+
+    @Inject
+    private SoilMonitoringManager manager;
+
+    @Inject
+    private MongoCollections mongo;
+
+    private final ConcurrentHashMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Records a reading of a registered sensor.
+     *
+     * @param sensor the sensor, as cached by {@link SoilMonitoringManager}
+     * @param at     the time of the reading
+     * @return true if the sensor became active and was written immediately
+     */
+    public boolean onReading(Sensor sensor, LocalDateTime at) {
+        if (!ACTIVE.equals(sensor.getStatus())) {
+            sensor.setStatus(ACTIVE);
+            sensor.setLastConnection(at);
+            pending.remove(sensor.getId());
+            sensorRepository.save(sensor);
+            manager.onSensorSaved(sensor);
+            logger.info("Sensor " + sensor.getId() + " is active again");
+            return true;
+        }
+        if (sensor.getLastConnection() == null || at.isAfter(sensor.getLastConnection())) {
+            sensor.setLastConnection(at);
+        }
+        pending.merge(sensor.getId(), at, (previous, next) -> next.isAfter(previous) ? next : previous);
+        return false;
+    }
+
+    /**
+     * @return the number of sensors with a heartbeat not yet written
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the pending heartbeats in one bulk update; on failure they are
+     * kept for the next flush.
+     *
+     * @return the number of sensors updated
+     */
+    public int flush() {
+        Map<String, LocalDateTime> batch = new HashMap<>();
+        for (String sensorId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime at = pending.remove(sensorId);
+            if (at != null) {
+                batch.put(sensorId, at);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+        for (Map.Entry<String, LocalDateTime> heartbeat : batch.entrySet()) {
+            updates.add(new UpdateOneModel<>(Filters.eq("_id", heartbeat.getKey()),
+                    Updates.max("lastConnection", MongoDates.encode(heartbeat.getValue()))));
+        }
+        try {
+            mongo.collection(SENSORS).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (RuntimeException e) {
+            batch.forEach((sensorId, at) ->
+                    pending.merge(sensorId, at, (previous, next) -> next.isAfter(previous) ? next : previous));
+            throw e;
+        }
+        return batch.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warning("Could not write " + pending.size() + " sensor heartbeats on shutdown: "
+                    + e.getMessage());
+        }
+    }
+}
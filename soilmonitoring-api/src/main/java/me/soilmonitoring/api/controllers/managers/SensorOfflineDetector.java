@@ -0,0 +1,192 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.Sensor;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Marks active sensors inactive and raises a {@code sensor_offline} alert
+ * when they miss {@code sensors.offline.missed.intervals} reporting intervals.
+ *
+ * Every heartbeat moves the sensor's deadline in a {@link HashedTimingWheel},
+ * so neither heartbeats nor {@link #detectOffline()} scan the sensors; only
+ * the active sensors are loaded, once, on the first run. The alert clears
+ * when the sensor reports again.
+ */
+@Singleton
+public class SensorOfflineDetector {
+
+    private static final Logger logger = Logger.getLogger(SensorOfflineDetector.class.getName());
+
+    public static final String SENSOR_OFFLINE = "sensor_offline";
+    private static final String ACTIVE = "active";
+    private static final String INACTIVE = "inactive";
+
+    @Inject
+    private SensorRepository sensorRepository;
+
+    @Inject
+    private AlertRepository alertRepository;
+
+    @Inject
+    private SoilMonitoringManager manager;
+
+    @Inject
+    private FieldStateManager fieldStateManager;
+
+    @Inject
+    private AlertOutbox alertOutbox;
+
+    @Inject
+    @ConfigProperty(name = "sensors.offline.interval.seconds", defaultValue = "60")
+    long intervalSeconds = 60;
+
+    @Inject
+    @ConfigProperty(name = "sensors.offline.missed.intervals", defaultValue = "3")
+    int missedIntervals = 3;
+
+    private final HashedTimingWheel<String> deadlines =
+            new HashedTimingWheel<>(512, 1000, ReadingColumns.toMillis(LocalDateTime.now()));
+    private volatile boolean seeded;
+
+    /**
+     * Records a reading of a registered sensor.
+     *
+     * @param sensor      the sensor
+     * @param at          the time of the reading
+     * @param reconnected whether the reading made the sensor active again
+     */
+    public void onHeartbeat(Sensor sensor, LocalDateTime at, boolean reconnected) {
+        deadlines.schedule(sensor.getId(), ReadingColumns.toMillis(at.plus(timeout())));
+        if (reconnected) {
+            clearOfflineAlerts(sensor, at);
+        }
+    }
+
+    /**
+     * @return the number of sensors with a deadline
+     */
+    public int trackedCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Marks inactive the sensors whose deadline passed.
+     *
+     * @return the sensors marked inactive
+     */
+    public List<Sensor> detectOffline() {
+        return detectOffline(LocalDateTime.now());
+    }
+
+    List<Sensor> detectOffline(LocalDateTime now) {
+        if (!seeded) {
+            seed(now);
+        }
+        List<Sensor> offline = new ArrayList<>();
+        for (String sensorId : deadlines.advance(ReadingColumns.toMillis(now))) {
+            Sensor sensor = manager.findSensor(sensorId).orElse(null);
+            if (sensor == null || !ACTIVE.equals(sensor.getStatus())) {
+                continue; // deleted, or its status was changed through the API
+            }
+            LocalDateTime last = sensor.getLastConnection();
+            if (last != null && last.plus(timeout()).isAfter(now)) {
+                // A heartbeat raced with the expiry
+                deadlines.schedule(sensorId, ReadingColumns.toMillis(last.plus(timeout())));
+                continue;
+            }
+            try {
+                markOffline(sensor, now);
+                offline.add(sensor);
+            } catch (Exception e) {
+                logger.severe("Failed to mark sensor " + sensorId + " offline: " + e.getMessage());
+                deadlines.schedule(sensorId, ReadingColumns.toMillis(now.plusSeconds(intervalSeconds)));
+            }
+        }
+        return offline;
+    }
+
+    /**
+     * Schedules the active sensors, with at least one interval of grace so a
+     * restart does not mark them all offline before they report.
+     */
+    private synchronized void seed(LocalDateTime now) {
+        if (seeded) {
+            return;
+        }
+        LocalDateTime grace = now.plusSeconds(intervalSeconds);
+        int count = 0;
+        for (Sensor sensor : sensorRepository.findByStatus(ACTIVE)) {
+            if (deadlines.contains(sensor.getId())) {
+                continue; // already reported since the start
+            }
+            LocalDateTime deadline = sensor.getLastConnection() != null
+                    ? sensor.getLastConnection().plus(timeout())
+                    : grace;
+            deadlines.schedule(sensor.getId(), ReadingColumns.toMillis(deadline.isAfter(grace) ? deadline : grace));
+            count++;
+        }
+        seeded = true;
+        logger.info("Tracking " + count + " active sensors for missed heartbeats");
+    }
+
+    private void markOffline(Sensor sensor, LocalDateTime now) {
+        sensor.setStatus(INACTIVE);
+        sensorRepository.save(sensor);
+        manager.onSensorSaved(sensor);
+        fieldStateManager.onSensorStatusChanged(sensor);
+
+        Alert alert = new Alert();
+        alert.setId(UUID.randomUUID().toString());
+        if (sensor.getFieldId() != null) {
+            manager.findField(sensor.getFieldId()).ifPresent(field -> alert.setUserId(field.getUserId()));
+        }
+        alert.setFieldId(sensor.getFieldId());
+        alert.setSensorId(sensor.getId());
+        alert.setAlertType(SENSOR_OFFLINE);
+        alert.setSeverity("high");
+        alert.setMessage("Sensor " + Objects.requireNonNullElse(sensor.getDeviceId(), sensor.getId())
+                + " has not reported since " + sensor.getLastConnection());
+        alert.setIsRead(false);
+        alert.setStatus(Alert.OPEN);
+        alert.setOccurrences(1);
+        alert.setCreatedAt(now);
+        alert.setLastSeenAt(now);
+        alertOutbox.submit(new AlertStateManager.Change(AlertStateManager.Transition.RAISED, alert));
+        logger.warning("Sensor " + sensor.getId() + " is offline");
+    }
+
+    private void clearOfflineAlerts(Sensor sensor, LocalDateTime at) {
+        if (sensor.getFieldId() == null) {
+            return;
+        }
+        try {
+            for (Alert alert : alertRepository.findByFieldIdAndStatus(sensor.getFieldId(), Alert.OPEN)) {
+                if (SENSOR_OFFLINE.equals(alert.getAlertType()) && sensor.getId().equals(alert.getSensorId())) {
+                    alert.setStatus(Alert.CLEARED);
+                    alert.setClearedAt(at);
+                    alertRepository.save(alert);
+                }
+            }
+        } catch (Exception e) {
+            logger.warning("Failed to clear offline alerts of sensor " + sensor.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private Duration timeout() {
+        return Duration.ofSeconds(intervalSeconds * Math.max(1, missedIntervals));
+    }
+}
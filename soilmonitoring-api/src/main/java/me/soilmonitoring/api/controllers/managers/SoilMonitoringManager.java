@@ -1,13 +1,23 @@
 package me.soilmonitoring.api.controllers.managers;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.data.Limit;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import me.soilmonitoring.api.controllers.repositories.*;
 import me.soilmonitoring.api.entities.*;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 
 //TODO: add test file
@@ -32,10 +42,43 @@ public class SoilMonitoringManager {
     private PredictionRepository predictionRepository;
 
     @Inject
-    private AlertRepository alertRepository;
+    private TreatmentRepository treatmentRepository;
 
     @Inject
-    private TreatmentRepository treatmentRepository;
+    private ColdSegmentStore coldSegmentStore;
+
+    @Inject
+    @ConfigProperty(name = "cache.fields.max.entries", defaultValue = "10000")
+    int maxCachedFields = 10000;
+
+    @Inject
+    @ConfigProperty(name = "cache.sensors.max.entries", defaultValue = "50000")
+    int maxCachedSensors = 50000;
+
+    @Inject
+    @ConfigProperty(name = "cache.ttl.seconds", defaultValue = "300")
+    long cacheTtlSeconds = 300;
+
+    @Inject
+    @ConfigProperty(name = "cache.negative.ttl.seconds", defaultValue = "60")
+    long negativeCacheTtlSeconds = 60;
+
+    // Collapses identical concurrent list queries (e.g. every dashboard refreshing
+    // the same field after a WebSocket push) into one database round-trip.
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    // Fields and sensors are read on every reading, alert and dashboard request but
+    // rarely change; the endpoints that write them keep these caches up to date.
+    private final NearCache<String, Field> fieldsById = new NearCache<>(10000, 300, 60);
+    private final NearCache<String, Sensor> sensorsById = new NearCache<>(50000, 300, 60);
+    private final NearCache<String, Sensor> sensorsByDeviceId = new NearCache<>(50000, 300, 60);
+
+    @PostConstruct
+    void configureCaches() {
+        fieldsById.configure(maxCachedFields, cacheTtlSeconds, negativeCacheTtlSeconds);
+        sensorsById.configure(maxCachedSensors, cacheTtlSeconds, negativeCacheTtlSeconds);
+        sensorsByDeviceId.configure(maxCachedSensors, cacheTtlSeconds, negativeCacheTtlSeconds);
+    }
 
     /* ******* user *********
     */
@@ -64,7 +107,35 @@ public class SoilMonitoringManager {
      * @throws IllegalArgumentException if no field is found
      */
     public Field findFieldById(String fieldId) {
-        return fieldRepository.findById(fieldId).orElseThrow(IllegalArgumentException::new);
+        return findField(fieldId).orElseThrow(IllegalArgumentException::new);
+    }
+
+    /**
+     * Finds a field by its ID, from the cache when possible.
+     *
+     * @param fieldId the ID of the field
+     * @return the field, or empty if there is none
+     */
+    public Optional<Field> findField(String fieldId) {
+        return fieldsById.get(fieldId, fieldRepository::findById);
+    }
+
+    /**
+     * Updates the cache after a field was created or updated.
+     *
+     * @param field the field as saved
+     */
+    public void onFieldSaved(Field field) {
+        fieldsById.put(field.getId(), field);
+    }
+
+    /**
+     * Updates the cache after a field was deleted.
+     *
+     * @param fieldId the ID of the deleted field
+     */
+    public void onFieldDeleted(String fieldId) {
+        fieldsById.invalidate(fieldId);
     }
 
 
@@ -90,7 +161,63 @@ public class SoilMonitoringManager {
      * @throws IllegalArgumentException if no sensor is found
      */
     public Sensor findSensorByDeviceId(String deviceId) {
-        return sensorRepository.findByDeviceId(deviceId).orElseThrow(IllegalArgumentException::new);
+        return findSensorForDevice(deviceId).orElseThrow(IllegalArgumentException::new);
+    }
+
+    /**
+     * Finds the sensor of a device, from the cache when possible; unknown
+     * devices are cached too, for {@code cache.negative.ttl.seconds}.
+     *
+     * @param deviceId the device ID of the sensor
+     * @return the sensor, or empty if the device is not registered
+     */
+    public Optional<Sensor> findSensorForDevice(String deviceId) {
+        return sensorsByDeviceId.get(deviceId, sensorRepository::findByDeviceId);
+    }
+
+    /**
+     * Finds a sensor by its ID, from the cache when possible.
+     *
+     * @param sensorId the ID of the sensor
+     * @return the sensor, or empty if there is none
+     */
+    public Optional<Sensor> findSensor(String sensorId) {
+        return sensorsById.get(sensorId, sensorRepository::findById);
+    }
+
+    /**
+     * Updates the caches after a sensor was created or updated.
+     *
+     * @param sensor the sensor as saved
+     */
+    public void onSensorSaved(Sensor sensor) {
+        sensorsById.put(sensor.getId(), sensor);
+        // The device ID may have changed
+        sensorsByDeviceId.invalidateIf(cached -> sensor.getId().equals(cached.getId()));
+        if (sensor.getDeviceId() != null) {
+            sensorsByDeviceId.put(sensor.getDeviceId(), sensor);
+        }
+    }
+
+    /**
+     * Updates the caches after a sensor was deleted.
+     *
+     * @param sensorId the ID of the deleted sensor
+     */
+    public void onSensorDeleted(String sensorId) {
+        sensorsById.invalidate(sensorId);
+        sensorsByDeviceId.invalidateIf(cached -> sensorId.equals(cached.getId()));
+    }
+
+    /**
+     * @return the counters of the field and sensor caches, by cache name
+     */
+    public Map<String, NearCache.Stats> getCacheStats() {
+        Map<String, NearCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("fieldsById", fieldsById.stats());
+        stats.put("sensorsById", sensorsById.stats());
+        stats.put("sensorsByDeviceId", sensorsByDeviceId.stats());
+        return stats;
     }
 
     /**
@@ -100,7 +227,7 @@ public class SoilMonitoringManager {
      * @return a list of sensors
      */
     public List<Sensor> getFieldSensors(String fieldId) {
-        return sensorRepository.findByFieldId(fieldId);
+        return coalesce(() -> sensorRepository.findByFieldId(fieldId), "fieldSensors", fieldId);
     }
 
 
@@ -115,7 +242,7 @@ public class SoilMonitoringManager {
      * @return a list of sensor readings
      */
     public List<SensorReading> getFieldReadings(String fieldId) {
-        return sensorReadingRepository.findByFieldId(fieldId);
+        return coalesce(() -> sensorReadingRepository.findByFieldId(fieldId), "fieldReadings", fieldId);
     }
 
     /**
@@ -127,7 +254,57 @@ public class SoilMonitoringManager {
      * @return a list of sensor readings
      */
     public List<SensorReading> getFieldReadingsByTimeRange(String fieldId, LocalDateTime from, LocalDateTime to) {
-        return sensorReadingRepository.findByFieldIdAndTimestampBetween(fieldId, from, to);
+        return coalesce(() -> {
+            Optional<LocalDateTime> archivedUntil = archivedUntil(from);
+            if (archivedUntil.isEmpty()) {
+                return sensorReadingRepository.findByFieldIdAndTimestampBetween(fieldId, from, to);
+            }
+            List<SensorReading> readings = new ArrayList<>(
+                    coldSegmentStore.scanField(fieldId, from, lastArchived(archivedUntil.get(), to)));
+            if (!to.isBefore(archivedUntil.get())) {
+                readings.addAll(sensorReadingRepository.findByFieldIdAndTimestampBetween(
+                        fieldId, archivedUntil.get(), to));
+            }
+            return readings;
+        }, "fieldReadingsByTimeRange", fieldId, from, to);
+    }
+
+    /**
+     * Gets the readings of one sensor within a time range, oldest first,
+     * from the cold store for archived days and MongoDB for the rest.
+     *
+     * @param sensorId the ID of the sensor
+     * @param from     the start of the time range
+     * @param to       the end of the time range
+     * @param limit    the maximum number of readings to return
+     * @return at most {@code limit} readings from the start of the range
+     */
+    public List<SensorReading> getSensorReadingsByTimeRange(String sensorId, LocalDateTime from,
+                                                            LocalDateTime to, int limit) {
+        Optional<LocalDateTime> archivedUntil = archivedUntil(from);
+        if (archivedUntil.isEmpty()) {
+            return sensorReadingRepository.findBySensorIdAndTimestampBetween(sensorId, from, to, Limit.of(limit));
+        }
+        List<SensorReading> archived = coldSegmentStore.scanSensor(
+                sensorId, from, lastArchived(archivedUntil.get(), to));
+        List<SensorReading> readings = new ArrayList<>(archived.subList(0, Math.min(archived.size(), limit)));
+        if (readings.size() < limit && !to.isBefore(archivedUntil.get())) {
+            readings.addAll(sensorReadingRepository.findBySensorIdAndTimestampBetween(
+                    sensorId, archivedUntil.get(), to, Limit.of(limit - readings.size())));
+        }
+        return readings;
+    }
+
+    /**
+     * @return the end of the archived range when a query starting at {@code from} needs the cold store
+     */
+    private Optional<LocalDateTime> archivedUntil(LocalDateTime from) {
+        return coldSegmentStore.coveredUntil().filter(from::isBefore);
+    }
+
+    private static LocalDateTime lastArchived(LocalDateTime archivedUntil, LocalDateTime to) {
+        LocalDateTime last = archivedUntil.minusNanos(1);
+        return to.isBefore(last) ? to : last;
     }
 
     /* ******predictions******
@@ -144,19 +321,6 @@ public class SoilMonitoringManager {
         return predictionRepository.findByFieldIdAndPredictionType(fieldId, predictionType);
     }
 
-    /* *******alerts******
-    */
-
-    /**
-     * Gets all unread alerts for a specific user.
-     *
-     * @param userId the ID of the user
-     * @return a list of unread alerts
-     */
-    public List<Alert> getUnreadAlerts(String userId) {
-        return alertRepository.findByUserIdAndIsRead(userId, false);
-    }
-
     /* *****treatments******
     */
 
@@ -170,7 +334,27 @@ public class SoilMonitoringManager {
         return treatmentRepository.findByFieldId(fieldId);
     }
 
+    /* *****coalescing******
+    */
 
-
-
-}
\ No newline at end of file
+    /**
+     * Runs a list query through the coalescer. Concurrent callers with the same
+     * query name and arguments share one repository call; the shared list is
+     * returned read-only so one caller cannot change what the others see.
+     *
+     * @param query the repository call
+     * @param name  the query name, part of the coalescing key
+     * @param args  the query arguments, part of the coalescing key
+     * @return the query result
+     */
+    private <T> List<T> coalesce(Supplier<List<T>> query, String name, Object... args) {
+        Object[] key = new Object[args.length + 1];
+        key[0] = name;
+        System.arraycopy(args, 0, key, 1, args.length);
+
+        return coalescer.execute(Arrays.asList(key), () -> {
+            List<T> result = query.get();
+            return result != null ? Collections.unmodifiableList(result) : null;
+        });
+    }
+}
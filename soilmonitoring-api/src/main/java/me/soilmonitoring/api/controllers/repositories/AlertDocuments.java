@@ -0,0 +1,62 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import me.soilmonitoring.api.entities.Alert;
+import org.bson.Document;
+
+/**
+ * Maps alerts to and from their documents in the {@code Alert} collection,
+ * for the queries and bulk writes done through {@link MongoCollections};
+ * the field names and value types are the ones JNoSQL writes, so documents
+ * written either way read and sort alike.
+ */
+public final class AlertDocuments {
+
+    public static final String COLLECTION = "Alert";
+
+    private AlertDocuments() {
+    }
+
+    public static Alert toAlert(Document document) {
+        Alert alert = new Alert();
+        alert.setId(document.getString("_id"));
+        alert.setVersion(longValue(document.get("version")));
+        alert.setUserId(document.getString("userId"));
+        alert.setFieldId(document.getString("fieldId"));
+        alert.setSensorId(document.getString("sensorId"));
+        alert.setAlertType(document.getString("alertType"));
+        alert.setMetric(document.getString("metric"));
+        alert.setSeverity(document.getString("severity"));
+        alert.setMessage(document.getString("message"));
+        alert.setIsRead(document.getBoolean("isRead"));
+        alert.setStatus(document.getString("status"));
+        alert.setOccurrences(longValue(document.get("occurrences")));
+        alert.setCreatedAt(MongoDates.decode(document.get("createdAt")));
+        alert.setLastSeenAt(MongoDates.decode(document.get("lastSeenAt")));
+        alert.setClearedAt(MongoDates.decode(document.get("clearedAt")));
+        alert.setNotification(document.getString("notification"));
+        return alert;
+    }
+
+    public static Document toDocument(Alert alert) {
+        return new Document("_id", alert.getId())
+                .append("version", alert.getVersion())
+                .append("userId", alert.getUserId())
+                .append("fieldId", alert.getFieldId())
+                .append("sensorId", alert.getSensorId())
+                .append("alertType", alert.getAlertType())
+                .append("metric", alert.getMetric())
+                .append("severity", alert.getSeverity())
+                .append("message", alert.getMessage())
+                .append("isRead", alert.getIsRead())
+                .append("status", alert.getStatus())
+                .append("occurrences", alert.getOccurrences())
+                .append("createdAt", MongoDates.encode(alert.getCreatedAt()))
+                .append("lastSeenAt", MongoDates.encode(alert.getLastSeenAt()))
+                .append("clearedAt", MongoDates.encode(alert.getClearedAt()))
+                .append("notification", alert.getNotification());
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
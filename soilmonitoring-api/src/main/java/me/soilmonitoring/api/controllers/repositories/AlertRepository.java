@@ -59,4 +59,39 @@ public interface AlertRepository extends CrudRepository<Alert, String> {
             @By("fieldId") String fieldId,
             @By("isRead") Boolean isRead
     );
+
+
+    /**
+     * Counts the alerts of a user by read status, without loading them.
+     *
+     * @param userId the ID of the user
+     * @param isRead the read status to count
+     * @return the number of matching alerts
+     */
+    long countByUserIdAndIsRead(@By("userId") String userId, @By("isRead") Boolean isRead);
+
+
+    /**
+     * Counts the alerts of a field by read status, without loading them.
+     *
+     * @param fieldId the ID of the field
+     * @param isRead  the read status to count
+     * @return the number of matching alerts
+     */
+    long countByFieldIdAndIsRead(@By("fieldId") String fieldId, @By("isRead") Boolean isRead);
+
+
+    /**
+     * Finds the alerts of a field in a given state, used to restore the open
+     * alerts of a field after a restart.
+     *
+     * @param fieldId the ID of the field
+     * @param status  {@link Alert#OPEN} or {@link Alert#CLEARED}
+     * @return the matching alerts
+     */
+    @Find
+    List<Alert> findByFieldIdAndStatus(
+            @By("fieldId") String fieldId,
+            @By("status") String status
+    );
 }
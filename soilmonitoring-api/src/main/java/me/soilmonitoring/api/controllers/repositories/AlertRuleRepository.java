@@ -0,0 +1,13 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import jakarta.data.repository.CrudRepository;
+import jakarta.data.repository.Repository;
+import me.soilmonitoring.api.entities.AlertRule;
+
+/**
+ * Alert thresholds, loaded as a whole by
+ * {@link me.soilmonitoring.api.controllers.managers.AlertRuleManager}.
+ */
+@Repository
+public interface AlertRuleRepository extends CrudRepository<AlertRule, String> {
+}
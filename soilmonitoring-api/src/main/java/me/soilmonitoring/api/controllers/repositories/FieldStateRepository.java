@@ -0,0 +1,13 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import jakarta.data.repository.CrudRepository;
+import jakarta.data.repository.Repository;
+import me.soilmonitoring.api.entities.FieldState;
+
+/**
+ * Materialized per-field state, keyed by field id.
+ * Written by {@link me.soilmonitoring.api.controllers.managers.FieldStateManager} only.
+ */
+@Repository
+public interface FieldStateRepository extends CrudRepository<FieldState, String> {
+}
@@ -0,0 +1,57 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Direct access to the MongoDB collections, for the operations Jakarta Data
+ * repositories cannot express (change streams, bulk writes, aggregations).
+ *
+ * Uses the same database as JNoSQL; collections are named after the entity
+ * classes, e.g. {@code "SensorReading"}.
+ */
+@ApplicationScoped
+public class MongoCollections {
+
+    @Inject
+    @ConfigProperty(name = "jnosql.mongodb.url")
+    private String url;
+
+    @Inject
+    @ConfigProperty(name = "jnosql.document.database")
+    private String databaseName;
+
+    private volatile MongoClient client;
+
+    public MongoDatabase database() {
+        MongoClient current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    current = MongoClients.create(url);
+                    client = current;
+                }
+            }
+        }
+        return current.getDatabase(databaseName);
+    }
+
+    public MongoCollection<Document> collection(String name) {
+        return database().getCollection(name);
+    }
+
+    @PreDestroy
+    void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+}
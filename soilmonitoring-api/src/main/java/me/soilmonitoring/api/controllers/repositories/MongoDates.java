@@ -0,0 +1,51 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Converts times to and from the representation JNoSQL stores them in, for
+ * the queries and writes done through {@link MongoCollections}.
+ *
+ * JNoSQL writes a {@link LocalDateTime} as its ISO-8601 string
+ * ({@link LocalDateTime#toString()}), not as a BSON date. MongoDB compares a
+ * string only with strings, so every raw filter, update and aggregation on
+ * such a field must use {@link #encode} for its bounds. Those strings sort
+ * in chronological order (the seconds and fraction are only ever omitted or
+ * shortened at the end, which sorts first), so {@code $lt}, {@code $gte},
+ * {@code $max} and sorts keep their meaning.
+ *
+ * {@link #decode} also reads the BSON dates (UTC) that raw writes stored
+ * before they used this representation.
+ */
+public final class MongoDates {
+
+    private MongoDates() {
+    }
+
+    /**
+     * @return the value JNoSQL stores for {@code time}, or null
+     */
+    public static String encode(LocalDateTime time) {
+        return time != null ? time.toString() : null;
+    }
+
+    /**
+     * @param value a stored string or BSON date, or null
+     * @return the time, or null
+     * @throws IllegalArgumentException if the value is neither a string nor a date
+     */
+    public static LocalDateTime decode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String text) {
+            return LocalDateTime.parse(text);
+        }
+        if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC);
+        }
+        throw new IllegalArgumentException("Not a stored time: " + value.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,161 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.inject.Inject;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Creates the secondary indexes the queries rely on at deployment.
+ *
+ * JNoSQL does not manage indexes. {@code createIndex} is a no-op when an
+ * identical index exists, so this runs on every start; a failure is logged
+ * and the queries still work, only without the index.
+ *
+ * Retention is not an index: JNoSQL stores times as strings, which TTL
+ * indexes ignore, so {@link me.soilmonitoring.api.services.RetentionJob}
+ * deletes expired documents and the TTL indexes of earlier deployments are
+ * dropped.
+ *
+ * Times that earlier deployments wrote through the driver as BSON dates are
+ * rewritten in that string form too, so range queries and {@code $max}
+ * compare them with the ones JNoSQL writes.
+ */
+@Singleton
+@Startup
+public class MongoIndexes {
+
+    private static final Logger logger = Logger.getLogger(MongoIndexes.class.getName());
+
+    private static final int NAMESPACE_NOT_FOUND = 26;
+    private static final int INDEX_NOT_FOUND = 27;
+    private static final int CONVERSION_BATCH = 1000;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @PostConstruct
+    public void createIndexes() {
+        // Per-sensor range, latest and aggregate queries (SensorResource)
+        ensureIndex("SensorReading", Indexes.ascending("sensorId", "timestamp"), "sensorId_timestamp");
+        // Rollup lookups (RollupManager)
+        ensureIndex("ReadingRollup", Indexes.ascending("sensorId", "granularity", "bucketStart"),
+                "sensorId_granularity_bucketStart");
+        ensureIndex("ReadingRollup", Indexes.ascending("fieldId", "granularity", "bucketStart"),
+                "fieldId_granularity_bucketStart");
+        ensureIndex("ReadingRollup", Indexes.ascending("granularity", "bucketStart"),
+                "granularity_bucketStart");
+        // Alert history pages, newest first, per filter (AlertInboxManager); the
+        // unread one also serves the unread counts and bulk reads
+        ensureIndex("Alert", history("userId"), "userId_createdAt");
+        ensureIndex("Alert", history("userId", "isRead"), "userId_isRead_createdAt");
+        ensureIndex("Alert", history("userId", "fieldId"), "userId_fieldId_createdAt");
+        ensureIndex("Alert", history("userId", "severity"), "userId_severity_createdAt");
+        ensureIndex("Alert", history("userId", "alertType"), "userId_alertType_createdAt");
+        ensureIndex("Alert", Indexes.ascending("fieldId", "isRead"), "fieldId_isRead");
+        // Alerts not announced yet (AlertOutbox); only those are indexed
+        ensureIndex("Alert", Indexes.ascending("notification"), new IndexOptions().name("notification_pending")
+                .partialFilterExpression(Filters.type("notification", BsonType.STRING)));
+
+        // Retention, rollup and archive ranges (RetentionJob, RollupManager, ReadingArchiveJob)
+        dropRetentionIndex("SensorReading", "timestamp_ttl");
+        dropRetentionIndex("Alert", "createdAt_ttl");
+        ensureIndex("SensorReading", Indexes.ascending("timestamp"), "timestamp");
+        ensureIndex("Alert", Indexes.ascending("createdAt"), "createdAt");
+
+        // Heartbeats written as dates by earlier deployments (SensorHeartbeatManager)
+        convertDates("Sensor", "lastConnection");
+        // Alerts written as dates by earlier deployments (AlertOutbox)
+        convertDates("Alert", "createdAt");
+        convertDates("Alert", "lastSeenAt");
+        convertDates("Alert", "clearedAt");
+    }
+
+    /**
+     * Equality keys first, then the keyset of the alert history.
+     */
+    private static Bson history(String... equalityKeys) {
+        return Indexes.compoundIndex(Indexes.ascending(equalityKeys), Indexes.descending("createdAt", "_id"));
+    }
+
+    private void ensureIndex(String collection, Bson keys, String name) {
+        ensureIndex(collection, keys, new IndexOptions().name(name));
+    }
+
+    private void ensureIndex(String collection, Bson keys, IndexOptions options) {
+        try {
+            mongo.collection(collection).createIndex(keys, options);
+        } catch (MongoException e) {
+            logger.warning("Could not create index " + options.getName() + " on " + collection + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the BSON dates of a field as the strings JNoSQL writes.
+     */
+    private void convertDates(String collection, String field) {
+        Bson isDate = Filters.type(field, BsonType.DATE_TIME);
+        try {
+            List<WriteModel<Document>> updates = new ArrayList<>();
+            int converted = 0;
+            for (Document document : mongo.collection(collection).find(isDate).projection(Projections.include(field))) {
+                // Only if still a date, so a concurrent write is not overwritten
+                updates.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", document.get("_id")), isDate),
+                        Updates.set(field, MongoDates.encode(MongoDates.decode(document.get(field))))));
+                if (updates.size() == CONVERSION_BATCH) {
+                    converted += write(collection, updates);
+                }
+            }
+            converted += write(collection, updates);
+            if (converted > 0) {
+                logger.info("Converted " + converted + " " + collection + "." + field + " dates to strings");
+            }
+        } catch (MongoException e) {
+            logger.warning("Could not convert the dates of " + collection + "." + field + ": " + e.getMessage());
+        }
+    }
+
+    private int write(String collection, List<WriteModel<Document>> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int modified = mongo.collection(collection)
+                .bulkWrite(updates, new BulkWriteOptions().ordered(false))
+                .getModifiedCount();
+        updates.clear();
+        return modified;
+    }
+
+    /**
+     * Drops a TTL index an earlier deployment created for retention.
+     */
+    private void dropRetentionIndex(String collection, String name) {
+        try {
+            mongo.collection(collection).dropIndex(name);
+            logger.info("Dropped TTL index " + name + " on " + collection);
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != INDEX_NOT_FOUND && e.getErrorCode() != NAMESPACE_NOT_FOUND) {
+                logger.warning("Could not drop index " + name + " on " + collection + ": " + e.getMessage());
+            }
+        } catch (MongoException e) {
+            logger.warning("Could not drop index " + name + " on " + collection + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import jakarta.data.Limit;
+import jakarta.data.repository.By;
+import jakarta.data.repository.CrudRepository;
+import jakarta.data.repository.Find;
+import jakarta.data.repository.OrderBy;
+import jakarta.data.repository.Repository;
+import me.soilmonitoring.api.entities.ReadingRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hourly and daily reading aggregates, written by
+ * {@link me.soilmonitoring.api.controllers.managers.RollupManager}.
+ */
+@Repository
+public interface ReadingRollupRepository extends CrudRepository<ReadingRollup, String> {
+
+    /**
+     * Retrieves the rollups of one sensor whose bucket starts within a given time range, oldest first.
+     *
+     * @param sensorId    the unique identifier of the sensor
+     * @param granularity {@link ReadingRollup#HOURLY} or {@link ReadingRollup#DAILY}
+     * @param from        the start of the time interval
+     * @param to          the end of the time interval
+     * @return the matching {@link ReadingRollup} objects
+     */
+    @Find
+    @OrderBy("bucketStart")
+    List<ReadingRollup> findBySensorIdAndGranularityAndBucketStartBetween(
+            @By("sensorId") String sensorId,
+            @By("granularity") String granularity,
+            @By("bucketStart") LocalDateTime from,
+            @By("bucketStart") LocalDateTime to
+    );
+
+    /**
+     * Retrieves the rollups of every sensor of a field whose bucket starts within a given time range.
+     *
+     * @param fieldId     the unique identifier of the field
+     * @param granularity {@link ReadingRollup#HOURLY} or {@link ReadingRollup#DAILY}
+     * @param from        the start of the time interval
+     * @param to          the end of the time interval
+     * @return the matching {@link ReadingRollup} objects
+     */
+    @Find
+    @OrderBy("bucketStart")
+    List<ReadingRollup> findByFieldIdAndGranularityAndBucketStartBetween(
+            @By("fieldId") String fieldId,
+            @By("granularity") String granularity,
+            @By("bucketStart") LocalDateTime from,
+            @By("bucketStart") LocalDateTime to
+    );
+
+    /**
+     * Retrieves the rollups of every sensor whose bucket starts within a given time range.
+     *
+     * @param granularity {@link ReadingRollup#HOURLY} or {@link ReadingRollup#DAILY}
+     * @param from        the start of the time interval
+     * @param to          the end of the time interval
+     * @return the matching {@link ReadingRollup} objects
+     */
+    @Find
+    List<ReadingRollup> findByGranularityAndBucketStartBetween(
+            @By("granularity") String granularity,
+            @By("bucketStart") LocalDateTime from,
+            @By("bucketStart") LocalDateTime to
+    );
+
+    /**
+     * Retrieves the most recent rollups of a granularity, newest first.
+     *
+     * @param granularity {@link ReadingRollup#HOURLY} or {@link ReadingRollup#DAILY}
+     * @param limit       the number of rollups to return
+     * @return the latest {@link ReadingRollup} objects
+     */
+    @Find
+    @OrderBy(value = "bucketStart", descending = true)
+    List<ReadingRollup> findLatestByGranularity(@By("granularity") String granularity, Limit limit);
+}
@@ -1,8 +1,10 @@
 package me.soilmonitoring.api.controllers.repositories;
 
+import jakarta.data.Limit;
 import jakarta.data.repository.By;
 import jakarta.data.repository.CrudRepository;
 import jakarta.data.repository.Find;
+import jakarta.data.repository.OrderBy;
 import jakarta.data.repository.Repository;
 import me.soilmonitoring.api.entities.SensorReading;
 
@@ -59,4 +61,38 @@ public interface SensorReadingRepository extends CrudRepository<SensorReading, S
             @By("timestamp") LocalDateTime from,
             @By("timestamp") LocalDateTime to
     );
+
+    /**
+     * Retrieves the readings of one sensor within a given time range, oldest first.
+     *
+     * Served by the (sensorId, timestamp) index, so diagnosing a single
+     * device reads only that device's readings for the window.
+     *
+     *
+     * @param sensorId the unique identifier of the sensor
+     * @param from     the start of the time interval
+     * @param to       the end of the time interval
+     * @param limit    the maximum number of readings to return
+     * @return at most {@code limit} {@link SensorReading} objects from the start of the period
+     */
+    @Find
+    @OrderBy("timestamp")
+    List<SensorReading> findBySensorIdAndTimestampBetween(
+            @By("sensorId") String sensorId,
+            @By("timestamp") LocalDateTime from,
+            @By("timestamp") LocalDateTime to,
+            Limit limit
+    );
+
+    /**
+     * Retrieves the most recent readings of one sensor, newest first.
+     *
+     *
+     * @param sensorId the unique identifier of the sensor
+     * @param limit    the number of readings to return
+     * @return the latest {@link SensorReading} objects recorded by the sensor
+     */
+    @Find
+    @OrderBy(value = "timestamp", descending = true)
+    List<SensorReading> findLatestBySensorId(@By("sensorId") String sensorId, Limit limit);
 }
@@ -10,6 +10,11 @@ import java.time.LocalDateTime;
 
 @Entity
 public class Alert implements RootEntity<String> {
+
+    public static final String OPEN = "open";
+    public static final String CLEARED = "cleared";
+    public static final String NOTIFY_NEW = "new";
+    public static final String NOTIFY_ESCALATED = "escalated";
     @Id
     private String id;
 
@@ -37,6 +42,27 @@ public class Alert implements RootEntity<String> {
     @Column
     private LocalDateTime createdAt;
 
+    @Column
+    private String metric; // Metric JSON name of the rule that raised it
+
+    @Column
+    private String status; // OPEN while the condition holds, then CLEARED
+
+    @Column
+    private long occurrences; // readings that matched while open
+
+    @Column
+    private LocalDateTime lastSeenAt;
+
+    @Column
+    private LocalDateTime clearedAt;
+
+    @Column
+    private String sensorId; // the sensor of sensor-level alerts, such as sensor_offline
+
+    @Column
+    private String notification; // NOTIFY_NEW or NOTIFY_ESCALATED until announced, then null
+
     @Override
     public String getId() {
         return id;
@@ -115,4 +141,60 @@ public class Alert implements RootEntity<String> {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(long occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(LocalDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+
+    public LocalDateTime getClearedAt() {
+        return clearedAt;
+    }
+
+    public void setClearedAt(LocalDateTime clearedAt) {
+        this.clearedAt = clearedAt;
+    }
+
+    public String getSensorId() {
+        return sensorId;
+    }
+
+    public void setSensorId(String sensorId) {
+        this.sensorId = sensorId;
+    }
+
+    public String getNotification() {
+        return notification;
+    }
+
+    public void setNotification(String notification) {
+        this.notification = notification;
+    }
+}
@@ -0,0 +1,258 @@
+package me.soilmonitoring.api.entities;
+
+import jakarta.nosql.Column;
+import jakarta.nosql.Entity;
+import jakarta.nosql.Id;
+
+import java.time.LocalDateTime;
+
+/**
+ * A threshold on one metric that raises an alert when crossed.
+ *
+ * Rules apply to every field, to the fields of a soil type or crop, or to a
+ * single field. For each metric a field uses the rules of the most specific
+ * scope defining any, so a crop can replace the default temperature limits
+ * without repeating the others; a disabled rule silences a metric. Within a
+ * scope the rules of a metric are tried by priority and the first match fires.
+ *
+ * A rule with a window applies its threshold to an aggregate of each sensor's
+ * readings over that window rather than to single readings, e.g. the maximum
+ * soil moisture over 30 minutes, or the temperature rate over an hour.
+ * Windowed rules are resolved separately from single-reading rules, so adding
+ * one does not replace the other rules of its metric.
+ */
+@Entity
+public class AlertRule implements RootEntity<String> {
+
+    public static final String DEFAULT = "default";
+    public static final String SOIL = "soil";
+    public static final String CROP = "crop";
+    public static final String FIELD = "field";
+
+    public static final String BELOW = "below";
+    public static final String ABOVE = "above";
+
+    public static final String SLIDING = "sliding";
+    public static final String TUMBLING = "tumbling";
+
+    @Id
+    private String id;
+
+    @Column
+    private long version = 0L;
+
+    @Column
+    private String scope; // DEFAULT, SOIL, CROP or FIELD
+
+    @Column
+    private String scopeValue; // soil type, crop or field id; null for DEFAULT
+
+    @Column
+    private String metric; // Metric JSON name
+
+    @Column
+    private String operator; // BELOW or ABOVE
+
+    @Column
+    private Double threshold;
+
+    @Column
+    private String alertType;
+
+    @Column
+    private String severity;
+
+    @Column
+    private String message; // "{value}" is replaced by the reading's value
+
+    @Column
+    private Integer decimals; // of {value}, 1 if unset
+
+    @Column
+    private String window; // e.g. "30m" or "3d": the threshold applies to an aggregate over it; null for each reading
+
+    @Column
+    private String windowType; // SLIDING (default) or TUMBLING
+
+    @Column
+    private String aggregate; // WindowAggregate.Function JSON name, "avg" if unset
+
+    @Column
+    private Double hysteresis; // how far back past the threshold an open alert clears; a share of it if unset
+
+    @Column
+    private Integer priority; // lower first, 0 if unset
+
+    @Column
+    private Boolean enabled;
+
+    @Column
+    private LocalDateTime updatedAt;
+
+    public AlertRule() {
+    }
+
+    public AlertRule(String metric, String operator, double threshold, String alertType, String severity,
+                     String message, int decimals) {
+        this.scope = DEFAULT;
+        this.metric = metric;
+        this.operator = operator;
+        this.threshold = threshold;
+        this.alertType = alertType;
+        this.severity = severity;
+        this.message = message;
+        this.decimals = decimals;
+        this.enabled = true;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (this.version != version) {
+            throw new IllegalStateException();
+        }
+        ++this.version;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public String getScopeValue() {
+        return scopeValue;
+    }
+
+    public void setScopeValue(String scopeValue) {
+        this.scopeValue = scopeValue;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public void setOperator(String operator) {
+        this.operator = operator;
+    }
+
+    public Double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Double threshold) {
+        this.threshold = threshold;
+    }
+
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public void setAlertType(String alertType) {
+        this.alertType = alertType;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Integer getDecimals() {
+        return decimals;
+    }
+
+    public void setDecimals(Integer decimals) {
+        this.decimals = decimals;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public String getWindowType() {
+        return windowType;
+    }
+
+    public void setWindowType(String windowType) {
+        this.windowType = windowType;
+    }
+
+    public String getAggregate() {
+        return aggregate;
+    }
+
+    public void setAggregate(String aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    public Double getHysteresis() {
+        return hysteresis;
+    }
+
+    public void setHysteresis(Double hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,143 @@
+package me.soilmonitoring.api.entities;
+
+import jakarta.nosql.Column;
+import jakarta.nosql.Entity;
+import jakarta.nosql.Id;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized dashboard state of a field, keyed by the field id.
+ *
+ * Maintained incrementally from reading and alert events so the summary
+ * endpoints read one document instead of scanning readings and alerts.
+ */
+@Entity
+public class FieldState implements RootEntity<String> {
+    @Id
+    private String id; // the field id
+
+    @Column
+    private long version = 0L;
+
+    @Column
+    private SensorData latest; // latest value of every metric
+
+    @Column
+    private LocalDateTime lastUpdate;
+
+    @Column
+    private long unreadAlertCount;
+
+    @Column
+    private List<String> activeSensorIds = new ArrayList<>();
+
+    @Column
+    private LocalDate day; // the day "today" refers to
+
+    @Column
+    private long todayReadingCount;
+
+    @Column
+    private List<MetricSummary> today = new ArrayList<>();
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (this.version != version) {
+            throw new IllegalStateException();
+        }
+        ++this.version;
+    }
+
+    public SensorData getLatest() {
+        return latest;
+    }
+
+    public void setLatest(SensorData latest) {
+        this.latest = latest;
+    }
+
+    public LocalDateTime getLastUpdate() {
+        return lastUpdate;
+    }
+
+    public void setLastUpdate(LocalDateTime lastUpdate) {
+        this.lastUpdate = lastUpdate;
+    }
+
+    public long getUnreadAlertCount() {
+        return unreadAlertCount;
+    }
+
+    public void setUnreadAlertCount(long unreadAlertCount) {
+        this.unreadAlertCount = unreadAlertCount;
+    }
+
+    public List<String> getActiveSensorIds() {
+        return activeSensorIds;
+    }
+
+    public void setActiveSensorIds(List<String> activeSensorIds) {
+        this.activeSensorIds = activeSensorIds;
+    }
+
+    public int getActiveSensorCount() {
+        return activeSensorIds != null ? activeSensorIds.size() : 0;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getTodayReadingCount() {
+        return todayReadingCount;
+    }
+
+    public void setTodayReadingCount(long todayReadingCount) {
+        this.todayReadingCount = todayReadingCount;
+    }
+
+    public List<MetricSummary> getToday() {
+        return today;
+    }
+
+    public void setToday(List<MetricSummary> today) {
+        this.today = today;
+    }
+
+    /**
+     * @return today's summary of the metric, or null if it was not reported today
+     */
+    public MetricSummary getToday(Metric metric) {
+        if (today != null) {
+            for (MetricSummary summary : today) {
+                if (metric.getJsonName().equals(summary.getMetric())) {
+                    return summary;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package me.soilmonitoring.api.entities;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The measurements carried by a {@link SensorData}, in a fixed order.
+ *
+ * The ordinal is used as the column index by the primitive, columnar
+ * representations of readings, and the JSON name matches the property
+ * name used by the REST and WebSocket payloads.
+ */
+public enum Metric {
+    TEMPERATURE("temperature", SensorData::getTemperature, SensorData::setTemperature),
+    HUMIDITY("humidity", SensorData::getHumidity, SensorData::setHumidity),
+    NITROGEN("nitrogen", SensorData::getNitrogen, SensorData::setNitrogen),
+    PHOSPHORUS("phosphorus", SensorData::getPhosphorus, SensorData::setPhosphorus),
+    POTASSIUM("potassium", SensorData::getPotassium, SensorData::setPotassium),
+    SOIL_MOISTURE("soilMoisture", SensorData::getSoilMoisture, SensorData::setSoilMoisture),
+    RAINFALL("rainfall", SensorData::getRainfall, SensorData::setRainfall),
+    PH("pH", SensorData::getPh, SensorData::setPh);
+
+    private static final Metric[] VALUES = values();
+
+    private final String jsonName;
+    private final Function<SensorData, Double> getter;
+    private final BiConsumer<SensorData, Double> setter;
+
+    Metric(String jsonName, Function<SensorData, Double> getter, BiConsumer<SensorData, Double> setter) {
+        this.jsonName = jsonName;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @return the value of this metric in the given data, or null if absent
+     */
+    public Double read(SensorData data) {
+        return data != null ? getter.apply(data) : null;
+    }
+
+    public void write(SensorData data, Double value) {
+        setter.accept(data, value);
+    }
+
+    /**
+     * @return the number of metrics, i.e. the number of columns
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Same as {@link #values()} without the defensive copy; callers must not modify it.
+     */
+    public static Metric[] all() {
+        return VALUES;
+    }
+
+    /**
+     * Resolves a metric from its JSON name (e.g. "soilMoisture") or enum name.
+     *
+     * @throws IllegalArgumentException if the name matches no metric
+     */
+    public static Metric fromName(String name) {
+        for (Metric metric : VALUES) {
+            if (metric.jsonName.equalsIgnoreCase(name) || metric.name().equalsIgnoreCase(name)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown metric: " + name);
+    }
+}
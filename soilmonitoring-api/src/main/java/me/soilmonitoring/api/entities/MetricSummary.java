@@ -0,0 +1,102 @@
+package me.soilmonitoring.api.entities;
+
+import jakarta.nosql.Column;
+import jakarta.nosql.Embeddable;
+
+/**
+ * Running min/max/sum/count of one metric, embedded in {@link FieldState} and {@link ReadingRollup}.
+ */
+@Embeddable
+public class MetricSummary {
+    @Column
+    private String metric; // Metric JSON name, e.g. "soilMoisture"
+
+    @Column
+    private Double min;
+
+    @Column
+    private Double max;
+
+    @Column
+    private Double sum;
+
+    @Column
+    private long count;
+
+    public MetricSummary() {
+    }
+
+    public MetricSummary(String metric) {
+        this.metric = metric;
+    }
+
+    /**
+     * Folds one value into the summary.
+     */
+    public void add(double value) {
+        min = min == null ? value : Math.min(min, value);
+        max = max == null ? value : Math.max(max, value);
+        sum = sum == null ? value : sum + value;
+        count++;
+    }
+
+    /**
+     * Folds another summary of the same metric into this one.
+     */
+    public void merge(MetricSummary other) {
+        if (other.count == 0) {
+            return;
+        }
+        min = min == null ? other.min : Math.min(min, other.min);
+        max = max == null ? other.max : Math.max(max, other.max);
+        sum = sum == null ? other.sum : sum + other.sum;
+        count += other.count;
+    }
+
+    /**
+     * @return the average, or null if no value was added
+     */
+    public Double getAvg() {
+        return count > 0 && sum != null ? sum / count : null;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public Double getSum() {
+        return sum;
+    }
+
+    public void setSum(Double sum) {
+        this.sum = sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
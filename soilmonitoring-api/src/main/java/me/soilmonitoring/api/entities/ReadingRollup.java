@@ -0,0 +1,186 @@
+package me.soilmonitoring.api.entities;
+
+import jakarta.nosql.Column;
+import jakarta.nosql.Entity;
+import jakarta.nosql.Id;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hourly or daily aggregate of one sensor's readings.
+ *
+ * Rollups are kept indefinitely, after the raw readings have expired, and
+ * are rebuilt idempotently: the id is derived from the sensor, the
+ * granularity and the bucket start.
+ */
+@Entity
+public class ReadingRollup implements RootEntity<String> {
+
+    public static final String HOURLY = "hour";
+    public static final String DAILY = "day";
+
+    @Id
+    private String id; // sensorId:granularity:bucketStart
+
+    @Column
+    private long version = 0L;
+
+    @Column
+    private String sensorId;
+
+    @Column
+    private String fieldId;
+
+    @Column
+    private String granularity; // HOURLY or DAILY
+
+    @Column
+    private LocalDateTime bucketStart;
+
+    @Column
+    private long count; // readings in the bucket
+
+    @Column
+    private List<MetricSummary> metrics = new ArrayList<>();
+
+    public ReadingRollup() {
+    }
+
+    public ReadingRollup(String sensorId, String fieldId, String granularity, LocalDateTime bucketStart) {
+        this.id = idOf(sensorId, granularity, bucketStart);
+        this.sensorId = sensorId;
+        this.fieldId = fieldId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public static String idOf(String sensorId, String granularity, LocalDateTime bucketStart) {
+        return sensorId + ":" + granularity + ":" + bucketStart;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        if (this.version != version) {
+            throw new IllegalStateException();
+        }
+        ++this.version;
+    }
+
+    public String getSensorId() {
+        return sensorId;
+    }
+
+    public void setSensorId(String sensorId) {
+        this.sensorId = sensorId;
+    }
+
+    public String getFieldId() {
+        return fieldId;
+    }
+
+    public void setFieldId(String fieldId) {
+        this.fieldId = fieldId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public List<MetricSummary> getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(List<MetricSummary> metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the summary of the metric, or null if no reading in the bucket carried it
+     */
+    public MetricSummary getMetric(Metric metric) {
+        if (metrics != null) {
+            for (MetricSummary summary : metrics) {
+                if (metric.getJsonName().equals(summary.getMetric())) {
+                    return summary;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Folds another rollup of the same sensor (e.g. an hour of the day) into this one.
+     */
+    public void add(ReadingRollup other) {
+        count += other.count;
+        for (Metric metric : Metric.all()) {
+            MetricSummary summary = other.getMetric(metric);
+            if (summary == null) {
+                continue;
+            }
+            MetricSummary own = getMetric(metric);
+            if (own == null) {
+                own = new MetricSummary(metric.getJsonName());
+                metrics.add(own);
+            }
+            own.merge(summary);
+        }
+    }
+
+    /**
+     * @return the bucket as a reading carrying the average of every metric, stamped with the bucket start
+     */
+    public SensorReading toReading() {
+        SensorData data = new SensorData();
+        for (Metric metric : Metric.all()) {
+            MetricSummary summary = getMetric(metric);
+            if (summary != null) {
+                metric.write(data, summary.getAvg());
+            }
+        }
+        SensorReading reading = new SensorReading();
+        reading.setId(id);
+        reading.setSensorId(sensorId);
+        reading.setFieldId(fieldId);
+        reading.setTimestamp(bucketStart);
+        reading.setData(data);
+        return reading;
+    }
+}
@@ -0,0 +1,28 @@
+package me.soilmonitoring.api.events;
+
+import java.util.List;
+
+/**
+ * The low and medium severity alerts of one user announced together.
+ */
+public class AlertDigestEvent {
+    private final String userId;
+    private final List<AlertTriggeredEvent> alerts;
+
+    /**
+     * @param userId the user the alerts belong to, or null for alerts of no field
+     * @param alerts the new and escalated alerts, oldest first
+     */
+    public AlertDigestEvent(String userId, List<AlertTriggeredEvent> alerts) {
+        this.userId = userId;
+        this.alerts = alerts;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public List<AlertTriggeredEvent> getAlerts() {
+        return alerts;
+    }
+}
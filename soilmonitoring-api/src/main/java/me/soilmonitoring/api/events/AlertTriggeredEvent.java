@@ -4,12 +4,39 @@ import me.soilmonitoring.api.entities.Alert;
 
 public class AlertTriggeredEvent {
     private final Alert alert;
+    private final boolean escalation;
+    private final boolean redelivery;
 
     public AlertTriggeredEvent(Alert alert) {
+        this(alert, false);
+    }
+
+    /**
+     * @param escalation whether an alert already announced got more severe, rather than a new alert
+     */
+    public AlertTriggeredEvent(Alert alert, boolean escalation) {
+        this(alert, escalation, false);
+    }
+
+    /**
+     * @param escalation whether an alert already announced got more severe, rather than a new alert
+     * @param redelivery whether the alert is announced again after a restart, so it may have been counted
+     */
+    public AlertTriggeredEvent(Alert alert, boolean escalation, boolean redelivery) {
         this.alert = alert;
+        this.escalation = escalation;
+        this.redelivery = redelivery;
     }
 
     public Alert getAlert() {
         return alert;
     }
-}
\ No newline at end of file
+
+    public boolean isEscalation() {
+        return escalation;
+    }
+
+    public boolean isRedelivery() {
+        return redelivery;
+    }
+}
@@ -0,0 +1,136 @@
+package me.soilmonitoring.api.filters;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Gzips response entities for clients sending {@code Accept-Encoding: gzip}.
+ *
+ * The response filter decides whether a response is eligible (the client
+ * accepts gzip, the entity is not already compressed); the writer
+ * interceptor then compresses it only if it turns out larger than
+ * {@code compression.min.bytes}. Deflaters are pooled, and the bytes saved
+ * and time spent are counted in {@link CompressionStats}.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements ContainerResponseFilter, WriterInterceptor {
+
+    static final String GZIP_ACCEPTED = CompressionInterceptor.class.getName() + ".gzip";
+
+    @Inject
+    @ConfigProperty(name = "compression.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @Inject
+    @ConfigProperty(name = "compression.min.bytes", defaultValue = "1024")
+    int minBytes = 1024;
+
+    @Inject
+    @ConfigProperty(name = "compression.level", defaultValue = "6")
+    int level = 6;
+
+    @Inject
+    CompressionStats stats;
+
+    private volatile DeflaterPool pool;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (enabled && responseContext.hasEntity()
+                && acceptsGzip(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING))
+                && !responseContext.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                && isCompressible(responseContext.getMediaType())) {
+            requestContext.setProperty(GZIP_ACCEPTED, Boolean.TRUE);
+            responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (context.getProperty(GZIP_ACCEPTED) == null) {
+            context.proceed();
+            return;
+        }
+        OutputStream original = context.getOutputStream();
+        GzipThresholdOutputStream gzip = new GzipThresholdOutputStream(original, minBytes, pool(), stats, () -> {
+            context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+        });
+        context.setOutputStream(gzip);
+        try {
+            context.proceed();
+        } finally {
+            gzip.finish();
+            context.setOutputStream(original);
+        }
+    }
+
+    private DeflaterPool pool() {
+        DeflaterPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    current = new DeflaterPool(level, 2 * Runtime.getRuntime().availableProcessors(), stats);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header value allows gzip, honouring {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip") || coding.equals("*")) {
+                for (int i = 1; i < tokens.length; i++) {
+                    String parameter = tokens[i].trim();
+                    if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isCompressible(MediaType mediaType) {
+        if (mediaType == null) {
+            return true;
+        }
+        String type = mediaType.getType();
+        String subtype = mediaType.getSubtype();
+        return !type.equals("image") && !type.equals("video") && !type.equals("audio")
+                && !subtype.equals("gzip") && !subtype.equals("zip") && !subtype.equals("event-stream");
+    }
+}
@@ -0,0 +1,81 @@
+package me.soilmonitoring.api.filters;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the response compression done by {@link CompressionInterceptor}.
+ */
+@ApplicationScoped
+public class CompressionStats {
+
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder skippedResponses = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder skippedBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+    private final LongAdder deflatersCreated = new LongAdder();
+
+    void recordCompressed(long raw, long compressed, long nanos) {
+        compressedResponses.increment();
+        rawBytes.add(raw);
+        compressedBytes.add(compressed);
+        compressionNanos.add(nanos);
+    }
+
+    void recordSkipped(long bytes) {
+        skippedResponses.increment();
+        skippedBytes.add(bytes);
+    }
+
+    void recordDeflaterCreated() {
+        deflatersCreated.increment();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    /**
+     * @return the number of eligible responses left uncompressed because they were below the threshold
+     */
+    public long getSkippedResponses() {
+        return skippedResponses.sum();
+    }
+
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getSkippedBytes() {
+        return skippedBytes.sum();
+    }
+
+    /**
+     * @return the wall-clock time spent deflating, a close proxy of its CPU time
+     */
+    public long getCompressionNanos() {
+        return compressionNanos.sum();
+    }
+
+    /**
+     * @return the number of deflaters allocated since startup; stays flat once the pool is warm
+     */
+    public long getDeflatersCreated() {
+        return deflatersCreated.sum();
+    }
+
+    /**
+     * @return compressed size over raw size of the compressed responses, or 1 before the first one
+     */
+    public double getRatio() {
+        long raw = getRawBytes();
+        return raw > 0 ? (double) getCompressedBytes() / raw : 1.0;
+    }
+}
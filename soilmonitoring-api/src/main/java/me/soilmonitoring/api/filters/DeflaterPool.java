@@ -0,0 +1,53 @@
+package me.soilmonitoring.api.filters;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Reuses raw deflaters, whose native zlib state is costly to allocate and
+ * is only freed by {@link Deflater#end()}.
+ *
+ * At most {@code maxIdle} deflaters are kept; extra ones are ended on release.
+ */
+final class DeflaterPool {
+
+    private final ConcurrentLinkedQueue<Deflater> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int level;
+    private final int maxIdle;
+    private final CompressionStats stats;
+
+    DeflaterPool(int level, int maxIdle, CompressionStats stats) {
+        this.level = level;
+        this.maxIdle = maxIdle;
+        this.stats = stats;
+    }
+
+    /**
+     * @return a deflater without zlib header, ready for a new stream
+     */
+    Deflater acquire() {
+        Deflater deflater = idle.poll();
+        if (deflater != null) {
+            idleCount.decrementAndGet();
+            return deflater;
+        }
+        stats.recordDeflaterCreated();
+        return new Deflater(level, true);
+    }
+
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(deflater);
+        } else {
+            idleCount.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+    int getIdleCount() {
+        return idleCount.get();
+    }
+}
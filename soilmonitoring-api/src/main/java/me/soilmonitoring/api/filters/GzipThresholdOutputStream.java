@@ -0,0 +1,155 @@
+package me.soilmonitoring.api.filters;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Buffers the first {@code threshold} bytes of an entity and only switches
+ * to gzip once the entity grows past them; smaller entities are written
+ * unchanged. {@code onCompress} runs before the first compressed byte, while
+ * the response headers can still be changed.
+ *
+ * The gzip framing (RFC 1952) is written here so that the deflater can come
+ * from a {@link DeflaterPool}; {@link java.util.zip.GZIPOutputStream} always
+ * allocates its own.
+ */
+final class GzipThresholdOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final DeflaterPool pool;
+    private final CompressionStats stats;
+    private final Runnable onCompress;
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[8192];
+
+    private byte[] pending;
+    private int pendingCount;
+    private Deflater deflater;
+    private long rawBytes;
+    private long compressedBytes;
+    private long nanos;
+    private boolean finished;
+
+    GzipThresholdOutputStream(OutputStream out, int threshold, DeflaterPool pool, CompressionStats stats,
+                              Runnable onCompress) {
+        this.out = out;
+        this.pool = pool;
+        this.stats = stats;
+        this.onCompress = onCompress;
+        this.pending = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream finished");
+        }
+        if (deflater == null) {
+            if (len <= pending.length - pendingCount) {
+                System.arraycopy(b, off, pending, pendingCount, len);
+                pendingCount += len;
+                return;
+            }
+            start();
+        }
+        deflate(b, off, len);
+    }
+
+    /**
+     * Deflated data stays in the deflater until {@link #finish()}; flushing it
+     * early would cost compression ratio for the small gain of earlier bytes.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (deflater != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes what remains (raw or compressed with the gzip trailer) without
+     * closing the underlying stream, and returns the deflater to the pool.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (deflater == null) {
+            out.write(pending, 0, pendingCount);
+            stats.recordSkipped(pendingCount);
+            pending = null;
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain();
+            }
+            writeTrailer();
+            nanos += System.nanoTime() - start;
+            stats.recordCompressed(rawBytes, compressedBytes, nanos);
+        } finally {
+            pool.release(deflater);
+            deflater = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    boolean isCompressing() {
+        return deflater != null;
+    }
+
+    private void start() throws IOException {
+        onCompress.run();
+        deflater = pool.acquire();
+        out.write(HEADER);
+        compressedBytes += HEADER.length;
+        deflate(pending, 0, pendingCount);
+        pending = null;
+    }
+
+    private void deflate(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        crc.update(b, off, len);
+        rawBytes += len;
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            drain();
+        }
+        nanos += System.nanoTime() - start;
+    }
+
+    private void drain() throws IOException {
+        int count = deflater.deflate(chunk, 0, chunk.length, Deflater.NO_FLUSH);
+        if (count > 0) {
+            out.write(chunk, 0, count);
+            compressedBytes += count;
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        int checksum = (int) crc.getValue();
+        int size = (int) rawBytes;
+        byte[] trailer = {
+                (byte) checksum, (byte) (checksum >>> 8), (byte) (checksum >>> 16), (byte) (checksum >>> 24),
+                (byte) size, (byte) (size >>> 8), (byte) (size >>> 16), (byte) (size >>> 24)};
+        out.write(trailer);
+        compressedBytes += trailer.length;
+    }
+}
@@ -11,11 +11,14 @@ import jakarta.inject.Inject;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonReader;
+import me.soilmonitoring.api.controllers.managers.SensorHeartbeatManager;
+import me.soilmonitoring.api.controllers.managers.SensorOfflineDetector;
+import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
 import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
-import me.soilmonitoring.api.controllers.repositories.SensorRepository;
 import me.soilmonitoring.api.entities.Sensor;
 import me.soilmonitoring.api.entities.SensorData;
 import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.io.StringReader;
@@ -35,11 +38,20 @@ public class MQTTService {
     private static final Logger logger = Logger.getLogger(MQTTService.class.getName());
 
     @Inject
-    private SensorRepository sensorRepository;
+    private SoilMonitoringManager manager;
+
+    @Inject
+    private SensorHeartbeatManager heartbeatManager;
+
+    @Inject
+    private SensorOfflineDetector offlineDetector;
 
     @Inject
     private SensorReadingRepository readingRepository;
 
+    @Inject
+    private HotReadingStore hotReadingStore;
+
     @Inject
     @ConfigProperty(name = "mqtt.broker.url")
     private String brokerUrl;
@@ -177,7 +189,7 @@ public class MQTTService {
         try {
             Sensor sensor = null;
             try {
-                sensor = sensorRepository.findByDeviceId(deviceId).orElse(null);
+                sensor = manager.findSensorForDevice(deviceId).orElse(null);
             } catch (Exception e) {
                 logger.warning("⚠️ Sensor not found for deviceId: " + deviceId);
             }
@@ -190,6 +202,7 @@ public class MQTTService {
             reading.setData(data);
 
             readingRepository.save(reading);
+            hotReadingStore.append(reading);
             logger.info("✅ Saved reading for device " + deviceId +
                     " | Temp: " + data.getTemperature() +
                     "°C | Hum: " + data.getHumidity() +
@@ -198,9 +211,8 @@ public class MQTTService {
                     data.getPhosphorus() + "/" + data.getPotassium());
 
             if (sensor != null) {
-                sensor.setLastConnection(LocalDateTime.now());
-                sensor.setStatus("active");
-                sensorRepository.save(sensor);
+                boolean reconnected = heartbeatManager.onReading(sensor, reading.getTimestamp());
+                offlineDetector.onHeartbeat(sensor, reading.getTimestamp(), reconnected);
             }
             // Fire CDI event asynchronously
             sensorReadingEvent.fireAsync(new SensorReadingEvent(reading, "MQTT"));
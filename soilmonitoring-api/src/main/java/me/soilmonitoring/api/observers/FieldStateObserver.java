@@ -0,0 +1,73 @@
+package me.soilmonitoring.api.observers;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.AlertInboxManager;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
+import me.soilmonitoring.api.events.AlertDigestEvent;
+import me.soilmonitoring.api.events.AlertTriggeredEvent;
+import me.soilmonitoring.api.events.SensorReadingEvent;
+
+import java.util.logging.Logger;
+
+@ApplicationScoped
+public class FieldStateObserver {
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private FieldStateManager fieldStateManager;
+
+    @Inject
+    private AlertInboxManager alertInboxManager;
+
+    /**
+     * Fold MQTT readings into the field state
+     */
+    public void onSensorReading(@ObservesAsync SensorReadingEvent event) {
+        try {
+            fieldStateManager.onReading(event.getReading());
+        } catch (Exception e) {
+            logger.severe("Failed to update field state for reading: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Count alerts created by the threshold checks, per field and per user
+     */
+    public void onAlertTriggered(@ObservesAsync AlertTriggeredEvent event) {
+        countCreated(event);
+    }
+
+    /**
+     * Count the new alerts of a digest
+     */
+    public void onAlertDigest(@ObservesAsync AlertDigestEvent event) {
+        event.getAlerts().forEach(this::countCreated);
+    }
+
+    /**
+     * An alert announced again after a restart may have been counted before
+     * it, so its counts are recounted rather than incremented
+     */
+    private void countCreated(AlertTriggeredEvent event) {
+        if (event.isEscalation()) {
+            return;
+        }
+        try {
+            if (event.isRedelivery()) {
+                if (event.getAlert().getFieldId() != null) {
+                    fieldStateManager.recountUnread(event.getAlert().getFieldId());
+                }
+                alertInboxManager.recountUnread(event.getAlert().getUserId());
+                return;
+            }
+            fieldStateManager.onAlertCreated(event.getAlert());
+            alertInboxManager.onAlertCreated(event.getAlert());
+        } catch (Exception e) {
+            logger.severe("Failed to update field state for alert: " + e.getMessage());
+        }
+    }
+}
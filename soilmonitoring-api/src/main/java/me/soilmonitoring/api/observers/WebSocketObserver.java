@@ -3,13 +3,18 @@ package me.soilmonitoring.api.observers;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.ObservesAsync;
 import jakarta.inject.Inject;
-import jakarta.json.Json;
-import jakarta.json.JsonObject;
-import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.events.AlertDigestEvent;
 import me.soilmonitoring.api.events.AlertTriggeredEvent;
 import me.soilmonitoring.api.events.SensorReadingEvent;
+import me.soilmonitoring.api.serialization.JsonWriters;
+import me.soilmonitoring.api.websocket.OutboundMessage;
 import me.soilmonitoring.api.websocket.SensorDataWebSocket;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 @ApplicationScoped
@@ -19,32 +24,17 @@ public class WebSocketObserver {
     private Logger logger;
 
     /**
-     * Broadcast sensor readings to connected WebSocket clients
+     * Send sensor readings to the clients subscribed to their field
      */
     public void onSensorReading(@ObservesAsync SensorReadingEvent event) {
         try {
-            SensorData data = event.getReading().getData();
+            OutboundMessage message = OutboundMessage.of(JsonWriters.sensorDataMessage(event.getReading()));
 
-            JsonObject message = Json.createObjectBuilder()
-                    .add("type", "SENSOR_DATA")
-                    .add("payload", Json.createObjectBuilder()
-                            .add("id", event.getReading().getId())
-                            .add("fieldId", event.getReading().getFieldId())
-                            .add("sensorId", event.getReading().getSensorId())
-                            .add("temperature", data.getTemperature() != null ? data.getTemperature() : 0.0)
-                            .add("humidity", data.getHumidity() != null ? data.getHumidity() : 0.0)
-                            .add("nitrogen", data.getNitrogen() != null ? data.getNitrogen() : 0.0)
-                            .add("phosphorus", data.getPhosphorus() != null ? data.getPhosphorus() : 0.0)
-                            .add("potassium", data.getPotassium() != null ? data.getPotassium() : 0.0)
-                            .add("soilMoisture", data.getSoilMoisture() != null ? data.getSoilMoisture() : 0.0)
-                            .add("pH", data.getPh() != null ? data.getPh() : 0.0)
-                            .add("rainfall", data.getRainfall() != null ? data.getRainfall() : 0.0)
-                            .add("timestamp", event.getReading().getTimestamp().toString())
-                    )
-                    .build();
-
-            SensorDataWebSocket.broadcast(message.toString());
-            logger.info("📡 WebSocketObserver: Broadcast sensor data to " +
+            // A client that lags behind only gets the latest reading of each sensor
+            String sensorId = event.getReading().getSensorId();
+            int sent = SensorDataWebSocket.publishToField(event.getReading().getFieldId(), message,
+                    sensorId != null ? "reading:" + sensorId : null);
+            logger.info("📡 WebSocketObserver: Queued sensor data for " + sent + " of " +
                     SensorDataWebSocket.getConnectedClientsCount() + " clients");
 
         } catch (Exception e) {
@@ -54,24 +44,16 @@ public class WebSocketObserver {
     }
 
     /**
-     * Broadcast alerts to connected WebSocket clients
+     * Send alerts to the clients subscribed to their field or their owner
      */
     public void onAlert(@ObservesAsync AlertTriggeredEvent event) {
         try {
-            JsonObject message = Json.createObjectBuilder()
-                    .add("type", "ALERT")
-                    .add("payload", Json.createObjectBuilder()
-                            .add("id", event.getAlert().getId())
-                            .add("fieldId", event.getAlert().getFieldId())
-                            .add("message", event.getAlert().getMessage())
-                            .add("severity", event.getAlert().getSeverity())
-                            .add("alertType", event.getAlert().getAlertType())
-                            .add("timestamp", event.getAlert().getCreatedAt().toString())
-                    )
-                    .build();
+            Alert alert = event.getAlert();
+            OutboundMessage message = OutboundMessage.of(JsonWriters.alertMessage(alert));
 
-            SensorDataWebSocket.broadcast(message.toString());
-            logger.info("🚨 WebSocketObserver: Broadcast alert to " +
+            int sent = SensorDataWebSocket.publishAlert(Collections.singletonList(alert.getFieldId()),
+                    alert.getUserId(), message);
+            logger.info("🚨 WebSocketObserver: Queued alert for " + sent + " of " +
                     SensorDataWebSocket.getConnectedClientsCount() + " clients");
 
         } catch (Exception e) {
@@ -79,4 +61,24 @@ public class WebSocketObserver {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Send a user's low and medium alerts as one message
+     */
+    public void onAlertDigest(@ObservesAsync AlertDigestEvent event) {
+        try {
+            List<Alert> alerts = event.getAlerts().stream().map(AlertTriggeredEvent::getAlert).toList();
+            OutboundMessage message = OutboundMessage.of(JsonWriters.alertDigestMessage(event.getUserId(), alerts));
+
+            Set<String> fieldIds = new LinkedHashSet<>();
+            alerts.forEach(alert -> fieldIds.add(alert.getFieldId()));
+            int sent = SensorDataWebSocket.publishAlert(fieldIds, event.getUserId(), message);
+            logger.info("🚨 WebSocketObserver: Queued a digest of " + alerts.size() + " alerts for " + sent + " of " +
+                    SensorDataWebSocket.getConnectedClientsCount() + " clients");
+
+        } catch (Exception e) {
+            logger.severe("Failed to broadcast alert digest: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.JsonValue;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+/**
+ * Writes readings, JSON-P statistics and plain messages as {@code application/cbor}
+ * for clients that send {@code Accept: application/cbor}.
+ *
+ * The structure is the one of the JSON responses, so a client decodes both
+ * into the same objects; absent metrics are omitted as JSON-B does.
+ */
+@Provider
+@Produces(CborMessageBodyWriter.APPLICATION_CBOR)
+public class CborMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isWriteable(type, genericType);
+    }
+
+    /**
+     * Collections are only accepted when their declared element type is, so an
+     * unsupported element is refused before anything has been written.
+     */
+    static boolean isWriteable(Class<?> type, Type genericType) {
+        if (Collection.class.isAssignableFrom(type)) {
+            if (!(genericType instanceof ParameterizedType parameterized)) {
+                return false;
+            }
+            Type element = parameterized.getActualTypeArguments()[0];
+            if (element instanceof WildcardType wildcard) {
+                element = wildcard.getUpperBounds()[0];
+            }
+            if (element instanceof Class<?> elementClass) {
+                return isWriteable(elementClass, elementClass);
+            }
+            return element instanceof ParameterizedType elementType
+                    && elementType.getRawType() instanceof Class<?> elementClass
+                    && isWriteable(elementClass, elementType);
+        }
+        return SensorReading.class.isAssignableFrom(type)
+                || JsonValue.class.isAssignableFrom(type)
+                || type == String.class;
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException, WebApplicationException {
+        CborWriter writer = new CborWriter(entityStream);
+        write(entity, writer);
+        writer.flush();
+    }
+
+    static void write(Object entity, CborWriter writer) throws IOException {
+        if (entity == null) {
+            writer.writeNull();
+        } else if (entity instanceof SensorReading) {
+            writeReading((SensorReading) entity, writer);
+        } else if (entity instanceof JsonValue) {
+            writer.writeJson((JsonValue) entity);
+        } else if (entity instanceof String) {
+            writer.writeString((String) entity);
+        } else if (entity instanceof Collection) {
+            Collection<?> elements = (Collection<?>) entity;
+            writer.startArray(elements.size());
+            for (Object element : elements) {
+                write(element, writer);
+            }
+        } else {
+            throw new WebApplicationException("No CBOR representation for " + entity.getClass().getSimpleName(), 406);
+        }
+    }
+
+    private static void writeReading(SensorReading reading, CborWriter writer) throws IOException {
+        int size = 1 + (reading.getId() != null ? 1 : 0) + (reading.getSensorId() != null ? 1 : 0)
+                + (reading.getFieldId() != null ? 1 : 0) + (reading.getTimestamp() != null ? 1 : 0)
+                + (reading.getData() != null ? 1 : 0);
+        writer.startMap(size);
+        if (reading.getId() != null) {
+            writer.writeField("id", reading.getId());
+        }
+        if (reading.getSensorId() != null) {
+            writer.writeField("sensorId", reading.getSensorId());
+        }
+        if (reading.getFieldId() != null) {
+            writer.writeField("fieldId", reading.getFieldId());
+        }
+        if (reading.getTimestamp() != null) {
+            writer.writeField("timestamp", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(reading.getTimestamp()));
+        }
+        writer.writeField("version", reading.getVersion());
+        if (reading.getData() != null) {
+            writer.writeString("data");
+            writeData(reading.getData(), writer);
+        }
+    }
+
+    private static void writeData(SensorData data, CborWriter writer) throws IOException {
+        int size = 0;
+        for (Metric metric : Metric.all()) {
+            if (metric.read(data) != null) {
+                size++;
+            }
+        }
+        writer.startMap(size);
+        for (Metric metric : Metric.all()) {
+            Double value = metric.read(data);
+            if (value != null) {
+                // JSON-B names the property after SensorData#getPh
+                writer.writeField(metric == Metric.PH ? "ph" : metric.getJsonName(), value);
+            }
+        }
+    }
+}
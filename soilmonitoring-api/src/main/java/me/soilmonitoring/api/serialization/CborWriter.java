@@ -0,0 +1,210 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Minimal CBOR (RFC 8949) encoder for the definite-length items the API emits.
+ *
+ * Doubles that are exactly representable as floats are written in 5 bytes
+ * instead of 9, which covers most sensor values (21.5, 60.25, ...).
+ * Not thread-safe; call {@link #flush()} when done.
+ */
+public final class CborWriter {
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+
+    private static final int FALSE = 0xf4;
+    private static final int TRUE = 0xf5;
+    private static final int NULL = 0xf6;
+    private static final int FLOAT32 = 0xfa;
+    private static final int FLOAT64 = 0xfb;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    public CborWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public CborWriter startMap(int size) throws IOException {
+        writeHead(MAJOR_MAP, size);
+        return this;
+    }
+
+    public CborWriter startArray(int size) throws IOException {
+        writeHead(MAJOR_ARRAY, size);
+        return this;
+    }
+
+    public CborWriter writeString(String value) throws IOException {
+        if (value == null) {
+            return writeNull();
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, bytes.length);
+        writeBytes(bytes);
+        return this;
+    }
+
+    public CborWriter writeNumber(long value) throws IOException {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    public CborWriter writeNumber(double value) throws IOException {
+        float single = (float) value;
+        if (single == value || Double.isNaN(value)) {
+            ensure(5);
+            buffer[position++] = (byte) FLOAT32;
+            writeRaw(Float.floatToIntBits(single), 4);
+        } else {
+            ensure(9);
+            buffer[position++] = (byte) FLOAT64;
+            writeRaw(Double.doubleToLongBits(value), 8);
+        }
+        return this;
+    }
+
+    public CborWriter writeBoolean(boolean value) throws IOException {
+        return writeSimple(value ? TRUE : FALSE);
+    }
+
+    public CborWriter writeNull() throws IOException {
+        return writeSimple(NULL);
+    }
+
+    /**
+     * Writes a map key followed by its value.
+     */
+    public CborWriter writeField(String name, String value) throws IOException {
+        return writeString(name).writeString(value);
+    }
+
+    public CborWriter writeField(String name, double value) throws IOException {
+        return writeString(name).writeNumber(value);
+    }
+
+    public CborWriter writeField(String name, long value) throws IOException {
+        return writeString(name).writeNumber(value);
+    }
+
+    /**
+     * Transcodes a JSON-P value, keeping integral numbers as CBOR integers.
+     */
+    public CborWriter writeJson(JsonValue value) throws IOException {
+        switch (value.getValueType()) {
+            case OBJECT:
+                JsonObject object = (JsonObject) value;
+                startMap(object.size());
+                for (Map.Entry<String, JsonValue> entry : object.entrySet()) {
+                    writeString(entry.getKey());
+                    writeJson(entry.getValue());
+                }
+                break;
+            case ARRAY:
+                JsonArray array = (JsonArray) value;
+                startArray(array.size());
+                for (JsonValue element : array) {
+                    writeJson(element);
+                }
+                break;
+            case STRING:
+                writeString(((JsonString) value).getString());
+                break;
+            case NUMBER:
+                JsonNumber number = (JsonNumber) value;
+                if (number.isIntegral() && number.bigIntegerValue().bitLength() < 64) {
+                    writeNumber(number.longValue());
+                } else {
+                    writeNumber(number.doubleValue());
+                }
+                break;
+            case TRUE:
+                writeBoolean(true);
+                break;
+            case FALSE:
+                writeBoolean(false);
+                break;
+            default:
+                writeNull();
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private CborWriter writeSimple(int value) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    private void writeHead(int major, long value) throws IOException {
+        ensure(9);
+        int type = major << 5;
+        if (value < 24) {
+            buffer[position++] = (byte) (type | value);
+        } else if (value < 0x100) {
+            buffer[position++] = (byte) (type | 24);
+            writeRaw(value, 1);
+        } else if (value < 0x10000) {
+            buffer[position++] = (byte) (type | 25);
+            writeRaw(value, 2);
+        } else if (value < 0x100000000L) {
+            buffer[position++] = (byte) (type | 26);
+            writeRaw(value, 4);
+        } else {
+            buffer[position++] = (byte) (type | 27);
+            writeRaw(value, 8);
+        }
+    }
+
+    /** Big-endian; the caller has ensured capacity. */
+    private void writeRaw(long value, int bytes) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
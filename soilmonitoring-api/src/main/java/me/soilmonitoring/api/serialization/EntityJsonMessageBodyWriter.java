@@ -0,0 +1,65 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.stream.JsonGenerator;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.Prediction;
+import me.soilmonitoring.api.entities.SensorReading;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Writes readings, alerts and predictions, and collections of them, with
+ * {@link JsonWriters} instead of JSON-B reflection.
+ *
+ * Collections are only recognised when the resource passes their element
+ * type, i.e. returns them wrapped in a {@link jakarta.ws.rs.core.GenericEntity};
+ * anything else is left to JSON-B.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class EntityJsonMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (isEntity(type)) {
+            return true;
+        }
+        if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            return arguments.length == 1 && arguments[0] instanceof Class && isEntity((Class<?>) arguments[0]);
+        }
+        return false;
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException, WebApplicationException {
+        // closing the generator would close the entity stream
+        JsonGenerator generator = JsonWriters.FACTORY.createGenerator(entityStream, StandardCharsets.UTF_8);
+        if (entity instanceof Collection) {
+            JsonWriters.writeArray(generator, (Collection<?>) entity);
+        } else {
+            JsonWriters.writeEntity(generator, entity);
+        }
+        generator.flush();
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return SensorReading.class.isAssignableFrom(type)
+                || Alert.class.isAssignableFrom(type)
+                || Prediction.class.isAssignableFrom(type);
+    }
+}
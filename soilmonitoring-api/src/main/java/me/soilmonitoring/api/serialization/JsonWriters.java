@@ -0,0 +1,254 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.Prediction;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON writers for the entities sent most often, shared by the
+ * REST responses ({@link EntityJsonMessageBodyWriter}) and the WebSocket
+ * messages.
+ *
+ * Entity objects use the property names and null handling of JSON-B, so the
+ * REST payloads are unchanged; the WebSocket payloads keep their flat shape
+ * with missing metrics sent as 0.
+ */
+public final class JsonWriters {
+
+    static final JsonGeneratorFactory FACTORY = Json.createGeneratorFactory(Map.of());
+
+    private JsonWriters() {
+    }
+
+    public static void writeReading(JsonGenerator generator, SensorReading reading) {
+        generator.writeStartObject();
+        if (reading.getData() != null) {
+            generator.writeStartObject("data");
+            writeMetrics(generator, reading.getData());
+            generator.writeEnd();
+        }
+        writeIfPresent(generator, "fieldId", reading.getFieldId());
+        writeIfPresent(generator, "id", reading.getId());
+        writeIfPresent(generator, "sensorId", reading.getSensorId());
+        writeIfPresent(generator, "timestamp", reading.getTimestamp());
+        generator.write("version", reading.getVersion());
+        generator.writeEnd();
+    }
+
+    public static void writeAlert(JsonGenerator generator, Alert alert) {
+        generator.writeStartObject();
+        writeIfPresent(generator, "alertType", alert.getAlertType());
+        writeIfPresent(generator, "clearedAt", alert.getClearedAt());
+        writeIfPresent(generator, "createdAt", alert.getCreatedAt());
+        writeIfPresent(generator, "fieldId", alert.getFieldId());
+        writeIfPresent(generator, "id", alert.getId());
+        if (alert.getIsRead() != null) {
+            generator.write("isRead", alert.getIsRead());
+        }
+        writeIfPresent(generator, "lastSeenAt", alert.getLastSeenAt());
+        writeIfPresent(generator, "message", alert.getMessage());
+        writeIfPresent(generator, "metric", alert.getMetric());
+        generator.write("occurrences", alert.getOccurrences());
+        writeIfPresent(generator, "sensorId", alert.getSensorId());
+        writeIfPresent(generator, "severity", alert.getSeverity());
+        writeIfPresent(generator, "status", alert.getStatus());
+        writeIfPresent(generator, "userId", alert.getUserId());
+        generator.write("version", alert.getVersion());
+        generator.writeEnd();
+    }
+
+    public static void writePrediction(JsonGenerator generator, Prediction prediction) {
+        generator.writeStartObject();
+        writeIfPresent(generator, "confidence", prediction.getConfidence());
+        writeIfPresent(generator, "createdAt", prediction.getCreatedAt());
+        writeIfPresent(generator, "fieldId", prediction.getFieldId());
+        writeIfPresent(generator, "id", prediction.getId());
+        Prediction.PredictionInput input = prediction.getInputData();
+        if (input != null) {
+            generator.writeStartObject("inputData");
+            writeIfPresent(generator, "cropType", input.getCropType());
+            writeIfPresent(generator, "humidity", input.getHumidity());
+            writeIfPresent(generator, "nitrogen", input.getNitrogen());
+            writeIfPresent(generator, "pH", input.getpH());
+            writeIfPresent(generator, "phosphorus", input.getPhosphorus());
+            writeIfPresent(generator, "potassium", input.getPotassium());
+            writeIfPresent(generator, "rainfall", input.getRainfall());
+            writeIfPresent(generator, "soilMoisture", input.getSoilMoisture());
+            writeIfPresent(generator, "soilType", input.getSoilType());
+            writeIfPresent(generator, "temperature", input.getTemperature());
+            generator.writeEnd();
+        }
+        writeIfPresent(generator, "modelUsed", prediction.getModelUsed());
+        writeIfPresent(generator, "predictionType", prediction.getPredictionType());
+        Prediction.PredictionResult result = prediction.getResult();
+        if (result != null) {
+            generator.writeStartObject("result");
+            if (result.getDetails() != null) {
+                generator.writeStartArray("details");
+                for (String detail : result.getDetails()) {
+                    if (detail != null) {
+                        generator.write(detail);
+                    } else {
+                        generator.writeNull();
+                    }
+                }
+                generator.writeEnd();
+            }
+            writeIfPresent(generator, "dosage", result.getDosage());
+            writeIfPresent(generator, "recommendation", result.getRecommendation());
+            generator.writeEnd();
+        }
+        generator.write("version", prediction.getVersion());
+        generator.writeEnd();
+    }
+
+    /**
+     * Writes a collection of readings, alerts or predictions as an array.
+     *
+     * @throws IllegalArgumentException for an element of another type
+     */
+    public static void writeArray(JsonGenerator generator, Collection<?> entities) {
+        generator.writeStartArray();
+        for (Object entity : entities) {
+            writeEntity(generator, entity);
+        }
+        generator.writeEnd();
+    }
+
+    /**
+     * Writes a reading, alert or prediction.
+     *
+     * @throws IllegalArgumentException for an object of another type
+     */
+    public static void writeEntity(JsonGenerator generator, Object entity) {
+        if (entity instanceof SensorReading) {
+            writeReading(generator, (SensorReading) entity);
+        } else if (entity instanceof Alert) {
+            writeAlert(generator, (Alert) entity);
+        } else if (entity instanceof Prediction) {
+            writePrediction(generator, (Prediction) entity);
+        } else if (entity == null) {
+            generator.writeNull();
+        } else {
+            throw new IllegalArgumentException("No JSON writer for " + entity.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * The WebSocket {@code SENSOR_DATA} message: the reading flattened, missing metrics as 0.
+     */
+    public static String sensorDataMessage(SensorReading reading) {
+        StringWriter out = new StringWriter(320);
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            generator.writeStartObject()
+                    .write("type", "SENSOR_DATA")
+                    .writeStartObject("payload");
+            writeOrNull(generator, "id", reading.getId());
+            writeOrNull(generator, "fieldId", reading.getFieldId());
+            writeOrNull(generator, "sensorId", reading.getSensorId());
+            for (Metric metric : Metric.all()) {
+                Double value = metric.read(reading.getData());
+                generator.write(metric.getJsonName(), value != null ? value : 0.0);
+            }
+            writeOrNull(generator, "timestamp", reading.getTimestamp() != null ? reading.getTimestamp().toString() : null);
+            generator.writeEnd().writeEnd();
+        }
+        return out.toString();
+    }
+
+    /**
+     * The WebSocket {@code ALERT} message.
+     */
+    public static String alertMessage(Alert alert) {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            generator.writeStartObject()
+                    .write("type", "ALERT")
+                    .writeStartObject("payload");
+            writeAlertPayload(generator, alert);
+            generator.writeEnd().writeEnd();
+        }
+        return out.toString();
+    }
+
+    /**
+     * The WebSocket {@code ALERT_DIGEST} message: a user's alerts announced
+     * together, each as the payload of an {@code ALERT} message.
+     */
+    public static String alertDigestMessage(String userId, List<Alert> alerts) {
+        StringWriter out = new StringWriter(64 + 192 * alerts.size());
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            generator.writeStartObject()
+                    .write("type", "ALERT_DIGEST")
+                    .writeStartObject("payload");
+            writeOrNull(generator, "userId", userId);
+            generator.writeStartArray("alerts");
+            for (Alert alert : alerts) {
+                generator.writeStartObject();
+                writeAlertPayload(generator, alert);
+                generator.writeEnd();
+            }
+            generator.writeEnd().writeEnd().writeEnd();
+        }
+        return out.toString();
+    }
+
+    private static void writeAlertPayload(JsonGenerator generator, Alert alert) {
+        writeOrNull(generator, "id", alert.getId());
+        writeOrNull(generator, "fieldId", alert.getFieldId());
+        writeOrNull(generator, "message", alert.getMessage());
+        writeOrNull(generator, "severity", alert.getSeverity());
+        writeOrNull(generator, "alertType", alert.getAlertType());
+        writeOrNull(generator, "timestamp", alert.getCreatedAt() != null ? alert.getCreatedAt().toString() : null);
+    }
+
+    private static void writeMetrics(JsonGenerator generator, SensorData data) {
+        // JSON-B order (lexicographic) and names; SensorData#getPh makes "ph"
+        writeIfPresent(generator, "humidity", data.getHumidity());
+        writeIfPresent(generator, "nitrogen", data.getNitrogen());
+        writeIfPresent(generator, "ph", data.getPh());
+        writeIfPresent(generator, "phosphorus", data.getPhosphorus());
+        writeIfPresent(generator, "potassium", data.getPotassium());
+        writeIfPresent(generator, "rainfall", data.getRainfall());
+        writeIfPresent(generator, "soilMoisture", data.getSoilMoisture());
+        writeIfPresent(generator, "temperature", data.getTemperature());
+    }
+
+    private static void writeIfPresent(JsonGenerator generator, String name, String value) {
+        if (value != null) {
+            generator.write(name, value);
+        }
+    }
+
+    private static void writeIfPresent(JsonGenerator generator, String name, Double value) {
+        if (value != null) {
+            generator.write(name, value);
+        }
+    }
+
+    private static void writeIfPresent(JsonGenerator generator, String name, LocalDateTime value) {
+        if (value != null) {
+            generator.write(name, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+
+    private static void writeOrNull(JsonGenerator generator, String name, String value) {
+        if (value != null) {
+            generator.write(name, value);
+        } else {
+            generator.writeNull(name);
+        }
+    }
+}
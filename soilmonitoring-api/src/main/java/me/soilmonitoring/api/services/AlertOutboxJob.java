@@ -0,0 +1,50 @@
+package me.soilmonitoring.api.services;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.AlertOutbox;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.logging.Logger;
+
+/**
+ * Writes the queued low and medium alerts every 5 seconds, and announces
+ * them every minute, one digest per user.
+ */
+@Singleton
+public class AlertOutboxJob {
+
+    private static final Logger logger = Logger.getLogger(AlertOutboxJob.class.getName());
+
+    @Inject
+    private AlertOutbox alertOutbox;
+
+    @Inject
+    @ConfigProperty(name = "alerts.outbox.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @Schedule(hour = "*", minute = "*", second = "*/5", persistent = false)
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            alertOutbox.flush();
+        } catch (Exception e) {
+            logger.warning("Alert outbox flush failed, retrying next run: " + e.getMessage());
+        }
+    }
+
+    @Schedule(hour = "*", minute = "*", second = "30", persistent = false)
+    public void deliver() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            alertOutbox.deliver();
+        } catch (Exception e) {
+            logger.warning("Alert digest delivery failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package me.soilmonitoring.api.services;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.AlertRuleManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.logging.Logger;
+
+/**
+ * Picks up alert rules changed in the database by other instances or by
+ * hand; changes made through the API apply immediately.
+ */
+@Singleton
+public class AlertRuleReloadJob {
+
+    private static final Logger logger = Logger.getLogger(AlertRuleReloadJob.class.getName());
+
+    @Inject
+    private AlertRuleManager alertRuleManager;
+
+    @Inject
+    @ConfigProperty(name = "alerts.rules.reload.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            alertRuleManager.reloadIfChanged();
+        } catch (Exception e) {
+            logger.warning("Alert rule reload failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package me.soilmonitoring.api.services;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One export of a dataset, opened by {@link TrainingExportService}.
+ *
+ * A full export writes a snapshot of the collection and resumes from the
+ * change stream position taken just before the snapshot. A delta export
+ * writes the documents of the change events after the resume token, up to
+ * the cluster time at which the batch was opened, so a busy collection
+ * cannot keep the response open forever. Either way the position reached
+ * is handed back as the consumer's pending checkpoint once the whole file
+ * has been written.
+ *
+ * Delivery is at-least-once: a document inserted while a snapshot is read
+ * may also appear in the next delta, so consumers deduplicate on the id column.
+ */
+public class ExportBatch implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportDataset dataset;
+    private final FindIterable<Document> snapshot;
+    private final MongoChangeStreamCursor<ChangeStreamDocument<Document>> changes;
+    private final BsonTimestamp end;
+    private final BiConsumer<BsonDocument, Long> checkpoint;
+
+    private BsonDocument position;
+    private long rowCount;
+
+    ExportBatch(ExportDataset dataset, FindIterable<Document> snapshot, BsonDocument start,
+                BiConsumer<BsonDocument, Long> checkpoint) {
+        this.dataset = dataset;
+        this.snapshot = snapshot;
+        this.changes = null;
+        this.end = null;
+        this.position = start;
+        this.checkpoint = checkpoint;
+    }
+
+    ExportBatch(ExportDataset dataset, MongoChangeStreamCursor<ChangeStreamDocument<Document>> changes,
+                BsonDocument start, BsonTimestamp end, BiConsumer<BsonDocument, Long> checkpoint) {
+        this.dataset = dataset;
+        this.snapshot = null;
+        this.changes = changes;
+        this.end = end;
+        this.position = start;
+        this.checkpoint = checkpoint;
+    }
+
+    public ExportDataset getDataset() {
+        return dataset;
+    }
+
+    public boolean isFull() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return the suggested file name, e.g. "readings-delta.csv.gz"
+     */
+    public String getFileName() {
+        return dataset.name().toLowerCase() + (isFull() ? "-full" : "-delta") + ".csv.gz";
+    }
+
+    /**
+     * Writes the batch as gzip-compressed CSV, then records the pending checkpoint.
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(output, BUFFER_SIZE);
+        Writer out = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        out.write(dataset.getHeader());
+        out.write('\n');
+
+        if (snapshot != null) {
+            try (MongoCursor<Document> cursor = snapshot.iterator()) {
+                while (cursor.hasNext()) {
+                    writeRow(cursor.next(), out);
+                }
+            }
+        } else {
+            while (true) {
+                ChangeStreamDocument<Document> change = changes.tryNext();
+                if (change == null) {
+                    // drained: everything up to the post-batch token has been written
+                    BsonDocument token = changes.getResumeToken();
+                    if (token != null) {
+                        position = token;
+                    }
+                    break;
+                }
+                if (end != null && change.getClusterTime() != null && change.getClusterTime().compareTo(end) > 0) {
+                    break;
+                }
+                if (change.getFullDocument() != null) {
+                    writeRow(change.getFullDocument(), out);
+                }
+                position = change.getResumeToken();
+            }
+        }
+
+        out.flush();
+        gzip.finish();
+        gzip.flush();
+        checkpoint.accept(position, rowCount);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void writeRow(Document document, Writer out) throws IOException {
+        dataset.writeRow(document, out);
+        out.write('\n');
+        rowCount++;
+    }
+
+    @Override
+    public void close() {
+        if (changes != null) {
+            changes.close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package me.soilmonitoring.api.services;
+
+import me.soilmonitoring.api.controllers.repositories.MongoDates;
+import me.soilmonitoring.api.entities.Metric;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The collections exported for model training, and their CSV layout.
+ *
+ * Each column is a dotted path into the stored document; the CSV header is
+ * the last path segment, which matches the names the training scripts
+ * already use ("nitrogen", "soilType", "recommendation", ...).
+ */
+public enum ExportDataset {
+    READINGS("SensorReading", readingColumns()),
+    PREDICTIONS("Prediction", List.of(
+            "_id", "fieldId", "predictionType", "modelUsed", "confidence", "createdAt",
+            "inputData.nitrogen", "inputData.phosphorus", "inputData.potassium",
+            "inputData.temperature", "inputData.humidity", "inputData.soilMoisture",
+            "inputData.soilType", "inputData.cropType", "inputData.pH", "inputData.rainfall",
+            "result.recommendation", "result.dosage"));
+
+    /**
+     * Columns holding a time, which JNoSQL stores as a {@link LocalDateTime}
+     * string and older raw writes as a BSON date.
+     */
+    private static final Set<String> TIME_COLUMNS = Set.of("timestamp", "createdAt");
+
+    private final String collection;
+    private final List<String[]> paths = new ArrayList<>();
+    private final String header;
+
+    ExportDataset(String collection, List<String> columns) {
+        this.collection = collection;
+        StringBuilder header = new StringBuilder();
+        for (String column : columns) {
+            String[] path = column.split("\\.");
+            paths.add(path);
+            String name = path[path.length - 1];
+            header.append(header.length() > 0 ? "," : "").append("_id".equals(name) ? "id" : name);
+        }
+        this.header = header.toString();
+    }
+
+    private static List<String> readingColumns() {
+        List<String> columns = new ArrayList<>(List.of("_id", "sensorId", "fieldId", "timestamp"));
+        for (Metric metric : Metric.all()) {
+            columns.add("data." + metric.getJsonName());
+        }
+        return columns;
+    }
+
+    /**
+     * @return the MongoDB collection holding this dataset
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * Appends one CSV line for the document, without the line terminator.
+     * Missing values are left empty and times, whether stored as strings or
+     * dates, are written as ISO-8601 UTC instants.
+     */
+    public void writeRow(Document document, Appendable out) throws IOException {
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String[] path = paths.get(i);
+            Object value = resolve(document, path);
+            writeValue(path.length == 1 && TIME_COLUMNS.contains(path[0]) ? toInstant(value) : value, out);
+        }
+    }
+
+    /**
+     * Resolves a dataset from its lower-case path name, e.g. "readings".
+     *
+     * @throws IllegalArgumentException if the name matches no dataset
+     */
+    public static ExportDataset fromName(String name) {
+        for (ExportDataset dataset : values()) {
+            if (dataset.name().equalsIgnoreCase(name)) {
+                return dataset;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dataset: " + name);
+    }
+
+    private static Object resolve(Document document, String[] path) {
+        Object value = document;
+        for (String segment : path) {
+            if (!(value instanceof Document)) {
+                return null;
+            }
+            value = ((Document) value).get(segment);
+        }
+        return value;
+    }
+
+    /**
+     * @return the stored time as an instant, or the value itself when it is
+     * not a time, so a malformed one is still exported as stored
+     */
+    private static Object toInstant(Object value) {
+        try {
+            LocalDateTime time = MongoDates.decode(value);
+            return time != null ? time.toInstant(ZoneOffset.UTC) : null;
+        } catch (DateTimeException | IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+    private static void writeValue(Object value, Appendable out) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Date) {
+            out.append(((Date) value).toInstant().toString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value.toString());
+        } else {
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+                    && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                out.append(text);
+            } else {
+                out.append('"').append(text.replace("\"", "\"\"")).append('"');
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package me.soilmonitoring.api.services;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.MongoDates;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.ColdSegment;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Nightly job moving the raw readings of closed days from MongoDB to the
+ * cold store, one segment per day, oldest day first.
+ *
+ * A day is archived once it is {@code coldstore.archive.after.days} old,
+ * which must be less than {@code retention.readings.days} so the readings
+ * are archived before {@link RetentionJob} deletes them. The readings are read
+ * sorted by sensor, so the segment is written one sensor at a time, and
+ * they are only deleted from MongoDB once the segment is on disk. A day
+ * whose segment did not receive every reading MongoDB counts for it is not
+ * archived, and the run stops there.
+ */
+@Singleton
+public class ReadingArchiveJob {
+
+    private static final Logger logger = Logger.getLogger(ReadingArchiveJob.class.getName());
+
+    private static final String READINGS = "SensorReading";
+
+    @Inject
+    private ColdSegmentStore coldSegmentStore;
+
+    @Inject
+    private RollupManager rollupManager;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @Inject
+    @ConfigProperty(name = "coldstore.archive.after.days", defaultValue = "7")
+    int archiveAfterDays = 7;
+
+    @Inject
+    @ConfigProperty(name = "coldstore.max.days.per.run", defaultValue = "7")
+    int maxDaysPerRun = 7;
+
+    @Inject
+    @ConfigProperty(name = "coldstore.delete.archived", defaultValue = "true")
+    boolean deleteArchived = true;
+
+    @Schedule(hour = "2", minute = "30", persistent = false)
+    public void archive() {
+        if (!coldSegmentStore.isEnabled()) {
+            return;
+        }
+        try {
+            LocalDate lastClosedDay = LocalDate.now().minusDays(archiveAfterDays);
+            Optional<LocalDate> next = coldSegmentStore.coveredUntil().map(LocalDateTime::toLocalDate)
+                    .or(() -> rollupManager.earliestReading().map(LocalDateTime::toLocalDate));
+            if (next.isEmpty()) {
+                return;
+            }
+            // Long backlogs (first run, downtime) are caught up over several runs
+            LocalDate day = next.get();
+            for (int i = 0; i < maxDaysPerRun && !day.isAfter(lastClosedDay); i++, day = day.plusDays(1)) {
+                archiveDay(day);
+            }
+        } catch (Exception e) {
+            logger.severe("Reading archival failed: " + e.getMessage());
+        }
+    }
+
+    private void archiveDay(LocalDate day) throws IOException {
+        Bson range = dayRange(day);
+
+        ColdSegment segment;
+        long rows = 0;
+        try (ColdSegment.Writer writer = coldSegmentStore.newSegment(day);
+             MongoCursor<Document> cursor = mongo.collection(READINGS).find(range)
+                     .sort(Sorts.ascending("sensorId", "timestamp"))
+                     .batchSize(5000)
+                     .iterator()) {
+            List<SensorReading> sensorReadings = new ArrayList<>();
+            while (cursor.hasNext()) {
+                SensorReading reading = toReading(cursor.next());
+                if (!sensorReadings.isEmpty()
+                        && !Objects.equals(sensorReadings.get(0).getSensorId(), reading.getSensorId())) {
+                    rows += flush(writer, sensorReadings);
+                }
+                sensorReadings.add(reading);
+            }
+            rows += flush(writer, sensorReadings);
+            long stored = mongo.collection(READINGS).countDocuments(range);
+            if (rows != stored) {
+                // Discarded on close, so coveredUntil stays before this day
+                throw new IllegalStateException("Segment of " + day + " has " + rows + " of its "
+                        + stored + " readings");
+            }
+            segment = writer.commit();
+        }
+        coldSegmentStore.add(segment);
+
+        long deleted = deleteArchived ? mongo.collection(READINGS).deleteMany(range).getDeletedCount() : 0;
+        if (deleteArchived && deleted != rows) {
+            logger.warning("Deleted " + deleted + " readings of " + day + " after archiving " + rows);
+        }
+        logger.info("Archived " + rows + " readings of " + segment.getSensorCount() + " sensors for " + day
+                + " to " + segment.getFile() + (deleteArchived ? ", deleted " + deleted + " from MongoDB" : ""));
+    }
+
+    private static int flush(ColdSegment.Writer writer, List<SensorReading> readings) throws IOException {
+        if (readings.isEmpty()) {
+            return 0;
+        }
+        SensorReading first = readings.get(0);
+        writer.append(first.getSensorId(), first.getFieldId(), ReadingColumns.fromReadings(readings));
+        int count = readings.size();
+        readings.clear();
+        return count;
+    }
+
+    /**
+     * @return the filter of the readings of a day, on the timestamps as JNoSQL stores them
+     */
+    static Bson dayRange(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        return Filters.and(Filters.gte("timestamp", MongoDates.encode(start)),
+                Filters.lt("timestamp", MongoDates.encode(start.plusDays(1))));
+    }
+
+    /**
+     * Maps a raw {@code SensorReading} document; only the fields a segment stores are read.
+     */
+    static SensorReading toReading(Document document) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(document.getString("sensorId"));
+        reading.setFieldId(document.getString("fieldId"));
+        reading.setTimestamp(MongoDates.decode(document.get("timestamp")));
+        SensorData data = new SensorData();
+        Document values = document.get("data", Document.class);
+        if (values != null) {
+            for (Metric metric : Metric.all()) {
+                Object value = values.get(metric.getJsonName());
+                if (value instanceof Number number) {
+                    metric.write(data, number.doubleValue());
+                }
+            }
+        }
+        reading.setData(data);
+        return reading;
+    }
+}
@@ -0,0 +1,97 @@
+package me.soilmonitoring.api.services;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Hourly job rolling raw readings up into hourly and daily aggregates
+ * before {@link RetentionJob} deletes them.
+ *
+ * Each run rolls up the complete hours since the last run (re-rolling the
+ * last {@code rollup.late.hours} for late readings), then checks that the
+ * raw readings about to expire are fully accounted for by their rollups and
+ * rolls them up again if not.
+ */
+@Singleton
+public class ReadingCompactionJob {
+
+    private static final Logger logger = Logger.getLogger(ReadingCompactionJob.class.getName());
+
+    @Inject
+    private RollupManager rollupManager;
+
+    @Inject
+    @ConfigProperty(name = "rollup.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @Inject
+    @ConfigProperty(name = "rollup.late.hours", defaultValue = "1")
+    int lateHours = 1;
+
+    @Inject
+    @ConfigProperty(name = "rollup.max.hours.per.run", defaultValue = "168")
+    int maxHoursPerRun = 168;
+
+    @Schedule(hour = "*", minute = "5", persistent = false)
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            rollUpSinceLastRun(currentHour);
+            verifyBeforeExpiry(currentHour);
+        } catch (Exception e) {
+            logger.severe("Reading compaction failed: " + e.getMessage());
+        }
+    }
+
+    private void rollUpSinceLastRun(LocalDateTime currentHour) {
+        Optional<LocalDateTime> through = rollupManager.getRolledUpThrough();
+        LocalDateTime from = through.map(t -> t.minusHours(lateHours))
+                .or(() -> rollupManager.earliestReading().map(t -> t.truncatedTo(ChronoUnit.HOURS)))
+                .orElse(currentHour);
+        // Long backlogs (first run, downtime) are caught up over several runs
+        LocalDateTime to = from.plusHours(maxHoursPerRun).isBefore(currentHour)
+                ? from.plusHours(maxHoursPerRun)
+                : currentHour;
+        if (!from.isBefore(to)) {
+            return;
+        }
+        rollupManager.rollUpHours(from, to);
+        rollupManager.rollUpDays(from.toLocalDate(), to.minusHours(1).toLocalDate());
+        rollupManager.setRolledUpThrough(to);
+    }
+
+    /**
+     * Re-rolls the complete hours the retention job will delete before the next
+     * run if their rollups miss readings (e.g. the job lagged behind).
+     */
+    private void verifyBeforeExpiry(LocalDateTime currentHour) {
+        Optional<LocalDateTime> horizon = rollupManager.expiryHorizon();
+        if (horizon.isEmpty()) {
+            return;
+        }
+        LocalDateTime from = horizon.get();
+        LocalDateTime to = from.plusHours(2);
+        if (!to.isBefore(currentHour)) {
+            return;
+        }
+        long raw = rollupManager.countReadings(from, to);
+        long rolledUp = rollupManager.countRolledUp(from, to);
+        if (raw > rolledUp) {
+            logger.warning("Rollups from " + from + " to " + to + " miss " + (raw - rolledUp)
+                    + " readings about to expire; rolling them up again");
+            rollupManager.rollUpHours(from, to);
+            rollupManager.rollUpDays(from.toLocalDate(), to.minusHours(1).toLocalDate());
+        }
+    }
+}
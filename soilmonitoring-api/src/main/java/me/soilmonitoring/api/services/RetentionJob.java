@@ -0,0 +1,55 @@
+package me.soilmonitoring.api.services;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.AlertInboxManager;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.logging.Logger;
+
+/**
+ * Hourly job deleting the raw readings and alerts older than their
+ * {@code retention.*.days}; 0 keeps them forever.
+ *
+ * JNoSQL stores their timestamps as strings, which a TTL index ignores, so
+ * retention is a range delete. Raw readings are only deleted once
+ * {@link ReadingCompactionJob} has rolled them up.
+ */
+@Singleton
+public class RetentionJob {
+
+    private static final Logger logger = Logger.getLogger(RetentionJob.class.getName());
+
+    @Inject
+    private RollupManager rollupManager;
+
+    @Inject
+    private AlertInboxManager alertInboxManager;
+
+    @Inject
+    @ConfigProperty(name = "retention.alerts.days", defaultValue = "0")
+    int alertRetentionDays = 0;
+
+    @Schedule(hour = "*", minute = "35", persistent = false)
+    public void purge() {
+        try {
+            long deleted = rollupManager.deleteExpiredReadings();
+            if (deleted > 0) {
+                logger.info("Deleted " + deleted + " raw readings past retention");
+            }
+        } catch (Exception e) {
+            logger.severe("Reading retention failed: " + e.getMessage());
+        }
+        if (alertRetentionDays <= 0) {
+            return;
+        }
+        try {
+            alertInboxManager.deleteOlderThan(LocalDateTime.now().minusDays(alertRetentionDays));
+        } catch (Exception e) {
+            logger.severe("Alert retention failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package me.soilmonitoring.api.services;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.SensorHeartbeatManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.logging.Logger;
+
+/**
+ * Writes the sensors' {@code lastConnection} heartbeats every 30 seconds,
+ * one bulk update per run; this is how stale it can be in the database.
+ */
+@Singleton
+public class SensorHeartbeatFlushJob {
+
+    private static final Logger logger = Logger.getLogger(SensorHeartbeatFlushJob.class.getName());
+
+    @Inject
+    private SensorHeartbeatManager heartbeatManager;
+
+    @Inject
+    @ConfigProperty(name = "sensors.heartbeat.flush.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @Schedule(hour = "*", minute = "*", second = "*/30", persistent = false)
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            heartbeatManager.flush();
+        } catch (Exception e) {
+            logger.warning("Sensor heartbeat flush failed, retrying next run: " + e.getMessage());
+        }
+    }
+}
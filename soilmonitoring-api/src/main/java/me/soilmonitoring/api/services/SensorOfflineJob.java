@@ -0,0 +1,43 @@
+package me.soilmonitoring.api.services;
+
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.managers.SensorOfflineDetector;
+import me.soilmonitoring.api.entities.Sensor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Expires the heartbeat deadlines of the sensors every 10 seconds, marking
+ * offline the ones that stopped reporting.
+ */
+@Singleton
+public class SensorOfflineJob {
+
+    private static final Logger logger = Logger.getLogger(SensorOfflineJob.class.getName());
+
+    @Inject
+    private SensorOfflineDetector offlineDetector;
+
+    @Inject
+    @ConfigProperty(name = "sensors.offline.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @Schedule(hour = "*", minute = "*", second = "*/10", persistent = false)
+    public void detect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Sensor> offline = offlineDetector.detectOffline();
+            if (!offline.isEmpty()) {
+                logger.info("Marked " + offline.size() + " sensors offline");
+            }
+        } catch (Exception e) {
+            logger.warning("Offline sensor detection failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package me.soilmonitoring.api.services;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Exports readings and predictions for model training as compressed CSV,
+ * incrementally from a MongoDB change-stream resume token.
+ *
+ * Each consumer (e.g. the weekly retraining pipeline) has a committed
+ * checkpoint per dataset in the {@code ExportCheckpoint} collection. An
+ * export starts from the committed checkpoint and records the position it
+ * reached as pending; the consumer commits it once the file is safely
+ * stored, so a failed run simply re-exports the same delta.
+ *
+ * Change streams require MongoDB to run as a replica set (Atlas always does).
+ */
+@ApplicationScoped
+public class TrainingExportService {
+
+    static final String CHECKPOINTS = "ExportCheckpoint";
+
+    // ChangeStreamHistoryLost and ChangeStreamFatalError
+    private static final List<Integer> LOST_RESUME_TOKEN_CODES = List.of(286, 280);
+
+    @Inject
+    private Logger logger;
+
+    @Inject
+    private MongoCollections mongo;
+
+    @Inject
+    @ConfigProperty(name = "export.batch.size", defaultValue = "1000")
+    int batchSize;
+
+    /**
+     * Opens an export.
+     *
+     * @param consumer       the consumer whose checkpoint is used and updated
+     * @param since          an explicit resume token ({@code _data} value) overriding the checkpoint, or null
+     * @param full           whether to ignore any token and export a snapshot
+     * @param predictionType for predictions, restricts the export to "crop" or "fertilizer"; null for all
+     * @throws IllegalStateException if the resume token has fallen out of the oplog and a full export is needed
+     */
+    public ExportBatch open(ExportDataset dataset, String consumer, String since, boolean full,
+                            String predictionType) {
+        MongoCollection<Document> collection = mongo.collection(dataset.getCollection());
+        BsonDocument token = full ? null : since != null ? token(since) : committed(dataset, consumer);
+
+        List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(Filters.in("operationType", "insert", "replace", "update")));
+        if (predictionType != null) {
+            pipeline.add(Aggregates.match(Filters.eq("fullDocument.predictionType", predictionType)));
+        }
+
+        if (token == null) {
+            // Position taken before the snapshot, so nothing inserted during it is missed
+            BsonDocument start;
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+                         collection.watch(pipeline).cursor()) {
+                start = cursor.getResumeToken();
+            }
+            Bson filter = predictionType != null ? Filters.eq("predictionType", predictionType) : new Document();
+            logger.info("Full " + dataset + " export for " + consumer);
+            return new ExportBatch(dataset, collection.find(filter).batchSize(batchSize), start,
+                    (position, rows) -> recordPending(dataset, consumer, position, rows));
+        }
+
+        try {
+            MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = collection.watch(pipeline)
+                    .resumeAfter(token)
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .batchSize(batchSize)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .cursor();
+            logger.info("Delta " + dataset + " export for " + consumer);
+            return new ExportBatch(dataset, cursor, token, operationTime(),
+                    (position, rows) -> recordPending(dataset, consumer, position, rows));
+        } catch (MongoCommandException e) {
+            if (LOST_RESUME_TOKEN_CODES.contains(e.getErrorCode())) {
+                throw new IllegalStateException("Resume token is no longer available, a full export is required");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Promotes the consumer's pending checkpoint to committed.
+     *
+     * @return the committed resume token, or empty if no export is pending
+     */
+    public Optional<String> commit(ExportDataset dataset, String consumer) {
+        MongoCollection<Document> checkpoints = mongo.collection(CHECKPOINTS);
+        Document checkpoint = checkpoints.find(Filters.eq("_id", checkpointId(dataset, consumer))).first();
+        if (checkpoint == null || checkpoint.get("pending") == null) {
+            return Optional.empty();
+        }
+        Document pending = checkpoint.get("pending", Document.class);
+        checkpoints.updateOne(Filters.eq("_id", checkpointId(dataset, consumer)), Updates.combine(
+                Updates.set("committed", pending),
+                Updates.set("committedAt", new Date()),
+                Updates.unset("pending"),
+                Updates.unset("pendingRows")));
+        logger.info("Export checkpoint committed for " + consumer + " " + dataset);
+        return Optional.of(pending.getString("_data"));
+    }
+
+    /**
+     * @return the consumer's committed resume token, or empty before its first commit
+     */
+    public Optional<String> committedToken(ExportDataset dataset, String consumer) {
+        return Optional.ofNullable(committed(dataset, consumer))
+                .map(token -> token.getString("_data").getValue());
+    }
+
+    private BsonDocument committed(ExportDataset dataset, String consumer) {
+        Document checkpoint = mongo.collection(CHECKPOINTS)
+                .find(Filters.eq("_id", checkpointId(dataset, consumer))).first();
+        if (checkpoint == null || checkpoint.get("committed") == null) {
+            return null;
+        }
+        return token(checkpoint.get("committed", Document.class).getString("_data"));
+    }
+
+    private void recordPending(ExportDataset dataset, String consumer, BsonDocument position, long rows) {
+        if (position == null) {
+            return;
+        }
+        mongo.collection(CHECKPOINTS).updateOne(Filters.eq("_id", checkpointId(dataset, consumer)),
+                Updates.combine(
+                        Updates.set("pending", new Document("_data", position.getString("_data").getValue())),
+                        Updates.set("pendingRows", rows),
+                        Updates.set("pendingAt", new Date())),
+                new UpdateOptions().upsert(true));
+        logger.info("Exported " + rows + " " + dataset + " rows for " + consumer);
+    }
+
+    /**
+     * @return the cluster time of the server now, bounding a delta export
+     */
+    private BsonTimestamp operationTime() {
+        Document reply = mongo.database().runCommand(new Document("ping", 1));
+        Object time = reply.get("operationTime");
+        if (time instanceof BsonTimestamp) {
+            return (BsonTimestamp) time;
+        }
+        return new BsonTimestamp((int) Instant.now().getEpochSecond(), Integer.MAX_VALUE);
+    }
+
+    static String checkpointId(ExportDataset dataset, String consumer) {
+        return consumer + ":" + dataset.name().toLowerCase();
+    }
+
+    private static BsonDocument token(String data) {
+        return new BsonDocument("_data", new BsonString(data));
+    }
+}
@@ -0,0 +1,12 @@
+package me.soilmonitoring.api.timeseries;
+
+/**
+ * Computes {@link ColumnStats} over rows {@code [from, to)} of a primitive
+ * column, considering only rows whose bit is set in the validity bitmap.
+ */
+interface AggregationKernel {
+
+    ColumnStats aggregate(double[] values, long[] validity, int from, int to);
+
+    String name();
+}
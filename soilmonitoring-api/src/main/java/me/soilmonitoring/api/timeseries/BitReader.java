@@ -0,0 +1,44 @@
+package me.soilmonitoring.api.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a {@link BitWriter} stream in place, from a heap or memory-mapped
+ * buffer, using absolute positions so the buffer is never modified and can
+ * be shared between threads.
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private long bitPosition;
+
+    /**
+     * @param buffer the buffer holding the stream
+     * @param offset the byte offset of the stream in the buffer
+     */
+    BitReader(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.bitPosition = (long) offset << 3;
+    }
+
+    /**
+     * @return the next {@code count} bits (at most 64) as an unsigned value
+     */
+    long read(int count) {
+        long value = 0;
+        for (int remaining = count; remaining > 0; ) {
+            int current = buffer.get((int) (bitPosition >>> 3)) & 0xFF;
+            int available = 8 - (int) (bitPosition & 7);
+            int take = Math.min(available, remaining);
+            int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            bitPosition += take;
+            remaining -= take;
+        }
+        return value;
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+}
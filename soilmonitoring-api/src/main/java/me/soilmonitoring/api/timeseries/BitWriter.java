@@ -0,0 +1,50 @@
+package me.soilmonitoring.api.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit stream, most significant bit first, backing the Gorilla
+ * encoders of {@link GorillaCodec}.
+ */
+final class BitWriter {
+
+    private byte[] bytes;
+    private long bitCount;
+
+    BitWriter(int initialBytes) {
+        bytes = new byte[Math.max(initialBytes, 16)];
+    }
+
+    /**
+     * Appends the {@code count} low bits of {@code value}, highest first.
+     */
+    void write(long value, int count) {
+        for (int remaining = count; remaining > 0; ) {
+            int byteIndex = (int) (bitCount >>> 3);
+            if (byteIndex >= bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int free = 8 - (int) (bitCount & 7);
+            int take = Math.min(free, remaining);
+            int chunk = (int) (value >>> (remaining - take)) & ((1 << take) - 1);
+            bytes[byteIndex] |= (byte) (chunk << (free - take));
+            bitCount += take;
+            remaining -= take;
+        }
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * @return the stream padded to a whole number of bytes
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, byteLength());
+    }
+
+    int byteLength() {
+        return (int) ((bitCount + 7) >>> 3);
+    }
+}
@@ -0,0 +1,322 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable file holding the readings of every sensor for one closed time
+ * range, compressed with {@link GorillaCodec}.
+ *
+ * Layout: one block per sensor (its timestamps, then each metric column the
+ * sensor reported at least once), followed by an index of the blocks and a
+ * fixed-size trailer locating the index. Segments are written to a
+ * temporary file and moved into place once complete, so a segment that
+ * exists is always whole. Reads go through a read-only memory mapping,
+ * leaving caching to the OS page cache.
+ */
+public final class ColdSegment {
+
+    static final int MAGIC = 0x534D4353; // "SMCS"
+    static final int VERSION = 1;
+    private static final int TRAILER_BYTES = 3 * Long.BYTES + 2 * Integer.BYTES;
+
+    private final Path file;
+    private final long fromMillis;
+    private final long toMillis;
+    private final ByteBuffer buffer;
+    private final Map<String, Block> bySensor;
+    private final Map<String, List<Block>> byField;
+
+    private ColdSegment(Path file, long fromMillis, long toMillis, ByteBuffer buffer, List<Block> blocks) {
+        this.file = file;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.buffer = buffer;
+        this.bySensor = new HashMap<>();
+        this.byField = new HashMap<>();
+        for (Block block : blocks) {
+            bySensor.put(block.sensorId, block);
+            byField.computeIfAbsent(block.fieldId, id -> new ArrayList<>()).add(block);
+        }
+    }
+
+    /**
+     * Maps an existing segment file.
+     *
+     * @throws IOException if the file cannot be read or is not a complete segment
+     */
+    public static ColdSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < TRAILER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a segment: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int trailer = buffer.capacity() - TRAILER_BYTES;
+        long indexOffset = buffer.getLong(trailer);
+        long from = buffer.getLong(trailer + 8);
+        long to = buffer.getLong(trailer + 16);
+        int version = buffer.getInt(trailer + 24);
+        int magic = buffer.getInt(trailer + 28);
+        if (magic != MAGIC || version != VERSION || indexOffset < 0 || indexOffset > trailer) {
+            throw new IOException("Not a segment: " + file);
+        }
+
+        ByteBuffer index = buffer.duplicate().position((int) indexOffset).limit(trailer);
+        int count = index.getInt();
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(new Block(readString(index), readString(index), index.getInt(),
+                    index.getLong(), index.getLong(), index.getInt(), index.getInt()));
+        }
+        return new ColdSegment(file, from, to, buffer, blocks);
+    }
+
+    /**
+     * Starts a new segment for the readings with {@code fromMillis <= timestamp < toMillis}.
+     */
+    public static Writer create(Path file, long fromMillis, long toMillis) throws IOException {
+        return new Writer(file, fromMillis, toMillis);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the start of the range the segment holds, inclusive
+     */
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    /**
+     * @return the end of the range the segment holds, exclusive
+     */
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    /**
+     * @return the number of sensors with readings in the segment
+     */
+    public int getSensorCount() {
+        return bySensor.size();
+    }
+
+    /**
+     * @return the readings of the sensor with {@code from <= timestamp <= to}, oldest first
+     */
+    public List<SensorReading> scanSensor(String sensorId, long from, long to) {
+        Block block = bySensor.get(sensorId);
+        if (block == null || block.lastTimestamp < from || block.firstTimestamp > to) {
+            return List.of();
+        }
+        List<SensorReading> readings = new ArrayList<>();
+        decode(block, from, to, readings);
+        return readings;
+    }
+
+    /**
+     * @return the readings of the field's sensors with {@code from <= timestamp <= to},
+     * grouped by sensor and oldest first within a sensor
+     */
+    public List<SensorReading> scanField(String fieldId, long from, long to) {
+        List<SensorReading> readings = new ArrayList<>();
+        for (Block block : byField.getOrDefault(fieldId, List.of())) {
+            if (block.lastTimestamp >= from && block.firstTimestamp <= to) {
+                decode(block, from, to, readings);
+            }
+        }
+        return readings;
+    }
+
+    private void decode(Block block, long from, long to, List<SensorReading> out) {
+        ReadingColumns columns = block.decode(buffer);
+        int end = to == Long.MAX_VALUE ? columns.size() : columns.lowerBound(to + 1);
+        for (int row = columns.lowerBound(from); row < end; row++) {
+            SensorData data = new SensorData();
+            for (Metric metric : Metric.all()) {
+                if (columns.isValid(metric, row)) {
+                    metric.write(data, columns.value(metric, row));
+                }
+            }
+            SensorReading reading = new SensorReading();
+            reading.setTimestamp(columns.timestampAsDateTime(row));
+            // Archived readings keep no document id; the sensor and instant identify them
+            reading.setId(block.sensorId + ":" + reading.getTimestamp());
+            reading.setSensorId(block.sensorId.isEmpty() ? null : block.sensorId);
+            reading.setFieldId(block.fieldId.isEmpty() ? null : block.fieldId);
+            reading.setData(data);
+            out.add(reading);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One sensor's compressed readings.
+     */
+    private record Block(String sensorId, String fieldId, int rows, long firstTimestamp, long lastTimestamp,
+                         int metricMask, int offset) {
+
+        ReadingColumns decode(ByteBuffer buffer) {
+            BitReader in = new BitReader(buffer, offset);
+            long[] timestamps = new long[rows];
+            double[][] values = new double[Metric.count()][rows];
+            long[][] validity = new long[Metric.count()][ReadingColumns.words(rows)];
+            GorillaCodec.decodeTimestamps(in, timestamps, rows);
+            for (Metric metric : Metric.all()) {
+                if ((metricMask & (1 << metric.ordinal())) != 0) {
+                    GorillaCodec.decodeValues(in, values[metric.ordinal()], validity[metric.ordinal()], rows);
+                }
+            }
+            return new ReadingColumns(timestamps, values, validity, rows);
+        }
+    }
+
+    /**
+     * Writes a segment one sensor at a time, so only one sensor's readings
+     * need to be held in memory.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path file;
+        private final Path temporary;
+        private final long fromMillis;
+        private final long toMillis;
+        private final FileChannel channel;
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final DataOutputStream indexOut = new DataOutputStream(index);
+        private int blockCount;
+        private boolean committed;
+
+        private Writer(Path file, long fromMillis, long toMillis) throws IOException {
+            this.file = file;
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Appends the readings of one sensor; each sensor may be appended once.
+         * Readings outside the segment's range are skipped.
+         */
+        public void append(String sensorId, String fieldId, ReadingColumns readings) throws IOException {
+            int first = readings.lowerBound(fromMillis);
+            int end = readings.lowerBound(toMillis);
+            int rows = end - first;
+            if (rows <= 0) {
+                return;
+            }
+
+            long[] timestamps = new long[rows];
+            for (int row = 0; row < rows; row++) {
+                timestamps[row] = readings.timestamp(first + row);
+            }
+            BitWriter out = new BitWriter(rows * 4);
+            GorillaCodec.encodeTimestamps(out, timestamps, rows);
+
+            int metricMask = 0;
+            for (Metric metric : Metric.all()) {
+                double[] values = new double[rows];
+                long[] validity = new long[ReadingColumns.words(rows)];
+                boolean present = false;
+                for (int row = 0; row < rows; row++) {
+                    if (readings.isValid(metric, first + row)) {
+                        values[row] = readings.value(metric, first + row);
+                        validity[row >>> 6] |= 1L << (row & 63);
+                        present = true;
+                    }
+                }
+                if (present) {
+                    metricMask |= 1 << metric.ordinal();
+                    GorillaCodec.encodeValues(out, values, validity, rows);
+                }
+            }
+
+            long offset = channel.position();
+            if (offset + out.byteLength() > Integer.MAX_VALUE - TRAILER_BYTES) {
+                throw new IOException("Segment too large: " + file);
+            }
+            ByteBuffer block = ByteBuffer.wrap(out.toByteArray());
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+
+            writeString(sensorId != null ? sensorId : "");
+            writeString(fieldId != null ? fieldId : "");
+            indexOut.writeInt(rows);
+            indexOut.writeLong(timestamps[0]);
+            indexOut.writeLong(timestamps[rows - 1]);
+            indexOut.writeInt(metricMask);
+            indexOut.writeInt((int) offset);
+            blockCount++;
+        }
+
+        /**
+         * Writes the index, flushes the file to disk and moves it into place.
+         *
+         * @return the finished segment, mapped for reading
+         */
+        public ColdSegment commit() throws IOException {
+            long indexOffset = channel.position();
+            ByteBuffer tail = ByteBuffer.allocate(Integer.BYTES + index.size() + TRAILER_BYTES);
+            tail.putInt(blockCount);
+            tail.put(index.toByteArray());
+            tail.putLong(indexOffset).putLong(fromMillis).putLong(toMillis).putInt(VERSION).putInt(MAGIC);
+            tail.flip();
+            while (tail.hasRemaining()) {
+                channel.write(tail);
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            return open(file);
+        }
+
+        /**
+         * Discards the segment unless it was committed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            indexOut.writeShort(bytes.length);
+            indexOut.write(bytes);
+        }
+    }
+}
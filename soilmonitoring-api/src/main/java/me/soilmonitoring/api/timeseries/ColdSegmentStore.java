@@ -0,0 +1,151 @@
+package me.soilmonitoring.api.timeseries;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Logger;
+
+/**
+ * Archive of the raw readings of closed days, one {@link ColdSegment} file
+ * per day under {@code coldstore.dir}.
+ *
+ * Days are archived oldest first by {@link me.soilmonitoring.api.services.ReadingArchiveJob},
+ * so the segments cover one contiguous range; callers read that range here
+ * and the rest from MongoDB (see {@link #coveredUntil()}). Segments are
+ * opened at startup and kept mapped; lookups take no lock.
+ */
+@ApplicationScoped
+public class ColdSegmentStore {
+
+    private static final Logger logger = Logger.getLogger(ColdSegmentStore.class.getName());
+
+    private static final String SUFFIX = ".seg";
+
+    @Inject
+    @ConfigProperty(name = "coldstore.enabled", defaultValue = "false")
+    boolean enabled = false;
+
+    @Inject
+    @ConfigProperty(name = "coldstore.dir", defaultValue = "data/segments")
+    String directory = "data/segments";
+
+    private final ConcurrentSkipListMap<Long, ColdSegment> segments = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+        Path dir = Paths.get(directory);
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    try {
+                        ColdSegment segment = ColdSegment.open(file);
+                        segments.put(segment.getFromMillis(), segment);
+                    } catch (IOException e) {
+                        logger.warning("Skipping unreadable segment " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+            logger.info("Cold store opened " + segments.size() + " segments in " + dir.toAbsolutePath());
+        } catch (IOException e) {
+            logger.severe("Could not open cold store " + dir + ": " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the start of the archived range, if any day was archived
+     */
+    public Optional<LocalDateTime> coveredFrom() {
+        Map.Entry<Long, ColdSegment> first = segments.firstEntry();
+        return first == null ? Optional.empty() : Optional.of(ReadingColumns.fromMillis(first.getKey()));
+    }
+
+    /**
+     * @return the end of the archived range (exclusive), if any day was archived;
+     * readings from this instant on are in MongoDB
+     */
+    public Optional<LocalDateTime> coveredUntil() {
+        Map.Entry<Long, ColdSegment> last = segments.lastEntry();
+        return last == null ? Optional.empty()
+                : Optional.of(ReadingColumns.fromMillis(last.getValue().getToMillis()));
+    }
+
+    /**
+     * @return the archived readings of the sensor with {@code from <= timestamp <= to}, oldest first
+     */
+    public List<SensorReading> scanSensor(String sensorId, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = ReadingColumns.toMillis(from);
+        long toMillis = ReadingColumns.toMillis(to);
+        List<SensorReading> readings = new ArrayList<>();
+        for (ColdSegment segment : overlapping(fromMillis, toMillis)) {
+            readings.addAll(segment.scanSensor(sensorId, fromMillis, toMillis));
+        }
+        return readings;
+    }
+
+    /**
+     * @return the archived readings of the field with {@code from <= timestamp <= to}, oldest first
+     */
+    public List<SensorReading> scanField(String fieldId, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = ReadingColumns.toMillis(from);
+        long toMillis = ReadingColumns.toMillis(to);
+        List<SensorReading> readings = new ArrayList<>();
+        for (ColdSegment segment : overlapping(fromMillis, toMillis)) {
+            List<SensorReading> day = segment.scanField(fieldId, fromMillis, toMillis);
+            day.sort(Comparator.comparing(SensorReading::getTimestamp));
+            readings.addAll(day);
+        }
+        return readings;
+    }
+
+    /**
+     * Starts the segment of a day; {@link #add} it once committed.
+     */
+    public ColdSegment.Writer newSegment(LocalDate day) throws IOException {
+        LocalDateTime start = day.atStartOfDay();
+        return ColdSegment.create(Paths.get(directory).resolve("readings-" + day + SUFFIX),
+                ReadingColumns.toMillis(start), ReadingColumns.toMillis(start.plusDays(1)));
+    }
+
+    /**
+     * Makes a committed segment visible to queries.
+     */
+    public void add(ColdSegment segment) {
+        segments.put(segment.getFromMillis(), segment);
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    private Iterable<ColdSegment> overlapping(long fromMillis, long toMillis) {
+        if (fromMillis > toMillis) {
+            return List.of();
+        }
+        Long first = segments.floorKey(fromMillis);
+        return segments.subMap(first != null ? first : fromMillis, true, toMillis, true).values();
+    }
+}
@@ -0,0 +1,84 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.Metric;
+
+import java.util.logging.Logger;
+
+/**
+ * Sum, min, max, count and variance over primitive reading columns.
+ *
+ * Uses the SIMD {@link VectorAggregationKernel} when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise.
+ * Setting the system property {@code soilmonitoring.vector.disabled=true}
+ * forces the scalar kernel.
+ */
+public final class ColumnAggregates {
+
+    private static final Logger logger = Logger.getLogger(ColumnAggregates.class.getName());
+
+    private static final AggregationKernel KERNEL = selectKernel();
+
+    private ColumnAggregates() {
+    }
+
+    /**
+     * Aggregates the valid values of rows {@code [from, to)}.
+     *
+     * @param values   the column
+     * @param validity the column's validity bitmap, one bit per row
+     */
+    public static ColumnStats aggregate(double[] values, long[] validity, int from, int to) {
+        if (from >= to) {
+            return ColumnStats.EMPTY;
+        }
+        return KERNEL.aggregate(values, validity, from, to);
+    }
+
+    /**
+     * Aggregates one metric over rows {@code [from, to)} of a batch.
+     */
+    public static ColumnStats aggregate(ReadingColumns readings, Metric metric, int from, int to) {
+        return aggregate(readings.column(metric), readings.validity(metric), from, to);
+    }
+
+    /**
+     * Aggregates one metric over a whole batch.
+     */
+    public static ColumnStats aggregate(ReadingColumns readings, Metric metric) {
+        return aggregate(readings, metric, 0, readings.size());
+    }
+
+    /**
+     * @return the name of the kernel in use, e.g. "vector-4x64" or "scalar"
+     */
+    public static String kernelName() {
+        return KERNEL.name();
+    }
+
+    static AggregationKernel scalarKernel() {
+        return new ScalarAggregationKernel();
+    }
+
+    /**
+     * @return the vector kernel, or null when the Vector API is not available
+     */
+    static AggregationKernel vectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return new VectorAggregationKernel();
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+
+    private static AggregationKernel selectKernel() {
+        AggregationKernel kernel = Boolean.getBoolean("soilmonitoring.vector.disabled") ? null : vectorKernel();
+        if (kernel == null) {
+            kernel = scalarKernel();
+        }
+        logger.info("Column aggregation kernel: " + kernel.name());
+        return kernel;
+    }
+}
@@ -0,0 +1,68 @@
+package me.soilmonitoring.api.timeseries;
+
+/**
+ * Count, sum, min, max and variance of the valid values of a column range,
+ * as computed by {@link ColumnAggregates}.
+ */
+public final class ColumnStats {
+
+    static final ColumnStats EMPTY = new ColumnStats(0, 0, Double.NaN, Double.NaN, 0);
+
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final double sumOfSquaredDeviations;
+
+    ColumnStats(long count, double sum, double min, double max, double sumOfSquaredDeviations) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.sumOfSquaredDeviations = sumOfSquaredDeviations;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the smallest value, or NaN if there is none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the largest value, or NaN if there is none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean, or NaN if there is no value
+     */
+    public double getMean() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    /**
+     * @return the population variance, or NaN if there is no value
+     */
+    public double getVariance() {
+        return count > 0 ? sumOfSquaredDeviations / count : Double.NaN;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+}
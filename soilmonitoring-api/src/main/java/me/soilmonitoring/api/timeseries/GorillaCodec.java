@@ -0,0 +1,163 @@
+package me.soilmonitoring.api.timeseries;
+
+/**
+ * Gorilla-style compression of one sensor's timestamps and metric columns
+ * (Pelkonen et al., "Gorilla: A Fast, Scalable, In-Memory Time Series Database").
+ *
+ * Timestamps are stored as delta-of-deltas: readings arriving at a steady
+ * rate cost one bit each, jitter of a few seconds 12 to 24 bits. Values are
+ * XORed with the previous value of the column and only the meaningful bits
+ * of the XOR are written, reusing the previous leading/trailing zero window
+ * when it fits; an unchanged value costs one bit. Missing values are
+ * encoded as a reserved NaN, so they compress like any repeated value.
+ */
+final class GorillaCodec {
+
+    /** Bit pattern standing for a missing value; distinct from {@link Double#NaN}. */
+    static final long MISSING = 0x7FF8_0000_0000_0001L;
+
+    private GorillaCodec() {
+    }
+
+    static void encodeTimestamps(BitWriter out, long[] timestamps, int size) {
+        if (size == 0) {
+            return;
+        }
+        out.write(timestamps[0], 64);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int row = 1; row < size; row++) {
+            long delta = timestamps[row] - previous;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                out.writeBit(false);
+            } else if (fits(deltaOfDelta, 7)) {
+                out.write(0b10, 2);
+                out.write(deltaOfDelta, 7);
+            } else if (fits(deltaOfDelta, 12)) {
+                out.write(0b110, 3);
+                out.write(deltaOfDelta, 12);
+            } else if (fits(deltaOfDelta, 24)) {
+                out.write(0b1110, 4);
+                out.write(deltaOfDelta, 24);
+            } else {
+                out.write(0b1111, 4);
+                out.write(deltaOfDelta, 64);
+            }
+            previous = timestamps[row];
+            previousDelta = delta;
+        }
+    }
+
+    static void decodeTimestamps(BitReader in, long[] timestamps, int size) {
+        if (size == 0) {
+            return;
+        }
+        timestamps[0] = in.read(64);
+        long previousDelta = 0;
+        for (int row = 1; row < size; row++) {
+            long deltaOfDelta;
+            if (!in.readBit()) {
+                deltaOfDelta = 0;
+            } else if (!in.readBit()) {
+                deltaOfDelta = signExtend(in.read(7), 7);
+            } else if (!in.readBit()) {
+                deltaOfDelta = signExtend(in.read(12), 12);
+            } else if (!in.readBit()) {
+                deltaOfDelta = signExtend(in.read(24), 24);
+            } else {
+                deltaOfDelta = in.read(64);
+            }
+            previousDelta += deltaOfDelta;
+            timestamps[row] = timestamps[row - 1] + previousDelta;
+        }
+    }
+
+    /**
+     * Encodes rows {@code [0, size)} of a column; rows not set in
+     * {@code validity} are written as {@link #MISSING}.
+     */
+    static void encodeValues(BitWriter out, double[] values, long[] validity, int size) {
+        if (size == 0) {
+            return;
+        }
+        long previous = bits(values, validity, 0);
+        out.write(previous, 64);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int row = 1; row < size; row++) {
+            long current = bits(values, validity, row);
+            long xor = current ^ previous;
+            if (xor == 0) {
+                out.writeBit(false);
+            } else {
+                out.writeBit(true);
+                // 5 bits hold at most 31 leading zeros
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    out.writeBit(false);
+                    out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int meaningful = 64 - leading - trailing;
+                    out.writeBit(true);
+                    out.write(leading, 5);
+                    out.write(meaningful == 64 ? 0 : meaningful, 6);
+                    out.write(xor >>> trailing, meaningful);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = current;
+        }
+    }
+
+    /**
+     * Decodes a column written by {@link #encodeValues}, setting the validity
+     * bit of every row that was not {@link #MISSING}.
+     */
+    static void decodeValues(BitReader in, double[] values, long[] validity, int size) {
+        if (size == 0) {
+            return;
+        }
+        long previous = in.read(64);
+        store(values, validity, 0, previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int row = 1; row < size; row++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.read(5);
+                    int meaningful = (int) in.read(6);
+                    if (meaningful == 0) {
+                        meaningful = 64;
+                    }
+                    trailing = 64 - leading - meaningful;
+                }
+                previous ^= in.read(64 - leading - trailing) << trailing;
+            }
+            store(values, validity, row, previous);
+        }
+    }
+
+    private static long bits(double[] values, long[] validity, int row) {
+        boolean valid = (validity[row >>> 6] & (1L << (row & 63))) != 0;
+        return valid ? Double.doubleToRawLongBits(values[row]) : MISSING;
+    }
+
+    private static void store(double[] values, long[] validity, int row, long bits) {
+        if (bits != MISSING) {
+            values[row] = Double.longBitsToDouble(bits);
+            validity[row >>> 6] |= 1L << (row & 63);
+        }
+    }
+
+    private static boolean fits(long value, int bits) {
+        long bound = 1L << (bits - 1);
+        return value >= -bound && value < bound;
+    }
+
+    private static long signExtend(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
@@ -0,0 +1,223 @@
+package me.soilmonitoring.api.timeseries;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * In-memory hot window of the most recent readings of every sensor.
+ *
+ * Readings are appended by the ingest paths right after they are saved, and
+ * kept per sensor in primitive column ring buffers ({@link SensorRingBuffer})
+ * for {@code hotstore.window.hours}. Total heap used by the buffers is capped
+ * by {@code hotstore.max.memory.mb}: a sensor that cannot get more memory
+ * keeps overwriting its oldest samples, and a sensor that cannot get any is
+ * not tracked at all.
+ *
+ * The store only answers a query when it is sure to hold every reading of
+ * the requested range, i.e. the range starts after the store started
+ * receiving readings and after anything already evicted for that field.
+ * A sensor that moves to another field starts a new buffer there, and its
+ * old field is no longer covered up to the sensor's last reading in it.
+ * Otherwise callers get an empty result and fall back to MongoDB.
+ */
+@ApplicationScoped
+public class HotReadingStore {
+
+    private static final Logger logger = Logger.getLogger(HotReadingStore.class.getName());
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    @Inject
+    @ConfigProperty(name = "hotstore.window.hours", defaultValue = "72")
+    int windowHours = 72;
+
+    @Inject
+    @ConfigProperty(name = "hotstore.max.memory.mb", defaultValue = "256")
+    long maxMemoryMb = 256;
+
+    @Inject
+    @ConfigProperty(name = "hotstore.max.samples.per.sensor", defaultValue = "32768")
+    int maxSamplesPerSensor = 32768;
+
+    private final long startedAt = ReadingColumns.toMillis(LocalDateTime.now());
+
+    private final ConcurrentHashMap<String, SensorRingBuffer> sensors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> sensorsByField = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SensorReading> latestByField = new ConcurrentHashMap<>();
+    private final Set<String> incompleteFields = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Long> movedOutThrough = new ConcurrentHashMap<>();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    /**
+     * Adds a saved reading to the hot window.
+     */
+    public void append(SensorReading reading) {
+        if (reading == null || reading.getTimestamp() == null
+                || reading.getSensorId() == null || reading.getFieldId() == null) {
+            return;
+        }
+        String fieldId = reading.getFieldId();
+        long timestamp = ReadingColumns.toMillis(reading.getTimestamp());
+
+        latestByField.merge(fieldId, reading, (current, candidate) ->
+                candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate);
+
+        SensorRingBuffer buffer = sensors.get(reading.getSensorId());
+        if (buffer == null || !buffer.fieldId().equals(fieldId)) {
+            buffer = sensors.compute(reading.getSensorId(), (sensorId, current) -> {
+                if (current != null && current.fieldId().equals(fieldId)) {
+                    return current;
+                }
+                long droppedThrough = current != null ? retire(sensorId, current) : Long.MIN_VALUE;
+                if (!reserve(SensorRingBuffer.INITIAL_CAPACITY)) {
+                    return null;
+                }
+                sensorsByField.computeIfAbsent(fieldId, id -> ConcurrentHashMap.newKeySet()).add(sensorId);
+                return new SensorRingBuffer(fieldId, droppedThrough);
+            });
+        }
+        if (buffer == null) {
+            if (incompleteFields.add(fieldId)) {
+                logger.warning("Hot store memory cap reached; field " + fieldId + " is served from MongoDB");
+            }
+            return;
+        }
+
+        synchronized (buffer) {
+            if (buffer.isFull() && buffer.capacity() < maxSamplesPerSensor) {
+                int newCapacity = Math.min(buffer.capacity() * 2, maxSamplesPerSensor);
+                if (reserve(newCapacity - buffer.capacity())) {
+                    buffer.grow(newCapacity);
+                }
+            }
+            buffer.expireBefore(timestamp - windowHours * MILLIS_PER_HOUR);
+            buffer.append(timestamp, reading.getData());
+        }
+    }
+
+    /**
+     * Returns every reading of the field with {@code from <= timestamp <= to},
+     * or an empty optional when the hot window cannot guarantee a complete answer.
+     */
+    public Optional<ReadingColumns> scanField(String fieldId, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = ReadingColumns.toMillis(from);
+        long toMillis = ReadingColumns.toMillis(to);
+        if (!covers(fieldId, fromMillis)) {
+            return Optional.empty();
+        }
+
+        Set<String> sensorIds = sensorsByField.getOrDefault(fieldId, Set.of());
+        List<ReadingColumns> parts = new ArrayList<>(sensorIds.size());
+        for (String sensorId : sensorIds) {
+            SensorRingBuffer buffer = sensors.get(sensorId);
+            if (buffer == null) {
+                continue;
+            }
+            synchronized (buffer) {
+                if (buffer.coveredFrom() > fromMillis) {
+                    return Optional.empty();
+                }
+                parts.add(buffer.slice(fromMillis, toMillis));
+            }
+        }
+        return Optional.of(ReadingColumns.merge(parts));
+    }
+
+    /**
+     * Returns every reading of one sensor with {@code from <= timestamp <= to},
+     * or an empty optional when the hot window cannot guarantee a complete answer
+     * (including for a sensor that has not reported since startup).
+     */
+    public Optional<ReadingColumns> scanSensor(String sensorId, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = ReadingColumns.toMillis(from);
+        SensorRingBuffer buffer = sensors.get(sensorId);
+        if (buffer == null || !covers(buffer.fieldId(), fromMillis)) {
+            return Optional.empty();
+        }
+        synchronized (buffer) {
+            if (buffer.coveredFrom() > fromMillis) {
+                return Optional.empty();
+            }
+            return Optional.of(buffer.slice(fromMillis, ReadingColumns.toMillis(to)));
+        }
+    }
+
+    /**
+     * @return the most recent reading of the field received since startup
+     */
+    public Optional<SensorReading> latest(String fieldId) {
+        return Optional.ofNullable(latestByField.get(fieldId));
+    }
+
+    /**
+     * @return whether the window holds every reading of the field from the given instant on
+     */
+    public boolean covers(String fieldId, LocalDateTime from) {
+        return covers(fieldId, ReadingColumns.toMillis(from));
+    }
+
+    /**
+     * @return the heap bytes currently allocated to ring buffers
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    public int getTrackedSensorCount() {
+        return sensors.size();
+    }
+
+    private boolean covers(String fieldId, long fromMillis) {
+        long windowStart = ReadingColumns.toMillis(LocalDateTime.now()) - windowHours * MILLIS_PER_HOUR;
+        return fromMillis >= startedAt
+                && fromMillis >= windowStart
+                && fromMillis > movedOutThrough.getOrDefault(fieldId, Long.MIN_VALUE)
+                && !incompleteFields.contains(fieldId);
+    }
+
+    /**
+     * Detaches the buffer of a sensor that moved out of its field, and frees its memory.
+     *
+     * @return the instant through which the sensor's readings are no longer held
+     */
+    private long retire(String sensorId, SensorRingBuffer buffer) {
+        String oldFieldId = buffer.fieldId();
+        long receivedThrough;
+        synchronized (buffer) {
+            receivedThrough = buffer.receivedThrough();
+            allocatedBytes.addAndGet(-buffer.capacity() * SensorRingBuffer.BYTES_PER_SAMPLE);
+        }
+        Set<String> fieldSensors = sensorsByField.get(oldFieldId);
+        if (fieldSensors != null) {
+            fieldSensors.remove(sensorId);
+        }
+        movedOutThrough.merge(oldFieldId, receivedThrough, Math::max);
+        logger.info("Sensor " + sensorId + " moved from field " + oldFieldId + "; restarting its hot window");
+        return receivedThrough;
+    }
+
+    private boolean reserve(int samples) {
+        long bytes = samples * SensorRingBuffer.BYTES_PER_SAMPLE;
+        long limit = maxMemoryMb * 1024 * 1024;
+        while (true) {
+            long current = allocatedBytes.get();
+            if (current + bytes > limit) {
+                return false;
+            }
+            if (allocatedBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorReading;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Column-oriented, read-only batch of readings sorted by timestamp.
+ *
+ * Each {@link Metric} is a primitive {@code double[]} column with a validity
+ * bitmap (bit {@code row & 63} of word {@code row >>> 6}) marking the rows
+ * where the metric was present, so missing values never need boxing or a
+ * sentinel. Timestamps are the readings' local date-times expressed as epoch
+ * milliseconds as if they were UTC, which keeps them consistent with how
+ * {@link LocalDateTime} values are stored and queried in MongoDB.
+ */
+public final class ReadingColumns {
+
+    private static final ReadingColumns EMPTY = new ReadingColumns(
+            new long[0], new double[Metric.count()][0], new long[Metric.count()][0], 0);
+
+    private final long[] timestamps;
+    private final double[][] values;
+    private final long[][] validity;
+    private final int size;
+
+    ReadingColumns(long[] timestamps, double[][] values, long[][] validity, int size) {
+        this.timestamps = timestamps;
+        this.values = values;
+        this.validity = validity;
+        this.size = size;
+    }
+
+    public static ReadingColumns empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Converts entity readings (e.g. a MongoDB query result) into columns.
+     * Readings without a timestamp are skipped.
+     */
+    public static ReadingColumns fromReadings(List<SensorReading> readings) {
+        List<SensorReading> sorted = new ArrayList<>(readings.size());
+        for (SensorReading reading : readings) {
+            if (reading.getTimestamp() != null) {
+                sorted.add(reading);
+            }
+        }
+        sorted.sort(Comparator.comparing(SensorReading::getTimestamp));
+
+        int size = sorted.size();
+        long[] timestamps = new long[size];
+        double[][] values = new double[Metric.count()][size];
+        long[][] validity = new long[Metric.count()][words(size)];
+
+        for (int row = 0; row < size; row++) {
+            SensorReading reading = sorted.get(row);
+            timestamps[row] = toMillis(reading.getTimestamp());
+            for (Metric metric : Metric.all()) {
+                Double value = metric.read(reading.getData());
+                if (value != null) {
+                    values[metric.ordinal()][row] = value;
+                    validity[metric.ordinal()][row >>> 6] |= 1L << (row & 63);
+                }
+            }
+        }
+        return new ReadingColumns(timestamps, values, validity, size);
+    }
+
+    /**
+     * Merges batches that are each sorted by timestamp into one sorted batch.
+     */
+    public static ReadingColumns merge(List<ReadingColumns> parts) {
+        int total = 0;
+        int nonEmpty = 0;
+        ReadingColumns last = EMPTY;
+        for (ReadingColumns part : parts) {
+            total += part.size;
+            if (part.size > 0) {
+                nonEmpty++;
+                last = part;
+            }
+        }
+        if (nonEmpty <= 1) {
+            return last;
+        }
+
+        long[] timestamps = new long[total];
+        double[][] values = new double[Metric.count()][total];
+        long[][] validity = new long[Metric.count()][words(total)];
+        int[] cursors = new int[parts.size()];
+
+        // a field has a handful of sensors, so a linear pick per row beats a heap
+        for (int row = 0; row < total; row++) {
+            int next = -1;
+            long nextTimestamp = Long.MAX_VALUE;
+            for (int p = 0; p < parts.size(); p++) {
+                ReadingColumns part = parts.get(p);
+                if (cursors[p] < part.size && part.timestamps[cursors[p]] < nextTimestamp) {
+                    next = p;
+                    nextTimestamp = part.timestamps[cursors[p]];
+                }
+            }
+            ReadingColumns source = parts.get(next);
+            int sourceRow = cursors[next]++;
+            timestamps[row] = nextTimestamp;
+            for (int m = 0; m < values.length; m++) {
+                if (source.isValid(m, sourceRow)) {
+                    values[m][row] = source.values[m][sourceRow];
+                    validity[m][row >>> 6] |= 1L << (row & 63);
+                }
+            }
+        }
+        return new ReadingColumns(timestamps, values, validity, total);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestamp(int row) {
+        return timestamps[row];
+    }
+
+    public LocalDateTime timestampAsDateTime(int row) {
+        return fromMillis(timestamps[row]);
+    }
+
+    public double value(Metric metric, int row) {
+        return values[metric.ordinal()][row];
+    }
+
+    public boolean isValid(Metric metric, int row) {
+        return isValid(metric.ordinal(), row);
+    }
+
+    /**
+     * The raw column; only rows below {@link #size()} with their validity bit set are meaningful.
+     * Callers must not modify it.
+     */
+    public double[] column(Metric metric) {
+        return values[metric.ordinal()];
+    }
+
+    /**
+     * The validity bitmap of a column. Callers must not modify it.
+     */
+    public long[] validity(Metric metric) {
+        return validity[metric.ordinal()];
+    }
+
+    /**
+     * @return the first row whose timestamp is at or after the given instant,
+     * or {@link #size()} if there is none
+     */
+    public int lowerBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    private boolean isValid(int metric, int row) {
+        return (validity[metric][row >>> 6] & (1L << (row & 63))) != 0;
+    }
+}
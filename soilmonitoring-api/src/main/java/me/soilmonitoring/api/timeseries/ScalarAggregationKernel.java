@@ -0,0 +1,59 @@
+package me.soilmonitoring.api.timeseries;
+
+/**
+ * Plain-loop kernel, used when the Vector API is not available. Runs of 64
+ * valid rows are processed without testing individual bits.
+ */
+final class ScalarAggregationKernel implements AggregationKernel {
+
+    @Override
+    public ColumnStats aggregate(double[] values, long[] validity, int from, int to) {
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        int row = from;
+        while (row < to) {
+            int wordEnd = Math.min(to, (row | 63) + 1);
+            long word = validity[row >>> 6];
+            if (word == -1L) {
+                count += wordEnd - row;
+                for (; row < wordEnd; row++) {
+                    double value = values[row];
+                    sum += value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            } else {
+                for (; row < wordEnd; row++) {
+                    if ((word & (1L << (row & 63))) != 0) {
+                        double value = values[row];
+                        sum += value;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                        count++;
+                    }
+                }
+            }
+        }
+        if (count == 0) {
+            return ColumnStats.EMPTY;
+        }
+
+        double mean = sum / count;
+        double squaredDeviations = 0;
+        for (row = from; row < to; row++) {
+            if ((validity[row >>> 6] & (1L << (row & 63))) != 0) {
+                double deviation = values[row] - mean;
+                squaredDeviations += deviation * deviation;
+            }
+        }
+        return new ColumnStats(count, sum, min, max, squaredDeviations);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,214 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+
+/**
+ * Recent samples of one sensor, kept as primitive ring-buffer columns in
+ * timestamp order.
+ *
+ * The buffer starts small and doubles as the sensor reports, up to a
+ * capacity granted by the {@link HotReadingStore} memory budget. Once it
+ * cannot grow, the oldest sample is overwritten. {@link #coveredFrom()}
+ * tells readers from which instant on the buffer holds every sample the
+ * sensor produced.
+ */
+final class SensorRingBuffer {
+
+    static final int INITIAL_CAPACITY = 64;
+
+    /** Heap bytes used per sample: the timestamp, one double per metric and its validity bit. */
+    static final long BYTES_PER_SAMPLE = Long.BYTES + (long) Metric.count() * Double.BYTES + Metric.count() / 8 + 1;
+
+    private final String fieldId;
+    private long[] timestamps;
+    private double[][] values;
+    private long[][] validity;
+    private int head;
+    private int size;
+    private long droppedThrough = Long.MIN_VALUE;
+
+    SensorRingBuffer(String fieldId) {
+        this(fieldId, Long.MIN_VALUE);
+    }
+
+    /**
+     * @param droppedThrough the instant through which samples of the sensor
+     *                       are known to be missing from this buffer
+     */
+    SensorRingBuffer(String fieldId, long droppedThrough) {
+        this.fieldId = fieldId;
+        this.droppedThrough = droppedThrough;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    String fieldId() {
+        return fieldId;
+    }
+
+    synchronized int capacity() {
+        return timestamps.length;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the instant from which on this buffer is complete
+     */
+    synchronized long coveredFrom() {
+        return droppedThrough == Long.MIN_VALUE ? Long.MIN_VALUE : droppedThrough + 1;
+    }
+
+    /**
+     * Replaces the arrays with larger ones; the caller has reserved the memory.
+     */
+    synchronized void grow(int newCapacity) {
+        if (newCapacity <= timestamps.length) {
+            return;
+        }
+        long[] oldTimestamps = timestamps;
+        double[][] oldValues = values;
+        long[][] oldValidity = validity;
+        int oldHead = head;
+        int oldCapacity = oldTimestamps.length;
+
+        allocate(newCapacity);
+        for (int i = 0; i < size; i++) {
+            int from = (oldHead + i) % oldCapacity;
+            timestamps[i] = oldTimestamps[from];
+            for (int m = 0; m < values.length; m++) {
+                values[m][i] = oldValues[m][from];
+                if ((oldValidity[m][from >>> 6] & (1L << (from & 63))) != 0) {
+                    validity[m][i >>> 6] |= 1L << (i & 63);
+                }
+            }
+        }
+        head = 0;
+    }
+
+    synchronized boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one when full. Samples that
+     * arrive out of order are moved into place.
+     */
+    synchronized void append(long timestamp, SensorData data) {
+        if (size == timestamps.length) {
+            dropOldest();
+        }
+        int row = size++;
+        while (row > 0 && timestamps[physical(row - 1)] > timestamp) {
+            copyRow(physical(row - 1), physical(row));
+            row--;
+        }
+        int slot = physical(row);
+        timestamps[slot] = timestamp;
+        for (Metric metric : Metric.all()) {
+            Double value = metric.read(data);
+            int m = metric.ordinal();
+            if (value != null) {
+                values[m][slot] = value;
+                validity[m][slot >>> 6] |= 1L << (slot & 63);
+            } else {
+                values[m][slot] = 0;
+                validity[m][slot >>> 6] &= ~(1L << (slot & 63));
+            }
+        }
+    }
+
+    /**
+     * Drops every sample older than the cutoff.
+     */
+    synchronized void expireBefore(long cutoff) {
+        while (size > 0 && timestamps[head] < cutoff) {
+            dropOldest();
+        }
+    }
+
+    synchronized long newestTimestamp() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[physical(size - 1)];
+    }
+
+    /**
+     * @return the newest instant this buffer received a sample for, dropped or not
+     */
+    synchronized long receivedThrough() {
+        return Math.max(droppedThrough, newestTimestamp());
+    }
+
+    /**
+     * Copies the samples with {@code from <= timestamp <= to} into new columns.
+     */
+    synchronized ReadingColumns slice(long from, long to) {
+        int first = lowerBound(from);
+        int end = to == Long.MAX_VALUE ? size : lowerBound(to + 1);
+
+        int count = end - first;
+        if (count == 0) {
+            return ReadingColumns.empty();
+        }
+        long[] outTimestamps = new long[count];
+        double[][] outValues = new double[values.length][count];
+        long[][] outValidity = new long[values.length][ReadingColumns.words(count)];
+        for (int i = 0; i < count; i++) {
+            int slot = physical(first + i);
+            outTimestamps[i] = timestamps[slot];
+            for (int m = 0; m < values.length; m++) {
+                if ((validity[m][slot >>> 6] & (1L << (slot & 63))) != 0) {
+                    outValues[m][i] = values[m][slot];
+                    outValidity[m][i >>> 6] |= 1L << (i & 63);
+                }
+            }
+        }
+        return new ReadingColumns(outTimestamps, outValues, outValidity, count);
+    }
+
+    private void dropOldest() {
+        droppedThrough = Math.max(droppedThrough, timestamps[head]);
+        head = (head + 1) % timestamps.length;
+        size--;
+    }
+
+    /**
+     * @return the first logical row whose timestamp is at or after the given instant
+     */
+    private int lowerBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[physical(mid)] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int row) {
+        return (head + row) % timestamps.length;
+    }
+
+    private void copyRow(int from, int to) {
+        timestamps[to] = timestamps[from];
+        for (int m = 0; m < values.length; m++) {
+            values[m][to] = values[m][from];
+            if ((validity[m][from >>> 6] & (1L << (from & 63))) != 0) {
+                validity[m][to >>> 6] |= 1L << (to & 63);
+            } else {
+                validity[m][to >>> 6] &= ~(1L << (to & 63));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        timestamps = new long[capacity];
+        values = new double[Metric.count()][capacity];
+        validity = new long[Metric.count()][ReadingColumns.words(capacity)];
+    }
+}
@@ -0,0 +1,79 @@
+package me.soilmonitoring.api.timeseries;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fixed-width time buckets over {@link ReadingColumns}.
+ *
+ * Buckets are aligned on multiples of their width since the epoch, so an
+ * hourly bucket starts on the hour and a daily one at midnight, whatever
+ * the start of the requested range.
+ */
+public final class TimeBuckets {
+
+    private static final Pattern SHORT_WIDTH = Pattern.compile("(\\d+)([smhd])");
+
+    /**
+     * Receives one non-empty bucket: its start and its rows {@code [first, end)}.
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(long start, int first, int end);
+    }
+
+    private TimeBuckets() {
+    }
+
+    /**
+     * Parses a bucket width, either short ("30s", "15m", "1h", "1d") or as an
+     * ISO-8601 duration ("PT15M").
+     *
+     * @throws IllegalArgumentException if the width is malformed or not positive
+     */
+    public static Duration parseWidth(String width) {
+        Duration duration;
+        Matcher matcher = SHORT_WIDTH.matcher(width);
+        if (matcher.matches()) {
+            long amount = Long.parseLong(matcher.group(1));
+            duration = switch (matcher.group(2)) {
+                case "s" -> Duration.ofSeconds(amount);
+                case "m" -> Duration.ofMinutes(amount);
+                case "h" -> Duration.ofHours(amount);
+                default -> Duration.ofDays(amount);
+            };
+        } else {
+            try {
+                duration = Duration.parse(width);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid bucket: " + width);
+            }
+        }
+        if (duration.toMillis() <= 0) {
+            throw new IllegalArgumentException("Invalid bucket: " + width);
+        }
+        return duration;
+    }
+
+    /**
+     * @return the number of buckets of the given width that {@code [fromMillis, toMillis]} touches
+     */
+    public static long count(long fromMillis, long toMillis, long widthMillis) {
+        return Math.floorDiv(toMillis, widthMillis) - Math.floorDiv(fromMillis, widthMillis) + 1;
+    }
+
+    /**
+     * Calls the consumer for each non-empty bucket of the batch, in time order.
+     */
+    public static void forEach(ReadingColumns readings, long widthMillis, BucketConsumer consumer) {
+        int first = 0;
+        while (first < readings.size()) {
+            long start = Math.floorDiv(readings.timestamp(first), widthMillis) * widthMillis;
+            int end = readings.lowerBound(start + widthMillis);
+            consumer.accept(start, first, end);
+            first = end;
+        }
+    }
+}
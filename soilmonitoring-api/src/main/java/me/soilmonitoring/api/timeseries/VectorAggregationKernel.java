@@ -0,0 +1,108 @@
+package me.soilmonitoring.api.timeseries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the incubator Vector API.
+ *
+ * Lanes are loaded at multiples of the species length, which always divides
+ * 64, so the validity bits of one vector sit in a single bitmap word and
+ * become the lane mask directly. Rows before the first aligned lane and
+ * after the last full vector are handled by scalar loops.
+ *
+ * Only instantiated by {@link ColumnAggregates} after checking that the
+ * {@code jdk.incubator.vector} module is present.
+ */
+final class VectorAggregationKernel implements AggregationKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public ColumnStats aggregate(double[] values, long[] validity, int from, int to) {
+        int alignedFrom = Math.min(to, (from + LANES - 1) / LANES * LANES);
+        int alignedTo = Math.max(alignedFrom, to / LANES * LANES);
+
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        DoubleVector mins = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector maxs = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        for (int row = alignedFrom; row < alignedTo; row += LANES) {
+            long bits = validity[row >>> 6] >>> (row & 63);
+            VectorMask<Double> mask = VectorMask.fromLong(SPECIES, bits);
+            if (!mask.anyTrue()) {
+                continue;
+            }
+            DoubleVector vector = DoubleVector.fromArray(SPECIES, values, row);
+            sums = sums.add(vector, mask);
+            mins = mins.lanewise(VectorOperators.MIN, vector, mask);
+            maxs = maxs.lanewise(VectorOperators.MAX, vector, mask);
+            count += mask.trueCount();
+        }
+        sum += sums.reduceLanes(VectorOperators.ADD);
+        min = Math.min(min, mins.reduceLanes(VectorOperators.MIN));
+        max = Math.max(max, maxs.reduceLanes(VectorOperators.MAX));
+
+        for (int row = from; row < alignedFrom; row++) {
+            if (isValid(validity, row)) {
+                double value = values[row];
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                count++;
+            }
+        }
+        for (int row = alignedTo; row < to; row++) {
+            if (isValid(validity, row)) {
+                double value = values[row];
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                count++;
+            }
+        }
+        if (count == 0) {
+            return ColumnStats.EMPTY;
+        }
+
+        double mean = sum / count;
+        DoubleVector means = DoubleVector.broadcast(SPECIES, mean);
+        DoubleVector squares = DoubleVector.zero(SPECIES);
+        for (int row = alignedFrom; row < alignedTo; row += LANES) {
+            long bits = validity[row >>> 6] >>> (row & 63);
+            VectorMask<Double> mask = VectorMask.fromLong(SPECIES, bits);
+            DoubleVector deviation = DoubleVector.fromArray(SPECIES, values, row).sub(means);
+            squares = squares.add(deviation.mul(deviation), mask);
+        }
+        double squaredDeviations = squares.reduceLanes(VectorOperators.ADD);
+        for (int row = from; row < alignedFrom; row++) {
+            if (isValid(validity, row)) {
+                double deviation = values[row] - mean;
+                squaredDeviations += deviation * deviation;
+            }
+        }
+        for (int row = alignedTo; row < to; row++) {
+            if (isValid(validity, row)) {
+                double deviation = values[row] - mean;
+                squaredDeviations += deviation * deviation;
+            }
+        }
+        return new ColumnStats(count, sum, min, max, squaredDeviations);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + LANES + "x" + Double.SIZE;
+    }
+
+    private static boolean isValid(long[] validity, int row) {
+        return (validity[row >>> 6] & (1L << (row & 63))) != 0;
+    }
+}
@@ -0,0 +1,42 @@
+package me.soilmonitoring.api.websocket;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message serialized once and shared by all the clients it is sent to.
+ *
+ * Text clients get the same string. Binary clients get views of one UTF-8
+ * buffer, encoded on the first binary send: each {@link #binary()} has its
+ * own position over the same read-only bytes, so no client copies them.
+ */
+public final class OutboundMessage {
+
+    private final String text;
+    private volatile ByteBuffer utf8;
+
+    private OutboundMessage(String text) {
+        this.text = text;
+    }
+
+    public static OutboundMessage of(String text) {
+        return new OutboundMessage(text);
+    }
+
+    public String text() {
+        return text;
+    }
+
+    /**
+     * @return a view of the UTF-8 bytes, for one send
+     */
+    public ByteBuffer binary() {
+        ByteBuffer bytes = utf8;
+        if (bytes == null) {
+            // Racing encoders produce equal buffers, either one is kept
+            bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            utf8 = bytes;
+        }
+        return bytes.duplicate();
+    }
+}
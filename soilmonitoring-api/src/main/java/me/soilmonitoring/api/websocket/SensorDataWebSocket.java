@@ -1,89 +1,145 @@
 package me.soilmonitoring.api.websocket;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
+import org.eclipse.microprofile.config.ConfigProvider;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
+/**
+ * Streams readings and alerts to the clients subscribed to them.
+ *
+ * A client subscribes by field, to the readings and alerts of that field,
+ * and by user, to the alerts of the fields that user owns:
+ * {@code {"action":"subscribe","fieldId":"..."}} or
+ * {@code {"action":"subscribe","userId":"..."}}, and {@code "unsubscribe"}
+ * alike; the field {@code "*"} subscribes to every field, for dashboards.
+ * Messages are routed through a {@link SubscriptionIndex}, so a message
+ * costs one send per subscriber whatever the number of clients.
+ *
+ * Publishing never blocks: each client has a bounded {@link SessionOutbox}
+ * drained with asynchronous sends, where newer readings of a sensor replace
+ * the queued one and a full queue drops its oldest message. A client whose
+ * queue stays full for {@code websocket.slow.evict.seconds} is disconnected.
+ *
+ * A message is serialized once into an {@link OutboundMessage} shared by
+ * all its recipients. A client connecting with {@code ?frames=binary}
+ * receives it as binary frames of UTF-8 JSON, cut from one buffer encoded
+ * once for all such clients; text clients share the same string.
+ */
 @ServerEndpoint("/ws/sensor-data")
 @ApplicationScoped
 public class SensorDataWebSocket {
 
     private static final Logger logger = Logger.getLogger(SensorDataWebSocket.class.getName());
 
-    // Thread-safe set to track all connected clients
-    private static final Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
+    private static final String FIELD = "field:";
+    private static final String USER = "user:";
+    private static final String ALL_FIELDS = FIELD + "*";
+
+    // The outbox of every connected client, by session ID
+    private static final ConcurrentHashMap<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
+
+    private static final SubscriptionIndex<SessionOutbox> subscriptions = new SubscriptionIndex<>();
+
+    private static final OutboundMessage WELCOME =
+            OutboundMessage.of("{\"type\":\"CONNECTION\",\"message\":\"Connected to soil monitoring system\"}");
 
     @OnOpen
     public void onOpen(Session session) {
-        sessions.add(session);
+        session.getAsyncRemote().setSendTimeout(1000L * setting("websocket.send.timeout.seconds", 10));
+        SessionOutbox outbox = new SessionOutbox(transport(session, wantsBinary(session)),
+                setting("websocket.queue.capacity", 256), 1000L * setting("websocket.slow.evict.seconds", 10),
+                System::currentTimeMillis);
+        sessions.put(session.getId(), outbox);
         logger.info("✅ WebSocket client connected: " + session.getId() +
                 " | Total clients: " + sessions.size());
 
         // Send welcome message
-        try {
-            session.getBasicRemote().sendText(
-                    "{\"type\":\"CONNECTION\",\"message\":\"Connected to soil monitoring system\"}"
-            );
-        } catch (IOException e) {
-            logger.warning("Failed to send welcome message: " + e.getMessage());
-        }
+        outbox.offer(WELCOME, null);
     }
 
     @OnClose
     public void onClose(Session session, CloseReason reason) {
-        sessions.remove(session);
+        remove(session);
         logger.info("❌ WebSocket client disconnected: " + session.getId() +
                 " | Reason: " + reason.getReasonPhrase() +
                 " | Remaining clients: " + sessions.size());
     }
 
+    /**
+     * Subscribes or unsubscribes the client to a field or a user's alerts,
+     * and answers {@code SUBSCRIBED}, {@code UNSUBSCRIBED} or {@code ERROR}.
+     */
     @OnMessage
     public void onMessage(String message, Session session) {
-        logger.info("📨 Received message from client " + session.getId() + ": " + message);
-        // Handle client messages if needed (e.g., subscribe to specific field)
+        String reply;
+        try {
+            reply = handle(message, session);
+        } catch (JsonException | ClassCastException | IllegalArgumentException e) {
+            reply = Json.createObjectBuilder()
+                    .add("type", "ERROR")
+                    .add("message", e instanceof IllegalArgumentException ? e.getMessage() : "Malformed message")
+                    .build().toString();
+        }
+        SessionOutbox outbox = sessions.get(session.getId());
+        if (outbox != null) {
+            outbox.offer(OutboundMessage.of(reply), null);
+        }
     }
 
     @OnError
     public void onError(Session session, Throwable throwable) {
         logger.severe("❌ WebSocket error for session " + session.getId() +
                 ": " + throwable.getMessage());
-        sessions.remove(session);
+        remove(session);
     }
 
     /**
-     * Broadcast message to all connected WebSocket clients
+     * Sends a message about a field to the field's subscribers.
+     *
+     * @param conflationKey replaces a queued message with the same key, or null
+     * @return the number of clients the message was queued for
      */
-    public static void broadcast(String message) {
-        synchronized (sessions) {
-            int successCount = 0;
-            int failCount = 0;
-
-            for (Session session : sessions) {
-                if (session.isOpen()) {
-                    try {
-                        session.getBasicRemote().sendText(message);
-                        successCount++;
-                    } catch (IOException e) {
-                        logger.warning("Failed to send to session " + session.getId() +
-                                ": " + e.getMessage());
-                        failCount++;
-                    }
-                } else {
-                    failCount++;
-                }
-            }
+    public static int publishToField(String fieldId, OutboundMessage message, String conflationKey) {
+        if (fieldId == null) {
+            return 0;
+        }
+        return send(subscriptions.subscribers(List.of(FIELD + fieldId, ALL_FIELDS)), message, conflationKey);
+    }
 
-            if (successCount > 0) {
-                logger.info("📡 Broadcast to " + successCount + " clients" +
-                        (failCount > 0 ? " (" + failCount + " failed)" : ""));
+    /**
+     * Sends a message about alerts to the subscribers of their fields and of
+     * their owner, once to a client subscribed to several of them.
+     *
+     * @return the number of clients the message was queued for
+     */
+    public static int publishAlert(Collection<String> fieldIds, String userId, OutboundMessage message) {
+        List<String> topics = new ArrayList<>(fieldIds.size() + 2);
+        topics.add(ALL_FIELDS);
+        for (String fieldId : fieldIds) {
+            if (fieldId != null) {
+                topics.add(FIELD + fieldId);
             }
         }
+        if (userId != null) {
+            topics.add(USER + userId);
+        }
+        return send(subscriptions.subscribers(topics), message, null);
     }
 
     /**
@@ -92,4 +148,95 @@ public class SensorDataWebSocket {
     public static int getConnectedClientsCount() {
         return sessions.size();
     }
-}
\ No newline at end of file
+
+    private static String handle(String message, Session session) {
+        JsonObject request;
+        try (JsonReader reader = Json.createReader(new StringReader(message))) {
+            request = reader.readObject();
+        }
+        String action = request.getString("action", null);
+        String fieldId = request.getString("fieldId", null);
+        String userId = request.getString("userId", null);
+        boolean subscribe = "subscribe".equals(action);
+        if (!subscribe && !"unsubscribe".equals(action)) {
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+        if (fieldId == null && userId == null) {
+            throw new IllegalArgumentException("fieldId or userId is required");
+        }
+
+        JsonObjectBuilder reply = Json.createObjectBuilder().add("type", subscribe ? "SUBSCRIBED" : "UNSUBSCRIBED");
+        if (fieldId != null) {
+            apply(session, FIELD + fieldId, subscribe);
+            reply.add("fieldId", fieldId);
+        }
+        if (userId != null) {
+            apply(session, USER + userId, subscribe);
+            reply.add("userId", userId);
+        }
+        logger.info("📨 Session " + session.getId() + " " + action + "d to " + (fieldId != null ? fieldId : userId));
+        return reply.build().toString();
+    }
+
+    private static void apply(Session session, String topic, boolean subscribe) {
+        SessionOutbox outbox = sessions.get(session.getId());
+        if (outbox == null) {
+            return;
+        } else if (subscribe) {
+            subscriptions.subscribe(outbox, topic);
+        } else {
+            subscriptions.unsubscribe(outbox, topic);
+        }
+    }
+
+    private static void remove(Session session) {
+        SessionOutbox outbox = sessions.remove(session.getId());
+        if (outbox != null) {
+            subscriptions.removeAll(outbox);
+            outbox.close();
+        }
+    }
+
+    private static int send(Set<SessionOutbox> targets, OutboundMessage message, String conflationKey) {
+        int queued = 0;
+        for (SessionOutbox outbox : targets) {
+            if (outbox.offer(message, conflationKey)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    private static boolean wantsBinary(Session session) {
+        List<String> frames = session.getRequestParameterMap().get("frames");
+        return frames != null && frames.contains("binary");
+    }
+
+    private static SessionOutbox.Transport transport(Session session, boolean binary) {
+        return new SessionOutbox.Transport() {
+            @Override
+            public void send(OutboundMessage message, Consumer<Throwable> done) {
+                SendHandler handler = result -> done.accept(result.isOK() ? null : result.getException());
+                if (binary) {
+                    session.getAsyncRemote().sendBinary(message.binary(), handler);
+                } else {
+                    session.getAsyncRemote().sendText(message.text(), handler);
+                }
+            }
+
+            @Override
+            public void close(String reason) {
+                logger.warning("Disconnecting WebSocket client " + session.getId() + ": " + reason);
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+                } catch (IOException e) {
+                    logger.warning("Failed to close session " + session.getId() + ": " + e.getMessage());
+                }
+            }
+        };
+    }
+
+    private static int setting(String name, int defaultValue) {
+        return ConfigProvider.getConfig().getOptionalValue(name, Integer.class).orElse(defaultValue);
+    }
+}
@@ -0,0 +1,181 @@
+package me.soilmonitoring.api.websocket;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * The outgoing messages of one client, sent one at a time with asynchronous
+ * sends so a publisher never waits for a client.
+ *
+ * The queue is bounded: a message with a conflation key replaces the queued
+ * message with the same key (a newer reading of the same sensor), and a full
+ * queue drops its oldest message. A client whose queue stays full for
+ * {@code evictAfterMillis}, or whose send fails, is disconnected.
+ */
+final class SessionOutbox {
+
+    /**
+     * The connection to the client.
+     */
+    interface Transport {
+
+        /**
+         * Starts sending a message; {@code done} is called with null once
+         * sent, or with the failure.
+         */
+        void send(OutboundMessage message, Consumer<Throwable> done);
+
+        void close(String reason);
+    }
+
+    private static final class Frame {
+        private final String key;
+        private OutboundMessage message;
+
+        private Frame(String key, OutboundMessage message) {
+            this.key = key;
+            this.message = message;
+        }
+    }
+
+    private final Transport transport;
+    private final int capacity;
+    private final long evictAfterMillis;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+    private final Map<String, Frame> byKey = new HashMap<>();
+    private boolean sending;
+    private boolean closed;
+    private long saturatedSince = -1;
+    private long dropped;
+    private long conflated;
+
+    SessionOutbox(Transport transport, int capacity, long evictAfterMillis, LongSupplier clock) {
+        this.transport = transport;
+        this.capacity = Math.max(1, capacity);
+        this.evictAfterMillis = evictAfterMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues a message, and starts sending it if nothing is being sent.
+     *
+     * @param message the message
+     * @param key     replaces the queued message with this key, or null
+     * @return false if the client is disconnected, or was for being too slow
+     */
+    boolean offer(OutboundMessage message, String key) {
+        Frame next = null;
+        boolean evict = false;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            Frame pending = key != null ? byKey.get(key) : null;
+            if (pending != null) {
+                pending.message = message;
+                conflated++;
+                return true;
+            }
+            if (queue.size() >= capacity) {
+                unmap(queue.poll());
+                dropped++;
+                long now = clock.getAsLong();
+                if (saturatedSince < 0) {
+                    saturatedSince = now;
+                } else if (now - saturatedSince >= evictAfterMillis) {
+                    evict = true;
+                    closeQuietly();
+                }
+            }
+            if (!evict) {
+                Frame frame = new Frame(key, message);
+                queue.add(frame);
+                if (key != null) {
+                    byKey.put(key, frame);
+                }
+                if (!sending) {
+                    sending = true;
+                    next = unmap(queue.poll());
+                }
+            }
+        }
+        if (evict) {
+            transport.close("Too slow to receive messages");
+            return false;
+        }
+        if (next != null) {
+            dispatch(next);
+        }
+        return true;
+    }
+
+    /**
+     * Stops sending; the queued messages are discarded.
+     */
+    synchronized void close() {
+        closeQuietly();
+    }
+
+    synchronized int queued() {
+        return queue.size();
+    }
+
+    synchronized long dropped() {
+        return dropped;
+    }
+
+    synchronized long conflated() {
+        return conflated;
+    }
+
+    private void dispatch(Frame frame) {
+        try {
+            transport.send(frame.message, this::onSent);
+        } catch (RuntimeException e) {
+            onSent(e); // the session closed meanwhile
+        }
+    }
+
+    private void onSent(Throwable failure) {
+        Frame next;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (failure != null) {
+                closeQuietly();
+                next = null;
+            } else {
+                next = unmap(queue.poll());
+                sending = next != null;
+                if (queue.size() < capacity / 2) {
+                    saturatedSince = -1;
+                }
+            }
+        }
+        if (failure != null) {
+            transport.close("Send failed: " + failure.getMessage());
+        } else if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    private Frame unmap(Frame frame) {
+        if (frame != null && frame.key != null) {
+            byKey.remove(frame.key);
+        }
+        return frame;
+    }
+
+    private void closeQuietly() {
+        closed = true;
+        queue.clear();
+        byKey.clear();
+    }
+}
@@ -0,0 +1,106 @@
+package me.soilmonitoring.api.websocket;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index from topics to the sessions subscribed to them, and back, so a
+ * message is routed to its subscribers without going through the other
+ * sessions.
+ *
+ * Every change of a topic's set runs in {@link ConcurrentHashMap#compute},
+ * so a set emptied by an unsubscription is removed without losing a
+ * concurrent subscription; lookups take no lock and see the sets as they are.
+ *
+ * @param <S> the session type
+ */
+final class SubscriptionIndex<S> {
+
+    private final ConcurrentHashMap<String, Set<S>> subscribers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<S, Set<String>> topics = new ConcurrentHashMap<>();
+
+    /**
+     * @return false if the session was already subscribed
+     */
+    boolean subscribe(S session, String topic) {
+        boolean[] added = new boolean[1];
+        subscribers.compute(topic, (key, sessions) -> {
+            Set<S> set = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            added[0] = set.add(session);
+            return set;
+        });
+        topics.computeIfAbsent(session, key -> ConcurrentHashMap.newKeySet()).add(topic);
+        return added[0];
+    }
+
+    /**
+     * @return false if the session was not subscribed
+     */
+    boolean unsubscribe(S session, String topic) {
+        Set<String> own = topics.get(session);
+        if (own != null) {
+            own.remove(topic);
+        }
+        return remove(session, topic);
+    }
+
+    /**
+     * Unsubscribes a session from all its topics.
+     */
+    void removeAll(S session) {
+        Set<String> own = topics.remove(session);
+        if (own != null) {
+            for (String topic : own) {
+                remove(session, topic);
+            }
+        }
+    }
+
+    /**
+     * @return the sessions subscribed to the topic; a live view, not to be modified
+     */
+    Set<S> subscribers(String topic) {
+        Set<S> sessions = subscribers.get(topic);
+        return sessions != null ? sessions : Set.of();
+    }
+
+    /**
+     * @return the sessions subscribed to any of the topics, each once
+     */
+    Set<S> subscribers(Collection<String> topics) {
+        if (topics.size() == 1) {
+            return subscribers(topics.iterator().next());
+        }
+        Set<S> sessions = new HashSet<>();
+        for (String topic : topics) {
+            sessions.addAll(subscribers(topic));
+        }
+        return sessions;
+    }
+
+    /**
+     * @return the topics of the session
+     */
+    Set<String> topicsOf(S session) {
+        Set<String> own = topics.get(session);
+        return own != null ? Set.copyOf(own) : Set.of();
+    }
+
+    /**
+     * @return the number of topics with subscribers
+     */
+    int topicCount() {
+        return subscribers.size();
+    }
+
+    private boolean remove(S session, String topic) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(topic, (key, sessions) -> {
+            removed[0] = sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        return removed[0];
+    }
+}
@@ -0,0 +1,167 @@
+package me.soilmonitoring.api.alerts;
+
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.entities.Metric;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AlertRuleTable Tests")
+class AlertRuleTableTest {
+
+    private static final int TEMPERATURE = Metric.TEMPERATURE.ordinal();
+
+    private final AlertRuleTable builtIn = AlertRuleTable.compile(AlertRuleBook.builtIn());
+
+    private static AlertRule rule(String scope, String scopeValue, String metric, String operator, double threshold,
+                                  String severity) {
+        AlertRule rule = new AlertRule(metric, operator, threshold, metric, severity, metric + " {value}", 1);
+        rule.setScope(scope);
+        rule.setScopeValue(scopeValue);
+        return rule;
+    }
+
+    private static Field field(String id, String crop, String soilType) {
+        Field field = new Field();
+        field.setId(id);
+        field.setCurrentCrop(crop);
+        field.setSoilType(soilType);
+        return field;
+    }
+
+    @Test
+    @DisplayName("Should fire the first matching temperature rule like the former thresholds")
+    void testBuiltInTemperature() {
+        int critical = builtIn.match(TEMPERATURE, 10.0);
+        assertEquals("high", builtIn.getRule(critical).getSeverity());
+        assertEquals("Temperature critically low: 10.0°C", builtIn.formatMessage(critical, 10.0));
+
+        int approaching = builtIn.match(TEMPERATURE, 33.0);
+        assertEquals("medium", builtIn.getRule(approaching).getSeverity());
+        assertEquals("Temperature approaching limits: 33.0°C", builtIn.formatMessage(approaching, 33.0));
+
+        assertEquals(-1, builtIn.match(TEMPERATURE, 25.0));
+        assertEquals(-1, builtIn.match(TEMPERATURE, 18.0));
+    }
+
+    @Test
+    @DisplayName("Should format pH with two decimals and skip metrics without rules")
+    void testBuiltInPhAndRainfall() {
+        int ph = builtIn.match(Metric.PH.ordinal(), 5.5);
+        assertEquals("pH out of optimal range: 5.50", builtIn.formatMessage(ph, 5.5));
+        assertFalse(builtIn.hasRules(Metric.RAINFALL.ordinal()));
+    }
+
+    @Test
+    @DisplayName("Should leave disabled rules out and reject invalid ones")
+    void testCompile() {
+        AlertRule disabled = rule(AlertRule.DEFAULT, null, "humidity", AlertRule.BELOW, 40, "low");
+        disabled.setEnabled(false);
+        AlertRuleTable table = AlertRuleTable.compile(List.of(disabled));
+        assertEquals(0, table.size());
+        assertFalse(table.hasRules(Metric.HUMIDITY.ordinal()));
+
+        AlertRule invalid = rule(AlertRule.DEFAULT, null, "humidity", "between", 40, "low");
+        assertThrows(IllegalArgumentException.class, () -> AlertRuleTable.compile(List.of(invalid)));
+    }
+
+    @Test
+    @DisplayName("Should let a crop replace the default rules of one metric only")
+    void testCropOverride() {
+        AlertRuleBook book = new AlertRuleBook(List.of(
+                rule(AlertRule.CROP, "Rice", "soilMoisture", AlertRule.BELOW, 60, "high")));
+
+        AlertRuleTable rice = AlertRuleTable.compile(book.resolve(field("f1", "rice", "clay")));
+        AlertRuleTable wheat = AlertRuleTable.compile(book.resolve(field("f2", "wheat", "clay")));
+
+        int moisture = Metric.SOIL_MOISTURE.ordinal();
+        assertTrue(rice.match(moisture, 50.0) >= 0);
+        assertEquals(-1, rice.match(moisture, 70.0));
+        assertEquals(-1, wheat.match(moisture, 50.0));
+        assertTrue(wheat.match(moisture, 70.0) >= 0);
+        assertTrue(rice.match(TEMPERATURE, 10.0) >= 0);
+    }
+
+    @Test
+    @DisplayName("Should prefer field rules over crop and soil rules, and silence a metric with a disabled rule")
+    void testFieldOverride() {
+        AlertRule silenced = rule(AlertRule.FIELD, "f1", "temperature", AlertRule.BELOW, 0, "low");
+        silenced.setEnabled(false);
+        AlertRuleBook book = new AlertRuleBook(List.of(
+                rule(AlertRule.SOIL, "sandy", "nitrogen", AlertRule.BELOW, 50, "low"),
+                rule(AlertRule.CROP, "corn", "nitrogen", AlertRule.BELOW, 40, "medium"),
+                rule(AlertRule.FIELD, "f1", "nitrogen", AlertRule.BELOW, 10, "high"),
+                silenced));
+
+        AlertRuleTable f1 = AlertRuleTable.compile(book.resolve(field("f1", "corn", "sandy")));
+        AlertRuleTable f2 = AlertRuleTable.compile(book.resolve(field("f2", "corn", "sandy")));
+        AlertRuleTable f3 = AlertRuleTable.compile(book.resolve(field("f3", null, "sandy")));
+
+        int nitrogen = Metric.NITROGEN.ordinal();
+        assertEquals("high", f1.getRule(f1.match(nitrogen, 5.0)).getSeverity());
+        assertEquals(-1, f1.match(nitrogen, 20.0));
+        assertEquals("medium", f2.getRule(f2.match(nitrogen, 20.0)).getSeverity());
+        assertEquals("low", f3.getRule(f3.match(nitrogen, 45.0)).getSeverity());
+        assertFalse(f1.hasRules(TEMPERATURE));
+        assertTrue(f2.hasRules(TEMPERATURE));
+    }
+
+    @Test
+    @DisplayName("Should change the fingerprint when a rule changes")
+    void testFingerprint() {
+        AlertRule rule = rule(AlertRule.DEFAULT, null, "humidity", AlertRule.BELOW, 40, "low");
+        rule.setId("r1");
+        String before = new AlertRuleBook(List.of(rule)).getFingerprint();
+        rule.setVersion(0L);
+
+        assertEquals(before, new AlertRuleBook(List.of()).getFingerprint() + "r1:0,");
+        assertNotEquals(before, new AlertRuleBook(List.of(rule)).getFingerprint());
+    }
+
+    @Test
+    @DisplayName("Should resolve windowed rules without replacing the single-reading rules of their metric")
+    void testWindowedRules() {
+        AlertRule dry = rule(AlertRule.FIELD, "f1", "soilMoisture", AlertRule.BELOW, 20, "high");
+        dry.setAlertType("sustained_dryness");
+        dry.setWindow("30m");
+        dry.setAggregate("max");
+        AlertRuleBook book = new AlertRuleBook(List.of(dry));
+
+        AlertRuleTable table = AlertRuleTable.compile(book.resolve(field("f1", null, null)));
+
+        int moisture = Metric.SOIL_MOISTURE.ordinal();
+        assertEquals(builtIn.size() + 1, table.size());
+        assertEquals(builtIn.size(), table.firstWindowed());
+        assertEquals("moisture", table.getRule(table.match(moisture, 10.0)).getAlertType());
+        int windowed = table.firstWindowed();
+        assertSame(dry, table.getRule(windowed));
+        assertEquals(moisture, table.getMetric(windowed));
+        assertTrue(table.matches(windowed, 19.0));
+        assertEquals(windowed, table.indexOf(moisture, "sustained_dryness"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed windows")
+    void testWindowValidation() {
+        AlertRule rule = rule(AlertRule.DEFAULT, null, "pH", AlertRule.ABOVE, 0.5, "medium");
+        rule.setWindow("3d");
+        rule.setAggregate("drift");
+        rule.setWindowType(AlertRule.TUMBLING);
+        AlertRuleTable.validate(rule);
+
+        rule.setWindow("10s");
+        assertThrows(IllegalArgumentException.class, () -> AlertRuleTable.validate(rule));
+        rule.setWindow("soon");
+        assertThrows(IllegalArgumentException.class, () -> AlertRuleTable.validate(rule));
+        rule.setWindow("1h");
+        rule.setAggregate("median");
+        assertThrows(IllegalArgumentException.class, () -> AlertRuleTable.validate(rule));
+        rule.setWindow(null);
+        rule.setAggregate(null);
+        assertThrows(IllegalArgumentException.class, () -> AlertRuleTable.validate(rule));
+    }
+}
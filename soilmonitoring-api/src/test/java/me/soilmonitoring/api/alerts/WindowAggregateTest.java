@@ -0,0 +1,127 @@
+package me.soilmonitoring.api.alerts;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WindowAggregate Tests")
+class WindowAggregateTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long START = 1_000 * HOUR;
+
+    @Test
+    @DisplayName("Should produce a sliding value only once the window is filled")
+    void testSlidingCoverage() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.MAX, 30 * MINUTE, false);
+
+        assertFalse(window.add(START, 12.0));
+        assertFalse(window.add(START + 10 * MINUTE, 15.0));
+        assertFalse(window.add(START + 20 * MINUTE, 11.0));
+        assertTrue(window.add(START + 30 * MINUTE, 14.0));
+        assertEquals(15.0, window.getValue());
+    }
+
+    @Test
+    @DisplayName("Should keep the reading that started the window in the value")
+    void testSlidingKeepsOldestReading() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.MAX, 30 * MINUTE, false);
+
+        assertFalse(window.add(START, 18.0));
+        assertFalse(window.add(START + 10 * MINUTE, 15.0));
+        assertFalse(window.add(START + 20 * MINUTE, 15.0));
+        assertTrue(window.add(START + 30 * MINUTE, 15.0));
+        assertEquals(18.0, window.getValue());
+
+        assertTrue(window.add(START + 40 * MINUTE, 15.0));
+        assertEquals(15.0, window.getValue());
+    }
+
+    @Test
+    @DisplayName("Should wait for a reading a whole window old after the oldest one left")
+    void testSlidingCoverageFromOldestReading() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.MAX, 30 * MINUTE, false);
+
+        assertFalse(window.add(START, 10.0));
+        assertFalse(window.add(START + 25 * MINUTE, 11.0));
+        assertFalse(window.add(START + 40 * MINUTE, 12.0));
+        assertTrue(window.add(START + 55 * MINUTE, 13.0));
+        assertEquals(13.0, window.getValue());
+    }
+
+    @Test
+    @DisplayName("Should slide past old readings")
+    void testSlidingEviction() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.AVG, 30 * MINUTE, false);
+        for (int minute = 0; minute <= 30; minute += 5) {
+            window.add(START + minute * MINUTE, 10.0);
+        }
+        for (int minute = 35; minute <= 70; minute += 5) {
+            window.add(START + minute * MINUTE, 30.0);
+        }
+
+        assertTrue(window.add(START + 75 * MINUTE, 30.0));
+        assertEquals(30.0, window.getValue(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should restart the coverage after a gap longer than the window")
+    void testGapRestarts() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.MIN, 30 * MINUTE, false);
+        for (int minute = 0; minute < 30; minute += 10) {
+            window.add(START + minute * MINUTE, 5.0);
+        }
+        assertTrue(window.add(START + 30 * MINUTE, 6.0));
+
+        assertFalse(window.add(START + 3 * HOUR, 8.0));
+        assertFalse(window.add(START + 3 * HOUR + 10 * MINUTE, 7.0));
+        assertFalse(window.add(START + 3 * HOUR + 20 * MINUTE, 9.0));
+        assertTrue(window.add(START + 3 * HOUR + 30 * MINUTE, 8.0));
+        assertEquals(7.0, window.getValue());
+    }
+
+    @Test
+    @DisplayName("Should compute the rate of change per hour")
+    void testRate() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.RATE, HOUR, false);
+        for (int minute = 0; minute < 60; minute += 10) {
+            window.add(START + minute * MINUTE, 20.0 + minute / 12.0);
+        }
+
+        assertTrue(window.add(START + HOUR, 25.0));
+        assertEquals(5.0, window.getValue(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should keep the rate exact after the window slid for a long time")
+    void testRateAfterManyPanes() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.RATE, HOUR, false);
+        boolean produced = false;
+        for (long minute = 0; minute <= 24 * 60; minute++) {
+            produced = window.add(START + minute * MINUTE, -2.0 * minute / 60.0);
+        }
+
+        assertTrue(produced);
+        assertEquals(-2.0, window.getValue(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should produce a tumbling bucket's drift when the next bucket starts")
+    void testTumblingDrift() {
+        WindowAggregate window = new WindowAggregate(WindowAggregate.Function.DRIFT, 24 * HOUR, true);
+        long day = Math.floorDiv(START, 24 * HOUR) * 24 * HOUR;
+
+        assertFalse(window.add(day + HOUR, 6.5));
+        assertFalse(window.add(day + 12 * HOUR, 6.9));
+        assertFalse(window.add(day + 23 * HOUR, 7.2));
+        assertTrue(window.add(day + 25 * HOUR, 7.0));
+        assertEquals(0.7, window.getValue(), 1e-9);
+
+        assertFalse(window.add(day + 2 * HOUR, 9.0)); // late reading of the closed bucket
+        assertFalse(window.add(day + 30 * HOUR, 7.1));
+        assertTrue(window.add(day + 48 * HOUR, 7.1));
+        assertEquals(0.1, window.getValue(), 1e-9);
+    }
+}
@@ -0,0 +1,134 @@
+package me.soilmonitoring.api.analytics;
+
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import me.soilmonitoring.api.entities.Metric;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AnalyticsPlan Tests")
+class AnalyticsPlanTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 5, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(2);
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long FROM_MILLIS = 1_714_521_600_000L;
+
+    private AnalyticsPlan plan(AnalyticsPlan.Source source, List<String> sensorIds, int limit) {
+        return new AnalyticsPlan(source, List.of(Metric.TEMPERATURE, Metric.HUMIDITY),
+                EnumSet.of(AnalyticsQuery.GroupBy.TIME, AnalyticsQuery.GroupBy.FIELD), DAY_MILLIS,
+                FROM, TO, List.of("f1", "f2"), sensorIds, limit);
+    }
+
+    @Test
+    @DisplayName("Should filter raw readings on range, fields and sensors")
+    void testRawFilter() {
+        Document filter = plan(AnalyticsPlan.Source.RAW, List.of("s1"), 10).getFilter();
+
+        Document timestamp = filter.get("timestamp", Document.class);
+        assertEquals("2024-05-01T00:00", timestamp.get("$gte"));
+        assertEquals("2024-05-03T00:00", timestamp.get("$lt"));
+        assertEquals(List.of("f1", "f2"), filter.get("fieldId", Document.class).get("$in"));
+        assertEquals(List.of("s1"), filter.get("sensorId", Document.class).get("$in"));
+        assertFalse(filter.containsKey("granularity"));
+    }
+
+    @Test
+    @DisplayName("Should match readings and rollups as JNoSQL stores them")
+    void testStoredTimes() {
+        Map<String, Object> reading = new LinkedHashMap<>();
+        reading.put("_id", "r1");
+        reading.put("sensorId", "s1");
+        reading.put("fieldId", "f1");
+        reading.put("timestamp", TO.minusSeconds(1));
+        Map<String, Object> rollup = new LinkedHashMap<>();
+        rollup.put("_id", "s1:day:2024-05-01");
+        rollup.put("sensorId", "s1");
+        rollup.put("fieldId", "f2");
+        rollup.put("granularity", "day");
+        rollup.put("bucketStart", FROM);
+
+        assertTrue(StoredDocuments.matches(plan(AnalyticsPlan.Source.RAW, List.of("s1"), 10).getFilter(),
+                StoredDocuments.write("SensorReading", reading)));
+        assertTrue(StoredDocuments.matches(plan(AnalyticsPlan.Source.DAILY, List.of(), 10).getFilter(),
+                StoredDocuments.write("ReadingRollup", rollup)));
+        reading.put("timestamp", TO);
+        assertFalse(StoredDocuments.matches(plan(AnalyticsPlan.Source.RAW, List.of("s1"), 10).getFilter(),
+                StoredDocuments.write("SensorReading", reading)));
+    }
+
+    @Test
+    @DisplayName("Should group raw readings by bucket and field and fetch one row more than the limit")
+    void testRawPipeline() {
+        List<Document> pipeline = plan(AnalyticsPlan.Source.RAW, List.of(), 10).getPipeline();
+
+        assertEquals(4, pipeline.size());
+        Document group = pipeline.get(1).get("$group", Document.class);
+        Document key = group.get("_id", Document.class);
+        assertEquals(List.of("bucket", "fieldId"), List.copyOf(key.keySet()));
+        assertTrue(key.toJson().contains("{\"$toLong\": {\"$toDate\": \"$timestamp\"}}"));
+        assertTrue(group.containsKey("temperature_min"));
+        assertTrue(group.containsKey("humidity_count"));
+        assertFalse(group.containsKey("nitrogen_sum"));
+        assertEquals(11, pipeline.get(3).get("$limit"));
+    }
+
+    @Test
+    @DisplayName("Should read daily rollups of the requested metrics")
+    void testRollupPipeline() {
+        AnalyticsPlan plan = plan(AnalyticsPlan.Source.DAILY, List.of(), 10);
+        List<Document> pipeline = plan.getPipeline();
+
+        assertEquals("ReadingRollup", plan.getCollection());
+        Document filter = pipeline.get(0).get("$match", Document.class);
+        assertEquals("day", filter.getString("granularity"));
+        assertTrue(filter.containsKey("bucketStart"));
+        assertEquals("$metrics", pipeline.get(1).get("$unwind"));
+        assertEquals(List.of("temperature", "humidity"),
+                pipeline.get(2).get("$match", Document.class).get("metrics.metric", Document.class).get("$in"));
+    }
+
+    @Test
+    @DisplayName("Should turn raw results into rows and cap them at the limit")
+    void testRawRows() {
+        Document first = new Document("_id", new Document("bucket", FROM_MILLIS).append("fieldId", "f1"))
+                .append("temperature_min", 10.0).append("temperature_max", 30.0)
+                .append("temperature_sum", 40.0).append("temperature_count", 2)
+                .append("humidity_min", null).append("humidity_max", null)
+                .append("humidity_sum", 0).append("humidity_count", 0);
+        Document second = new Document("_id", new Document("bucket", FROM_MILLIS + DAY_MILLIS).append("fieldId", "f1"));
+
+        List<AnalyticsRow> rows = plan(AnalyticsPlan.Source.RAW, List.of(), 1).toRows(List.of(first, second));
+
+        assertEquals(1, rows.size());
+        AnalyticsRow row = rows.get(0);
+        assertEquals(FROM, row.getTimestamp());
+        assertEquals("f1", row.getFieldId());
+        assertNull(row.getSensorId());
+        assertEquals(20.0, row.get(Metric.TEMPERATURE, AnalyticsQuery.Aggregate.AVG));
+        assertEquals(2.0, row.get(Metric.TEMPERATURE, AnalyticsQuery.Aggregate.COUNT));
+        assertNull(row.get(Metric.HUMIDITY, AnalyticsQuery.Aggregate.AVG));
+    }
+
+    @Test
+    @DisplayName("Should turn rollup results into rows")
+    void testRollupRows() {
+        Document result = new Document("_id", new Document("bucket", FROM_MILLIS).append("fieldId", "f2"))
+                .append("metrics", List.of(new Document("metric", "humidity")
+                        .append("min", 40.0).append("max", 60.0).append("sum", 500.0).append("count", 10L)));
+
+        List<AnalyticsRow> rows = plan(AnalyticsPlan.Source.HOURLY, List.of(), 10).toRows(List.of(result));
+
+        assertEquals(50.0, rows.get(0).get(Metric.HUMIDITY, AnalyticsQuery.Aggregate.AVG));
+        assertEquals(60.0, rows.get(0).get(Metric.HUMIDITY, AnalyticsQuery.Aggregate.MAX));
+        assertNull(rows.get(0).getSummary(Metric.TEMPERATURE));
+    }
+}
@@ -1,15 +1,20 @@
 package me.soilmonitoring.api.boundaries;
 
 import jakarta.ws.rs.core.Response;
-import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.controllers.managers.AlertInboxManager;
+import me.soilmonitoring.api.controllers.managers.AlertStateManager;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
 import me.soilmonitoring.api.controllers.repositories.AlertRepository;
 import me.soilmonitoring.api.entities.Alert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -30,10 +35,19 @@ class AlertResourceTest {
     private Logger logger;
 
     @Mock
-    private SoilMonitoringManager manager;
+    private AlertRepository alertRepository;
 
     @Mock
-    private AlertRepository alertRepository;
+    private FieldStateManager fieldStateManager;
+
+    @Mock
+    private AlertStateManager alertStateManager;
+
+    @Mock
+    private AlertInboxManager alertInboxManager;
+
+    @Spy
+    private BlockingCallExecutor executor = new BlockingCallExecutor();
 
     @InjectMocks
     private me.soilmonitoring.api.boundaries.AlertResource alertResource;
@@ -69,58 +83,83 @@ class AlertResourceTest {
     // ===== Tests pour getUserAlerts =====
 
     @Test
-    @DisplayName("Should get all user alerts when unreadOnly is null")
+    @DisplayName("Should get the first page of user alerts when unreadOnly is null")
     void testGetUserAlertsAll() {
         // Given
         String userId = "user-001";
-        when(alertRepository.findByUserId(userId)).thenReturn(testAlerts);
+        when(alertInboxManager.findPage(eq(userId), any(), isNull(), eq(50)))
+                .thenReturn(new AlertInboxManager.Page(testAlerts, null));
 
         // When
-        Response response = alertResource.getUserAlerts(userId, null);
+        Response response = alertResource.getUserAlerts(userId, null, null, null, null, null, 50)
+                .toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        assertNotNull(response.getEntity());
         assertEquals(testAlerts, response.getEntity());
-        verify(alertRepository, times(1)).findByUserId(userId);
-        verify(manager, never()).getUnreadAlerts(anyString());
+        assertNull(response.getHeaderString("X-Next-Cursor"));
+        ArgumentCaptor<AlertInboxManager.HistoryFilter> filter =
+                ArgumentCaptor.forClass(AlertInboxManager.HistoryFilter.class);
+        verify(alertInboxManager).findPage(eq(userId), filter.capture(), isNull(), eq(50));
+        assertFalse(filter.getValue().unreadOnly());
+        verify(alertRepository, never()).findByUserId(anyString());
     }
 
     @Test
-    @DisplayName("Should get all user alerts when unreadOnly is false")
-    void testGetUserAlertsAllWhenUnreadOnlyFalse() {
+    @DisplayName("Should pass the unread, field, severity and type filters")
+    void testGetUserAlertsFiltered() {
         // Given
         String userId = "user-001";
-        when(alertRepository.findByUserId(userId)).thenReturn(testAlerts);
+        when(alertInboxManager.findPage(eq(userId), any(), isNull(), eq(20)))
+                .thenReturn(new AlertInboxManager.Page(List.of(testAlert), null));
 
         // When
-        Response response = alertResource.getUserAlerts(userId, false);
+        Response response = alertResource.getUserAlerts(userId, true, "field-001", "high", "temperature", null, 20)
+                .toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        assertNotNull(response.getEntity());
-        assertEquals(testAlerts, response.getEntity());
-        verify(alertRepository, times(1)).findByUserId(userId);
-        verify(manager, never()).getUnreadAlerts(anyString());
+        assertEquals(List.of(testAlert), response.getEntity());
+        verify(alertInboxManager).findPage(userId,
+                new AlertInboxManager.HistoryFilter("field-001", "high", "temperature", true), null, 20);
     }
 
     @Test
-    @DisplayName("Should get only unread alerts when unreadOnly is true")
-    void testGetUserAlertsUnreadOnly() {
+    @DisplayName("Should return the cursor of the next page and resume from it")
+    void testGetUserAlertsNextPage() {
         // Given
         String userId = "user-001";
-        List<Alert> unreadAlerts = Arrays.asList(testAlert);
-        when(manager.getUnreadAlerts(userId)).thenReturn(unreadAlerts);
+        when(alertInboxManager.findPage(eq(userId), any(), isNull(), eq(1)))
+                .thenReturn(new AlertInboxManager.Page(List.of(testAlert), "next"));
+        when(alertInboxManager.findPage(eq(userId), any(), eq("next"), eq(1)))
+                .thenReturn(new AlertInboxManager.Page(List.of(testAlerts.get(1)), null));
 
         // When
-        Response response = alertResource.getUserAlerts(userId, true);
+        Response first = alertResource.getUserAlerts(userId, null, null, null, null, null, 1)
+                .toCompletableFuture().join();
+        Response second = alertResource.getUserAlerts(userId, null, null, null, null,
+                first.getHeaderString("X-Next-Cursor"), 1).toCompletableFuture().join();
 
         // Then
-        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        assertNotNull(response.getEntity());
-        assertEquals(unreadAlerts, response.getEntity());
-        verify(manager, times(1)).getUnreadAlerts(userId);
-        verify(alertRepository, never()).findByUserId(anyString());
+        assertEquals("next", first.getHeaderString("X-Next-Cursor"));
+        assertEquals(List.of(testAlerts.get(1)), second.getEntity());
+        assertNull(second.getHeaderString("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid limit or cursor")
+    void testGetUserAlertsInvalid() {
+        // Given
+        when(alertInboxManager.findPage(eq("user-001"), any(), eq("bad"), eq(50)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // When / Then
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), alertResource
+                .getUserAlerts("user-001", null, null, null, null, null, 0).toCompletableFuture().join().getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), alertResource
+                .getUserAlerts("user-001", null, null, null, null, null, 501).toCompletableFuture().join().getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), alertResource
+                .getUserAlerts("user-001", null, null, null, null, "bad", 50).toCompletableFuture().join().getStatus());
     }
 
     @Test
@@ -128,16 +167,17 @@ class AlertResourceTest {
     void testGetUserAlertsEmptyList() {
         // Given
         String userId = "user-999";
-        when(alertRepository.findByUserId(userId)).thenReturn(Arrays.asList());
+        when(alertInboxManager.findPage(eq(userId), any(), isNull(), eq(50)))
+                .thenReturn(new AlertInboxManager.Page(List.of(), null));
 
         // When
-        Response response = alertResource.getUserAlerts(userId, null);
+        Response response = alertResource.getUserAlerts(userId, null, null, null, null, null, 50)
+                .toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
         List<?> alerts = (List<?>) response.getEntity();
         assertTrue(alerts.isEmpty());
-        verify(alertRepository, times(1)).findByUserId(userId);
     }
 
     @Test
@@ -145,10 +185,12 @@ class AlertResourceTest {
     void testGetUserAlertsException() {
         // Given
         String userId = "user-001";
-        when(alertRepository.findByUserId(userId)).thenThrow(new RuntimeException("Database error"));
+        when(alertInboxManager.findPage(eq(userId), any(), isNull(), eq(50)))
+                .thenThrow(new RuntimeException("Database error"));
 
         // When
-        Response response = alertResource.getUserAlerts(userId, null);
+        Response response = alertResource.getUserAlerts(userId, null, null, null, null, null, 50)
+                .toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -166,7 +208,7 @@ class AlertResourceTest {
         when(alertRepository.findById(alertId)).thenReturn(Optional.of(testAlert));
 
         // When
-        Response response = alertResource.getAlertById(alertId);
+        Response response = alertResource.getAlertById(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -185,7 +227,7 @@ class AlertResourceTest {
         when(alertRepository.findById(alertId)).thenReturn(Optional.empty());
 
         // When
-        Response response = alertResource.getAlertById(alertId);
+        Response response = alertResource.getAlertById(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
@@ -201,7 +243,7 @@ class AlertResourceTest {
         when(alertRepository.findById(alertId)).thenThrow(new RuntimeException("Database error"));
 
         // When
-        Response response = alertResource.getAlertById(alertId);
+        Response response = alertResource.getAlertById(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -228,7 +270,7 @@ class AlertResourceTest {
         });
 
         // When
-        Response response = alertResource.createAlert(newAlert);
+        Response response = alertResource.createAlert(newAlert).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
@@ -257,7 +299,7 @@ class AlertResourceTest {
         when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Response response = alertResource.createAlert(newAlert);
+        Response response = alertResource.createAlert(newAlert).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
@@ -279,7 +321,7 @@ class AlertResourceTest {
         when(alertRepository.save(any(Alert.class))).thenThrow(new RuntimeException("Database error"));
 
         // When
-        Response response = alertResource.createAlert(newAlert);
+        Response response = alertResource.createAlert(newAlert).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -300,7 +342,7 @@ class AlertResourceTest {
         when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Response response = alertResource.markAlertAsRead(alertId);
+        Response response = alertResource.markAlertAsRead(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -309,9 +351,60 @@ class AlertResourceTest {
 
         verify(alertRepository, times(1)).findById(alertId);
         verify(alertRepository, times(1)).save(testAlert);
+        verify(alertInboxManager, times(1)).onAlertRead(testAlert);
         verify(logger, times(1)).info(contains("Alert marked as read"));
     }
 
+    // ===== Tests pour les opérations groupées =====
+
+    @Test
+    @DisplayName("Should return the unread count without loading the alerts")
+    void testGetUnreadCount() {
+        when(alertInboxManager.countUnread("user-001")).thenReturn(4L);
+
+        Response response = alertResource.getUnreadCount("user-001").toCompletableFuture().join();
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertTrue(response.getEntity().toString().contains("\"unreadCount\":4"));
+        verifyNoInteractions(alertRepository);
+    }
+
+    @Test
+    @DisplayName("Should mark all alerts of a user read in one update")
+    void testMarkAllAsRead() {
+        when(alertInboxManager.markAllRead("user-001", null)).thenReturn(3L);
+
+        Response response = alertResource.markAllAsRead("user-001", null).toCompletableFuture().join();
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertTrue(response.getEntity().toString().contains("\"updated\":3"));
+        verify(alertRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should delete the alerts of a user older than a time")
+    void testDeleteOlderThan() {
+        LocalDateTime before = LocalDateTime.of(2025, 6, 1, 0, 0);
+        when(alertInboxManager.deleteOlderThan("user-001", before)).thenReturn(12L);
+
+        Response response = alertResource.deleteOlderThan("user-001", "2025-06-01T00:00")
+                .toCompletableFuture().join();
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertTrue(response.getEntity().toString().contains("\"deleted\":12"));
+        verify(alertRepository, never()).deleteById(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a bulk delete without a valid time")
+    void testDeleteOlderThanInvalid() {
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(),
+                alertResource.deleteOlderThan("user-001", null).toCompletableFuture().join().getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(),
+                alertResource.deleteOlderThan("user-001", "yesterday").toCompletableFuture().join().getStatus());
+        verifyNoInteractions(alertInboxManager);
+    }
+
     @Test
     @DisplayName("Should return 404 when marking non-existent alert as read")
     void testMarkAlertAsReadNotFound() {
@@ -320,7 +413,7 @@ class AlertResourceTest {
         when(alertRepository.findById(alertId)).thenReturn(Optional.empty());
 
         // When
-        Response response = alertResource.markAlertAsRead(alertId);
+        Response response = alertResource.markAlertAsRead(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
@@ -338,7 +431,7 @@ class AlertResourceTest {
         when(alertRepository.save(any(Alert.class))).thenThrow(new RuntimeException("Database error"));
 
         // When
-        Response response = alertResource.markAlertAsRead(alertId);
+        Response response = alertResource.markAlertAsRead(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -356,7 +449,7 @@ class AlertResourceTest {
         doNothing().when(alertRepository).deleteById(alertId);
 
         // When
-        Response response = alertResource.deleteAlert(alertId);
+        Response response = alertResource.deleteAlert(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
@@ -373,7 +466,7 @@ class AlertResourceTest {
         doThrow(new RuntimeException("Database error")).when(alertRepository).deleteById(alertId);
 
         // When
-        Response response = alertResource.deleteAlert(alertId);
+        Response response = alertResource.deleteAlert(alertId).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -387,7 +480,7 @@ class AlertResourceTest {
     @DisplayName("Should handle null alert in createAlert")
     void testCreateAlertWithNull() {
         // When
-        Response response = alertResource.createAlert(null);
+        Response response = alertResource.createAlert(null).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
@@ -416,31 +509,13 @@ class AlertResourceTest {
         });
 
         // When
-        Response response = alertResource.createAlert(newAlert);
+        Response response = alertResource.createAlert(newAlert).toCompletableFuture().join();
 
         // Then
         assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
         verify(alertRepository, times(1)).save(any(Alert.class));
     }
 
-    @Test
-    @DisplayName("Should handle multiple alerts for same user")
-    void testGetMultipleAlertsForUser() {
-        // Given
-        String userId = "user-001";
-        List<Alert> multipleAlerts = Arrays.asList(testAlert, testAlerts.get(1));
-        when(alertRepository.findByUserId(userId)).thenReturn(multipleAlerts);
-
-        // When
-        Response response = alertResource.getUserAlerts(userId, null);
-
-        // Then
-        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        @SuppressWarnings("unchecked")
-        List<Alert> returnedAlerts = (List<Alert>) response.getEntity();
-        assertEquals(2, returnedAlerts.size());
-    }
-
     @Test
     @DisplayName("Should verify UUID format for generated alert ID")
     void testAlertIdUUIDFormat() {
@@ -452,7 +527,7 @@ class AlertResourceTest {
         when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Response response = alertResource.createAlert(newAlert);
+        Response response = alertResource.createAlert(newAlert).toCompletableFuture().join();
 
         // Then
         Alert savedAlert = (Alert) response.getEntity();
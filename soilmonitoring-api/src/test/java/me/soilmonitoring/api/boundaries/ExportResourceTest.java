@@ -0,0 +1,99 @@
+package me.soilmonitoring.api.boundaries;
+
+import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.services.ExportBatch;
+import me.soilmonitoring.api.services.ExportDataset;
+import me.soilmonitoring.api.services.TrainingExportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportResource Tests")
+class ExportResourceTest {
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private TrainingExportService exportService;
+
+    @InjectMocks
+    private ExportResource exportResource;
+
+    @Test
+    @DisplayName("Should stream the export as a gzip attachment")
+    void testExport_Success() {
+        ExportBatch batch = mock(ExportBatch.class);
+        when(batch.getFileName()).thenReturn("readings-delta.csv.gz");
+        when(exportService.open(ExportDataset.READINGS, "mlops", null, false, null)).thenReturn(batch);
+
+        Response response = exportResource.export("readings", "mlops", null, false, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("attachment; filename=\"readings-delta.csv.gz\"",
+                response.getHeaderString("Content-Disposition"));
+        assertEquals("delta", response.getHeaderString("X-Export-Mode"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an unknown dataset")
+    void testExport_UnknownDataset() {
+        Response response = exportResource.export("users", "mlops", null, false, null);
+
+        assertEquals(400, response.getStatus());
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    @DisplayName("Should return 410 when the resume token is no longer available")
+    void testExport_TokenLost() {
+        when(exportService.open(any(), anyString(), any(), anyBoolean(), any()))
+                .thenThrow(new IllegalStateException("Resume token is no longer available"));
+
+        Response response = exportResource.export("predictions", "mlops", "8263A1", false, "crop");
+
+        assertEquals(410, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should return the committed resume token")
+    void testCommit_Success() {
+        when(exportService.commit(ExportDataset.PREDICTIONS, "mlops")).thenReturn(Optional.of("8263A1"));
+
+        Response response = exportResource.commit("predictions", "mlops");
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getEntity().toString().contains("\"resumeToken\":\"8263A1\""));
+    }
+
+    @Test
+    @DisplayName("Should return 409 when no export is pending")
+    void testCommit_NothingPending() {
+        when(exportService.commit(ExportDataset.READINGS, "mlops")).thenReturn(Optional.empty());
+
+        Response response = exportResource.commit("readings", "mlops");
+
+        assertEquals(409, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should return 404 before the first commit")
+    void testGetCheckpoint_None() {
+        when(exportService.committedToken(ExportDataset.READINGS, "mlops")).thenReturn(Optional.empty());
+
+        Response response = exportResource.getCheckpoint("readings", "mlops");
+
+        assertEquals(404, response.getStatus());
+    }
+}
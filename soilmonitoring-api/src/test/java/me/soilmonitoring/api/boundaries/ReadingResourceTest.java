@@ -1,12 +1,17 @@
 package me.soilmonitoring.api.boundaries;
 
 import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
 import me.soilmonitoring.api.controllers.repositories.AlertRepository;
 import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
 import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.FieldState;
 import me.soilmonitoring.api.entities.SensorData;
 import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -29,6 +34,8 @@ class ReadingResourceTest {
     private SensorReadingRepository readingRepository;
     private AlertRepository alertRepository;
     private Logger logger;
+    private FieldStateManager fieldStateManager;
+    private RollupManager rollupManager;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -43,6 +50,12 @@ class ReadingResourceTest {
         inject(resource, "readingRepository", readingRepository);
         inject(resource, "alertRepository", alertRepository);
         inject(resource, "logger", logger);
+        inject(resource, "hotReadingStore", new HotReadingStore());
+        fieldStateManager = mock(FieldStateManager.class);
+        inject(resource, "fieldStateManager", fieldStateManager);
+        inject(resource, "executor", new BlockingCallExecutor());
+        rollupManager = mock(RollupManager.class);
+        inject(resource, "rollupManager", rollupManager);
     }
 
     private void inject(Object target, String fieldName, Object mock) throws Exception {
@@ -57,7 +70,7 @@ class ReadingResourceTest {
         reading.setId("r1");
         when(manager.getFieldReadings("field1")).thenReturn(List.of(reading));
 
-        Response response = resource.getFieldReadings("field1");
+        Response response = resource.getFieldReadings("field1").toCompletableFuture().join();
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
         List<?> readings = (List<?>) response.getEntity();
@@ -73,7 +86,7 @@ class ReadingResourceTest {
         LocalDateTime to = LocalDateTime.now();
         when(manager.getFieldReadingsByTimeRange(eq("field1"), any(), any())).thenReturn(List.of(reading));
 
-        Response response = resource.getFieldReadingsByTimeRange("field1", from.toString(), to.toString());
+        Response response = resource.getFieldReadingsByTimeRange("field1", from.toString(), to.toString()).toCompletableFuture().join();
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
         List<?> readings = (List<?>) response.getEntity();
@@ -81,13 +94,32 @@ class ReadingResourceTest {
         assertEquals(reading, readings.get(0));
     }
 
+    @Test
+    void testGetFieldReadingsByTimeRange_beforeRetentionHorizon() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime horizon = from.plusDays(1);
+        LocalDateTime to = from.plusDays(2);
+        SensorReading hourly = new SensorReading();
+        hourly.setId("s1:hour:" + from);
+        SensorReading raw = new SensorReading();
+        raw.setId("r2");
+        when(rollupManager.rawHorizon()).thenReturn(Optional.of(horizon));
+        when(rollupManager.getFieldHourlyReadings("field1", from, horizon)).thenReturn(List.of(hourly));
+        when(manager.getFieldReadingsByTimeRange("field1", horizon, to)).thenReturn(List.of(raw));
+
+        Response response = resource.getFieldReadingsByTimeRange("field1", from.toString(), to.toString()).toCompletableFuture().join();
+
+        assertEquals(List.of(hourly, raw), response.getEntity());
+        assertEquals(horizon.toString(), response.getHeaders().getFirst("X-Rollup-Until"));
+    }
+
     @Test
     void testGetReadingById_found() {
         SensorReading reading = new SensorReading();
         reading.setId("r3");
         when(readingRepository.findById("r3")).thenReturn(Optional.of(reading));
 
-        Response response = resource.getReadingById("r3");
+        Response response = resource.getReadingById("r3").toCompletableFuture().join();
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
         assertEquals(reading, response.getEntity());
@@ -97,7 +129,7 @@ class ReadingResourceTest {
     void testGetReadingById_notFound() {
         when(readingRepository.findById("r4")).thenReturn(Optional.empty());
 
-        Response response = resource.getReadingById("r4");
+        Response response = resource.getReadingById("r4").toCompletableFuture().join();
 
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
         assertEquals("Reading not found", response.getEntity());
@@ -110,13 +142,14 @@ class ReadingResourceTest {
 
         when(readingRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        Response response = resource.createReading(reading);
+        Response response = resource.createReading(reading).toCompletableFuture().join();
 
         assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
         SensorReading saved = (SensorReading) response.getEntity();
         assertNotNull(saved.getId());
         assertNotNull(saved.getTimestamp());
         verify(logger).info(contains("Sensor reading created"));
+        verify(fieldStateManager).onReading(saved);
     }
 
     @Test
@@ -127,7 +160,7 @@ class ReadingResourceTest {
         r2.setTimestamp(LocalDateTime.now());
         when(manager.getFieldReadings("field1")).thenReturn(Arrays.asList(r1, r2));
 
-        Response response = resource.getLatestReading("field1");
+        Response response = resource.getLatestReading("field1").toCompletableFuture().join();
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
         assertEquals(r2, response.getEntity());
@@ -137,7 +170,7 @@ class ReadingResourceTest {
     void testGetLatestReading_notFound() {
         when(manager.getFieldReadings("field1")).thenReturn(Collections.emptyList());
 
-        Response response = resource.getLatestReading("field1");
+        Response response = resource.getLatestReading("field1").toCompletableFuture().join();
 
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
         assertEquals("No readings found", response.getEntity());
@@ -147,9 +180,29 @@ class ReadingResourceTest {
     void testGetFieldSummary_noReadings() {
         when(manager.getFieldReadings("field1")).thenReturn(Collections.emptyList());
 
-        Response response = resource.getFieldSummary("field1");
+        Response response = resource.getFieldSummary("field1").toCompletableFuture().join();
 
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
         assertTrue(response.getEntity().toString().contains("No readings found"));
     }
+
+    @Test
+    void testGetFieldSummary_fromFieldState() {
+        SensorData latest = new SensorData();
+        latest.setTemperature(21.5);
+        FieldState state = new FieldState();
+        state.setId("field1");
+        state.setLatest(latest);
+        state.setLastUpdate(LocalDateTime.of(2025, 6, 1, 12, 0));
+        state.setUnreadAlertCount(3);
+        when(fieldStateManager.findState("field1")).thenReturn(Optional.of(state));
+
+        Response response = resource.getFieldSummary("field1").toCompletableFuture().join();
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        String body = response.getEntity().toString();
+        assertTrue(body.contains("\"temperature\":21.5"));
+        assertTrue(body.contains("\"unreadAlertCount\":3"));
+        verifyNoInteractions(manager, alertRepository);
+    }
 }
@@ -1,18 +1,37 @@
 package me.soilmonitoring.api.boundaries;
 
+import jakarta.data.Limit;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
 import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.AlertWindowManager;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.controllers.repositories.SensorReadingRepository;
 import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
+import me.soilmonitoring.api.entities.ReadingRollup;
 import me.soilmonitoring.api.entities.Sensor;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class SensorResourceTest {
@@ -21,6 +40,9 @@ class SensorResourceTest {
     private SoilMonitoringManager manager;
     private SensorRepository sensorRepository;
     private Logger logger;
+    private FieldStateManager fieldStateManager;
+    private SensorReadingRepository readingRepository;
+    private RollupManager rollupManager;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -32,6 +54,14 @@ class SensorResourceTest {
         inject(resource, "manager", manager);
         inject(resource, "sensorRepository", sensorRepository);
         inject(resource, "logger", logger);
+        fieldStateManager = mock(FieldStateManager.class);
+        inject(resource, "fieldStateManager", fieldStateManager);
+        readingRepository = mock(SensorReadingRepository.class);
+        inject(resource, "readingRepository", readingRepository);
+        inject(resource, "hotReadingStore", new HotReadingStore());
+        rollupManager = mock(RollupManager.class);
+        inject(resource, "rollupManager", rollupManager);
+        inject(resource, "alertWindowManager", new AlertWindowManager());
     }
 
     private void inject(Object target, String fieldName, Object mock) throws Exception {
@@ -56,7 +86,7 @@ class SensorResourceTest {
     void testGetSensorById_found() {
         Sensor sensor = new Sensor();
         sensor.setId("s2");
-        when(sensorRepository.findById("s2")).thenReturn(Optional.of(sensor));
+        when(manager.findSensor("s2")).thenReturn(Optional.of(sensor));
 
         Response response = resource.getSensorById("s2");
 
@@ -66,7 +96,7 @@ class SensorResourceTest {
 
     @Test
     void testGetSensorById_notFound() {
-        when(sensorRepository.findById("s3")).thenReturn(Optional.empty());
+        when(manager.findSensor("s3")).thenReturn(Optional.empty());
 
         Response response = resource.getSensorById("s3");
 
@@ -158,4 +188,179 @@ class SensorResourceTest {
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
         assertEquals("Error deleting sensor", response.getEntity());
     }
+
+    private SensorReading reading(LocalDateTime timestamp, Double temperature) {
+        SensorData data = new SensorData();
+        data.setTemperature(temperature);
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("s1");
+        reading.setTimestamp(timestamp);
+        reading.setData(data);
+        return reading;
+    }
+
+    @Test
+    void testGetSensorReadings_range() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime to = from.plusHours(6);
+        List<SensorReading> readings = List.of(reading(from.plusHours(1), 20.0), reading(from.plusHours(2), 21.0));
+        when(manager.getSensorReadingsByTimeRange(eq("s1"), eq(from), eq(to), anyInt()))
+                .thenReturn(readings);
+
+        Response response = resource.getSensorReadings("s1", from.toString(), to.toString(), 2);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(readings, response.getEntity());
+        assertEquals(false, response.getHeaders().getFirst("X-Limit-Reached"));
+        verify(manager).getSensorReadingsByTimeRange("s1", from, to, 3);
+    }
+
+    @Test
+    void testGetSensorReadings_limitReached() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime to = from.plusHours(6);
+        List<SensorReading> readings = List.of(reading(from.plusHours(1), 20.0), reading(from.plusHours(2), 21.0),
+                reading(from.plusHours(3), 22.0));
+        when(manager.getSensorReadingsByTimeRange(eq("s1"), eq(from), eq(to), anyInt()))
+                .thenReturn(readings);
+
+        Response response = resource.getSensorReadings("s1", from.toString(), to.toString(), 2);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(readings.subList(0, 2), response.getEntity());
+        assertEquals(true, response.getHeaders().getFirst("X-Limit-Reached"));
+    }
+
+    @Test
+    void testGetSensorReadings_invalidLimit() {
+        Response response = resource.getSensorReadings("s1", null, null, 0);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        verifyNoInteractions(readingRepository);
+        verify(manager, never()).getSensorReadingsByTimeRange(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetSensorReadings_windowTooLong() {
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        Response response = resource.getSensorReadings("s1", to.minusDays(60).toString(), to.toString(), 10);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        verifyNoInteractions(readingRepository);
+        verify(manager, never()).getSensorReadingsByTimeRange(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetLatestSensorReading() {
+        SensorReading latest = reading(LocalDateTime.now(), 20.0);
+        when(readingRepository.findLatestBySensorId("s1", Limit.of(1))).thenReturn(List.of(latest));
+        when(readingRepository.findLatestBySensorId("s2", Limit.of(1))).thenReturn(List.of());
+
+        assertEquals(latest, resource.getLatestSensorReading("s1").getEntity());
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), resource.getLatestSensorReading("s2").getStatus());
+    }
+
+    @Test
+    void testGetSensorAggregates_buckets() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime to = from.plusHours(3);
+        when(manager.getSensorReadingsByTimeRange(eq("s1"), eq(from), eq(to), anyInt()))
+                .thenReturn(List.of(
+                        reading(from.plusMinutes(10), 20.0),
+                        reading(from.plusMinutes(50), 22.0),
+                        reading(from.plusHours(2), null)));
+
+        Response response = resource.getSensorAggregates("s1", from.toString(), to.toString(), "1h",
+                List.of("temperature"));
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        JsonArray buckets = (JsonArray) response.getEntity();
+        assertEquals(2, buckets.size());
+        JsonObject first = buckets.getJsonObject(0);
+        assertEquals(from.toString(), first.getString("timestamp"));
+        assertEquals(2, first.getInt("count"));
+        assertEquals(21.0, first.getJsonObject("temperature").getJsonNumber("avg").doubleValue());
+        assertFalse(first.containsKey("humidity"));
+        assertFalse(buckets.getJsonObject(1).containsKey("temperature"));
+    }
+
+    @Test
+    void testGetSensorAggregates_tooManyBuckets() {
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        Response response = resource.getSensorAggregates("s1", to.minusDays(30).toString(), to.toString(), "1m",
+                null);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        verifyNoInteractions(readingRepository);
+        verify(manager, never()).getSensorReadingsByTimeRange(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetSensorReadings_beforeRetentionHorizon() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime horizon = from.plusHours(2);
+        LocalDateTime to = from.plusHours(6);
+        SensorReading hourly = reading(from, 20.0);
+        SensorReading raw = reading(horizon.plusMinutes(5), 21.0);
+        when(rollupManager.rawHorizon()).thenReturn(Optional.of(horizon));
+        when(rollupManager.getSensorHourlyReadings("s1", from, horizon)).thenReturn(List.of(hourly));
+        when(manager.getSensorReadingsByTimeRange(eq("s1"), eq(horizon), eq(to), anyInt()))
+                .thenReturn(List.of(raw));
+
+        Response response = resource.getSensorReadings("s1", from.toString(), to.toString(), 10);
+
+        assertEquals(List.of(hourly, raw), response.getEntity());
+        assertEquals(horizon.toString(), response.getHeaders().getFirst("X-Rollup-Until"));
+        verify(manager).getSensorReadingsByTimeRange("s1", horizon, to, 10);
+    }
+
+    @Test
+    void testGetSensorAggregates_beforeRetentionHorizon() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime horizon = from.plusHours(2);
+        LocalDateTime to = from.plusHours(3);
+        when(rollupManager.rawHorizon()).thenReturn(Optional.of(horizon));
+        when(rollupManager.getSensorRollups("s1", ReadingRollup.HOURLY, from, horizon))
+                .thenReturn(List.of(rollup(from, 18.0, 20.0), rollup(from.plusHours(1), 22.0)));
+        when(manager.getSensorReadingsByTimeRange(eq("s1"), eq(horizon), eq(to), anyInt()))
+                .thenReturn(List.of(reading(horizon.plusMinutes(10), 25.0)));
+
+        Response response = resource.getSensorAggregates("s1", from.toString(), to.toString(), "1h",
+                List.of("temperature"));
+
+        JsonArray buckets = (JsonArray) response.getEntity();
+        assertEquals(3, buckets.size());
+        JsonObject first = buckets.getJsonObject(0);
+        assertEquals(from.toString(), first.getString("timestamp"));
+        assertEquals(2, first.getInt("count"));
+        assertEquals(18.0, first.getJsonObject("temperature").getJsonNumber("min").doubleValue());
+        assertEquals(19.0, first.getJsonObject("temperature").getJsonNumber("avg").doubleValue());
+        assertEquals(horizon.toString(), buckets.getJsonObject(2).getString("timestamp"));
+    }
+
+    @Test
+    void testMergeRollups() {
+        LocalDateTime day = LocalDateTime.of(2024, 5, 1, 0, 0);
+        List<ReadingRollup> merged = SensorResource.mergeRollups(List.of(
+                rollup(day, 10.0), rollup(day.plusHours(5), 20.0), rollup(day.plusHours(6), 30.0)),
+                Duration.ofHours(6).toMillis());
+
+        assertEquals(2, merged.size());
+        assertEquals(day, merged.get(0).getBucketStart());
+        assertEquals(15.0, merged.get(0).getMetric(Metric.TEMPERATURE).getAvg());
+        assertEquals(day.plusHours(6), merged.get(1).getBucketStart());
+    }
+
+    private ReadingRollup rollup(LocalDateTime hour, double... temperatures) {
+        ReadingRollup rollup = new ReadingRollup("s1", "field1", ReadingRollup.HOURLY, hour);
+        MetricSummary summary = new MetricSummary("temperature");
+        for (double temperature : temperatures) {
+            summary.add(temperature);
+        }
+        rollup.setCount(temperatures.length);
+        rollup.getMetrics().add(summary);
+        return rollup;
+    }
 }
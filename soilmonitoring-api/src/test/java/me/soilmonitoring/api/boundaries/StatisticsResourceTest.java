@@ -1,9 +1,14 @@
 package me.soilmonitoring.api.boundaries;
 
 import jakarta.ws.rs.core.Response;
+import me.soilmonitoring.api.controllers.managers.BlockingCallExecutor;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
 import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
+import me.soilmonitoring.api.entities.FieldState;
+import me.soilmonitoring.api.entities.MetricSummary;
 import me.soilmonitoring.api.entities.SensorData;
 import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.HotReadingStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -11,6 +16,7 @@ import java.lang.reflect.Field;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +27,7 @@ class StatisticsResourceTest {
     private StatisticsResource resource;
     private SoilMonitoringManager manager;
     private Logger logger;
+    private FieldStateManager fieldStateManager;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -30,6 +37,10 @@ class StatisticsResourceTest {
 
         inject(resource, "manager", manager);
         inject(resource, "logger", logger);
+        inject(resource, "hotReadingStore", new HotReadingStore());
+        fieldStateManager = mock(FieldStateManager.class);
+        inject(resource, "fieldStateManager", fieldStateManager);
+        inject(resource, "executor", new BlockingCallExecutor());
     }
 
     private void inject(Object target, String fieldName, Object mock) throws Exception {
@@ -46,10 +57,10 @@ class StatisticsResourceTest {
         String fieldId = "field2";
         when(manager.getFieldReadingsByTimeRange(eq(fieldId), any(), any())).thenReturn(new ArrayList<>());
 
-        Response response = resource.getHourlyStatistics(fieldId);
+        Response response = resource.getHourlyStatistics(fieldId).toCompletableFuture().join();
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        assertEquals("[]", response.getEntity());
+        assertEquals("[]", response.getEntity().toString());
     }
 
     @Test
@@ -57,10 +68,33 @@ class StatisticsResourceTest {
         String fieldId = "field2";
         when(manager.getFieldReadingsByTimeRange(eq(fieldId), any(), any())).thenReturn(new ArrayList<>());
 
-        Response response = resource.getTodaySummary(fieldId);
+        Response response = resource.getTodaySummary(fieldId).toCompletableFuture().join();
 
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
         String json = (String) response.getEntity();
         assertTrue(json.contains("No readings for today"));
     }
+
+    @Test
+    void testGetTodaySummary_fromFieldState() {
+        String fieldId = "field3";
+        MetricSummary temperature = new MetricSummary("temperature");
+        temperature.add(18.0);
+        temperature.add(24.0);
+        FieldState state = new FieldState();
+        state.setId(fieldId);
+        state.setDay(LocalDateTime.now().toLocalDate());
+        state.setTodayReadingCount(2);
+        state.getToday().add(temperature);
+        when(fieldStateManager.findState(fieldId)).thenReturn(Optional.of(state));
+
+        Response response = resource.getTodaySummary(fieldId).toCompletableFuture().join();
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        String json = response.getEntity().toString();
+        assertTrue(json.contains("\"readingCount\":2"));
+        assertTrue(json.contains("\"min\":18.0"));
+        assertTrue(json.contains("\"avg\":21.0"));
+        verifyNoInteractions(manager);
+    }
 }
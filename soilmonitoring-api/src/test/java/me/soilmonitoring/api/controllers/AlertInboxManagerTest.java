@@ -0,0 +1,243 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import me.soilmonitoring.api.entities.Alert;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AlertInboxManager Tests")
+class AlertInboxManagerTest {
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private MongoCollections mongo;
+
+    @Mock
+    private FieldStateManager fieldStateManager;
+
+    @Mock
+    private AlertStateManager alertStateManager;
+
+    @Mock
+    private MongoCollection<Document> alerts;
+
+    @Mock
+    private DistinctIterable<String> distinct;
+
+    @Mock
+    private FindIterable<Document> found;
+
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    @InjectMocks
+    private AlertInboxManager inbox;
+
+    @Test
+    @DisplayName("Should seed the unread count once, then move it without queries")
+    void testIncrementalCount() {
+        when(alertRepository.countByUserIdAndIsRead("user-001", false)).thenReturn(2L);
+
+        assertEquals(2, inbox.countUnread("user-001"));
+        Alert created = alert(false);
+        inbox.onAlertCreated(created);
+        inbox.onAlertCreated(alert(true));
+        assertEquals(3, inbox.countUnread("user-001"));
+
+        inbox.onAlertRead(created);
+        inbox.onAlertDeleted(alert(false));
+        inbox.onAlertDeleted(alert(true));
+        assertEquals(1, inbox.countUnread("user-001"));
+        verify(alertRepository, times(1)).countByUserIdAndIsRead("user-001", false);
+        verify(alertRepository, never()).findByUserIdAndIsRead(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not count changes for a user that was never counted")
+    void testUncountedUser() {
+        inbox.onAlertCreated(alert(false));
+        when(alertRepository.countByUserIdAndIsRead("user-001", false)).thenReturn(1L);
+
+        assertEquals(1, inbox.countUnread("user-001"));
+    }
+
+    @Test
+    @DisplayName("Should mark all alerts read in one update and recount the touched fields")
+    void testMarkAllRead() {
+        when(mongo.collection(AlertInboxManager.ALERTS)).thenReturn(alerts);
+        distinctFields("field-001", null, "field-002");
+        when(alerts.updateMany(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(3, 3L, null));
+        when(alertRepository.countByUserIdAndIsRead("user-001", false)).thenReturn(5L, 0L);
+        assertEquals(5, inbox.countUnread("user-001"));
+
+        assertEquals(3, inbox.markAllRead("user-001", null));
+
+        verify(alerts, times(1)).updateMany(any(Bson.class), any(Bson.class));
+        verify(fieldStateManager).recountUnread("field-001");
+        verify(fieldStateManager).recountUnread("field-002");
+        verify(alertStateManager).onAlertsRead(eq("field-001"), any(LocalDateTime.class));
+        assertEquals(0, inbox.countUnread("user-001"));
+    }
+
+    @Test
+    @DisplayName("Should only touch the given field when marking its alerts read")
+    void testMarkFieldRead() {
+        when(mongo.collection(AlertInboxManager.ALERTS)).thenReturn(alerts);
+        when(alerts.updateMany(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertEquals(1, inbox.markAllRead("user-001", "field-001"));
+
+        verify(alerts, never()).distinct(any(), any(Bson.class), any());
+        verify(fieldStateManager, times(1)).recountUnread(any());
+        verify(fieldStateManager).recountUnread("field-001");
+    }
+
+    @Test
+    @DisplayName("Should delete old alerts in one delete and forget their states")
+    void testDeleteOlderThan() {
+        LocalDateTime before = LocalDateTime.of(2025, 6, 1, 0, 0);
+        when(mongo.collection(AlertInboxManager.ALERTS)).thenReturn(alerts);
+        distinctFields("field-001");
+        when(alerts.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(12));
+
+        assertEquals(12, inbox.deleteOlderThan("user-001", before));
+
+        verify(alertStateManager).onAlertsDeleted("field-001", before);
+        verify(fieldStateManager).recountUnread("field-001");
+        verify(alertRepository, never()).deleteById(any());
+        ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+        verify(alerts).deleteMany(filter.capture());
+        assertTrue(StoredDocuments.matches(filter.getValue(), document("alert-1", before.minusSeconds(1))));
+        assertFalse(StoredDocuments.matches(filter.getValue(), document("alert-2", before)));
+    }
+
+    @Test
+    @DisplayName("Should read one alert more than the page to find the next cursor")
+    void testFirstPage() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_000_000);
+        when(mongo.collection(AlertInboxManager.ALERTS)).thenReturn(alerts);
+        findReturns(document("alert-3", createdAt.plusMinutes(1)), document("alert-2", createdAt),
+                document("alert-1", createdAt));
+
+        AlertInboxManager.Page page = inbox.findPage("user-001",
+                new AlertInboxManager.HistoryFilter(null, "high", null, false), null, 2);
+
+        assertEquals(List.of("alert-3", "alert-2"), page.alerts().stream().map(Alert::getId).toList());
+        assertEquals(createdAt, page.alerts().get(1).getCreatedAt());
+        assertEquals("high", page.alerts().get(1).getSeverity());
+        verify(found).limit(3);
+        AlertInboxManager.Keyset next = AlertInboxManager.Keyset.decode(page.nextCursor());
+        assertEquals(new AlertInboxManager.Keyset(createdAt, "alert-2"), next);
+    }
+
+    @Test
+    @DisplayName("Should resume after the cursor on the createdAt JNoSQL stored")
+    void testNextPageFilter() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000);
+        when(mongo.collection(AlertInboxManager.ALERTS)).thenReturn(alerts);
+        findReturns(document("alert-4", createdAt));
+        String cursor = new AlertInboxManager.Keyset(createdAt, "alert-5").encode();
+
+        inbox.findPage("user-001", new AlertInboxManager.HistoryFilter(null, null, null, false), cursor, 2);
+
+        ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+        verify(alerts).find(filter.capture());
+        assertFalse(StoredDocuments.matches(filter.getValue(), document("alert-5", createdAt)));
+        assertFalse(StoredDocuments.matches(filter.getValue(), document("alert-6", createdAt)));
+        assertTrue(StoredDocuments.matches(filter.getValue(), document("alert-4", createdAt)));
+        assertTrue(StoredDocuments.matches(filter.getValue(), document("alert-9", createdAt.minusNanos(1_000))));
+        assertFalse(StoredDocuments.matches(filter.getValue(), document("alert-1", createdAt.plusNanos(1_000))));
+    }
+
+    @Test
+    @DisplayName("Should end the history with a page without cursor")
+    void testLastPage() {
+        when(mongo.collection(AlertInboxManager.ALERTS)).thenReturn(alerts);
+        findReturns(document("alert-1", LocalDateTime.of(2025, 6, 1, 12, 0)));
+        String cursor = new AlertInboxManager.Keyset(LocalDateTime.of(2025, 6, 2, 0, 0), "alert-9").encode();
+
+        AlertInboxManager.Page page = inbox.findPage("user-001",
+                new AlertInboxManager.HistoryFilter(null, null, null, true), cursor, 2);
+
+        assertEquals(1, page.alerts().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> AlertInboxManager.Keyset.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> AlertInboxManager.Keyset.decode("YWJj"));
+    }
+
+    private void findReturns(Document... documents) {
+        Iterator<Document> iterator = Arrays.asList(documents).iterator();
+        when(alerts.find(any(Bson.class))).thenReturn(found);
+        when(found.sort(any(Bson.class))).thenReturn(found);
+        when(found.limit(anyInt())).thenReturn(found);
+        when(found.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+    }
+
+    private static Document document(String id, LocalDateTime createdAt) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("_id", id);
+        fields.put("userId", "user-001");
+        fields.put("severity", "high");
+        fields.put("isRead", false);
+        fields.put("occurrences", 1L);
+        fields.put("createdAt", createdAt);
+        fields.put("lastSeenAt", createdAt);
+        return StoredDocuments.write(AlertInboxManager.ALERTS, fields);
+    }
+
+    private void distinctFields(String... fieldIds) {
+        when(alerts.distinct(eq("fieldId"), any(Bson.class), eq(String.class))).thenReturn(distinct);
+        when(distinct.into(anyList())).thenAnswer(invocation -> {
+            List<String> target = invocation.getArgument(0);
+            target.addAll(Arrays.asList(fieldIds));
+            return target;
+        });
+    }
+
+    private static Alert alert(boolean read) {
+        Alert alert = new Alert();
+        alert.setUserId("user-001");
+        alert.setFieldId("field-001");
+        alert.setIsRead(read);
+        return alert;
+    }
+}
@@ -0,0 +1,267 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import jakarta.enterprise.event.Event;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.events.AlertDigestEvent;
+import me.soilmonitoring.api.events.AlertTriggeredEvent;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AlertOutbox Tests")
+class AlertOutboxTest {
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private MongoCollections mongo;
+
+    @Mock
+    private Event<AlertTriggeredEvent> alertEvent;
+
+    @Mock
+    private Event<AlertDigestEvent> digestEvent;
+
+    @Mock
+    private MongoCollection<Document> alerts;
+
+    @Mock
+    private FindIterable<Document> found;
+
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    @InjectMocks
+    private AlertOutbox outbox;
+
+    @Test
+    @DisplayName("Should save and announce a high severity alert at once")
+    void testExpressLane() {
+        Alert alert = alert("alert-1", "user-001", "high");
+
+        outbox.submit(raised(alert));
+
+        verify(alertRepository).save(alert);
+        ArgumentCaptor<AlertTriggeredEvent> event = ArgumentCaptor.forClass(AlertTriggeredEvent.class);
+        verify(alertEvent).fireAsync(event.capture());
+        assertSame(alert, event.getValue().getAlert());
+        assertFalse(event.getValue().isEscalation());
+        assertNull(alert.getNotification());
+        assertEquals(0, outbox.queuedCount());
+    }
+
+    @Test
+    @DisplayName("Should write queued alerts in one bulk write and remove the markers of announced ones")
+    void testBatchedInsert() {
+        when(mongo.collection(AlertOutbox.ALERTS)).thenReturn(alerts);
+        recovers();
+        Alert express = alert("alert-0", "user-001", "high");
+        outbox.submit(raised(express));
+        for (int i = 1; i <= 3; i++) {
+            outbox.submit(raised(alert("alert-" + i, "user-001", "medium")));
+        }
+
+        assertEquals(3, outbox.queuedCount());
+        assertEquals(3, outbox.flush());
+
+        verify(alertRepository, times(1)).save(any(Alert.class));
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass((Class) List.class);
+        verify(alerts, times(1)).bulkWrite(writes.capture(), any(BulkWriteOptions.class));
+        assertEquals(3, writes.getValue().size());
+        verify(alerts, times(1)).updateMany(any(Bson.class), any(Bson.class));
+        assertEquals(0, outbox.queuedCount());
+    }
+
+    @Test
+    @DisplayName("Should fold the changes of a queued alert into its queued write")
+    void testQueuedChanges() {
+        Alert alert = alert("alert-1", "user-001", "low");
+        outbox.submit(raised(alert));
+        alert.setStatus(Alert.CLEARED);
+        outbox.submit(new AlertStateManager.Change(AlertStateManager.Transition.CLEARED, alert));
+
+        assertEquals(1, outbox.queuedCount());
+        verify(alertRepository, never()).save(any(Alert.class));
+    }
+
+    @Test
+    @DisplayName("Should announce a user's alerts in one digest, and a single alert as such")
+    void testDigests() {
+        when(mongo.collection(AlertOutbox.ALERTS)).thenReturn(alerts);
+        recovers();
+        outbox.submit(raised(alert("alert-1", "user-001", "medium")));
+        outbox.submit(raised(alert("alert-2", "user-001", "low")));
+        outbox.submit(raised(alert("alert-3", "user-002", "medium")));
+        outbox.flush();
+
+        assertEquals(3, outbox.deliver());
+
+        ArgumentCaptor<AlertDigestEvent> digest = ArgumentCaptor.forClass(AlertDigestEvent.class);
+        verify(digestEvent, times(1)).fireAsync(digest.capture());
+        assertEquals("user-001", digest.getValue().getUserId());
+        assertEquals(2, digest.getValue().getAlerts().size());
+        ArgumentCaptor<AlertTriggeredEvent> single = ArgumentCaptor.forClass(AlertTriggeredEvent.class);
+        verify(alertEvent, times(1)).fireAsync(single.capture());
+        assertEquals("alert-3", single.getValue().getAlert().getId());
+        assertEquals(0, outbox.deliver());
+    }
+
+    @Test
+    @DisplayName("Should not announce alerts before they are written")
+    void testNoDeliveryBeforeWrite() {
+        outbox.submit(raised(alert("alert-1", "user-001", "medium")));
+
+        assertEquals(0, outbox.deliver());
+        verifyNoInteractions(alertEvent, digestEvent);
+    }
+
+    @Test
+    @DisplayName("Should keep the alerts queued when the bulk write fails")
+    void testFailedFlush() {
+        when(mongo.collection(AlertOutbox.ALERTS)).thenReturn(alerts);
+        recovers();
+        when(alerts.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(new MongoException("down"));
+        outbox.submit(raised(alert("alert-1", "user-001", "medium")));
+
+        assertThrows(MongoException.class, () -> outbox.flush());
+
+        assertEquals(1, outbox.queuedCount());
+        assertEquals(0, outbox.deliver());
+    }
+
+    @Test
+    @DisplayName("Should write queued alerts as JNoSQL stores them")
+    void testQueuedDocument() {
+        when(mongo.collection(AlertOutbox.ALERTS)).thenReturn(alerts);
+        recovers();
+        Alert alert = alert("alert-1", "user-001", "medium");
+        outbox.submit(raised(alert));
+
+        outbox.flush();
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass((Class) List.class);
+        verify(alerts).bulkWrite(writes.capture(), any(BulkWriteOptions.class));
+        Document written = ((ReplaceOneModel<Document>) writes.getValue().get(0)).getReplacement();
+        Document stored = stored(alert);
+        for (String key : stored.keySet()) {
+            assertEquals(stored.get(key), written.get(key), key);
+        }
+    }
+
+    @Test
+    @DisplayName("Should announce the alerts still marked after a restart as redeliveries")
+    void testRecovery() {
+        when(mongo.collection(AlertOutbox.ALERTS)).thenReturn(alerts);
+        Alert marked = alert("alert-1", "user-001", "low");
+        marked.setNotification(Alert.NOTIFY_NEW);
+        recovers(stored(marked));
+
+        outbox.flush();
+
+        assertEquals(1, outbox.deliver());
+        ArgumentCaptor<AlertTriggeredEvent> event = ArgumentCaptor.forClass(AlertTriggeredEvent.class);
+        verify(alertEvent).fireAsync(event.capture());
+        assertEquals(marked.getCreatedAt(), event.getValue().getAlert().getCreatedAt());
+        assertTrue(event.getValue().isRedelivery());
+        outbox.flush();
+        verify(alerts, times(1)).find(any(Bson.class));
+        verify(alerts, times(1)).updateMany(any(Bson.class), any(Bson.class));
+    }
+
+    @Test
+    @DisplayName("Should not announce again the alerts announced since the start")
+    void testRecoverySkipsAnnounced() {
+        when(mongo.collection(AlertOutbox.ALERTS)).thenReturn(alerts);
+        Alert express = alert("alert-1", "user-001", "high");
+        outbox.submit(raised(express));
+        Alert marked = alert("alert-1", "user-001", "high");
+        marked.setNotification(Alert.NOTIFY_NEW);
+        recovers(stored(marked));
+
+        outbox.flush();
+
+        assertEquals(0, outbox.deliver());
+        ArgumentCaptor<AlertTriggeredEvent> event = ArgumentCaptor.forClass(AlertTriggeredEvent.class);
+        verify(alertEvent, times(1)).fireAsync(event.capture());
+        assertFalse(event.getValue().isRedelivery());
+    }
+
+    private void recovers(Document... documents) {
+        Iterator<Document> iterator = Arrays.asList(documents).iterator();
+        when(alerts.find(any(Bson.class))).thenReturn(found);
+        when(found.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        lenient().when(cursor.next()).thenAnswer(invocation -> iterator.next());
+    }
+
+    /**
+     * @return the alert as {@code alertRepository.save} stores it
+     */
+    private static Document stored(Alert alert) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("_id", alert.getId());
+        fields.put("version", alert.getVersion());
+        fields.put("userId", alert.getUserId());
+        fields.put("fieldId", alert.getFieldId());
+        fields.put("severity", alert.getSeverity());
+        fields.put("isRead", alert.getIsRead());
+        fields.put("status", alert.getStatus());
+        fields.put("occurrences", alert.getOccurrences());
+        fields.put("createdAt", alert.getCreatedAt());
+        fields.put("lastSeenAt", alert.getLastSeenAt());
+        if (alert.getNotification() != null) {
+            fields.put("notification", alert.getNotification());
+        }
+        return StoredDocuments.write(AlertOutbox.ALERTS, fields);
+    }
+
+    private static AlertStateManager.Change raised(Alert alert) {
+        return new AlertStateManager.Change(AlertStateManager.Transition.RAISED, alert);
+    }
+
+    private static Alert alert(String id, String userId, String severity) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setUserId(userId);
+        alert.setFieldId("field-001");
+        alert.setSeverity(severity);
+        alert.setIsRead(false);
+        alert.setStatus(Alert.OPEN);
+        alert.setOccurrences(1);
+        alert.setCreatedAt(LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000));
+        alert.setLastSeenAt(alert.getCreatedAt());
+        return alert;
+    }
+}
@@ -0,0 +1,89 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import me.soilmonitoring.api.alerts.AlertRuleTable;
+import me.soilmonitoring.api.controllers.repositories.AlertRuleRepository;
+import me.soilmonitoring.api.controllers.repositories.FieldRepository;
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.entities.Metric;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AlertRuleManager Tests")
+class AlertRuleManagerTest {
+
+    @Mock
+    private AlertRuleRepository alertRuleRepository;
+
+    @Mock
+    private FieldRepository fieldRepository;
+
+    @InjectMocks
+    private AlertRuleManager alertRuleManager;
+
+    private Field field;
+
+    @BeforeEach
+    void setUp() {
+        field = new Field();
+        field.setId("f1");
+        field.setCurrentCrop("rice");
+    }
+
+    private static AlertRule cropRule() {
+        AlertRule rule = new AlertRule("soilMoisture", AlertRule.BELOW, 60, "moisture", "high",
+                "Paddy drying out: {value}%", 1);
+        rule.setId("r1");
+        rule.setScope(AlertRule.CROP);
+        rule.setScopeValue("rice");
+        return rule;
+    }
+
+    @Test
+    @DisplayName("Should compile the rules of a field once")
+    void testCachesTable() {
+        when(alertRuleRepository.findAll()).thenReturn(Stream.empty());
+        when(fieldRepository.findById("f1")).thenReturn(Optional.of(field));
+
+        AlertRuleTable first = alertRuleManager.rulesFor("f1");
+
+        assertSame(first, alertRuleManager.rulesFor("f1"));
+        verify(fieldRepository, times(1)).findById("f1");
+    }
+
+    @Test
+    @DisplayName("Should recompile after the rules change in the database")
+    void testReloadIfChanged() {
+        when(alertRuleRepository.findAll()).thenReturn(Stream.empty(), Stream.empty(), Stream.of(cropRule()));
+        when(fieldRepository.findById("f1")).thenReturn(Optional.of(field));
+        int moisture = Metric.SOIL_MOISTURE.ordinal();
+
+        assertEquals(-1, alertRuleManager.rulesFor("f1").match(moisture, 50.0));
+        assertFalse(alertRuleManager.reloadIfChanged());
+        assertTrue(alertRuleManager.reloadIfChanged());
+        assertTrue(alertRuleManager.rulesFor("f1").match(moisture, 50.0) >= 0);
+    }
+
+    @Test
+    @DisplayName("Should reject a rule scoped to nothing")
+    void testSaveRejectsMissingScopeValue() {
+        AlertRule rule = cropRule();
+        rule.setScopeValue(null);
+
+        assertThrows(IllegalArgumentException.class, () -> alertRuleManager.save(rule));
+        verify(alertRuleRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,161 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import me.soilmonitoring.api.alerts.AlertRuleBook;
+import me.soilmonitoring.api.alerts.AlertRuleTable;
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.AlertRule;
+import me.soilmonitoring.api.entities.Metric;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AlertStateManager Tests")
+class AlertStateManagerTest {
+
+    private static final AlertRuleTable RULES = AlertRuleTable.compile(AlertRuleBook.builtIn());
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @InjectMocks
+    private AlertStateManager alertStateManager;
+
+    private AlertStateManager.Change temperature(double value) {
+        int m = Metric.TEMPERATURE.ordinal();
+        return alertStateManager.onEvaluation("f1", Metric.TEMPERATURE, RULES, RULES.match(m, value), value);
+    }
+
+    @Test
+    @DisplayName("Should raise once, count further matches and flush them periodically")
+    void testRaiseAndCount() {
+        alertStateManager.flushSeconds = 0;
+
+        AlertStateManager.Change raised = temperature(17.0);
+        assertEquals(AlertStateManager.Transition.RAISED, raised.transition());
+        assertEquals("temperature", raised.alert().getMetric());
+        assertEquals(Alert.OPEN, raised.alert().getStatus());
+
+        AlertStateManager.Change counted = temperature(16.5);
+        assertEquals(AlertStateManager.Transition.COUNTED, counted.transition());
+        assertSame(raised.alert(), counted.alert());
+        assertEquals(2, counted.alert().getOccurrences());
+    }
+
+    @Test
+    @DisplayName("Should not write occurrences before the flush interval")
+    void testCountWithinFlushInterval() {
+        temperature(17.0);
+
+        assertEquals(AlertStateManager.Transition.NONE, temperature(17.0).transition());
+    }
+
+    @Test
+    @DisplayName("Should escalate the open alert to a more severe rule")
+    void testEscalate() {
+        Alert alert = temperature(17.0).alert();
+
+        AlertStateManager.Change escalated = temperature(12.0);
+
+        assertEquals(AlertStateManager.Transition.ESCALATED, escalated.transition());
+        assertSame(alert, escalated.alert());
+        assertEquals("high", alert.getSeverity());
+        assertEquals("Temperature critically low: 12.0°C", alert.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should clear past the hysteresis band only")
+    void testHysteresis() {
+        temperature(17.0);
+
+        assertEquals(AlertStateManager.Transition.NONE, temperature(18.5).transition());
+        AlertStateManager.Change cleared = temperature(19.0);
+        assertEquals(AlertStateManager.Transition.CLEARED, cleared.transition());
+        assertNotNull(cleared.alert().getClearedAt());
+    }
+
+    @Test
+    @DisplayName("Should reopen a recently cleared alert and raise a new one after the cooldown")
+    void testCooldown() {
+        Alert first = temperature(17.0).alert();
+        temperature(25.0);
+
+        AlertStateManager.Change reopened = temperature(17.0);
+        assertEquals(AlertStateManager.Transition.REOPENED, reopened.transition());
+        assertSame(first, reopened.alert());
+        assertNull(first.getClearedAt());
+
+        temperature(25.0);
+        first.setClearedAt(LocalDateTime.now().minusMinutes(alertStateManager.cooldownMinutes + 1));
+        AlertStateManager.Change raised = temperature(17.0);
+        assertEquals(AlertStateManager.Transition.RAISED, raised.transition());
+        assertNotSame(first, raised.alert());
+    }
+
+    @Test
+    @DisplayName("Should continue the open alerts stored before a restart")
+    void testRestore() {
+        Alert open = new Alert();
+        open.setId("a1");
+        open.setFieldId("f1");
+        open.setAlertType("temperature");
+        open.setMetric("temperature");
+        open.setSeverity("medium");
+        open.setStatus(Alert.OPEN);
+        open.setOccurrences(5);
+        open.setLastSeenAt(LocalDateTime.now());
+        when(alertRepository.findByFieldIdAndStatus("f1", Alert.OPEN)).thenReturn(List.of(open));
+
+        assertEquals(AlertStateManager.Transition.NONE, temperature(17.0).transition());
+        assertEquals(6, open.getOccurrences());
+        assertEquals(AlertStateManager.Transition.CLEARED, temperature(25.0).transition());
+        verify(alertRepository, times(1)).findByFieldIdAndStatus("f1", Alert.OPEN);
+    }
+
+    @Test
+    @DisplayName("Should use a rule's own hysteresis band")
+    void testRuleHysteresis() {
+        AlertRule rule = new AlertRule("humidity", AlertRule.ABOVE, 80, "humidity", "medium", "High humidity", 1);
+        rule.setHysteresis(10.0);
+
+        assertFalse(alertStateManager.isBackToNormal(rule, 75.0));
+        assertTrue(alertStateManager.isBackToNormal(rule, 70.0));
+    }
+
+    @Test
+    @DisplayName("Should leave windowed alerts to their window")
+    void testWindowedAlert() {
+        AlertRule rising = new AlertRule("temperature", AlertRule.ABOVE, 5, "temperature_rising", "medium",
+                "Temperature rising {value}°C/h", 1);
+        rising.setWindow("1h");
+        rising.setAggregate("rate");
+        List<AlertRule> resolved = new ArrayList<>(AlertRuleBook.builtIn());
+        resolved.add(rising);
+        AlertRuleTable rules = AlertRuleTable.compile(resolved);
+        int index = rules.firstWindowed();
+        int m = Metric.TEMPERATURE.ordinal();
+
+        AlertStateManager.Change raised = alertStateManager.onWindowEvaluation("f1", rules, index, 6.0);
+        assertEquals(AlertStateManager.Transition.RAISED, raised.transition());
+        assertEquals("Temperature rising 6.0°C/h", raised.alert().getMessage());
+
+        assertEquals(AlertStateManager.Transition.NONE,
+                alertStateManager.onEvaluation("f1", Metric.TEMPERATURE, rules, rules.match(m, 25.0), 25.0)
+                        .transition());
+        assertEquals(AlertStateManager.Transition.NONE,
+                alertStateManager.onWindowEvaluation("f1", rules, index, 4.9).transition());
+        assertEquals(AlertStateManager.Transition.CLEARED,
+                alertStateManager.onWindowEvaluation("f1", rules, index, 4.0).transition());
+    }
+}
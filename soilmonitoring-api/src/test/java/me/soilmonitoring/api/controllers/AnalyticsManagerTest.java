@@ -0,0 +1,115 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import me.soilmonitoring.api.analytics.AnalyticsPlan;
+import me.soilmonitoring.api.analytics.AnalyticsQuery;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AnalyticsManager Tests")
+class AnalyticsManagerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final Set<AnalyticsQuery.GroupBy> BY_TIME = EnumSet.of(AnalyticsQuery.GroupBy.TIME);
+
+    @Mock
+    private SoilMonitoringManager manager;
+
+    @Mock
+    private RollupManager rollupManager;
+
+    @Mock
+    private ColdSegmentStore coldSegmentStore;
+
+    @InjectMocks
+    private AnalyticsManager analyticsManager;
+
+    @Test
+    @DisplayName("Should answer day-aligned queries from daily rollups")
+    void testChooseDailyRollups() {
+        when(rollupManager.getRolledUpThrough()).thenReturn(Optional.of(DAY.plusDays(10)));
+
+        assertEquals(AnalyticsPlan.Source.DAILY,
+                analyticsManager.chooseSource(DAY, DAY.plusDays(7), BY_TIME, DAY_MILLIS));
+        assertEquals(AnalyticsPlan.Source.HOURLY,
+                analyticsManager.chooseSource(DAY, DAY.plusDays(7), BY_TIME, 6 * HOUR_MILLIS));
+    }
+
+    @Test
+    @DisplayName("Should fall back to raw readings when the range is not rolled up yet")
+    void testChooseRaw() {
+        when(rollupManager.getRolledUpThrough()).thenReturn(Optional.of(DAY));
+        when(rollupManager.expiryHorizon()).thenReturn(Optional.empty());
+        when(coldSegmentStore.coveredUntil()).thenReturn(Optional.empty());
+
+        assertEquals(AnalyticsPlan.Source.RAW,
+                analyticsManager.chooseSource(DAY, DAY.plusDays(1), BY_TIME, HOUR_MILLIS));
+    }
+
+    @Test
+    @DisplayName("Should reject unaligned queries over readings no longer in MongoDB")
+    void testRejectArchivedRaw() {
+        when(rollupManager.getRolledUpThrough()).thenReturn(Optional.of(DAY.plusDays(10)));
+        when(rollupManager.expiryHorizon()).thenReturn(Optional.empty());
+        when(coldSegmentStore.coveredUntil()).thenReturn(Optional.of(DAY.plusDays(5)));
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsManager.chooseSource(
+                DAY.plusMinutes(30), DAY.plusDays(1), BY_TIME, HOUR_MILLIS));
+    }
+
+    @Test
+    @DisplayName("Should reject raw queries over too long a range")
+    void testRejectLongRawWindow() {
+        when(rollupManager.getRolledUpThrough()).thenReturn(Optional.empty());
+        when(rollupManager.expiryHorizon()).thenReturn(Optional.empty());
+        when(coldSegmentStore.coveredUntil()).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsManager.chooseSource(DAY, DAY.plusDays(60), BY_TIME, DAY_MILLIS));
+    }
+
+    @Test
+    @DisplayName("Should refuse fields the user does not own")
+    void testRejectForeignField() {
+        Field field = new Field();
+        field.setId("f1");
+        when(manager.getUserFields("farmer")).thenReturn(List.of(field));
+
+        AnalyticsQuery query = new AnalyticsQuery();
+        query.setMetrics(List.of("temperature"));
+        query.setFieldIds(List.of("f1", "f2"));
+
+        assertThrows(SecurityException.class, () -> analyticsManager.query(query, "farmer"));
+    }
+
+    @Test
+    @DisplayName("Should reject queries with too many buckets")
+    void testRejectTooManyBuckets() {
+        AnalyticsQuery query = new AnalyticsQuery();
+        query.setMetrics(List.of("temperature"));
+        query.setGroupBy(List.of("time"));
+        query.setBucket("1m");
+        query.setFrom(DAY.toString());
+        query.setTo(DAY.plusDays(30).toString());
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsManager.query(query, "farmer"));
+        verifyNoInteractions(manager);
+    }
+}
@@ -0,0 +1,81 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BlockingCallExecutor Tests")
+class BlockingCallExecutorTest {
+
+    @Test
+    @DisplayName("Should run calls on virtual threads")
+    void testRunsOnVirtualThread() {
+        BlockingCallExecutor executor = new BlockingCallExecutor();
+
+        Thread caller = Thread.currentThread();
+        Thread worker = executor.supply(Thread::currentThread).toCompletableFuture().join();
+
+        assertNotSame(caller, worker);
+        assertTrue(worker.isVirtual());
+    }
+
+    @Test
+    @DisplayName("Should complete exceptionally with the call's exception")
+    void testPropagatesException() {
+        BlockingCallExecutor executor = new BlockingCallExecutor();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> executor.supply(() -> {
+                    throw new IllegalStateException("down");
+                }).toCompletableFuture().join());
+
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Should not hold a platform thread per blocked call")
+    void testManyBlockedCalls() throws Exception {
+        BlockingCallExecutor executor = new BlockingCallExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int n = i;
+            CompletionStage<Integer> call = executor.supply(() -> {
+                started.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return n;
+            });
+            calls.add(call.toCompletableFuture());
+        }
+
+        // all calls are blocked at the same time
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (started.get() < 2000 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2000, started.get());
+
+        release.countDown();
+        int sum = 0;
+        for (CompletableFuture<Integer> call : calls) {
+            sum += call.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(1999 * 2000 / 2, sum);
+    }
+}
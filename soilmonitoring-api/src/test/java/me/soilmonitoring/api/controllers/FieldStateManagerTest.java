@@ -0,0 +1,208 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import me.soilmonitoring.api.controllers.repositories.*;
+import me.soilmonitoring.api.entities.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FieldStateManager Tests")
+class FieldStateManagerTest {
+
+    @Mock
+    private FieldStateRepository fieldStateRepository;
+
+    @Mock
+    private SensorReadingRepository sensorReadingRepository;
+
+    @Mock
+    private SensorRepository sensorRepository;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @InjectMocks
+    private FieldStateManager manager;
+
+    private static SensorReading reading(String id, LocalDateTime timestamp, Double temperature) {
+        SensorData data = new SensorData();
+        data.setTemperature(temperature);
+        SensorReading reading = new SensorReading();
+        reading.setId(id);
+        reading.setFieldId("field1");
+        reading.setSensorId("sensor1");
+        reading.setTimestamp(timestamp);
+        reading.setData(data);
+        return reading;
+    }
+
+    private FieldState lastSaved() {
+        ArgumentCaptor<FieldState> captor = ArgumentCaptor.forClass(FieldState.class);
+        verify(fieldStateRepository, atLeastOnce()).save(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    @DisplayName("Should seed a new state from unread alerts, active sensors and today's readings")
+    void testSeedOnFirstReading() {
+        LocalDateTime now = LocalDateTime.now();
+        Sensor active = new Sensor();
+        active.setId("sensor2");
+        active.setStatus("active");
+        Sensor inactive = new Sensor();
+        inactive.setId("sensor3");
+        inactive.setStatus("inactive");
+        SensorReading current = reading("r2", now, 20.0);
+
+        when(alertRepository.countByFieldIdAndIsRead("field1", false)).thenReturn(2L);
+        when(sensorRepository.findByFieldId("field1")).thenReturn(Arrays.asList(active, inactive));
+        when(sensorReadingRepository.findByFieldIdAndTimestampBetween(eq("field1"), any(), any()))
+                .thenReturn(Arrays.asList(reading("r1", now.minusSeconds(1), 10.0), current));
+
+        manager.onReading(current);
+
+        FieldState state = lastSaved();
+        assertEquals("field1", state.getId());
+        assertEquals(2, state.getUnreadAlertCount());
+        assertTrue(state.getActiveSensorIds().containsAll(List.of("sensor1", "sensor2")));
+        assertFalse(state.getActiveSensorIds().contains("sensor3"));
+        // the triggering reading is counted once even though the seed query returned it
+        assertEquals(2, state.getTodayReadingCount());
+        MetricSummary temperature = state.getToday(Metric.TEMPERATURE);
+        assertEquals(10.0, temperature.getMin());
+        assertEquals(20.0, temperature.getMax());
+        assertEquals(15.0, temperature.getAvg());
+        assertEquals(20.0, state.getLatest().getTemperature());
+        assertEquals(now, state.getLastUpdate());
+    }
+
+    @Test
+    @DisplayName("Should keep the latest values when an older reading arrives")
+    void testOutOfOrderReading() {
+        LocalDateTime now = LocalDateTime.now();
+        when(sensorReadingRepository.findByFieldIdAndTimestampBetween(eq("field1"), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        manager.onReading(reading("r1", now, 25.0));
+        manager.onReading(reading("r2", now.minusSeconds(30), 5.0));
+
+        FieldState state = lastSaved();
+        assertEquals(25.0, state.getLatest().getTemperature());
+        assertEquals(now, state.getLastUpdate());
+        assertEquals(2, state.getTodayReadingCount());
+        assertEquals(5.0, state.getToday(Metric.TEMPERATURE).getMin());
+        // seeded once, then updated in memory
+        verify(fieldStateRepository, times(1)).findById("field1");
+    }
+
+    @Test
+    @DisplayName("Should reset today's statistics on the first reading of a new day")
+    void testDayRollover() {
+        LocalDateTime now = LocalDateTime.now();
+        FieldState existing = new FieldState();
+        existing.setId("field1");
+        existing.setDay(now.toLocalDate().minusDays(1));
+        existing.setTodayReadingCount(40);
+        existing.setLastUpdate(now.minusDays(1));
+        when(fieldStateRepository.findById("field1")).thenReturn(Optional.of(existing));
+
+        manager.onReading(reading("r1", now, 12.0));
+
+        FieldState state = lastSaved();
+        assertEquals(now.toLocalDate(), state.getDay());
+        assertEquals(1, state.getTodayReadingCount());
+        assertEquals(12.0, state.getToday(Metric.TEMPERATURE).getMax());
+        verifyNoInteractions(sensorReadingRepository);
+    }
+
+    @Test
+    @DisplayName("Should count unread alerts as they are created, read and deleted")
+    void testUnreadAlertCount() {
+        Alert first = new Alert();
+        first.setFieldId("field1");
+        first.setIsRead(false);
+        Alert second = new Alert();
+        second.setFieldId("field1");
+        second.setIsRead(false);
+        when(alertRepository.countByFieldIdAndIsRead("field1", false)).thenReturn(1L);
+
+        manager.onAlertCreated(first);
+        manager.onAlertCreated(second);
+        assertEquals(2, lastSaved().getUnreadAlertCount());
+
+        manager.onAlertRead(first);
+        assertEquals(1, lastSaved().getUnreadAlertCount());
+
+        first.setIsRead(true);
+        manager.onAlertDeleted(first);
+        manager.onAlertDeleted(second);
+        manager.onAlertDeleted(second);
+        assertEquals(0, lastSaved().getUnreadAlertCount());
+    }
+
+    @Test
+    @DisplayName("Should not count the alert that seeded the state twice")
+    void testSeedOnFirstAlert() {
+        Alert first = new Alert();
+        first.setFieldId("field1");
+        first.setIsRead(false);
+        Alert second = new Alert();
+        second.setFieldId("field1");
+        second.setIsRead(false);
+        // The count the state is seeded with already sees the first, saved alert
+        when(alertRepository.countByFieldIdAndIsRead("field1", false)).thenReturn(3L);
+
+        manager.onAlertCreated(first);
+        assertEquals(3, lastSaved().getUnreadAlertCount());
+
+        manager.onAlertCreated(second);
+        assertEquals(4, lastSaved().getUnreadAlertCount());
+        verify(alertRepository, times(1)).countByFieldIdAndIsRead("field1", false);
+    }
+
+    @Test
+    @DisplayName("Should recount the unread alerts after a bulk change")
+    void testRecountUnread() {
+        FieldState state = new FieldState();
+        state.setId("field1");
+        state.setUnreadAlertCount(5);
+        when(fieldStateRepository.findById("field1")).thenReturn(Optional.of(state));
+        when(alertRepository.countByFieldIdAndIsRead("field1", false)).thenReturn(1L);
+
+        manager.recountUnread("field1");
+
+        assertEquals(1, lastSaved().getUnreadAlertCount());
+        verify(alertRepository, never()).findByFieldIdAndIsRead(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should track sensors becoming active and inactive")
+    void testSensorStatusChanged() {
+        Sensor sensor = new Sensor();
+        sensor.setId("sensor1");
+        sensor.setFieldId("field1");
+        sensor.setStatus("active");
+
+        manager.onSensorStatusChanged(sensor);
+        assertEquals(1, lastSaved().getActiveSensorCount());
+
+        sensor.setStatus("inactive");
+        manager.onSensorStatusChanged(sensor);
+        assertEquals(0, lastSaved().getActiveSensorCount());
+    }
+}
@@ -0,0 +1,80 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HashedTimingWheel Tests")
+class HashedTimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    @DisplayName("Should expire a key once its deadline passed, never before")
+    void testExpiry() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8, 100, START);
+        wheel.schedule("a", START + 250);
+
+        assertEquals(List.of(), wheel.advance(START + 200));
+        assertEquals(List.of("a"), wheel.advance(START + 300));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(START + 400));
+    }
+
+    @Test
+    @DisplayName("Should move the deadline of a key rescheduled before it expires")
+    void testReschedule() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8, 100, START);
+        wheel.schedule("a", START + 200);
+        wheel.schedule("b", START + 200);
+        wheel.schedule("a", START + 500);
+
+        assertEquals(List.of("b"), wheel.advance(START + 300));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("a"), wheel.advance(START + 500));
+    }
+
+    @Test
+    @DisplayName("Should keep deadlines beyond one turn of the wheel for a later round")
+    void testLaterRound() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(4, 100, START);
+        wheel.schedule("a", START + 100);
+        wheel.schedule("later", START + 500); // same slot, next round
+
+        assertEquals(List.of("a"), wheel.advance(START + 100));
+        assertEquals(List.of(), wheel.advance(START + 400));
+        assertEquals(List.of("later"), wheel.advance(START + 500));
+    }
+
+    @Test
+    @DisplayName("Should expire every due key after a pause longer than the wheel")
+    void testLongPause() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(4, 100, START);
+        wheel.schedule("a", START + 100);
+        wheel.schedule("b", START + 300);
+        wheel.schedule("c", START + 5_000);
+
+        List<String> expired = wheel.advance(START + 2_000);
+
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of("a", "b")));
+        assertTrue(wheel.contains("c"));
+    }
+
+    @Test
+    @DisplayName("Should expire past deadlines at the next advance and forget cancelled keys")
+    void testPastDeadlineAndCancel() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8, 100, START);
+        wheel.advance(START + 1_000);
+        wheel.schedule("late", START);
+        wheel.schedule("cancelled", START + 1_200);
+
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+        assertEquals(List.of("late"), wheel.advance(START + 1_100));
+        assertEquals(List.of(), wheel.advance(START + 1_300));
+    }
+}
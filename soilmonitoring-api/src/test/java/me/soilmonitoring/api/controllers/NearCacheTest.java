@@ -0,0 +1,120 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NearCache Tests")
+class NearCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private NearCache<String, String> cache(int maxEntries) {
+        return new NearCache<>(maxEntries, 60, 10, now::get);
+    }
+
+    private Optional<String> load(String key) {
+        loads.incrementAndGet();
+        return key.startsWith("unknown") ? Optional.empty() : Optional.of(key.toUpperCase());
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    @DisplayName("Should load once and then answer from the cache")
+    void testHit() {
+        NearCache<String, String> cache = cache(10);
+
+        assertEquals(Optional.of("A"), cache.get("a", this::load));
+        assertEquals(Optional.of("A"), cache.get("a", this::load));
+
+        assertEquals(1, loads.get());
+        NearCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should cache unknown keys for the negative TTL only")
+    void testNegativeEntries() {
+        NearCache<String, String> cache = cache(10);
+
+        assertTrue(cache.get("unknown-device", this::load).isEmpty());
+        advanceSeconds(9);
+        assertTrue(cache.get("unknown-device", this::load).isEmpty());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().negativeHits());
+
+        advanceSeconds(2);
+        cache.get("unknown-device", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void testExpiry() {
+        NearCache<String, String> cache = cache(10);
+        cache.get("a", this::load);
+
+        advanceSeconds(61);
+        cache.get("a", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry beyond the maximum size")
+    void testEviction() {
+        NearCache<String, String> cache = cache(2);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        cache.get("c", this::load);
+
+        cache.get("a", this::load);
+        assertEquals(3, loads.get());
+        cache.get("b", this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("Should serve written values and drop invalidated ones")
+    void testWriteThrough() {
+        NearCache<String, String> cache = cache(10);
+        cache.get("unknown-device", this::load);
+
+        cache.put("unknown-device", "REGISTERED");
+        assertEquals(Optional.of("REGISTERED"), cache.get("unknown-device", this::load));
+
+        cache.invalidateIf("REGISTERED"::equals);
+        assertTrue(cache.get("unknown-device", this::load).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that raced with a write")
+    void testStaleLoadNotCached() {
+        NearCache<String, String> cache = cache(10);
+
+        Optional<String> stale = cache.get("a", key -> {
+            cache.invalidate("a");
+            return Optional.of("OLD");
+        });
+        assertEquals(Optional.of("OLD"), stale);
+
+        assertEquals(Optional.of("A"), cache.get("a", this::load));
+        assertEquals(1, loads.get());
+    }
+}
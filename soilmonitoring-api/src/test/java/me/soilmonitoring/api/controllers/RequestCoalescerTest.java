@@ -0,0 +1,108 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestCoalescer Tests")
+class RequestCoalescerTest {
+
+    @Test
+    @DisplayName("Should share one in-flight call between concurrent identical requests")
+    void testConcurrentCallsShareResult() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> coalescer.execute("key", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "result";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch followersStarted = new CountDownLatch(3);
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> {
+                    followersStarted.countDown();
+                    return coalescer.execute("key", () -> {
+                        loads.incrementAndGet();
+                        return "other";
+                    });
+                }));
+            }
+            assertTrue(followersStarted.await(5, TimeUnit.SECONDS));
+            // A follower running its own loader would finish at once; still pending, it waits on the first call
+            for (Future<String> follower : followers) {
+                assertThrows(TimeoutException.class, () -> follower.get(100, TimeUnit.MILLISECONDS));
+            }
+            releaseLoader.countDown();
+
+            assertEquals("result", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, coalescer.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run the loader again once the previous call completed")
+    void testSequentialCallsAreNotCached() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger loads = new AtomicInteger();
+
+        coalescer.execute("key", loads::incrementAndGet);
+        coalescer.execute("key", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not coalesce different keys")
+    void testDifferentKeys() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        assertEquals("a", coalescer.execute(List.of("q", "field-1"), () -> "a"));
+        assertEquals("b", coalescer.execute(List.of("q", "field-2"), () -> "b"));
+    }
+
+    @Test
+    @DisplayName("Should propagate loader exceptions and release the key")
+    void testLoaderException() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("key", () -> {
+            throw new IllegalStateException("DB ERROR");
+        }));
+        assertEquals(0, coalescer.inFlightCount());
+        assertEquals("ok", coalescer.execute("key", () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.MetricSummary;
+import me.soilmonitoring.api.entities.ReadingRollup;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RollupManager Tests")
+class RollupManagerTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2025, 11, 1, 14, 0);
+
+    @Test
+    @DisplayName("Should convert a $group result into an hourly rollup")
+    void testToHourlyRollup() {
+        Document result = new Document("_id", new Document("sensorId", "s1")
+                .append("fieldId", "f1")
+                .append("bucket", "2025-11-01T14"))
+                .append("count", 3)
+                .append("temperature_min", 18.0)
+                .append("temperature_max", 22.0)
+                .append("temperature_sum", 60.0)
+                .append("temperature_count", 3)
+                .append("humidity_count", 0);
+
+        ReadingRollup rollup = RollupManager.toHourlyRollup(result);
+
+        assertEquals(ReadingRollup.idOf("s1", ReadingRollup.HOURLY, HOUR), rollup.getId());
+        assertEquals("f1", rollup.getFieldId());
+        assertEquals(HOUR, rollup.getBucketStart());
+        assertEquals(3, rollup.getCount());
+        MetricSummary temperature = rollup.getMetric(Metric.TEMPERATURE);
+        assertEquals(18.0, temperature.getMin());
+        assertEquals(22.0, temperature.getMax());
+        assertEquals(20.0, temperature.getAvg());
+        assertNull(rollup.getMetric(Metric.HUMIDITY));
+    }
+
+    @Test
+    @DisplayName("Should range and bucket readings as JNoSQL stores their timestamps")
+    void testStoredTimestamps() {
+        SensorReading reading = new SensorReading();
+        reading.setId("r1");
+        reading.setSensorId("s1");
+        reading.setFieldId("f1");
+        reading.setTimestamp(HOUR.plusMinutes(59).plusSeconds(59).plusNanos(500_000_000));
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("_id", reading.getId());
+        fields.put("sensorId", reading.getSensorId());
+        fields.put("fieldId", reading.getFieldId());
+        fields.put("timestamp", reading.getTimestamp());
+        Document stored = StoredDocuments.write("SensorReading", fields);
+
+        assertTrue(StoredDocuments.matches(RollupManager.range(HOUR, HOUR.plusHours(1)), stored));
+        assertFalse(StoredDocuments.matches(RollupManager.range(HOUR.plusHours(1), HOUR.plusHours(2)), stored));
+        assertFalse(StoredDocuments.matches(RollupManager.range(HOUR.minusHours(1), HOUR), stored));
+
+        String bucket = stored.getString("timestamp").substring(0, RollupManager.HOUR_KEY_LENGTH);
+        ReadingRollup rollup = RollupManager.toHourlyRollup(new Document("_id", new Document("sensorId", "s1")
+                .append("fieldId", "f1").append("bucket", bucket)).append("count", 1));
+        assertEquals(HOUR, rollup.getBucketStart());
+    }
+
+    @Test
+    @DisplayName("Should fold hourly rollups into one daily rollup per sensor")
+    void testToDailyRollups() {
+        LocalDateTime day = HOUR.toLocalDate().atStartOfDay();
+        List<ReadingRollup> days = RollupManager.toDailyRollups(List.of(
+                hour("s1", HOUR, 10.0), hour("s2", HOUR, 5.0), hour("s1", HOUR.plusHours(1), 20.0)), day);
+
+        assertEquals(2, days.size());
+        ReadingRollup first = days.get(0);
+        assertEquals(ReadingRollup.idOf("s1", ReadingRollup.DAILY, day), first.getId());
+        assertEquals(2, first.getCount());
+        assertEquals(15.0, first.getMetric(Metric.TEMPERATURE).getAvg());
+        assertEquals(1, days.get(1).getCount());
+    }
+
+    private ReadingRollup hour(String sensorId, LocalDateTime start, double temperature) {
+        ReadingRollup rollup = new ReadingRollup(sensorId, "f1", ReadingRollup.HOURLY, start);
+        MetricSummary summary = new MetricSummary("temperature");
+        summary.add(temperature);
+        rollup.setCount(1);
+        rollup.getMetrics().add(summary);
+        return rollup;
+    }
+}
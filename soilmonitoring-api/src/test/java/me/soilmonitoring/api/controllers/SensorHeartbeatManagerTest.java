@@ -0,0 +1,129 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import me.soilmonitoring.api.entities.Sensor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SensorHeartbeatManager Tests")
+class SensorHeartbeatManagerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Mock
+    private SensorRepository sensorRepository;
+
+    @Mock
+    private SoilMonitoringManager manager;
+
+    @Mock
+    private MongoCollections mongo;
+
+    @Mock
+    private MongoCollection<Document> sensors;
+
+    @InjectMocks
+    private SensorHeartbeatManager heartbeatManager;
+
+    @Test
+    @DisplayName("Should write an inactive sensor at once when it reports again")
+    void testTransitionWrittenImmediately() {
+        Sensor sensor = sensor("sensor-1", "inactive");
+
+        assertTrue(heartbeatManager.onReading(sensor, NOW));
+
+        assertEquals("active", sensor.getStatus());
+        assertEquals(NOW, sensor.getLastConnection());
+        verify(sensorRepository).save(sensor);
+        verify(manager).onSensorSaved(sensor);
+        assertEquals(0, heartbeatManager.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Should flush the latest heartbeat of each active sensor in one bulk write")
+    void testHeartbeatsCoalesced() {
+        when(mongo.collection(SensorHeartbeatManager.SENSORS)).thenReturn(sensors);
+        Sensor first = sensor("sensor-1", "active");
+        Sensor second = sensor("sensor-2", "active");
+
+        assertFalse(heartbeatManager.onReading(first, NOW));
+        assertFalse(heartbeatManager.onReading(first, NOW.plusSeconds(10)));
+        assertFalse(heartbeatManager.onReading(second, NOW.plusSeconds(5)));
+
+        verify(sensorRepository, never()).save(any());
+        assertEquals(NOW.plusSeconds(10), first.getLastConnection());
+        assertEquals(2, heartbeatManager.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WriteModel<Document>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(sensors).bulkWrite(updates.capture(), any(BulkWriteOptions.class));
+        assertEquals(2, updates.getValue().size());
+        assertEquals(0, heartbeatManager.flush());
+        verifyNoMoreInteractions(sensors);
+    }
+
+    @Test
+    @DisplayName("Should move lastConnection forward in the form JNoSQL stores it")
+    void testHeartbeatEncoding() {
+        when(mongo.collection(SensorHeartbeatManager.SENSORS)).thenReturn(sensors);
+        heartbeatManager.onReading(sensor("sensor-1", "active"), NOW.plusSeconds(10));
+
+        heartbeatManager.flush();
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArgumentCaptor<List<WriteModel<Document>>> updates = ArgumentCaptor.forClass((Class) List.class);
+        verify(sensors).bulkWrite(updates.capture(), any(BulkWriteOptions.class));
+        BsonDocument update = ((UpdateOneModel<Document>) updates.getValue().get(0)).getUpdate()
+                .toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+        Document stored = StoredDocuments.write("Sensor", Map.of("lastConnection", NOW.plusSeconds(10)));
+        assertEquals(new BsonDocument("lastConnection", new BsonString("2025-06-01T12:00:10")),
+                update.getDocument("$max"));
+        assertEquals(stored.get("lastConnection"), update.getDocument("$max").getString("lastConnection").getValue());
+    }
+
+    @Test
+    @DisplayName("Should keep heartbeats for the next flush when the bulk write fails")
+    void testFailedFlushRetried() {
+        when(mongo.collection(SensorHeartbeatManager.SENSORS)).thenReturn(sensors);
+        when(sensors.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(new MongoException("down"));
+        heartbeatManager.onReading(sensor("sensor-1", "active"), NOW);
+
+        assertThrows(MongoException.class, () -> heartbeatManager.flush());
+
+        assertEquals(1, heartbeatManager.pendingCount());
+    }
+
+    private Sensor sensor(String id, String status) {
+        Sensor sensor = new Sensor();
+        sensor.setId(id);
+        sensor.setStatus(status);
+        sensor.setLastConnection(NOW.minusMinutes(1));
+        return sensor;
+    }
+}
@@ -0,0 +1,137 @@
+package me.soilmonitoring.api.controllers.managers;
+
+import me.soilmonitoring.api.controllers.repositories.AlertRepository;
+import me.soilmonitoring.api.controllers.repositories.SensorRepository;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.Field;
+import me.soilmonitoring.api.entities.Sensor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SensorOfflineDetector Tests")
+class SensorOfflineDetectorTest {
+
+    // The wheel starts at the current time, so tests run relative to it
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Mock
+    private SensorRepository sensorRepository;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private SoilMonitoringManager manager;
+
+    @Mock
+    private FieldStateManager fieldStateManager;
+
+    @Mock
+    private AlertOutbox alertOutbox;
+
+    @InjectMocks
+    private SensorOfflineDetector detector;
+
+    @Test
+    @DisplayName("Should mark a sensor inactive and raise an alert after it misses K intervals")
+    void testMissedHeartbeats() {
+        Sensor sensor = sensor(now);
+        Field field = new Field();
+        field.setUserId("user-001");
+        when(sensorRepository.findByStatus("active")).thenReturn(List.of());
+        when(manager.findSensor("sensor-001")).thenReturn(Optional.of(sensor));
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
+        detector.onHeartbeat(sensor, now, false);
+
+        assertEquals(List.of(), detector.detectOffline(now.plusSeconds(179)));
+        List<Sensor> offline = detector.detectOffline(now.plusSeconds(181));
+
+        assertEquals(List.of(sensor), offline);
+        assertEquals("inactive", sensor.getStatus());
+        verify(sensorRepository).save(sensor);
+        verify(manager).onSensorSaved(sensor);
+        verify(fieldStateManager).onSensorStatusChanged(sensor);
+        ArgumentCaptor<AlertStateManager.Change> change = ArgumentCaptor.forClass(AlertStateManager.Change.class);
+        verify(alertOutbox).submit(change.capture());
+        assertEquals(AlertStateManager.Transition.RAISED, change.getValue().transition());
+        Alert alert = change.getValue().alert();
+        assertEquals(SensorOfflineDetector.SENSOR_OFFLINE, alert.getAlertType());
+        assertEquals("sensor-001", alert.getSensorId());
+        assertEquals("user-001", alert.getUserId());
+        assertEquals(Alert.OPEN, alert.getStatus());
+        assertEquals("high", alert.getSeverity());
+        assertEquals(0, detector.trackedCount());
+    }
+
+    @Test
+    @DisplayName("Should keep a sensor that reported again before its deadline")
+    void testHeartbeatMovesDeadline() {
+        Sensor sensor = sensor(now);
+        when(sensorRepository.findByStatus("active")).thenReturn(List.of());
+        detector.onHeartbeat(sensor, now, false);
+        detector.onHeartbeat(sensor, now.plusSeconds(120), false);
+
+        assertEquals(List.of(), detector.detectOffline(now.plusSeconds(200)));
+
+        verify(sensorRepository, never()).save(any());
+        assertEquals(1, detector.trackedCount());
+    }
+
+    @Test
+    @DisplayName("Should give the active sensors one interval of grace after a restart")
+    void testSeedWithGrace() {
+        Sensor stale = sensor(now.minusHours(1));
+        when(sensorRepository.findByStatus("active")).thenReturn(List.of(stale));
+        when(manager.findSensor("sensor-001")).thenReturn(Optional.of(stale));
+
+        assertEquals(List.of(), detector.detectOffline(now.plusSeconds(1)));
+        assertEquals(1, detector.trackedCount());
+        assertEquals(List.of(stale), detector.detectOffline(now.plusSeconds(62)));
+    }
+
+    @Test
+    @DisplayName("Should clear the offline alert when the sensor reports again")
+    void testReconnectClearsAlert() {
+        Sensor sensor = sensor(now);
+        Alert offline = new Alert();
+        offline.setAlertType(SensorOfflineDetector.SENSOR_OFFLINE);
+        offline.setSensorId("sensor-001");
+        offline.setStatus(Alert.OPEN);
+        Alert other = new Alert();
+        other.setAlertType("temperature");
+        other.setStatus(Alert.OPEN);
+        when(alertRepository.findByFieldIdAndStatus("field-001", Alert.OPEN)).thenReturn(List.of(offline, other));
+
+        detector.onHeartbeat(sensor, now, true);
+
+        assertEquals(Alert.CLEARED, offline.getStatus());
+        assertEquals(now, offline.getClearedAt());
+        assertEquals(Alert.OPEN, other.getStatus());
+        verify(alertRepository).save(offline);
+        verify(alertRepository, never()).save(other);
+    }
+
+    private Sensor sensor(LocalDateTime lastConnection) {
+        Sensor sensor = new Sensor();
+        sensor.setId("sensor-001");
+        sensor.setFieldId("field-001");
+        sensor.setDeviceId("device-123");
+        sensor.setStatus("active");
+        sensor.setLastConnection(lastConnection);
+        return sensor;
+    }
+}
@@ -2,6 +2,7 @@ package me.soilmonitoring.api.controllers.managers;
 
 import me.soilmonitoring.api.controllers.repositories.*;
 import me.soilmonitoring.api.entities.*;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +11,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import jakarta.data.Limit;
+
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -39,10 +42,10 @@ class SoilMonitoringManagerTest {
     private PredictionRepository predictionRepository;
 
     @Mock
-    private AlertRepository alertRepository;
+    private TreatmentRepository treatmentRepository;
 
     @Mock
-    private TreatmentRepository treatmentRepository;
+    private ColdSegmentStore coldSegmentStore;
 
     @InjectMocks
     private SoilMonitoringManager manager;
@@ -52,7 +55,6 @@ class SoilMonitoringManagerTest {
     private Sensor testSensor;
     private SensorReading testReading;
     private Prediction testPrediction;
-    private Alert testAlert;
     private Treatment testTreatment;
 
     @BeforeEach
@@ -105,17 +107,6 @@ class SoilMonitoringManagerTest {
         testPrediction.setConfidence(0.92);
         testPrediction.setCreatedAt(LocalDateTime.now());
 
-        // Setup test alert
-        testAlert = new Alert();
-        testAlert.setId("alert-001");
-        testAlert.setUserId("user-001");
-        testAlert.setFieldId("field-001");
-        testAlert.setAlertType("temperature");
-        testAlert.setSeverity("high");
-        testAlert.setMessage("Temperature too high");
-        testAlert.setIsRead(false);
-        testAlert.setCreatedAt(LocalDateTime.now());
-
         // Setup test treatment
         testTreatment = new Treatment();
         testTreatment.setId("treatment-001");
@@ -402,6 +393,53 @@ class SoilMonitoringManagerTest {
                 .findByFieldIdAndTimestampBetween(fieldId, from, to);
     }
 
+    @Test
+    @DisplayName("Should read archived days from the cold store and the rest from MongoDB")
+    void testGetFieldReadingsByTimeRangeArchived() {
+        // Given
+        String fieldId = "field-001";
+        LocalDateTime archivedUntil = LocalDateTime.of(2024, 5, 2, 0, 0);
+        LocalDateTime from = archivedUntil.minusDays(1);
+        LocalDateTime to = archivedUntil.plusDays(1);
+        SensorReading archived = new SensorReading();
+        archived.setId("s1:2024-05-01T12:00");
+
+        when(coldSegmentStore.coveredUntil()).thenReturn(Optional.of(archivedUntil));
+        when(coldSegmentStore.scanField(fieldId, from, archivedUntil.minusNanos(1)))
+                .thenReturn(List.of(archived));
+        when(sensorReadingRepository.findByFieldIdAndTimestampBetween(fieldId, archivedUntil, to))
+                .thenReturn(List.of(testReading));
+
+        // When
+        List<SensorReading> result = manager.getFieldReadingsByTimeRange(fieldId, from, to);
+
+        // Then
+        assertEquals(List.of(archived, testReading), result);
+    }
+
+    @Test
+    @DisplayName("Should cap sensor readings across the cold store and MongoDB")
+    void testGetSensorReadingsByTimeRangeArchived() {
+        // Given
+        LocalDateTime archivedUntil = LocalDateTime.of(2024, 5, 2, 0, 0);
+        LocalDateTime from = archivedUntil.minusDays(1);
+        LocalDateTime to = archivedUntil.plusDays(1);
+        SensorReading archived = new SensorReading();
+        archived.setId("s1:2024-05-01T12:00");
+
+        when(coldSegmentStore.coveredUntil()).thenReturn(Optional.of(archivedUntil));
+        when(coldSegmentStore.scanSensor("s1", from, archivedUntil.minusNanos(1))).thenReturn(List.of(archived));
+        when(sensorReadingRepository.findBySensorIdAndTimestampBetween("s1", archivedUntil, to, Limit.of(2)))
+                .thenReturn(List.of(testReading));
+
+        // When
+        List<SensorReading> result = manager.getSensorReadingsByTimeRange("s1", from, to, 3);
+
+        // Then
+        assertEquals(List.of(archived, testReading), result);
+        assertEquals(1, manager.getSensorReadingsByTimeRange("s1", from, to, 1).size());
+    }
+
     @Test
     @DisplayName("Should get multiple readings in time range")
     void testGetFieldReadingsByTimeRangeMultiple() {
@@ -510,73 +548,6 @@ class SoilMonitoringManagerTest {
                 .findByFieldIdAndPredictionType(fieldId, predictionType);
     }
 
-    // ===== Tests pour getUnreadAlerts =====
-
-    @Test
-    @DisplayName("Should get unread alerts for user")
-    void testGetUnreadAlertsSuccess() {
-        // Given
-        String userId = "user-001";
-        Alert alert2 = new Alert();
-        alert2.setId("alert-002");
-        alert2.setUserId(userId);
-        alert2.setIsRead(false);
-
-        List<Alert> alerts = Arrays.asList(testAlert, alert2);
-        when(alertRepository.findByUserIdAndIsRead(userId, false)).thenReturn(alerts);
-
-        // When
-        List<Alert> result = manager.getUnreadAlerts(userId);
-
-        // Then
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(testAlert.getId(), result.get(0).getId());
-        assertFalse(result.get(0).getIsRead());
-        assertEquals(alert2.getId(), result.get(1).getId());
-        assertFalse(result.get(1).getIsRead());
-        verify(alertRepository, times(1)).findByUserIdAndIsRead(userId, false);
-    }
-
-    @Test
-    @DisplayName("Should return empty list when user has no unread alerts")
-    void testGetUnreadAlertsEmpty() {
-        // Given
-        String userId = "user-999";
-        when(alertRepository.findByUserIdAndIsRead(userId, false)).thenReturn(Arrays.asList());
-
-        // When
-        List<Alert> result = manager.getUnreadAlerts(userId);
-
-        // Then
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(alertRepository, times(1)).findByUserIdAndIsRead(userId, false);
-    }
-
-    @Test
-    @DisplayName("Should only return unread alerts")
-    void testGetUnreadAlertsOnlyUnread() {
-        // Given
-        String userId = "user-001";
-        Alert unreadAlert = new Alert();
-        unreadAlert.setId("alert-unread");
-        unreadAlert.setUserId(userId);
-        unreadAlert.setIsRead(false);
-
-        List<Alert> alerts = Arrays.asList(unreadAlert);
-        when(alertRepository.findByUserIdAndIsRead(userId, false)).thenReturn(alerts);
-
-        // When
-        List<Alert> result = manager.getUnreadAlerts(userId);
-
-        // Then
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertFalse(result.get(0).getIsRead());
-        verify(alertRepository, times(1)).findByUserIdAndIsRead(userId, false);
-    }
-
     // ===== Tests pour getFieldTreatments =====
 
     @Test
@@ -676,4 +647,50 @@ class SoilMonitoringManagerTest {
         verify(sensorRepository, times(1)).findByFieldId(fieldId);
         verify(sensorReadingRepository, times(1)).findByFieldId(fieldId);
     }
-}
\ No newline at end of file
+
+    // ===== Tests du cache =====
+
+    @Test
+    @DisplayName("Should read a field from the database once")
+    void testFieldCached() {
+        when(fieldRepository.findById("field-001")).thenReturn(Optional.of(testField));
+
+        manager.findFieldById("field-001");
+        Field cached = manager.findFieldById("field-001");
+
+        assertEquals(testField, cached);
+        verify(fieldRepository, times(1)).findById("field-001");
+        assertEquals(1, manager.getCacheStats().get("fieldsById").hits());
+    }
+
+    @Test
+    @DisplayName("Should remember unknown devices until a sensor is registered for them")
+    void testUnknownDeviceCachedUntilRegistered() {
+        when(sensorRepository.findByDeviceId("new-device")).thenReturn(Optional.empty());
+
+        assertTrue(manager.findSensorForDevice("new-device").isEmpty());
+        assertTrue(manager.findSensorForDevice("new-device").isEmpty());
+        verify(sensorRepository, times(1)).findByDeviceId("new-device");
+
+        Sensor sensor = new Sensor();
+        sensor.setId("sensor-new");
+        sensor.setDeviceId("new-device");
+        manager.onSensorSaved(sensor);
+
+        assertEquals(Optional.of(sensor), manager.findSensorForDevice("new-device"));
+        assertEquals(Optional.of(sensor), manager.findSensor("sensor-new"));
+        verify(sensorRepository, never()).findById("sensor-new");
+    }
+
+    @Test
+    @DisplayName("Should drop a deleted sensor from both caches")
+    void testSensorDeletedFromCache() {
+        when(sensorRepository.findByDeviceId("device-123")).thenReturn(Optional.of(testSensor), Optional.empty());
+
+        manager.findSensorForDevice("device-123");
+        manager.onSensorDeleted(testSensor.getId());
+
+        assertTrue(manager.findSensorForDevice("device-123").isEmpty());
+        verify(sensorRepository, times(2)).findByDeviceId("device-123");
+    }
+}
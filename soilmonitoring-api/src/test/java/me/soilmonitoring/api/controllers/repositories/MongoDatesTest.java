@@ -0,0 +1,61 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MongoDates Tests")
+class MongoDatesTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 11, 1, 14, 0);
+
+    @Test
+    @DisplayName("Should encode times as JNoSQL stores them")
+    void testEncodeAsJNoSql() {
+        for (LocalDateTime time : List.of(TIME, TIME.plusSeconds(5), TIME.plusNanos(1_000_000), TIME.plusNanos(1))) {
+            Document stored = StoredDocuments.write("Alert", Map.of("createdAt", time));
+
+            assertEquals(stored.get("createdAt"), MongoDates.encode(time));
+            assertEquals(time, MongoDates.decode(stored.get("createdAt")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep stored times in chronological order whatever their precision")
+    void testOrder() {
+        List<LocalDateTime> times = List.of(TIME, TIME.plusNanos(1), TIME.plusNanos(1_000), TIME.plusNanos(1_000_000),
+                TIME.plusSeconds(1), TIME.plusSeconds(1).plusNanos(120_000_000), TIME.plusMinutes(1));
+        for (int i = 1; i < times.size(); i++) {
+            Document stored = StoredDocuments.write("Alert", Map.of("createdAt", times.get(i)));
+
+            assertTrue(StoredDocuments.matches(Filters.gt("createdAt", MongoDates.encode(times.get(i - 1))), stored));
+            assertTrue(StoredDocuments.matches(Filters.lte("createdAt", MongoDates.encode(times.get(i))), stored));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not match stored times with BSON date bounds")
+    void testDateBoundsMissStrings() {
+        Document stored = StoredDocuments.write("Alert", Map.of("createdAt", TIME));
+
+        assertFalse(StoredDocuments.matches(Filters.lt("createdAt", TIME.plusDays(1)), stored));
+        assertTrue(StoredDocuments.matches(Filters.lt("createdAt", MongoDates.encode(TIME.plusDays(1))), stored));
+    }
+
+    @Test
+    @DisplayName("Should decode legacy BSON dates as UTC")
+    void testDecodeDate() {
+        assertEquals(TIME, MongoDates.decode(Date.from(TIME.toInstant(ZoneOffset.UTC))));
+        assertNull(MongoDates.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> MongoDates.decode(42));
+    }
+}
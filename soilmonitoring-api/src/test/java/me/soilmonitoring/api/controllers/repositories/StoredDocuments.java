@@ -0,0 +1,157 @@
+package me.soilmonitoring.api.controllers.repositories;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.eclipse.jnosql.communication.semistructured.CommunicationEntity;
+import org.eclipse.jnosql.communication.semistructured.Element;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Documents as JNoSQL's MongoDB driver stores them, and an in-memory
+ * evaluation of the filters the raw queries send, so tests see the stored
+ * types rather than hand-built documents.
+ *
+ * Like MongoDB, a comparison only matches values of the same type: a BSON
+ * date never equals, precedes or follows a string.
+ */
+public final class StoredDocuments {
+
+    private static final CodecRegistry REGISTRY = MongoClientSettings.getDefaultCodecRegistry();
+
+    private StoredDocuments() {
+    }
+
+    /**
+     * Converts an entity's fields the way JNoSQL writes them to MongoDB.
+     *
+     * @param collection the entity's collection
+     * @param fields     the entity's fields by stored name, in order; an
+     *                   embedded entity is a map of its fields
+     * @return the document JNoSQL inserts, as the driver reads it back
+     */
+    public static Document write(String collection, Map<String, ?> fields) {
+        List<Element> elements = elements(fields);
+        try {
+            // The conversion MongoDBDocumentManager applies on insert and update
+            Class<?> utils = Class.forName("org.eclipse.jnosql.databases.mongodb.communication.MongoDBUtils");
+            Method getDocument = utils.getDeclaredMethod("getDocument", CommunicationEntity.class);
+            getDocument.setAccessible(true);
+            Document written = (Document) getDocument.invoke(null, CommunicationEntity.of(collection, elements));
+            return new DocumentCodec(REGISTRY).decode(
+                    new BsonDocumentReader(written.toBsonDocument(Document.class, REGISTRY)),
+                    DecoderContext.builder().build());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("JNoSQL's MongoDB writer is not available", e);
+        }
+    }
+
+    private static List<Element> elements(Map<String, ?> fields) {
+        List<Element> elements = new ArrayList<>();
+        fields.forEach((name, value) -> elements.add(value instanceof Map<?, ?> embedded
+                ? Element.of(name, elements(cast(embedded)))
+                : Element.of(name, value)));
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> cast(Map<?, ?> map) {
+        return (Map<String, ?>) map;
+    }
+
+    /**
+     * @return whether the filter matches the document; supports {@code $and},
+     * {@code $or}, equality and {@code $eq}, {@code $in}, {@code $gt},
+     * {@code $gte}, {@code $lt}, {@code $lte} on top-level fields
+     */
+    public static boolean matches(Bson filter, Document document) {
+        return matches(filter.toBsonDocument(BsonDocument.class, REGISTRY),
+                document.toBsonDocument(BsonDocument.class, REGISTRY));
+    }
+
+    private static boolean matches(BsonDocument filter, BsonDocument document) {
+        for (Map.Entry<String, BsonValue> criterion : filter.entrySet()) {
+            String key = criterion.getKey();
+            BsonValue value = criterion.getValue();
+            boolean matched = switch (key) {
+                case "$and" -> all(value.asArray(), document);
+                case "$or" -> any(value.asArray(), document);
+                default -> matchesField(document.get(key), value);
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean all(BsonArray filters, BsonDocument document) {
+        return filters.stream().allMatch(filter -> matches(filter.asDocument(), document));
+    }
+
+    private static boolean any(BsonArray filters, BsonDocument document) {
+        return filters.stream().anyMatch(filter -> matches(filter.asDocument(), document));
+    }
+
+    private static boolean matchesField(BsonValue actual, BsonValue condition) {
+        if (!condition.isDocument() || condition.asDocument().isEmpty()
+                || !condition.asDocument().getFirstKey().startsWith("$")) {
+            return condition.equals(actual);
+        }
+        for (Map.Entry<String, BsonValue> operator : condition.asDocument().entrySet()) {
+            BsonValue bound = operator.getValue();
+            boolean matched = switch (operator.getKey()) {
+                case "$eq" -> bound.equals(actual);
+                case "$in" -> bound.asArray().contains(actual);
+                case "$gt" -> compare(actual, bound) > 0;
+                case "$gte" -> compare(actual, bound) >= 0 && comparable(actual, bound);
+                case "$lt" -> compare(actual, bound) < 0;
+                case "$lte" -> compare(actual, bound) <= 0 && comparable(actual, bound);
+                default -> throw new IllegalArgumentException("Unsupported operator " + operator.getKey());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean comparable(BsonValue actual, BsonValue bound) {
+        return actual != null && (actual.getBsonType() == bound.getBsonType()
+                || actual.isNumber() && bound.isNumber());
+    }
+
+    /**
+     * @return the order of two values of the same type, or 0 for values of
+     * different types, which no range operator matches
+     */
+    private static int compare(BsonValue actual, BsonValue bound) {
+        if (!comparable(actual, bound)) {
+            return 0;
+        }
+        if (actual.isString()) {
+            return actual.asString().getValue().compareTo(bound.asString().getValue());
+        }
+        if (actual.isDateTime()) {
+            return Long.compare(actual.asDateTime().getValue(), bound.asDateTime().getValue());
+        }
+        if (actual.isNumber()) {
+            return Double.compare(actual.asNumber().doubleValue(), bound.asNumber().doubleValue());
+        }
+        if (actual.isObjectId()) {
+            return actual.asObjectId().getValue().compareTo(bound.asObjectId().getValue());
+        }
+        throw new IllegalArgumentException("Unsupported comparison of " + actual.getBsonType());
+    }
+}
@@ -0,0 +1,66 @@
+package me.soilmonitoring.api.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingRollupTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2025, 11, 1, 14, 0);
+
+    private ReadingRollup hour(LocalDateTime start, double... temperatures) {
+        ReadingRollup rollup = new ReadingRollup("s1", "f1", ReadingRollup.HOURLY, start);
+        MetricSummary summary = new MetricSummary("temperature");
+        for (double temperature : temperatures) {
+            summary.add(temperature);
+        }
+        rollup.setCount(temperatures.length);
+        rollup.getMetrics().add(summary);
+        return rollup;
+    }
+
+    @Test
+    void testIdIsDerivedFromSensorGranularityAndBucket() {
+        ReadingRollup rollup = new ReadingRollup("s1", "f1", ReadingRollup.HOURLY, HOUR);
+
+        assertEquals("s1:hour:2025-11-01T14:00", rollup.getId());
+        assertEquals(ReadingRollup.idOf("s1", ReadingRollup.HOURLY, HOUR), rollup.getId());
+    }
+
+    @Test
+    void testAddMergesSummaries() {
+        ReadingRollup day = new ReadingRollup("s1", "f1", ReadingRollup.DAILY, HOUR.toLocalDate().atStartOfDay());
+        day.add(hour(HOUR, 10.0, 20.0));
+        day.add(hour(HOUR.plusHours(1), 30.0));
+
+        MetricSummary temperature = day.getMetric(Metric.TEMPERATURE);
+        assertEquals(3, day.getCount());
+        assertEquals(3, temperature.getCount());
+        assertEquals(10.0, temperature.getMin());
+        assertEquals(30.0, temperature.getMax());
+        assertEquals(20.0, temperature.getAvg());
+        assertNull(day.getMetric(Metric.HUMIDITY));
+    }
+
+    @Test
+    void testToReadingCarriesAverages() {
+        SensorReading reading = hour(HOUR, 10.0, 20.0).toReading();
+
+        assertEquals("s1", reading.getSensorId());
+        assertEquals("f1", reading.getFieldId());
+        assertEquals(HOUR, reading.getTimestamp());
+        assertEquals(15.0, reading.getData().getTemperature());
+        assertNull(reading.getData().getHumidity());
+    }
+
+    @Test
+    void testVersionIncrementAndValidation() {
+        ReadingRollup rollup = new ReadingRollup();
+        assertEquals(0L, rollup.getVersion());
+        rollup.setVersion(0L);
+        assertEquals(1L, rollup.getVersion());
+        assertThrows(IllegalStateException.class, () -> rollup.setVersion(5L));
+    }
+}
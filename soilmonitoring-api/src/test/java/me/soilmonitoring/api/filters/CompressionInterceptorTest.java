@@ -0,0 +1,105 @@
+package me.soilmonitoring.api.filters;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompressionInterceptor Tests")
+class CompressionInterceptorTest {
+
+    private CompressionStats stats;
+    private DeflaterPool pool;
+
+    @BeforeEach
+    void setUp() {
+        stats = new CompressionStats();
+        pool = new DeflaterPool(6, 2, stats);
+    }
+
+    private static byte[] json(int readings) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < readings; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"id\":\"r").append(i).append("\",\"data\":{\"temperature\":")
+                    .append(20 + i % 7).append(".5,\"soilMoisture\":").append(30 + i % 11).append(".0}}");
+        }
+        return json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should parse Accept-Encoding including q-values")
+    void testAcceptsGzip() {
+        assertTrue(CompressionInterceptor.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CompressionInterceptor.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(CompressionInterceptor.acceptsGzip("*"));
+        assertFalse(CompressionInterceptor.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionInterceptor.acceptsGzip("identity"));
+        assertFalse(CompressionInterceptor.acceptsGzip(null));
+    }
+
+    @Test
+    @DisplayName("Should write entities below the threshold unchanged")
+    void testBelowThreshold() throws Exception {
+        byte[] entity = json(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean[] compressed = {false};
+
+        GzipThresholdOutputStream gzip = new GzipThresholdOutputStream(out, 1024, pool, stats,
+                () -> compressed[0] = true);
+        gzip.write(entity);
+        gzip.finish();
+
+        assertFalse(compressed[0]);
+        assertArrayEquals(entity, out.toByteArray());
+        assertEquals(1, stats.getSkippedResponses());
+        assertEquals(0, stats.getDeflatersCreated());
+    }
+
+    @Test
+    @DisplayName("Should gzip entities past the threshold into a valid gzip stream")
+    void testAboveThreshold() throws Exception {
+        byte[] entity = json(2000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean[] compressed = {false};
+
+        GzipThresholdOutputStream gzip = new GzipThresholdOutputStream(out, 1024, pool, stats,
+                () -> compressed[0] = true);
+        // written in pieces, as entity providers do
+        for (int off = 0; off < entity.length; off += 700) {
+            gzip.write(entity, off, Math.min(700, entity.length - off));
+        }
+        gzip.finish();
+
+        assertTrue(compressed[0]);
+        byte[] decoded = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        assertArrayEquals(entity, decoded);
+        assertEquals(1, stats.getCompressedResponses());
+        assertEquals(entity.length, stats.getRawBytes());
+        assertEquals(out.size(), stats.getCompressedBytes());
+        assertTrue(stats.getRatio() < 0.2);
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled deflaters across responses")
+    void testDeflaterReuse() throws Exception {
+        byte[] entity = json(500);
+        for (int i = 0; i < 5; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            GzipThresholdOutputStream gzip = new GzipThresholdOutputStream(out, 256, pool, stats, () -> { });
+            gzip.write(entity);
+            gzip.finish();
+            assertArrayEquals(entity, new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes());
+        }
+
+        assertEquals(1, stats.getDeflatersCreated());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(5, stats.getCompressedResponses());
+    }
+}
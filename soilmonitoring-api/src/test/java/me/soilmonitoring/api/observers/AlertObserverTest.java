@@ -1,8 +1,15 @@
 package me.soilmonitoring.api.observers;
 
+import me.soilmonitoring.api.alerts.AlertRuleBook;
+import me.soilmonitoring.api.alerts.AlertRuleTable;
+import me.soilmonitoring.api.controllers.managers.AlertOutbox;
+import me.soilmonitoring.api.controllers.managers.AlertRuleManager;
+import me.soilmonitoring.api.controllers.managers.AlertStateManager;
+import me.soilmonitoring.api.controllers.managers.AlertWindowManager;
+import me.soilmonitoring.api.controllers.managers.SoilMonitoringManager;
 import me.soilmonitoring.api.controllers.repositories.AlertRepository;
-import me.soilmonitoring.api.controllers.repositories.FieldRepository;
 import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.AlertRule;
 import me.soilmonitoring.api.entities.Field;
 import me.soilmonitoring.api.entities.SensorData;
 import me.soilmonitoring.api.entities.SensorReading;
@@ -16,9 +23,11 @@ import org.mockito.*;
 import jakarta.enterprise.event.Event;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -32,11 +41,24 @@ class AlertObserverTest {
     private AlertRepository alertRepository;
 
     @Mock
-    private FieldRepository fieldRepository;
+    private SoilMonitoringManager manager;
 
     @Mock
     private Event<AlertTriggeredEvent> alertEvent;
 
+    @Mock
+    private AlertRuleManager alertRuleManager;
+
+    @Spy
+    private AlertStateManager alertStateManager = new AlertStateManager();
+
+    @Spy
+    private AlertWindowManager alertWindowManager = new AlertWindowManager();
+
+    // The alerts of these tests are all high severity, so the outbox saves and announces them at once
+    @Spy
+    private AlertOutbox alertOutbox = new AlertOutbox();
+
     @InjectMocks
     private AlertObserver alertObserver;
 
@@ -45,8 +67,17 @@ class AlertObserverTest {
     private Field field;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
+        java.lang.reflect.Field repository = AlertStateManager.class.getDeclaredField("alertRepository");
+        repository.setAccessible(true);
+        repository.set(alertStateManager, alertRepository);
+        java.lang.reflect.Field outboxRepository = AlertOutbox.class.getDeclaredField("alertRepository");
+        outboxRepository.setAccessible(true);
+        outboxRepository.set(alertOutbox, alertRepository);
+        java.lang.reflect.Field outboxEvent = AlertOutbox.class.getDeclaredField("alertEvent");
+        outboxEvent.setAccessible(true);
+        outboxEvent.set(alertOutbox, alertEvent);
 
         data = new SensorData();
         data.setTemperature(10.0);
@@ -67,13 +98,15 @@ class AlertObserverTest {
         field.setId("field-001");
         field.setUserId("user-123");
         field.setName("Test Field");
+
+        when(alertRuleManager.rulesFor("field-001")).thenReturn(AlertRuleTable.compile(AlertRuleBook.builtIn()));
     }
 
     @Test
     @DisplayName("Should create alerts based on sensor thresholds")
     void testThresholdAlertsTriggered() {
 
-        when(fieldRepository.findById("field-001")).thenReturn(Optional.of(field));
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
         when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         SensorReadingEvent event = new SensorReadingEvent(reading, "test-source");
@@ -90,7 +123,7 @@ class AlertObserverTest {
     @DisplayName("Should handle missing field gracefully")
     void testMissingField() {
 
-        when(fieldRepository.findById("field-001")).thenReturn(Optional.empty());
+        when(manager.findField("field-001")).thenReturn(Optional.empty());
         when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         SensorReadingEvent event = new SensorReadingEvent(reading, "test-source");
@@ -105,7 +138,7 @@ class AlertObserverTest {
     @DisplayName("Should log error when alert persistence fails")
     void testAlertSaveFailure() {
 
-        when(fieldRepository.findById("field-001")).thenReturn(Optional.of(field));
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
         doThrow(new RuntimeException("DB ERROR")).when(alertRepository).save(any(Alert.class));
 
         SensorReadingEvent event = new SensorReadingEvent(reading, "test-source");
@@ -127,7 +160,7 @@ class AlertObserverTest {
         data.setSoilMoisture(40.0);
         data.setPh(7.0);
 
-        when(fieldRepository.findById("field-001")).thenReturn(Optional.of(field));
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
 
         SensorReadingEvent event = new SensorReadingEvent(reading, "test-source");
 
@@ -136,4 +169,96 @@ class AlertObserverTest {
         verify(alertRepository, never()).save(any(Alert.class));
         verify(alertEvent, never()).fireAsync(any(AlertTriggeredEvent.class));
     }
+
+    @Test
+    @DisplayName("Should apply the field's own rules")
+    void testFieldRules() {
+        data = new SensorData();
+        data.setTemperature(25.0);
+        reading.setData(data);
+        AlertRule rule = new AlertRule("temperature", AlertRule.ABOVE, 20, "temperature", "high",
+                "Too warm for this crop: {value}°C", 1);
+        when(alertRuleManager.rulesFor("field-001")).thenReturn(AlertRuleTable.compile(List.of(rule)));
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        alertObserver.onSensorReading(new SensorReadingEvent(reading, "test-source"));
+
+        ArgumentCaptor<Alert> alert = ArgumentCaptor.forClass(Alert.class);
+        verify(alertRepository, times(1)).save(alert.capture());
+        assertEquals("Too warm for this crop: 25.0°C", alert.getValue().getMessage());
+        assertEquals("user-123", alert.getValue().getUserId());
+    }
+
+    @Test
+    @DisplayName("Should count repeated readings on the open alert instead of raising new ones")
+    void testRepeatedReadingsDeduplicated() {
+        data = new SensorData();
+        data.setSoilMoisture(10.0);
+        reading.setData(data);
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < 10; i++) {
+            alertObserver.onSensorReading(new SensorReadingEvent(reading, "test-source"));
+        }
+
+        ArgumentCaptor<Alert> alert = ArgumentCaptor.forClass(Alert.class);
+        verify(alertRepository, times(1)).save(alert.capture());
+        verify(alertEvent, times(1)).fireAsync(any(AlertTriggeredEvent.class));
+        assertEquals(10, alert.getValue().getOccurrences());
+    }
+
+    @Test
+    @DisplayName("Should clear the open alert once the value is back past the hysteresis band")
+    void testAlertClears() {
+        data = new SensorData();
+        data.setSoilMoisture(10.0);
+        reading.setData(data);
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        alertObserver.onSensorReading(new SensorReadingEvent(reading, "test-source"));
+        data.setSoilMoisture(20.5);
+        alertObserver.onSensorReading(new SensorReadingEvent(reading, "test-source"));
+        data.setSoilMoisture(30.0);
+        alertObserver.onSensorReading(new SensorReadingEvent(reading, "test-source"));
+
+        ArgumentCaptor<Alert> alert = ArgumentCaptor.forClass(Alert.class);
+        verify(alertRepository, times(2)).save(alert.capture());
+        assertEquals(Alert.CLEARED, alert.getValue().getStatus());
+        verify(alertEvent, times(1)).fireAsync(any(AlertTriggeredEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should raise a windowed alert once its condition held for the whole window")
+    void testWindowedRule() {
+        AlertRule dry = new AlertRule("soilMoisture", AlertRule.BELOW, 20, "sustained_dryness", "high",
+                "Soil moisture below 20% for 30 minutes (max {value}%)", 1);
+        dry.setId("rule-dry");
+        dry.setWindow("30m");
+        dry.setAggregate("max");
+        when(alertRuleManager.rulesFor("field-001")).thenReturn(AlertRuleTable.compile(List.of(dry)));
+        when(manager.findField("field-001")).thenReturn(Optional.of(field));
+        when(alertRepository.save(any(Alert.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        data = new SensorData();
+        reading.setData(data);
+        reading.setSensorId("sensor-001");
+        LocalDateTime start = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+        for (int minute = 0; minute <= 40; minute += 10) {
+            data.setSoilMoisture(minute == 0 ? 18.0 : 15.0);
+            reading.setTimestamp(start.plusMinutes(minute));
+            alertObserver.onSensorReading(new SensorReadingEvent(reading, "test-source"));
+            if (minute < 30) {
+                verify(alertRepository, never()).save(any(Alert.class));
+            }
+        }
+
+        ArgumentCaptor<Alert> alert = ArgumentCaptor.forClass(Alert.class);
+        verify(alertRepository, times(1)).save(alert.capture());
+        assertEquals("sustained_dryness", alert.getValue().getAlertType());
+        assertEquals("Soil moisture below 20% for 30 minutes (max 18.0%)", alert.getValue().getMessage());
+        verify(alertEvent, times(1)).fireAsync(any(AlertTriggeredEvent.class));
+    }
 }
@@ -0,0 +1,69 @@
+package me.soilmonitoring.api.observers;
+
+import me.soilmonitoring.api.controllers.managers.AlertInboxManager;
+import me.soilmonitoring.api.controllers.managers.FieldStateManager;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.events.AlertDigestEvent;
+import me.soilmonitoring.api.events.AlertTriggeredEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FieldStateObserver Tests")
+class FieldStateObserverTest {
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private FieldStateManager fieldStateManager;
+
+    @Mock
+    private AlertInboxManager alertInboxManager;
+
+    @InjectMocks
+    private FieldStateObserver observer;
+
+    @Test
+    @DisplayName("Should count a new alert once and skip escalations")
+    void testCountNewAlert() {
+        Alert alert = alert();
+
+        observer.onAlertDigest(new AlertDigestEvent("user-001", List.of(
+                new AlertTriggeredEvent(alert), new AlertTriggeredEvent(alert(), true))));
+
+        verify(fieldStateManager, times(1)).onAlertCreated(any());
+        verify(fieldStateManager).onAlertCreated(alert);
+        verify(alertInboxManager).onAlertCreated(alert);
+    }
+
+    @Test
+    @DisplayName("Should recount rather than count an alert announced again after a restart")
+    void testRecountRedelivery() {
+        observer.onAlertTriggered(new AlertTriggeredEvent(alert(), false, true));
+        observer.onAlertTriggered(new AlertTriggeredEvent(alert(), false, true));
+
+        verify(fieldStateManager, never()).onAlertCreated(any());
+        verify(alertInboxManager, never()).onAlertCreated(any());
+        verify(fieldStateManager, times(2)).recountUnread("field-001");
+        verify(alertInboxManager, times(2)).recountUnread("user-001");
+    }
+
+    private static Alert alert() {
+        Alert alert = new Alert();
+        alert.setUserId("user-001");
+        alert.setFieldId("field-001");
+        alert.setIsRead(false);
+        return alert;
+    }
+}
@@ -0,0 +1,115 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.JsonValue;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CborWriter Tests")
+class CborWriterTest {
+
+    private interface Encoding {
+        void write(CborWriter writer) throws Exception;
+    }
+
+    // Declared element types for isWriteable
+    @SuppressWarnings("unused")
+    private List<SensorReading> readings;
+    @SuppressWarnings("unused")
+    private List<? extends JsonValue> values;
+    @SuppressWarnings("unused")
+    private List<Object> objects;
+
+    private static String hex(Encoding encoding) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborWriter writer = new CborWriter(out);
+        encoding.write(writer);
+        writer.flush();
+        return HexFormat.of().formatHex(out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Should encode integers with the shortest head (RFC 8949 appendix A)")
+    void testIntegers() throws Exception {
+        assertEquals("00", hex(w -> w.writeNumber(0L)));
+        assertEquals("17", hex(w -> w.writeNumber(23L)));
+        assertEquals("1818", hex(w -> w.writeNumber(24L)));
+        assertEquals("1903e8", hex(w -> w.writeNumber(1000L)));
+        assertEquals("1a000f4240", hex(w -> w.writeNumber(1000000L)));
+        assertEquals("1b000000e8d4a51000", hex(w -> w.writeNumber(1000000000000L)));
+        assertEquals("20", hex(w -> w.writeNumber(-1L)));
+        assertEquals("3863", hex(w -> w.writeNumber(-100L)));
+    }
+
+    @Test
+    @DisplayName("Should write doubles as float32 when no precision is lost")
+    void testDoubles() throws Exception {
+        assertEquals("fa47c35000", hex(w -> w.writeNumber(100000.0)));
+        assertEquals("fa41ac0000", hex(w -> w.writeNumber(21.5)));
+        assertEquals("fb3ff199999999999a", hex(w -> w.writeNumber(1.1)));
+    }
+
+    @Test
+    @DisplayName("Should encode strings, simple values and containers")
+    void testStringsAndContainers() throws Exception {
+        assertEquals("60", hex(w -> w.writeString("")));
+        assertEquals("6449455446", hex(w -> w.writeString("IETF")));
+        assertEquals("62c3bc", hex(w -> w.writeString("\u00fc")));
+        assertEquals("f4f5f6", hex(w -> w.writeBoolean(false).writeBoolean(true).writeNull()));
+        assertEquals("a26161016162820203", hex(w -> w.startMap(2)
+                .writeField("a", 1L)
+                .writeString("b").startArray(2).writeNumber(2L).writeNumber(3L)));
+    }
+
+    @Test
+    @DisplayName("Should keep long strings intact across buffer boundaries")
+    void testLongString() throws Exception {
+        String text = "x".repeat(20000);
+        String encoded = hex(w -> w.writeNumber(1L).writeString(text));
+
+        assertTrue(encoded.startsWith("01794e20"));
+        assertEquals(2 * (1 + 3 + 20000), encoded.length());
+    }
+
+    @Test
+    @DisplayName("Should encode readings more compactly than their JSON")
+    void testReadingList() throws Exception {
+        SensorData data = new SensorData();
+        data.setTemperature(21.5);
+        data.setSoilMoisture(35.0);
+        SensorReading reading = new SensorReading();
+        reading.setId("r1");
+        reading.setTimestamp(LocalDateTime.of(2025, 6, 1, 10, 0));
+        reading.setData(data);
+
+        String encoded = hex(w -> CborMessageBodyWriter.write(List.of(reading), w));
+
+        // array(1), map(4), "id": "r1", "timestamp": "2025-06-01T10:00:00", ...
+        assertTrue(encoded.startsWith("81a46269646272316974696d657374616d70" + "73"
+                + HexFormat.of().formatHex("2025-06-01T10:00:00".getBytes())));
+        assertTrue(encoded.endsWith("a26b74656d7065726174757265fa41ac00006c736f696c4d6f6973747572"
+                + "65fa420c0000"));
+        String json = "[{\"data\":{\"soilMoisture\":35.0,\"temperature\":21.5},\"id\":\"r1\","
+                + "\"timestamp\":\"2025-06-01T10:00:00\",\"version\":0}]";
+        assertTrue(encoded.length() / 2 < json.length());
+    }
+
+    @Test
+    @DisplayName("Should accept collections only of elements it can encode")
+    void testCollectionElementTypes() throws Exception {
+        assertTrue(CborMessageBodyWriter.isWriteable(List.class, getClass().getDeclaredField("readings").getGenericType()));
+        assertTrue(CborMessageBodyWriter.isWriteable(List.class, getClass().getDeclaredField("values").getGenericType()));
+        assertFalse(CborMessageBodyWriter.isWriteable(List.class, getClass().getDeclaredField("objects").getGenericType()));
+        assertFalse(CborMessageBodyWriter.isWriteable(ArrayList.class, ArrayList.class));
+        assertTrue(CborMessageBodyWriter.isWriteable(String.class, String.class));
+    }
+}
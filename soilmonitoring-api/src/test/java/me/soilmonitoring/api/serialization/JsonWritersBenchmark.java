@@ -0,0 +1,123 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.Json;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.stream.JsonGenerator;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON-B with the streaming writers, for a list of readings as sent
+ * by ReadingResource and for the WebSocket sensor data message as previously
+ * built by WebSocketObserver.
+ *
+ * Not a unit test; run it from the IDE or with
+ * {@code java -cp <test classpath> me.soilmonitoring.api.serialization.JsonWritersBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonWritersBenchmark {
+
+    /** A page of field readings and a day of one sensor at 10 s sampling. */
+    @Param({"1000", "8640"})
+    int readingCount;
+
+    private List<SensorReading> readings;
+    private Jsonb jsonb;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        readings = new ArrayList<>(readingCount);
+        for (int i = 0; i < readingCount; i++) {
+            SensorData data = new SensorData();
+            data.setTemperature(10 + random.nextDouble() * 25);
+            data.setHumidity(30 + random.nextDouble() * 60);
+            data.setNitrogen(random.nextDouble() * 100);
+            data.setPhosphorus(random.nextDouble() * 100);
+            data.setPotassium(random.nextDouble() * 100);
+            data.setSoilMoisture(random.nextDouble() * 60);
+            data.setPh(5 + random.nextDouble() * 3);
+            SensorReading reading = new SensorReading();
+            reading.setId(Integer.toHexString(i));
+            reading.setFieldId("field1");
+            reading.setSensorId("sensor1");
+            reading.setTimestamp(start.plusSeconds(10L * i));
+            reading.setData(data);
+            readings.add(reading);
+        }
+        jsonb = JsonbBuilder.create();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    @Benchmark
+    public byte[] jsonbList() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(readingCount * 256);
+        jsonb.toJson(readings, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writerList() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(readingCount * 256);
+        try (JsonGenerator generator = JsonWriters.FACTORY.createGenerator(out, StandardCharsets.UTF_8)) {
+            JsonWriters.writeArray(generator, readings);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public String objectBuilderMessage() {
+        SensorReading reading = readings.get(readingCount / 2);
+        SensorData data = reading.getData();
+        return Json.createObjectBuilder()
+                .add("type", "SENSOR_DATA")
+                .add("payload", Json.createObjectBuilder()
+                        .add("id", reading.getId())
+                        .add("fieldId", reading.getFieldId())
+                        .add("sensorId", reading.getSensorId())
+                        .add("temperature", data.getTemperature() != null ? data.getTemperature() : 0)
+                        .add("humidity", data.getHumidity() != null ? data.getHumidity() : 0)
+                        .add("nitrogen", data.getNitrogen() != null ? data.getNitrogen() : 0)
+                        .add("phosphorus", data.getPhosphorus() != null ? data.getPhosphorus() : 0)
+                        .add("potassium", data.getPotassium() != null ? data.getPotassium() : 0)
+                        .add("soilMoisture", data.getSoilMoisture() != null ? data.getSoilMoisture() : 0)
+                        .add("pH", data.getPh() != null ? data.getPh() : 0)
+                        .add("rainfall", data.getRainfall() != null ? data.getRainfall() : 0)
+                        .add("timestamp", reading.getTimestamp().toString())
+                ).build().toString();
+    }
+
+    @Benchmark
+    public String writerMessage() {
+        return JsonWriters.sensorDataMessage(readings.get(readingCount / 2));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonWritersBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,183 @@
+package me.soilmonitoring.api.serialization;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonStructure;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.stream.JsonGenerator;
+import me.soilmonitoring.api.entities.Alert;
+import me.soilmonitoring.api.entities.Prediction;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JsonWriters Tests")
+class JsonWritersTest {
+
+    private static Jsonb jsonb;
+
+    @BeforeAll
+    static void setUp() {
+        jsonb = JsonbBuilder.create();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    private static String write(Consumer<JsonGenerator> writer) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = JsonWriters.FACTORY.createGenerator(out)) {
+            writer.accept(generator);
+        }
+        return out.toString();
+    }
+
+    private static JsonStructure parse(String json) {
+        try (var reader = Json.createReader(new StringReader(json))) {
+            return reader.read();
+        }
+    }
+
+    private static SensorReading reading(String id, Double ph) {
+        SensorData data = new SensorData();
+        data.setTemperature(21.5);
+        data.setHumidity(60.0);
+        data.setNitrogen(40.0);
+        data.setPh(ph);
+        SensorReading reading = new SensorReading();
+        reading.setId(id);
+        reading.setFieldId("field1");
+        reading.setSensorId("sensor1");
+        reading.setTimestamp(LocalDateTime.of(2024, 5, 1, 10, 30, 15));
+        reading.setData(data);
+        return reading;
+    }
+
+    @Test
+    @DisplayName("Should write a reading as JSON-B does")
+    void testReadingMatchesJsonb() {
+        SensorReading reading = reading("r1", 6.5);
+
+        String json = write(g -> JsonWriters.writeReading(g, reading));
+
+        assertEquals(parse(jsonb.toJson(reading)), parse(json));
+    }
+
+    @Test
+    @DisplayName("Should omit null properties like JSON-B")
+    void testReadingWithNulls() {
+        SensorReading reading = reading(null, null);
+        reading.setTimestamp(null);
+
+        String json = write(g -> JsonWriters.writeReading(g, reading));
+
+        assertEquals(parse(jsonb.toJson(reading)), parse(json));
+        assertFalse(json.contains("\"id\""));
+        assertFalse(json.contains("\"ph\""));
+    }
+
+    @Test
+    @DisplayName("Should write an alert as JSON-B does")
+    void testAlertMatchesJsonb() {
+        Alert alert = new Alert();
+        alert.setId("a1");
+        alert.setUserId("user1");
+        alert.setFieldId("field1");
+        alert.setAlertType("temperature");
+        alert.setSeverity("high");
+        alert.setMessage("Temperature \"too\" high");
+        alert.setIsRead(false);
+        alert.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123000000));
+
+        assertEquals(parse(jsonb.toJson(alert)), parse(write(g -> JsonWriters.writeAlert(g, alert))));
+    }
+
+    @Test
+    @DisplayName("Should write a prediction as JSON-B does")
+    void testPredictionMatchesJsonb() {
+        Prediction.PredictionInput input = new Prediction.PredictionInput();
+        input.setNitrogen(40.0);
+        input.setpH(6.5);
+        input.setCropType("wheat");
+        Prediction.PredictionResult result = new Prediction.PredictionResult();
+        result.setRecommendation("Urea");
+        result.setDetails(Arrays.asList("first", "second"));
+        Prediction prediction = new Prediction();
+        prediction.setId("p1");
+        prediction.setFieldId("field1");
+        prediction.setPredictionType("fertilizer");
+        prediction.setModelUsed("xgboost");
+        prediction.setConfidence(0.87);
+        prediction.setInputData(input);
+        prediction.setResult(result);
+        prediction.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 30));
+
+        assertEquals(parse(jsonb.toJson(prediction)),
+                parse(write(g -> JsonWriters.writePrediction(g, prediction))));
+    }
+
+    @Test
+    @DisplayName("Should write a list of readings as an array")
+    void testArray() {
+        List<SensorReading> readings = List.of(reading("r1", 6.5), reading("r2", 7.0));
+
+        String json = write(g -> JsonWriters.writeArray(g, readings));
+
+        assertEquals(parse(jsonb.toJson(readings)), parse(json));
+    }
+
+    @Test
+    @DisplayName("Should reject objects without a writer")
+    void testUnsupportedEntity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> write(g -> JsonWriters.writeEntity(g, "text")));
+    }
+
+    @Test
+    @DisplayName("Should keep the flat WebSocket sensor data message")
+    void testSensorDataMessage() {
+        JsonObject message = (JsonObject) parse(JsonWriters.sensorDataMessage(reading("r1", null)));
+
+        assertEquals("SENSOR_DATA", message.getString("type"));
+        JsonObject payload = message.getJsonObject("payload");
+        assertEquals("r1", payload.getString("id"));
+        assertEquals("sensor1", payload.getString("sensorId"));
+        assertEquals(21.5, payload.getJsonNumber("temperature").doubleValue());
+        assertEquals(0.0, payload.getJsonNumber("pH").doubleValue());
+        assertEquals(0.0, payload.getJsonNumber("rainfall").doubleValue());
+        assertEquals("2024-05-01T10:30:15", payload.getString("timestamp"));
+    }
+
+    @Test
+    @DisplayName("Should write the WebSocket alert message")
+    void testAlertMessage() {
+        Alert alert = new Alert();
+        alert.setId("a1");
+        alert.setFieldId("field1");
+        alert.setMessage("Low moisture");
+        alert.setSeverity("medium");
+        alert.setAlertType("moisture");
+
+        JsonObject message = (JsonObject) parse(JsonWriters.alertMessage(alert));
+
+        assertEquals("ALERT", message.getString("type"));
+        JsonObject payload = message.getJsonObject("payload");
+        assertEquals("Low moisture", payload.getString("message"));
+        assertTrue(payload.isNull("timestamp"));
+    }
+}
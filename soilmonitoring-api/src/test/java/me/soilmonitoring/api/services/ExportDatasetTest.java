@@ -0,0 +1,90 @@
+package me.soilmonitoring.api.services;
+
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ExportDataset Tests")
+class ExportDatasetTest {
+
+    @Test
+    @DisplayName("Should flatten a reading with empty cells for missing metrics")
+    void testReadingRow() throws Exception {
+        Document reading = new Document("_id", "r1")
+                .append("sensorId", "s1")
+                .append("fieldId", "f1")
+                .append("timestamp", Date.from(Instant.parse("2025-06-01T10:15:30Z")))
+                .append("data", new Document("temperature", 21.5).append("pH", 6.8));
+
+        StringBuilder row = new StringBuilder();
+        ExportDataset.READINGS.writeRow(reading, row);
+
+        assertEquals("id,sensorId,fieldId,timestamp,temperature,humidity,nitrogen,phosphorus,potassium,"
+                + "soilMoisture,rainfall,pH", ExportDataset.READINGS.getHeader());
+        assertEquals("r1,s1,f1,2025-06-01T10:15:30Z,21.5,,,,,,,6.8", row.toString());
+    }
+
+    @Test
+    @DisplayName("Should write the timestamp JNoSQL stores as a UTC instant")
+    void testStoredReadingRow() throws Exception {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("_id", "r2");
+        fields.put("sensorId", "s1");
+        fields.put("fieldId", "f1");
+        fields.put("timestamp", LocalDateTime.of(2025, 6, 1, 10, 15, 30, 250_000_000));
+        fields.put("data", Map.of("soilMoisture", 31.0));
+        Document reading = StoredDocuments.write("SensorReading", fields);
+
+        StringBuilder row = new StringBuilder();
+        ExportDataset.READINGS.writeRow(reading, row);
+
+        assertInstanceOf(String.class, reading.get("timestamp"));
+        assertEquals("r2,s1,f1,2025-06-01T10:15:30.250Z,,,,,,31.0,,", row.toString());
+    }
+
+    @Test
+    @DisplayName("Should export a malformed time as stored")
+    void testMalformedTime() throws Exception {
+        Document prediction = new Document("_id", "p2").append("createdAt", "yesterday");
+
+        StringBuilder row = new StringBuilder();
+        ExportDataset.PREDICTIONS.writeRow(prediction, row);
+
+        assertTrue(row.toString().startsWith("p2,,,,,yesterday,"));
+    }
+
+    @Test
+    @DisplayName("Should flatten prediction inputs and quote text containing separators")
+    void testPredictionRow() throws Exception {
+        Document prediction = new Document("_id", "p1")
+                .append("predictionType", "fertilizer")
+                .append("confidence", 0.91)
+                .append("inputData", new Document("nitrogen", 40).append("soilType", "Loamy"))
+                .append("result", new Document("recommendation", "Urea").append("dosage", "50 kg/ha, \"split\""));
+
+        StringBuilder row = new StringBuilder();
+        ExportDataset.PREDICTIONS.writeRow(prediction, row);
+
+        String[] header = ExportDataset.PREDICTIONS.getHeader().split(",");
+        assertEquals("id", header[0]);
+        assertEquals("recommendation", header[header.length - 2]);
+        assertEquals("p1,,fertilizer,,0.91,,40,,,,,,Loamy,,,,Urea,\"50 kg/ha, \"\"split\"\"\"", row.toString());
+    }
+
+    @Test
+    @DisplayName("Should resolve datasets by path name")
+    void testFromName() {
+        assertEquals(ExportDataset.READINGS, ExportDataset.fromName("readings"));
+        assertEquals(ExportDataset.PREDICTIONS, ExportDataset.fromName("PREDICTIONS"));
+        assertThrows(IllegalArgumentException.class, () -> ExportDataset.fromName("users"));
+    }
+}
@@ -0,0 +1,131 @@
+package me.soilmonitoring.api.services;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.result.DeleteResult;
+import me.soilmonitoring.api.controllers.managers.RollupManager;
+import me.soilmonitoring.api.controllers.repositories.MongoCollections;
+import me.soilmonitoring.api.controllers.repositories.StoredDocuments;
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorReading;
+import me.soilmonitoring.api.timeseries.ColdSegment;
+import me.soilmonitoring.api.timeseries.ColdSegmentStore;
+import me.soilmonitoring.api.timeseries.ReadingColumns;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReadingArchiveJob Tests")
+class ReadingArchiveJobTest {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(7);
+
+    @Mock
+    private ColdSegmentStore coldSegmentStore;
+
+    @Mock
+    private RollupManager rollupManager;
+
+    @Mock
+    private MongoCollections mongo;
+
+    @Mock
+    private MongoCollection<Document> readings;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private FindIterable<Document> found;
+
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    @InjectMocks
+    private ReadingArchiveJob archiveJob;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should select and map a day's readings as JNoSQL stores them")
+    void testStoredReading() {
+        Document stored = stored(DAY.atTime(23, 59, 59, 999_000_000));
+
+        assertTrue(StoredDocuments.matches(ReadingArchiveJob.dayRange(DAY), stored));
+        assertFalse(StoredDocuments.matches(ReadingArchiveJob.dayRange(DAY.plusDays(1)), stored));
+        assertFalse(StoredDocuments.matches(ReadingArchiveJob.dayRange(DAY.minusDays(1)), stored));
+
+        SensorReading reading = ReadingArchiveJob.toReading(stored);
+        assertEquals("s1", reading.getSensorId());
+        assertEquals(DAY.atTime(23, 59, 59, 999_000_000), reading.getTimestamp());
+        assertEquals(21.5, Metric.TEMPERATURE.read(reading.getData()));
+    }
+
+    @Test
+    @DisplayName("Should archive and delete a day once its segment holds every reading")
+    void testArchiveDay() throws Exception {
+        Path file = archiveDayWithMongoCount(1);
+
+        verify(coldSegmentStore).add(any(ColdSegment.class));
+        verify(readings).deleteMany(any(Bson.class));
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Should not archive a day whose segment misses readings MongoDB counts")
+    void testCountMismatch() throws Exception {
+        Path file = archiveDayWithMongoCount(2);
+
+        verify(coldSegmentStore, never()).add(any());
+        verify(readings, never()).deleteMany(any(Bson.class));
+        assertFalse(Files.exists(file));
+    }
+
+    private Path archiveDayWithMongoCount(long count) throws Exception {
+        Path file = directory.resolve("readings-" + DAY + ".seg");
+        LocalDateTime start = DAY.atStartOfDay();
+        when(coldSegmentStore.isEnabled()).thenReturn(true);
+        when(coldSegmentStore.coveredUntil()).thenReturn(Optional.of(start));
+        when(coldSegmentStore.newSegment(DAY)).thenReturn(ColdSegment.create(file,
+                ReadingColumns.toMillis(start), ReadingColumns.toMillis(start.plusDays(1))));
+        when(mongo.collection("SensorReading")).thenReturn(readings);
+        when(readings.find(any(Bson.class))).thenReturn(found);
+        when(found.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(stored(start.plusHours(10)));
+        when(readings.countDocuments(any(Bson.class))).thenReturn(count);
+        lenient().when(readings.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(count));
+
+        archiveJob.archive();
+        return file;
+    }
+
+    private static Document stored(LocalDateTime timestamp) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("_id", "r1");
+        fields.put("sensorId", "s1");
+        fields.put("fieldId", "f1");
+        fields.put("timestamp", timestamp);
+        fields.put("data", Map.of("temperature", 21.5));
+        return StoredDocuments.write("SensorReading", fields);
+    }
+}
@@ -0,0 +1,142 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ColdSegment Tests")
+class ColdSegmentTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+    private static final LocalDateTime MIDNIGHT = DAY.atStartOfDay();
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("segments");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static SensorReading reading(String sensorId, LocalDateTime timestamp, Double temperature) {
+        SensorData data = new SensorData();
+        data.setTemperature(temperature);
+        data.setHumidity(55.0);
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setFieldId("f1");
+        reading.setTimestamp(timestamp);
+        reading.setData(data);
+        return reading;
+    }
+
+    private static List<SensorReading> sensorDay(String sensorId, int count) {
+        List<SensorReading> readings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            readings.add(reading(sensorId, MIDNIGHT.plusSeconds(i * 60L), i % 5 == 0 ? null : 20.0 + i * 0.1));
+        }
+        return readings;
+    }
+
+    private ColdSegmentStore store() {
+        ColdSegmentStore store = new ColdSegmentStore();
+        store.enabled = true;
+        store.directory = directory.toString();
+        store.load();
+        return store;
+    }
+
+    @Test
+    @DisplayName("Should read back what was written, per sensor and per field")
+    void testWriteAndScan() throws IOException {
+        ColdSegment segment;
+        try (ColdSegment.Writer writer = ColdSegment.create(directory.resolve("day.seg"),
+                ReadingColumns.toMillis(MIDNIGHT), ReadingColumns.toMillis(MIDNIGHT.plusDays(1)))) {
+            writer.append("s1", "f1", ReadingColumns.fromReadings(sensorDay("s1", 1440)));
+            writer.append("s2", "f1", ReadingColumns.fromReadings(sensorDay("s2", 10)));
+            segment = writer.commit();
+        }
+
+        assertEquals(2, segment.getSensorCount());
+        List<SensorReading> all = segment.scanSensor("s1", Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(1440, all.size());
+        assertEquals(MIDNIGHT, all.get(0).getTimestamp());
+        assertNull(all.get(0).getData().getTemperature());
+        assertEquals(20.1, all.get(1).getData().getTemperature(), 1e-12);
+        assertEquals(55.0, all.get(1).getData().getHumidity());
+        assertNull(all.get(1).getData().getNitrogen());
+        assertEquals("f1", all.get(1).getFieldId());
+
+        long from = ReadingColumns.toMillis(MIDNIGHT.plusMinutes(5));
+        long to = ReadingColumns.toMillis(MIDNIGHT.plusMinutes(9));
+        assertEquals(5, segment.scanSensor("s1", from, to).size());
+        assertEquals(10, segment.scanField("f1", from, to).size());
+        assertTrue(segment.scanSensor("unknown", from, to).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not complete segments")
+    void testOpenRejectsGarbage() throws IOException {
+        Path file = directory.resolve("broken.seg");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> ColdSegment.open(file));
+    }
+
+    @Test
+    @DisplayName("Should leave no file behind when a segment is not committed")
+    void testAbortedWriteLeavesNothing() throws IOException {
+        try (ColdSegment.Writer writer = ColdSegment.create(directory.resolve("day.seg"), 0, Long.MAX_VALUE)) {
+            writer.append("s1", "f1", ReadingColumns.fromReadings(sensorDay("s1", 3)));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reopen archived days and report their coverage")
+    void testStoreCoverage() throws IOException {
+        ColdSegmentStore store = store();
+        assertTrue(store.coveredUntil().isEmpty());
+
+        for (LocalDate day : List.of(DAY, DAY.plusDays(1))) {
+            try (ColdSegment.Writer writer = store.newSegment(day)) {
+                writer.append("s1", "f1", ReadingColumns.fromReadings(List.of(
+                        reading("s1", day.atTime(12, 0), 20.0))));
+                store.add(writer.commit());
+            }
+        }
+
+        ColdSegmentStore reopened = store();
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(MIDNIGHT, reopened.coveredFrom().orElseThrow());
+        assertEquals(MIDNIGHT.plusDays(2), reopened.coveredUntil().orElseThrow());
+        assertEquals(2, reopened.scanSensor("s1", MIDNIGHT, MIDNIGHT.plusDays(2)).size());
+        assertEquals(1, reopened.scanField("f1", MIDNIGHT.plusHours(13), MIDNIGHT.plusDays(2)).size());
+    }
+}
@@ -0,0 +1,99 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the boxed stream aggregation previously used by StatisticsResource
+ * with the scalar and vector column kernels.
+ *
+ * Not a unit test; run it from the IDE or with
+ * {@code java --add-modules jdk.incubator.vector -cp <test classpath> me.soilmonitoring.api.timeseries.ColumnAggregatesBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ColumnAggregatesBenchmark {
+
+    /** 10 s sampling for 24 h, 72 h, and a week. */
+    @Param({"8640", "25920", "60480"})
+    int readingCount;
+
+    private List<SensorReading> readings;
+    private ReadingColumns columns;
+    private AggregationKernel scalar;
+    private AggregationKernel vector;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.now().minusDays(7);
+        readings = new ArrayList<>(readingCount);
+        for (int i = 0; i < readingCount; i++) {
+            SensorData data = new SensorData();
+            // about one reading in twenty has no temperature
+            if (random.nextInt(20) != 0) {
+                data.setTemperature(10 + random.nextDouble() * 25);
+            }
+            SensorReading reading = new SensorReading();
+            reading.setTimestamp(start.plusSeconds(10L * i));
+            reading.setData(data);
+            readings.add(reading);
+        }
+        columns = ReadingColumns.fromReadings(readings);
+        scalar = ColumnAggregates.scalarKernel();
+        vector = ColumnAggregates.vectorKernel();
+        if (vector == null) {
+            vector = scalar;
+        }
+    }
+
+    @Benchmark
+    public double[] boxedStreams() {
+        double min = readings.stream()
+                .mapToDouble(r -> r.getData().getTemperature() != null ?
+                        r.getData().getTemperature() : Double.MAX_VALUE)
+                .min().orElse(0);
+        double max = readings.stream()
+                .mapToDouble(r -> r.getData().getTemperature() != null ?
+                        r.getData().getTemperature() : Double.MIN_VALUE)
+                .max().orElse(0);
+        double avg = readings.stream()
+                .mapToDouble(r -> r.getData().getTemperature() != null ?
+                        r.getData().getTemperature() : 0)
+                .average().orElse(0);
+        return new double[]{min, max, avg};
+    }
+
+    @Benchmark
+    public ColumnStats scalarKernel() {
+        return scalar.aggregate(columns.column(Metric.TEMPERATURE), columns.validity(Metric.TEMPERATURE),
+                0, columns.size());
+    }
+
+    @Benchmark
+    public ColumnStats vectorKernel() {
+        return vector.aggregate(columns.column(Metric.TEMPERATURE), columns.validity(Metric.TEMPERATURE),
+                0, columns.size());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColumnAggregatesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
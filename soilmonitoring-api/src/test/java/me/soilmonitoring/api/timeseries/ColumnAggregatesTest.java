@@ -0,0 +1,113 @@
+package me.soilmonitoring.api.timeseries;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ColumnAggregates Tests")
+class ColumnAggregatesTest {
+
+    private static List<AggregationKernel> kernels() {
+        List<AggregationKernel> kernels = new ArrayList<>();
+        kernels.add(ColumnAggregates.scalarKernel());
+        AggregationKernel vector = ColumnAggregates.vectorKernel();
+        if (vector != null) {
+            kernels.add(vector);
+        }
+        return kernels;
+    }
+
+    private static void assertMatchesReference(double[] values, long[] validity, int from, int to,
+                                               AggregationKernel kernel) {
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row = from; row < to; row++) {
+            if ((validity[row >>> 6] & (1L << (row & 63))) != 0) {
+                count++;
+                sum += values[row];
+                min = Math.min(min, values[row]);
+                max = Math.max(max, values[row]);
+            }
+        }
+        double variance = 0;
+        for (int row = from; row < to; row++) {
+            if ((validity[row >>> 6] & (1L << (row & 63))) != 0) {
+                variance += (values[row] - sum / count) * (values[row] - sum / count);
+            }
+        }
+
+        ColumnStats stats = kernel.aggregate(values, validity, from, to);
+        String label = kernel.name() + " [" + from + ", " + to + ")";
+        assertEquals(count, stats.getCount(), label);
+        if (count > 0) {
+            assertEquals(sum, stats.getSum(), 1e-6);
+            assertEquals(min, stats.getMin());
+            assertEquals(max, stats.getMax());
+            assertEquals(variance / count, stats.getVariance(), 1e-6);
+        } else {
+            assertTrue(stats.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should match a reference computation on random columns and ranges")
+    void testRandomColumns() {
+        Random random = new Random(42);
+        int size = 1000;
+        double[] values = new double[size];
+        long[] validity = new long[ReadingColumns.words(size)];
+        for (int row = 0; row < size; row++) {
+            if (random.nextInt(5) != 0) {
+                values[row] = random.nextDouble() * 100 - 20;
+                validity[row >>> 6] |= 1L << (row & 63);
+            }
+        }
+
+        for (AggregationKernel kernel : kernels()) {
+            assertMatchesReference(values, validity, 0, size, kernel);
+            for (int i = 0; i < 200; i++) {
+                int from = random.nextInt(size);
+                int to = from + random.nextInt(size - from + 1);
+                assertMatchesReference(values, validity, from, to, kernel);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle fully valid and fully missing columns")
+    void testFullAndEmptyValidity() {
+        double[] values = new double[130];
+        long[] allValid = {-1L, -1L, -1L};
+        long[] noneValid = new long[3];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = row;
+        }
+
+        for (AggregationKernel kernel : kernels()) {
+            ColumnStats stats = kernel.aggregate(values, allValid, 0, values.length);
+            assertEquals(130, stats.getCount());
+            assertEquals(0.0, stats.getMin());
+            assertEquals(129.0, stats.getMax());
+            assertEquals(64.5, stats.getMean(), 1e-9);
+
+            assertTrue(kernel.aggregate(values, noneValid, 0, values.length).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return empty stats for an empty range")
+    void testEmptyRange() {
+        ColumnStats stats = ColumnAggregates.aggregate(new double[4], new long[1], 2, 2);
+
+        assertTrue(stats.isEmpty());
+        assertTrue(Double.isNaN(stats.getMean()));
+        assertNotNull(ColumnAggregates.kernelName());
+    }
+}
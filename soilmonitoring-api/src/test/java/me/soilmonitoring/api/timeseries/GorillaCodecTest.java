@@ -0,0 +1,97 @@
+package me.soilmonitoring.api.timeseries;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GorillaCodec Tests")
+class GorillaCodecTest {
+
+    private static final long START = 1_714_521_600_000L; // 2024-05-01T00:00Z
+
+    @Test
+    @DisplayName("Should round-trip regular, jittered and irregular timestamps")
+    void testTimestampsRoundTrip() {
+        Random random = new Random(42);
+        long[] timestamps = new long[1000];
+        timestamps[0] = START;
+        for (int i = 1; i < timestamps.length; i++) {
+            long step = i < 300 ? 10_000 // steady
+                    : i < 600 ? 10_000 + random.nextInt(2_000) - 1_000 // jitter
+                    : random.nextInt(86_400_000); // gaps
+            timestamps[i] = timestamps[i - 1] + step;
+        }
+
+        BitWriter out = new BitWriter(64);
+        GorillaCodec.encodeTimestamps(out, timestamps, timestamps.length);
+        long[] decoded = new long[timestamps.length];
+        GorillaCodec.decodeTimestamps(new BitReader(ByteBuffer.wrap(out.toByteArray()), 0), decoded, decoded.length);
+
+        assertArrayEquals(timestamps, decoded);
+    }
+
+    @Test
+    @DisplayName("Should encode a steady series in about one bit per reading")
+    void testSteadyTimestampsCompress() {
+        long[] timestamps = new long[8640];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = START + i * 10_000L;
+        }
+        BitWriter out = new BitWriter(64);
+        GorillaCodec.encodeTimestamps(out, timestamps, timestamps.length);
+
+        assertTrue(out.byteLength() < timestamps.length / 8 + 16);
+    }
+
+    @Test
+    @DisplayName("Should round-trip values including missing ones, NaN and extremes")
+    void testValuesRoundTrip() {
+        Random random = new Random(7);
+        int size = 500;
+        double[] values = new double[size];
+        long[] validity = new long[ReadingColumns.words(size)];
+        for (int row = 0; row < size; row++) {
+            if (row % 17 == 3) {
+                continue; // missing
+            }
+            values[row] = row < 100 ? 21.5
+                    : row == 200 ? Double.NaN
+                    : row == 201 ? Double.MAX_VALUE
+                    : row == 202 ? -0.0
+                    : 20 + random.nextGaussian();
+            validity[row >>> 6] |= 1L << (row & 63);
+        }
+
+        BitWriter out = new BitWriter(64);
+        GorillaCodec.encodeValues(out, values, validity, size);
+        double[] decoded = new double[size];
+        long[] decodedValidity = new long[validity.length];
+        GorillaCodec.decodeValues(new BitReader(ByteBuffer.wrap(out.toByteArray()), 0), decoded, decodedValidity, size);
+
+        assertArrayEquals(validity, decodedValidity);
+        for (int row = 0; row < size; row++) {
+            assertEquals(Double.doubleToRawLongBits(values[row]), Double.doubleToRawLongBits(decoded[row]));
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode streams that start mid-buffer")
+    void testReadAtOffset() {
+        long[] timestamps = {START, START + 1_000, START + 2_500};
+        BitWriter out = new BitWriter(16);
+        GorillaCodec.encodeTimestamps(out, timestamps, 3);
+        byte[] stream = out.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(stream.length + 5);
+        buffer.position(5);
+        buffer.put(stream);
+
+        long[] decoded = new long[3];
+        GorillaCodec.decodeTimestamps(new BitReader(buffer, 5), decoded, 3);
+
+        assertArrayEquals(timestamps, decoded);
+    }
+}
@@ -0,0 +1,175 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.Metric;
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HotReadingStore Tests")
+class HotReadingStoreTest {
+
+    private HotReadingStore store;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        store = new HotReadingStore();
+        start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+    }
+
+    private SensorReading reading(String sensorId, LocalDateTime timestamp, Double temperature) {
+        SensorData data = new SensorData();
+        data.setTemperature(temperature);
+        data.setHumidity(50.0);
+
+        SensorReading reading = new SensorReading();
+        reading.setId(sensorId + "-" + timestamp);
+        reading.setSensorId(sensorId);
+        reading.setFieldId("field-001");
+        reading.setTimestamp(timestamp);
+        reading.setData(data);
+        return reading;
+    }
+
+    @Test
+    @DisplayName("Should return merged, sorted columns for all sensors of a field")
+    void testScanFieldMergesSensors() {
+        store.append(reading("sensor-a", start.plusSeconds(10), 20.0));
+        store.append(reading("sensor-b", start.plusSeconds(5), 22.0));
+        store.append(reading("sensor-a", start.plusSeconds(20), null));
+
+        Optional<ReadingColumns> result = store.scanField("field-001", start, start.plusMinutes(1));
+
+        assertTrue(result.isPresent());
+        ReadingColumns columns = result.get();
+        assertEquals(3, columns.size());
+        assertEquals(start.plusSeconds(5), columns.timestampAsDateTime(0));
+        assertEquals(22.0, columns.value(Metric.TEMPERATURE, 0));
+        assertEquals(20.0, columns.value(Metric.TEMPERATURE, 1));
+        assertFalse(columns.isValid(Metric.TEMPERATURE, 2));
+        assertTrue(columns.isValid(Metric.HUMIDITY, 2));
+    }
+
+    @Test
+    @DisplayName("Should honour the requested range bounds")
+    void testScanFieldRange() {
+        for (int i = 0; i < 10; i++) {
+            store.append(reading("sensor-a", start.plusMinutes(i), (double) i));
+        }
+
+        ReadingColumns columns = store.scanField("field-001", start.plusMinutes(2), start.plusMinutes(5)).orElseThrow();
+
+        assertEquals(4, columns.size());
+        assertEquals(2.0, columns.value(Metric.TEMPERATURE, 0));
+        assertEquals(5.0, columns.value(Metric.TEMPERATURE, 3));
+    }
+
+    @Test
+    @DisplayName("Should refuse ranges starting before the store received readings")
+    void testRangeBeforeStartupNotCovered() {
+        store.append(reading("sensor-a", start, 20.0));
+
+        assertTrue(store.scanField("field-001", start.minusHours(1), start).isEmpty());
+        assertFalse(store.covers("field-001", start.minusHours(1)));
+    }
+
+    @Test
+    @DisplayName("Should keep samples in order when they arrive out of order")
+    void testOutOfOrderAppend() {
+        store.append(reading("sensor-a", start.plusSeconds(30), 3.0));
+        store.append(reading("sensor-a", start.plusSeconds(10), 1.0));
+        store.append(reading("sensor-a", start.plusSeconds(20), 2.0));
+
+        ReadingColumns columns = store.scanField("field-001", start, start.plusMinutes(1)).orElseThrow();
+
+        assertEquals(1.0, columns.value(Metric.TEMPERATURE, 0));
+        assertEquals(2.0, columns.value(Metric.TEMPERATURE, 1));
+        assertEquals(3.0, columns.value(Metric.TEMPERATURE, 2));
+    }
+
+    @Test
+    @DisplayName("Should grow buffers past the initial capacity")
+    void testGrowth() {
+        int samples = SensorRingBuffer.INITIAL_CAPACITY * 3;
+        for (int i = 0; i < samples; i++) {
+            store.append(reading("sensor-a", start.plusSeconds(i), (double) i));
+        }
+
+        ReadingColumns columns = store.scanField("field-001", start, start.plusHours(1)).orElseThrow();
+
+        assertEquals(samples, columns.size());
+        assertEquals(samples - 1.0, columns.value(Metric.TEMPERATURE, samples - 1));
+        assertTrue(store.getAllocatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should stop answering for a range whose samples were overwritten")
+    void testEvictionShrinksCoverage() {
+        store.maxSamplesPerSensor = SensorRingBuffer.INITIAL_CAPACITY;
+        for (int i = 0; i < SensorRingBuffer.INITIAL_CAPACITY + 1; i++) {
+            store.append(reading("sensor-a", start.plusSeconds(i), (double) i));
+        }
+
+        assertTrue(store.scanField("field-001", start, start.plusHours(1)).isEmpty());
+        assertTrue(store.scanField("field-001", start.plusSeconds(1), start.plusHours(1)).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should return the readings of a single sensor")
+    void testScanSensor() {
+        store.append(reading("sensor-a", start.plusSeconds(10), 20.0));
+        store.append(reading("sensor-b", start.plusSeconds(5), 22.0));
+        store.append(reading("sensor-a", start.plusSeconds(20), 21.0));
+
+        ReadingColumns columns = store.scanSensor("sensor-a", start, start.plusMinutes(1)).orElseThrow();
+
+        assertEquals(2, columns.size());
+        assertEquals(20.0, columns.value(Metric.TEMPERATURE, 0));
+        assertEquals(21.0, columns.value(Metric.TEMPERATURE, 1));
+        assertTrue(store.scanSensor("sensor-c", start, start.plusMinutes(1)).isEmpty());
+        assertTrue(store.scanSensor("sensor-a", start.minusHours(1), start).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should move a sensor's new readings to its new field")
+    void testSensorMovesField() {
+        store.append(reading("sensor-a", start.plusSeconds(10), 20.0));
+        store.append(reading("sensor-b", start.plusSeconds(15), 22.0));
+        SensorReading moved = reading("sensor-a", start.plusSeconds(20), 21.0);
+        moved.setFieldId("field-002");
+        store.append(moved);
+
+        ReadingColumns newField = store.scanField("field-002", start.plusSeconds(11), start.plusMinutes(1)).orElseThrow();
+        assertEquals(1, newField.size());
+        assertEquals(21.0, newField.value(Metric.TEMPERATURE, 0));
+
+        assertTrue(store.scanField("field-001", start, start.plusMinutes(1)).isEmpty());
+        ReadingColumns oldField = store.scanField("field-001", start.plusSeconds(11), start.plusMinutes(1)).orElseThrow();
+        assertEquals(1, oldField.size());
+        assertEquals(22.0, oldField.value(Metric.TEMPERATURE, 0));
+
+        assertTrue(store.scanSensor("sensor-a", start, start.plusMinutes(1)).isEmpty());
+        assertEquals(1, store.scanSensor("sensor-a", start.plusSeconds(11), start.plusMinutes(1)).orElseThrow().size());
+        assertEquals(2, store.getTrackedSensorCount());
+    }
+
+    @Test
+    @DisplayName("Should return the most recent reading of a field")
+    void testLatest() {
+        SensorReading older = reading("sensor-a", start, 20.0);
+        SensorReading newer = reading("sensor-b", start.plusSeconds(1), 21.0);
+        store.append(newer);
+        store.append(older);
+
+        assertEquals(newer, store.latest("field-001").orElseThrow());
+        assertTrue(store.latest("field-002").isEmpty());
+    }
+}
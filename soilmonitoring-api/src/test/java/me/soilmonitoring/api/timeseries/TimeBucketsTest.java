@@ -0,0 +1,74 @@
+package me.soilmonitoring.api.timeseries;
+
+import me.soilmonitoring.api.entities.SensorData;
+import me.soilmonitoring.api.entities.SensorReading;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimeBuckets Tests")
+class TimeBucketsTest {
+
+    private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    private static SensorReading reading(LocalDateTime timestamp) {
+        SensorReading reading = new SensorReading();
+        reading.setTimestamp(timestamp);
+        reading.setData(new SensorData());
+        return reading;
+    }
+
+    @Test
+    @DisplayName("Should parse short and ISO-8601 bucket widths")
+    void testParseWidth() {
+        assertEquals(Duration.ofSeconds(30), TimeBuckets.parseWidth("30s"));
+        assertEquals(Duration.ofMinutes(15), TimeBuckets.parseWidth("15m"));
+        assertEquals(Duration.ofHours(1), TimeBuckets.parseWidth("1h"));
+        assertEquals(Duration.ofDays(1), TimeBuckets.parseWidth("1d"));
+        assertEquals(Duration.ofMinutes(5), TimeBuckets.parseWidth("PT5M"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed or empty widths")
+    void testParseWidthInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> TimeBuckets.parseWidth("hourly"));
+        assertThrows(IllegalArgumentException.class, () -> TimeBuckets.parseWidth("0m"));
+        assertThrows(IllegalArgumentException.class, () -> TimeBuckets.parseWidth("-PT1H"));
+    }
+
+    @Test
+    @DisplayName("Should count the aligned buckets a range touches")
+    void testCount() {
+        long hour = Duration.ofHours(1).toMillis();
+        long from = ReadingColumns.toMillis(MIDNIGHT.plusMinutes(30));
+
+        assertEquals(1, TimeBuckets.count(from, from + hour / 4, hour));
+        assertEquals(2, TimeBuckets.count(from, from + hour, hour));
+        assertEquals(25, TimeBuckets.count(from, from + 24 * hour, hour));
+    }
+
+    @Test
+    @DisplayName("Should visit non-empty buckets aligned on the width")
+    void testForEach() {
+        List<SensorReading> readings = List.of(
+                reading(MIDNIGHT.plusMinutes(50)),
+                reading(MIDNIGHT.plusMinutes(59)),
+                reading(MIDNIGHT.plusMinutes(60)),
+                reading(MIDNIGHT.plusHours(3).plusMinutes(1)));
+        List<long[]> buckets = new ArrayList<>();
+
+        TimeBuckets.forEach(ReadingColumns.fromReadings(readings), Duration.ofHours(1).toMillis(),
+                (start, first, end) -> buckets.add(new long[]{start, first, end}));
+
+        assertEquals(3, buckets.size());
+        assertArrayEquals(new long[]{ReadingColumns.toMillis(MIDNIGHT), 0, 2}, buckets.get(0));
+        assertArrayEquals(new long[]{ReadingColumns.toMillis(MIDNIGHT.plusHours(1)), 2, 3}, buckets.get(1));
+        assertArrayEquals(new long[]{ReadingColumns.toMillis(MIDNIGHT.plusHours(3)), 3, 4}, buckets.get(2));
+    }
+}
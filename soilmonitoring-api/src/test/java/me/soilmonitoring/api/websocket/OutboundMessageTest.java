@@ -0,0 +1,29 @@
+package me.soilmonitoring.api.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OutboundMessage Tests")
+class OutboundMessageTest {
+
+    @Test
+    @DisplayName("Should encode the text once and hand out independent views of it")
+    void testSharedBinary() {
+        OutboundMessage message = OutboundMessage.of("{\"type\":\"ALERT\",\"message\":\"Température élevée\"}");
+
+        ByteBuffer first = message.binary();
+        ByteBuffer second = message.binary();
+        byte[] read = new byte[first.remaining()];
+        first.get(read);
+
+        assertEquals(message.text(), new String(read, StandardCharsets.UTF_8));
+        assertEquals(0, first.remaining());
+        assertEquals(read.length, second.remaining());
+        assertTrue(second.isReadOnly());
+    }
+}
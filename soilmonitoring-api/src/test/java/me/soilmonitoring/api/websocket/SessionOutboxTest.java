@@ -0,0 +1,147 @@
+package me.soilmonitoring.api.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionOutbox Tests")
+class SessionOutboxTest {
+
+    /**
+     * Records the sends, completed by the test.
+     */
+    private static final class FakeTransport implements SessionOutbox.Transport {
+        final List<String> sent = new ArrayList<>();
+        final List<Consumer<Throwable>> pending = new ArrayList<>();
+        String closed;
+
+        @Override
+        public void send(OutboundMessage message, Consumer<Throwable> done) {
+            sent.add(message.text());
+            pending.add(done);
+        }
+
+        @Override
+        public void close(String reason) {
+            closed = reason;
+        }
+
+        void complete(Throwable failure) {
+            pending.remove(0).accept(failure);
+        }
+    }
+
+    private final FakeTransport transport = new FakeTransport();
+    private long now = 1_000;
+    private final SessionOutbox outbox = new SessionOutbox(transport, 3, 5_000, () -> now);
+
+    private boolean offer(String text, String key) {
+        return outbox.offer(OutboundMessage.of(text), key);
+    }
+
+    @Test
+    @DisplayName("Should send one message at a time, in order")
+    void testSendsInOrder() {
+        assertTrue(offer("a", null));
+        assertTrue(offer("b", null));
+        assertTrue(offer("c", null));
+
+        assertEquals(List.of("a"), transport.sent);
+        transport.complete(null);
+        transport.complete(null);
+        assertEquals(List.of("a", "b", "c"), transport.sent);
+        transport.complete(null);
+        assertEquals(0, outbox.queued());
+
+        offer("d", null);
+        assertEquals(List.of("a", "b", "c", "d"), transport.sent);
+    }
+
+    @Test
+    @DisplayName("Should replace a queued message with the newer one of the same key")
+    void testConflation() {
+        offer("first", null);
+        offer("sensor-1 v1", "reading:sensor-1");
+        offer("sensor-2 v1", "reading:sensor-2");
+        offer("sensor-1 v2", "reading:sensor-1");
+
+        assertEquals(2, outbox.queued());
+        assertEquals(1, outbox.conflated());
+        transport.complete(null);
+        transport.complete(null);
+        assertEquals(List.of("first", "sensor-1 v2", "sensor-2 v1"), transport.sent);
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest message when the queue is full")
+    void testDropOldest() {
+        offer("in flight", null);
+        for (int i = 1; i <= 4; i++) {
+            offer("m" + i, null);
+        }
+
+        assertEquals(3, outbox.queued());
+        assertEquals(1, outbox.dropped());
+        for (int i = 0; i < 4; i++) {
+            transport.complete(null);
+        }
+        assertEquals(List.of("in flight", "m2", "m3", "m4"), transport.sent);
+        assertNull(transport.closed);
+    }
+
+    @Test
+    @DisplayName("Should disconnect a client whose queue stays full")
+    void testSlowConsumerEvicted() {
+        offer("in flight", null);
+        for (int i = 1; i <= 4; i++) {
+            offer("m" + i, null);
+        }
+        now += 4_999;
+        assertTrue(offer("m5", null));
+        now += 1;
+
+        assertFalse(offer("m6", null));
+        assertNotNull(transport.closed);
+        assertFalse(offer("m7", null));
+        transport.complete(null);
+        assertEquals(List.of("in flight"), transport.sent);
+    }
+
+    @Test
+    @DisplayName("Should forgive a client that caught up")
+    void testSaturationResets() {
+        offer("in flight", null);
+        for (int i = 1; i <= 4; i++) {
+            offer("m" + i, null);
+        }
+        for (int i = 0; i < 3; i++) {
+            transport.complete(null);
+        }
+        now += 10_000;
+        for (int i = 5; i <= 7; i++) {
+            offer("m" + i, null);
+        }
+
+        assertTrue(offer("m8", null));
+        assertNull(transport.closed);
+    }
+
+    @Test
+    @DisplayName("Should disconnect a client whose send failed")
+    void testSendFailure() {
+        offer("a", null);
+        offer("b", null);
+
+        transport.complete(new IOException("broken pipe"));
+
+        assertNotNull(transport.closed);
+        assertEquals(List.of("a"), transport.sent);
+        assertFalse(offer("c", null));
+    }
+}
@@ -0,0 +1,65 @@
+package me.soilmonitoring.api.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SubscriptionIndex Tests")
+class SubscriptionIndexTest {
+
+    private final SubscriptionIndex<String> index = new SubscriptionIndex<>();
+
+    @Test
+    @DisplayName("Should route a topic only to its subscribers")
+    void testSubscribers() {
+        assertTrue(index.subscribe("session-1", "field:field-001"));
+        assertFalse(index.subscribe("session-1", "field:field-001"));
+        index.subscribe("session-2", "field:field-002");
+
+        assertEquals(Set.of("session-1"), index.subscribers("field:field-001"));
+        assertEquals(Set.of(), index.subscribers("field:field-003"));
+    }
+
+    @Test
+    @DisplayName("Should reach a session subscribed to several topics once")
+    void testUnion() {
+        index.subscribe("session-1", "field:field-001");
+        index.subscribe("session-1", "user:user-001");
+        index.subscribe("session-2", "user:user-001");
+
+        assertEquals(Set.of("session-1", "session-2"),
+                index.subscribers(List.of("field:field-001", "user:user-001")));
+    }
+
+    @Test
+    @DisplayName("Should drop a topic once its last subscriber left")
+    void testUnsubscribe() {
+        index.subscribe("session-1", "field:field-001");
+        index.subscribe("session-2", "field:field-001");
+
+        assertTrue(index.unsubscribe("session-1", "field:field-001"));
+        assertFalse(index.unsubscribe("session-1", "field:field-001"));
+        assertEquals(1, index.topicCount());
+        index.unsubscribe("session-2", "field:field-001");
+        assertEquals(0, index.topicCount());
+        assertEquals(Set.of(), index.topicsOf("session-1"));
+    }
+
+    @Test
+    @DisplayName("Should remove a closed session from all its topics")
+    void testRemoveAll() {
+        index.subscribe("session-1", "field:field-001");
+        index.subscribe("session-1", "user:user-001");
+        index.subscribe("session-2", "user:user-001");
+
+        index.removeAll("session-1");
+
+        assertEquals(Set.of(), index.topicsOf("session-1"));
+        assertEquals(Set.of("session-2"), index.subscribers("user:user-001"));
+        assertEquals(1, index.topicCount());
+    }
+}
@@ -97,6 +97,12 @@ const ApiService = {
         return await API.get(`${API_CONFIG.ENDPOINTS.ALERTS_BY_USER}/${userId}`, params);
     },
 
+    // Count all unread alerts for user (the alerts list is only the latest page)
+    async getUnreadAlertCount(userId) {
+        const result = await API.get(`${API_CONFIG.ENDPOINTS.ALERTS_BY_USER}/${userId}/unread-count`);
+        return result.unreadCount;
+    },
+
     // Get alert by ID
     async getAlertById(alertId) {
         return await API.get(`${API_CONFIG.ENDPOINTS.ALERT_BY_ID}/${alertId}`);
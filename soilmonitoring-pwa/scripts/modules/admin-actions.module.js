@@ -16,6 +16,7 @@ export async function markAlertAsRead(alertId) {
         console.log('✅ Alert marked as read:', alertId);
 
         STATE.alerts = await window.ApiService.getAlertsByUser(CONFIG.userId);
+        STATE.unreadAlertCount = await window.ApiService.getUnreadAlertCount(CONFIG.userId);
 
         // Trigger update (will be called from main admin.js)
         return true;
@@ -50,9 +50,10 @@ export async function loadAllData() {
 
     console.log('🔔 Loading alerts...');
     STATE.alerts = await window.ApiService.getAlertsByUser(CONFIG.userId);
+    STATE.unreadAlertCount = await window.ApiService.getUnreadAlertCount(CONFIG.userId);
     console.log(`✅ Loaded ${STATE.alerts.length} alerts`);
     displayAlerts(STATE.alerts);
-    updateNotificationBadge(STATE.alerts);
+    updateNotificationBadge(STATE.alerts, STATE.unreadAlertCount);
 
     if (STATE.fields.length > 0 && !STATE.wsConnected) {
         STATE.selectedFieldId = STATE.fields[0].id;
@@ -95,8 +96,9 @@ export function setupAutoRefresh() {
             console.log('🔄 Auto-refresh (WS active): alerts & fields only');
 
             STATE.alerts = await window.ApiService.getAlertsByUser(CONFIG.userId);
+            STATE.unreadAlertCount = await window.ApiService.getUnreadAlertCount(CONFIG.userId);
             displayAlerts(STATE.alerts);
-            updateNotificationBadge(STATE.alerts);
+            updateNotificationBadge(STATE.alerts, STATE.unreadAlertCount);
 
             const newFields = await window.ApiService.getFieldsByUser(CONFIG.userId);
             if (newFields.length !== STATE.fields.length) {
@@ -64,10 +64,10 @@ export function displayAlerts(alerts) {
 
 /**
  * Update notification badge
+ * unreadCount comes from the server, as alerts only holds the latest page
  */
-export function updateNotificationBadge(alerts) {
+export function updateNotificationBadge(alerts, unreadCount) {
     const dot = document.getElementById('notificationDot');
-    const unreadCount = alerts.filter(a => !a.isRead).length;
 
     if (dot) {
         dot.style.display = unreadCount > 0 ? 'block' : 'none';
@@ -13,6 +13,7 @@ export let STATE = {
     currentUser: null,
     fields: [],
     alerts: [],
+    unreadAlertCount: 0,
     sensors: [],
     selectedFieldId: null,
     wsConnected: false
@@ -6,7 +6,7 @@
 /**
  * Update dashboard statistics
  */
-export async function updateStatistics(fields, alerts, predictions) {
+export async function updateStatistics(fields, unreadAlertCount, predictions) {
     // Update field count
     const fieldsEl = document.getElementById('totalFields');
     if (fieldsEl) fieldsEl.textContent = fields.length;
@@ -26,9 +26,8 @@ export async function updateStatistics(fields, alerts, predictions) {
     if (sensorsEl) sensorsEl.textContent = totalSensors;
 
     // Update alerts count
-    const unreadAlerts = alerts.filter(a => !a.isRead).length;
     const alertsEl = document.getElementById('totalAlerts');
-    if (alertsEl) alertsEl.textContent = unreadAlerts;
+    if (alertsEl) alertsEl.textContent = unreadAlertCount;
 
     // Update predictions count
     const predictionsEl = document.getElementById('totalPredictions');
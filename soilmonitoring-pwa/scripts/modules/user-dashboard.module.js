@@ -48,9 +48,10 @@ export async function loadAllData() {
 
     console.log('🔔 Loading alerts...');
     STATE.alerts = await window.ApiService.getAlertsByUser(CONFIG.userId);
+    STATE.unreadAlertCount = await window.ApiService.getUnreadAlertCount(CONFIG.userId);
     console.log(`✅ Loaded ${STATE.alerts.length} alerts`);
     displayAlerts(STATE.alerts);
-    updateNotificationBadge(STATE.alerts);
+    updateNotificationBadge(STATE.alerts, STATE.unreadAlertCount);
 
     if (STATE.fields.length > 0) {
         console.log('🤖 Loading predictions...');
@@ -62,7 +63,7 @@ export async function loadAllData() {
         await loadFieldsSensorData();
     }
 
-    await updateStatistics(STATE.fields, STATE.alerts, STATE.predictions);
+    await updateStatistics(STATE.fields, STATE.unreadAlertCount, STATE.predictions);
 }
 
 /**
@@ -108,9 +109,10 @@ export function setupAutoRefresh() {
             console.log('🔄 Auto-refresh (WS active): alerts only');
 
             STATE.alerts = await window.ApiService.getAlertsByUser(CONFIG.userId);
+            STATE.unreadAlertCount = await window.ApiService.getUnreadAlertCount(CONFIG.userId);
             displayAlerts(STATE.alerts);
-            updateNotificationBadge(STATE.alerts);
-            await updateStatistics(STATE.fields, STATE.alerts, STATE.predictions);
+            updateNotificationBadge(STATE.alerts, STATE.unreadAlertCount);
+            await updateStatistics(STATE.fields, STATE.unreadAlertCount, STATE.predictions);
         } else {
             console.log('🔄 Auto-refresh (WS inactive): full reload');
             await loadAllData();
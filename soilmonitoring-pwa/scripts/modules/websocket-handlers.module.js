@@ -15,6 +15,7 @@ import { wsManager } from './websocket.module.js';
  */
 export function initializeWebSocket() {
     console.log('🔌 Connecting to WebSocket...');
+    wsManager.subscribe({ fieldId: '*' });
     wsManager.connect();
     STATE.wsConnected = true;
 
@@ -51,8 +52,9 @@ export function initializeWebSocket() {
         console.log('🔔 New alert received:', alert);
 
         STATE.alerts.unshift(alert);
+        STATE.unreadAlertCount++;
         displayAlerts(STATE.alerts);
-        updateNotificationBadge(STATE.alerts);
+        updateNotificationBadge(STATE.alerts, STATE.unreadAlertCount);
         showAlertNotification(alert);
 
         if (CONFIG.notificationSound) {
@@ -6,6 +6,7 @@
 export const wsManager = {
     ws: null,
     listeners: {},
+    subscriptions: [],
     reconnectTimeout: null,
 
     connect() {
@@ -15,12 +16,17 @@ export const wsManager = {
 
         this.ws.onopen = () => {
             console.log('✅ WebSocket Connected');
+            // The server only sends what the client subscribed to
+            this.subscriptions.forEach(topic => this.send({ action: 'subscribe', ...topic }));
             this.trigger('connected');
         };
 
         this.ws.onmessage = (event) => {
             const data = JSON.parse(event.data);
-            if (data.type) {
+            if (data.type === 'ALERT_DIGEST') {
+                // Low and medium alerts come grouped per user
+                data.payload.alerts.forEach(alert => this.trigger('ALERT', alert));
+            } else if (data.type) {
                 this.trigger(data.type, data.payload);
             }
         };
@@ -38,6 +44,21 @@ export const wsManager = {
         };
     },
 
+    /**
+     * Subscribe to a field ({ fieldId }, '*' for all) or a user's alerts ({ userId }),
+     * again after every reconnection
+     */
+    subscribe(topic) {
+        this.subscriptions.push(topic);
+        this.send({ action: 'subscribe', ...topic });
+    },
+
+    send(message) {
+        if (this.ws && this.ws.readyState === WebSocket.OPEN) {
+            this.ws.send(JSON.stringify(message));
+        }
+    },
+
     on(eventType, callback) {
         if (!this.listeners[eventType]) {
             this.listeners[eventType] = [];
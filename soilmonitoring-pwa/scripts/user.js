@@ -49,6 +49,8 @@ import {
 
 function initializeWebSocket() {
     console.log('🔌 Connecting to WebSocket...');
+    wsManager.subscribe({ userId: CONFIG.userId });
+    STATE.fields.forEach(field => wsManager.subscribe({ fieldId: field.id }));
     wsManager.connect();
     STATE.wsConnected = true;
 
@@ -96,9 +98,10 @@ function initializeWebSocket() {
         if (!userField) return;
 
         STATE.alerts.unshift(alert);
+        STATE.unreadAlertCount++;
         displayAlerts(STATE.alerts);
-        updateNotificationBadge(STATE.alerts);
-        updateStatistics(STATE.fields, STATE.alerts, STATE.predictions);
+        updateNotificationBadge(STATE.alerts, STATE.unreadAlertCount);
+        updateStatistics(STATE.fields, STATE.unreadAlertCount, STATE.predictions);
 
         if (Notification.permission === 'granted') {
             const title = alert.severity === 'high' ? '🚨 Urgent Alert' :